@@ -1100,6 +1100,13 @@ LANGUAGE plpgsql;
 
 $aa$);
 
+-- Activity state and statistics of tasks stored outside fullObject.
+-- Existing tasks are migrated by midPoint when they are modified (or reindexed).
+call apply_change(52, $aa$
+    ALTER TABLE m_task ADD COLUMN fullActivityState BYTEA;
+    ALTER TABLE m_task ADD COLUMN fullStatistics BYTEA;
+$aa$);
+
 ---
 -- WRITE CHANGES ABOVE ^^
 -- IMPORTANT: update apply_change number at the end of postgres-new.sql
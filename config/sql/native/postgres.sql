@@ -1717,6 +1717,10 @@ CREATE TABLE m_task (
     -- Logically fullResult and resultStatus are related, managed by Task manager.
     fullResult BYTEA,
     resultStatus OperationResultStatusType,
+    -- Activity state (including buckets) and statistics (operationStats, progress, expectedTotal),
+    -- stored outside fullObject as they are updated often. See QTaskMapping for details.
+    fullActivityState BYTEA,
+    fullStatistics BYTEA,
     handlerUriId INTEGER REFERENCES m_uri(id),
     lastRunStartTimestamp TIMESTAMPTZ,
     lastRunFinishTimestamp TIMESTAMPTZ,
@@ -2644,4 +2648,4 @@ END $$;
 -- This is important to avoid applying any change more than once.
 -- Also update SqaleUtils.CURRENT_SCHEMA_CHANGE_NUMBER
 -- repo/repo-sqale/src/main/java/com/evolveum/midpoint/repo/sqale/SqaleUtils.java
-call apply_change(51, $$ SELECT 1 $$, true);
+call apply_change(52, $$ SELECT 1 $$, true);
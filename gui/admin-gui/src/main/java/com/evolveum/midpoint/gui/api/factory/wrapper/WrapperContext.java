@@ -191,6 +191,10 @@ public class WrapperContext {
         this.metadataItemProcessingSpec = metadataItemProcessingSpec;
     }
 
+    public MetadataItemProcessingSpec getMetadataItemProcessingSpec() {
+        return metadataItemProcessingSpec;
+    }
+
     public boolean isProcessMetadataFor(ItemWrapper<?,?> wrapper) throws SchemaException {
         if (metadataItemProcessingSpec == null) {
             return false;
@@ -268,6 +272,10 @@ public class WrapperContext {
         this.detailsPageTypeConfiguration = detailsPageTypeConfiguration;
     }
 
+    public List<? extends ContainerPanelConfigurationType> getDetailsPageTypeConfiguration() {
+        return detailsPageTypeConfiguration;
+    }
+
     public void setAttributeMappingType(MappingDirection attributeMappingType) {
         this.attributeMappingType = attributeMappingType;
     }
@@ -337,6 +345,8 @@ public class WrapperContext {
         ctx.setConfigureMappingType(configureMappingType);
         ctx.setShowedByWizard(isShowedByWizard);
         ctx.setSecurityConstraints(securityConstraints);
+        ctx.setDeprecatedItemAllowed(isDeprecatedItemAllowed);
+        ctx.setRefinedAssociationDefinitions(shadowAssociationDefinitions);
         return ctx;
     }
 
@@ -48,6 +48,14 @@ public interface PrismContainerValueWrapper<C extends Containerable> extends Pri
     @Deprecated
     List<? extends ItemWrapper<?, ?>> getItems();
 
+    /**
+     * Returns false if the item wrappers were not created yet; they are created on the first access to them.
+     * Such a value has no changes in its items.
+     */
+    default boolean isItemsInitialized() {
+        return true;
+    }
+
     <T extends Containerable> PrismContainerWrapper<T> findContainer(ItemPath path) throws SchemaException;
     <T extends Containerable> PrismContainerWrapper<T> findContainer(String identifier);
     <T extends Containerable> PrismContainerValueWrapper<T> findContainerValue(ItemPath path) throws SchemaException;
@@ -37,6 +37,12 @@ public interface GuiComponentRegistry extends Serializable {
 
     <C extends Containerable> PrismContainerWrapperFactory<C> findContainerWrapperFactory(PrismContainerDefinition<C> def);
 
+    /**
+     * Returns the registered wrapper factory of exactly the given class (not a subclass), or null if there is none.
+     * Used to get a factory back after its reference was lost (e.g. by serialization).
+     */
+    ItemWrapperFactory<?, ?, ?> getWrapperFactory(Class<?> factoryClass);
+
     <O extends ObjectType> PrismObjectWrapperFactory<O> getObjectWrapperFactory(PrismObjectDefinition<O> objectDef);
 
     void addToRegistry(ItemWrapperFactory factory);
@@ -32,6 +32,7 @@ import com.evolveum.midpoint.prism.query.ObjectOrdering;
 import com.evolveum.midpoint.prism.query.ObjectPaging;
 import com.evolveum.midpoint.prism.query.ObjectQuery;
 import com.evolveum.midpoint.prism.query.OrderDirection;
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
 import com.evolveum.midpoint.schema.*;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.task.api.TaskManager;
@@ -243,14 +244,22 @@ public abstract class BaseSortableDataProvider<T extends Serializable> extends S
 
     @Override
     public Iterator<? extends T> iterator(long first, long count) {
-        Iterator<? extends T> iterator = internalIterator(first, count);
-        return iterator;
+        // Lists may show slightly stale data, so they can be read from repository read replicas (if configured).
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(ReadReplicaRouting.CALLER_GUI)) {
+            return internalIterator(first, count);
+        }
     }
 
     public abstract Iterator<? extends T> internalIterator(long first, long count);
 
     @Override
     public long size() {
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(ReadReplicaRouting.CALLER_GUI)) {
+            return computeSize();
+        }
+    }
+
+    private long computeSize() {
         LOGGER.trace("begin::size()");
         if (!useCache) {
             int internalSize = internalSize();
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.gui.impl.factory.wrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.gui.api.factory.wrapper.ItemWrapperFactory;
+import com.evolveum.midpoint.gui.api.factory.wrapper.WrapperContext;
+import com.evolveum.midpoint.gui.api.prism.ItemStatus;
+import com.evolveum.midpoint.gui.impl.prism.wrapper.PrismContainerValueWrapperImpl;
+import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.task.api.Task;
+import com.evolveum.midpoint.util.exception.*;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.web.security.MidPointApplication;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.AuthorizationPhaseType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ContainerPanelConfigurationType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ValueMetadataType;
+
+/**
+ * Creates the item wrappers for a value of a large multivalued container when they are first needed,
+ * see {@link PrismContainerWrapperFactoryImpl#createValueWrapper}.
+ *
+ * The items are created by the factory that created the value wrapper, using the original {@link WrapperContext},
+ * so the changes of the context done in the meanwhile (e.g. switching to read-only mode) are taken into account.
+ * The initialization may happen in a later request, and the wrapper may be serialized in the meanwhile. Neither
+ * the factory nor the context is serializable; so, after the deserialization, the factory is obtained from
+ * the registry by its class, and the context is re-created (with a new task) from its serializable settings
+ * that were current when the value wrapper was created.
+ */
+class DeferredValueItemsInitializer implements PrismContainerValueWrapperImpl.ItemsInitializer {
+
+    private static final Trace LOGGER = TraceManager.getTrace(DeferredValueItemsInitializer.class);
+
+    private static final String OPERATION_CREATE_ITEM_WRAPPERS =
+            DeferredValueItemsInitializer.class.getName() + ".createItemWrappers";
+
+    /** The factory that created the value wrapper. Null after deserialization, see {@link #factoryClass}. */
+    private transient PrismContainerWrapperFactoryImpl<?> factory;
+
+    @NotNull private final Class<?> factoryClass;
+
+    /** The context in which the value wrapper was created. Null after deserialization, see the settings below. */
+    private transient WrapperContext context;
+
+    // Serializable settings of the context, used when the context itself is not available
+    private final AuthorizationPhaseType authzPhase;
+    private final boolean createIfEmpty;
+    private final Boolean readOnly;
+    private final boolean showEmpty;
+    private final ItemStatus objectStatus;
+    private final PrismObject<?> object;
+    private final boolean createOperational;
+    private final boolean deprecatedItemAllowed;
+    private final boolean showedByWizard;
+    private final List<? extends ContainerPanelConfigurationType> detailsPageTypeConfiguration;
+    private final boolean processMetadata;
+
+    DeferredValueItemsInitializer(@NotNull PrismContainerWrapperFactoryImpl<?> factory, @NotNull WrapperContext context) {
+        this.factory = factory;
+        this.factoryClass = factory.getClass();
+        this.context = context;
+        authzPhase = context.getAuthzPhase();
+        createIfEmpty = context.isCreateIfEmpty();
+        readOnly = context.getReadOnly();
+        showEmpty = context.isShowEmpty();
+        objectStatus = context.getObjectStatus();
+        object = context.getObject();
+        createOperational = context.isCreateOperational();
+        deprecatedItemAllowed = context.isDeprecatedItemAllowed();
+        showedByWizard = context.isShowedByWizard();
+        detailsPageTypeConfiguration = context.getDetailsPageTypeConfiguration() != null ?
+                new ArrayList<>(context.getDetailsPageTypeConfiguration()) : null;
+        processMetadata = context.getMetadataItemProcessingSpec() != null;
+    }
+
+    @Override
+    public void initializeItems(PrismContainerValueWrapperImpl<?> valueWrapper) throws SchemaException {
+        Task task = MidPointApplication.get().createSimpleTask(OPERATION_CREATE_ITEM_WRAPPERS);
+        OperationResult result = new OperationResult(OPERATION_CREATE_ITEM_WRAPPERS);
+        try {
+            //noinspection unchecked,rawtypes
+            ((PrismContainerWrapperFactoryImpl) getFactory()).createValueItems(
+                    valueWrapper.getParent(), valueWrapper.getNewValue(), valueWrapper, createContext(task, result));
+        } catch (SchemaException | RuntimeException e) {
+            result.recordFatalError(e);
+            throw e;
+        } finally {
+            result.computeStatusIfUnknown();
+        }
+        // The factories record some problems in the result instead of throwing an exception.
+        if (result.isFatalError()) {
+            throw new SystemException("Couldn't create item wrappers: " + result.getMessage());
+        } else if (!result.isSuccess()) {
+            LOGGER.warn("Item wrappers for {} were created with a problem: {}: {}",
+                    valueWrapper, result.getStatus(), result.getMessage());
+        }
+    }
+
+    private @NotNull PrismContainerWrapperFactoryImpl<?> getFactory() throws SchemaException {
+        if (factory == null) {
+            ItemWrapperFactory<?, ?, ?> registered =
+                    MidPointApplication.get().getGuiComponentRegistry().getWrapperFactory(factoryClass);
+            if (!(registered instanceof PrismContainerWrapperFactoryImpl<?> containerFactory)) {
+                throw new SchemaException("Container wrapper factory " + factoryClass.getName() + " is not registered");
+            }
+            factory = containerFactory;
+        }
+        return factory;
+    }
+
+    private WrapperContext createContext(Task task, OperationResult result) {
+        if (context != null) {
+            WrapperContext current = context.clone();
+            current.setTask(task);
+            current.setResult(result);
+            return current;
+        }
+        WrapperContext restored = new WrapperContext(task, result);
+        restored.setAuthzPhase(authzPhase);
+        restored.setCreateIfEmpty(createIfEmpty);
+        restored.setReadOnly(readOnly);
+        restored.setShowEmpty(showEmpty);
+        restored.setObjectStatus(objectStatus);
+        restored.setObject(object);
+        restored.setCreateOperational(createOperational);
+        restored.setDeprecatedItemAllowed(deprecatedItemAllowed);
+        restored.setShowedByWizard(showedByWizard);
+        restored.setDetailsPageTypeConfiguration(detailsPageTypeConfiguration);
+        if (processMetadata) {
+            setupMetadataProcessing(restored);
+        }
+        return restored;
+    }
+
+    /** The same as in {@link PrismObjectWrapperFactoryImpl}. */
+    private void setupMetadataProcessing(WrapperContext context) {
+        try {
+            //noinspection unchecked
+            context.setMetadataItemProcessingSpec(
+                    MidPointApplication.get().getModelInteractionService().getMetadataItemProcessingSpec(
+                            ValueMetadataType.F_PROVENANCE, (PrismObject<ObjectType>) object,
+                            context.getTask(), context.getResult()));
+        } catch (SchemaException | SecurityViolationException | CommunicationException | ExpressionEvaluationException
+                | ObjectNotFoundException | ConfigurationException e) {
+            LOGGER.error("Cannot get metadata processing items, reason: " + e.getMessage(), e);
+        }
+    }
+
+    /** Returns true if the item wrappers can be created later, i.e. if all the relevant context settings are kept here. */
+    static boolean canDefer(WrapperContext context) {
+        return !context.isMetadata()
+                && !context.isForceCreateVirtualContainers()
+                && context.getVirtualItemSpecification() == null
+                && context.getSecurityConstraints() == null
+                && context.getResource() == null
+                && (context.getMetadataItemProcessingSpec() == null || context.getObject() != null);
+    }
+
+    @Override
+    public String toString() {
+        return "DeferredValueItemsInitializer{factory=" + factoryClass.getSimpleName()
+                + ", contextAvailable=" + (context != null) + ", objectStatus=" + objectStatus + ", object=" + object + "}";
+    }
+}
@@ -51,6 +51,12 @@ public class PrismContainerWrapperFactoryImpl<C extends Containerable> extends I
     private static final QName VIRTUAL_CONTAINER_COMPLEX_TYPE = new QName("VirtualContainerType");
     public static final QName VIRTUAL_CONTAINER = new QName("virtualContainer");
 
+    /**
+     * Multivalued containers with more values than this have the item wrappers for their existing values created
+     * only when needed (e.g. when the value is displayed), see {@link DeferredValueItemsInitializer}.
+     */
+    private static final int DEFERRED_VALUE_ITEMS_THRESHOLD = 50;
+
     @Override
     public boolean match(ItemDefinition<?> def) {
         return def instanceof PrismContainerDefinition;
@@ -74,6 +80,38 @@ public class PrismContainerWrapperFactoryImpl<C extends Containerable> extends I
         containerValueWrapper.setExpanded(shouldBeExpanded(parent, value, context));
         containerValueWrapper.setShowEmpty(context.isShowEmpty());
 
+        if (containerValueWrapper instanceof PrismContainerValueWrapperImpl<C> valueWrapperImpl
+                && canDeferValueItems(parent, status, context)) {
+            valueWrapperImpl.setItemsInitializer(new DeferredValueItemsInitializer(this, context));
+        } else {
+            createValueItems(parent, value, containerValueWrapper, context);
+        }
+
+        containerValueWrapper.setVirtualContainerItems(determineVirtualContainerItems(parent, context));
+        if (parent != null && context.getVirtualItemSpecification() != null) {
+            parent.setVirtual(true);
+            parent.setShowInVirtualContainer(true);
+        }
+
+        return containerValueWrapper;
+    }
+
+    /**
+     * Existing values of large multivalued containers (e.g. thousands of assignments or inducements) are typically
+     * displayed in paged tables, so there is no need to create the wrappers for all their items upfront.
+     */
+    private boolean canDeferValueItems(PrismContainerWrapper<C> parent, ValueStatus status, WrapperContext context) {
+        return parent != null
+                && parent.isMultiValue()
+                && status == ValueStatus.NOT_CHANGED
+                && parent.getItem().size() > DEFERRED_VALUE_ITEMS_THRESHOLD
+                && context.findVirtualContainerConfiguration(parent.getPath()) == null
+                && DeferredValueItemsInitializer.canDefer(context);
+    }
+
+    /** Creates the item wrappers for the container value. */
+    void createValueItems(PrismContainerWrapper<C> parent, PrismContainerValue<C> value,
+            PrismContainerValueWrapper<C> containerValueWrapper, WrapperContext context) throws SchemaException {
         List<ItemWrapper<?, ?>> children = createChildren(parent, value, containerValueWrapper, context);
 
         if (context.isForceCreateVirtualContainers() && (parent == null || parent.getParent() == null)) {
@@ -97,14 +135,6 @@ public class PrismContainerWrapperFactoryImpl<C extends Containerable> extends I
         } else {
             containerValueWrapper.addItems(children);
         }
-
-        containerValueWrapper.setVirtualContainerItems(determineVirtualContainerItems(parent, context));
-        if (parent != null && context.getVirtualItemSpecification() != null) {
-            parent.setVirtual(true);
-            parent.setShowInVirtualContainer(true);
-        }
-
-        return containerValueWrapper;
     }
 
     private List<VirtualContainerItemSpecificationType> determineVirtualContainerItems(PrismContainerWrapper<C> parent, WrapperContext context) {
@@ -28,6 +28,7 @@ import com.evolveum.midpoint.util.DebugUtil;
 import com.evolveum.midpoint.util.QNameUtil;
 import com.evolveum.midpoint.util.exception.CommonException;
 import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.util.exception.SystemException;
 import com.evolveum.midpoint.util.logging.LoggingUtils;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
@@ -69,6 +70,11 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
     private List<PrismContainerWrapper<? extends Containerable>> containers = new ArrayList<>();
     private VirtualContainers virtualContainers;
 
+    /**
+     * If not null, the item wrappers were not created yet. They will be created by this initializer on the first access.
+     */
+    private ItemsInitializer itemsInitializer;
+
     public PrismContainerValueWrapperImpl(PrismContainerWrapper<C> parent, PrismContainerValue<C> pcv, ValueStatus status) {
         super(parent, pcv, status);
     }
@@ -76,7 +82,7 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
     @Override
     public PrismContainerValue<C> getValueToAdd() throws SchemaException {
         Collection<ItemDelta> modifications = new ArrayList<>();
-        for (ItemWrapper<?, ?> itemWrapper : items) {
+        for (ItemWrapper<?, ?> itemWrapper : getItems()) {
             Collection<ItemDelta<?, ?>> subDelta = itemWrapper.getDelta();
 
             if (subDelta != null && !subDelta.isEmpty()) {
@@ -166,9 +172,40 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
 
     @Override
     public List<ItemWrapper<?, ?>> getItems() {
+        initializeItemsIfNeeded();
         return items;
     }
 
+    /**
+     * Defers the creation of the item wrappers until they are needed, e.g. when the value is displayed in a table
+     * or in a details panel. Used for values of large multivalued containers, see `PrismContainerWrapperFactoryImpl`.
+     */
+    public void setItemsInitializer(ItemsInitializer itemsInitializer) {
+        this.itemsInitializer = itemsInitializer;
+    }
+
+    @Override
+    public boolean isItemsInitialized() {
+        return itemsInitializer == null;
+    }
+
+    private void initializeItemsIfNeeded() {
+        ItemsInitializer initializer = itemsInitializer;
+        if (initializer == null) {
+            return;
+        }
+        itemsInitializer = null;
+        try {
+            initializer.initializeItems(this);
+        } catch (SchemaException | RuntimeException e) {
+            // Partially created items are dropped; the next access tries again (and reports the error again).
+            clearItems();
+            containers.clear();
+            itemsInitializer = initializer;
+            throw new SystemException("Couldn't create item wrappers for " + this + ": " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean isShowMetadata() {
         return showMetadata;
@@ -238,6 +275,7 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
 
     @Override
     public List<PrismContainerWrapper<? extends Containerable>> getContainers() {
+        initializeItemsIfNeeded();
         if (!containers.isEmpty()) {
             sortContainers(containers);
             return containers;
@@ -292,6 +330,7 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
 
     @Override
     public List<ItemWrapper<?, ?>> getNonContainers() {
+        initializeItemsIfNeeded();
         if (!nonContainers.isEmpty()) {
             sortContainers(nonContainers);
             return nonContainers;
@@ -579,7 +618,7 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
             return null;
         }
         IW matching = null;
-        for (ItemWrapper<?, ?> item : items) {
+        for (ItemWrapper<?, ?> item : getItems()) {
             if (QNameUtil.match(subName, item.getItemName())) {
                 if (matching != null) {
                     String containerName = getParent() != null ? DebugUtil.formatElementName(getParent().getItemName()) : "";
@@ -626,7 +665,10 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
     @Override
     public String debugDump(int indent) {
         StringBuilder sb = new StringBuilder();
-        if (items.isEmpty()) {
+        if (!isItemsInitialized()) {
+            DebugUtil.indentDebugDump(sb, indent);
+            sb.append("ITEMS NOT CREATED YET");
+        } else if (items.isEmpty()) {
             DebugUtil.indentDebugDump(sb, indent);
             sb.append("NO ITEMS");
         } else {
@@ -729,6 +771,7 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
 
     @Override
     public void clearItems() {
+        itemsInitializer = null;
         items.clear();
         nonContainers.clear();
         virtualContainers = null;
@@ -736,6 +779,7 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
 
     @Override
     public void addItem(ItemWrapper<?, ?> newItem) {
+        initializeItemsIfNeeded();
         items.add(newItem);
         if (newItem instanceof PrismContainerWrapper) {
 
@@ -761,7 +805,14 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
 
     @Override
     public int size() {
-        return items.size();
+        return getItems().size();
+    }
+
+    /** Creates the item wrappers for the value, see {@link #setItemsInitializer(ItemsInitializer)}. */
+    @FunctionalInterface
+    public interface ItemsInitializer extends Serializable {
+
+        void initializeItems(PrismContainerValueWrapperImpl<?> valueWrapper) throws SchemaException;
     }
 
     private class VirtualContainers implements Serializable {
@@ -795,6 +846,9 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
     @Override
     public Collection<ItemDelta<?, ?>> getDeltas() throws SchemaException {
         Collection<ItemDelta<?, ?>> deltas = new ArrayList<>();
+        if (!isItemsInitialized()) {
+            return deltas; // no item could be changed
+        }
         for (ItemWrapper<?, ?> itemWrapper : getItems()) {
             Collection<ItemDelta<?, ?>> delta = itemWrapper.getDelta();
             if (delta == null || delta.isEmpty()) {
@@ -809,6 +863,9 @@ public class PrismContainerValueWrapperImpl<C extends Containerable>
     public Collection<ExecutedDeltaPostProcessor> getPreconditionDeltas(
             ModelServiceLocator serviceLocator, OperationResult result) throws CommonException {
         Collection<ExecutedDeltaPostProcessor> processors = new ArrayList<>();
+        if (!isItemsInitialized()) {
+            return processors;
+        }
         for (ItemWrapper<?, ?> itemWrapper : getItems()) {
             Collection<ExecutedDeltaPostProcessor> processor = itemWrapper.getPreconditionDeltas(serviceLocator, result);
             if (processor == null || processor.isEmpty()) {
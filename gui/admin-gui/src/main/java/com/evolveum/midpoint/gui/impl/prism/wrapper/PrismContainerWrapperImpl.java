@@ -297,6 +297,10 @@ public class PrismContainerWrapperImpl<C extends Containerable>
                     LOGGER.trace("Computed delta: \n {}", delta);
                     break;
                 case NOT_CHANGED:
+                    if (!pVal.isItemsInitialized()) {
+                        LOGGER.trace("Item wrappers of value were not created, so there are no modifications.");
+                        break;
+                    }
                     for (ItemWrapper iw : pVal.getItems()) {
                         LOGGER.trace("Start computing modifications for {}", iw);
                         Collection subDeltas = iw.getDelta();
@@ -14,6 +14,7 @@ import com.evolveum.midpoint.gui.impl.duplication.ContainerableDuplicateResolver
 
 import org.jetbrains.annotations.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
 import com.evolveum.midpoint.gui.api.factory.GuiComponentFactory;
 import com.evolveum.midpoint.gui.api.factory.wrapper.ItemWrapperFactory;
@@ -147,6 +148,14 @@ public class GuiComponentRegistryImpl implements GuiComponentRegistry {
         return (PrismContainerWrapperFactory) factory;
     }
 
+    @Override
+    public ItemWrapperFactory<?, ?, ?> getWrapperFactory(Class<?> factoryClass) {
+        return wrapperFactories.stream()
+                .filter(f -> ClassUtils.getUserClass(f) == factoryClass)
+                .findFirst()
+                .orElse(null);
+    }
+
     public <O extends ObjectType> PrismObjectWrapperFactory<O> getObjectWrapperFactory(PrismObjectDefinition<O> objectDef) {
         return (PrismObjectWrapperFactory) findWrapperFactory(objectDef, null);
     }
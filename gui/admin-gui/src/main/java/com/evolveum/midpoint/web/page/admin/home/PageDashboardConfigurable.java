@@ -173,6 +173,7 @@ public class PageDashboardConfigurable extends PageDashboard {
             @Override
             protected List<DashboardWidgetType> load() {
                 List<DashboardWidgetType> widgets = dashboardModel.getObject().getWidget();
+                prefetchWidgetData(widgets);
                 return widgets.stream()
                         .sorted(
                                 Comparator.comparing(
@@ -196,6 +197,19 @@ public class PageDashboardConfigurable extends PageDashboard {
         });
     }
 
+    /** Counts the objects for all collection widgets at once; individual widgets then use the results. */
+    private void prefetchWidgetData(List<DashboardWidgetType> widgets) {
+        Task task = createSimpleTask("Prefetch DashboardWidget data");
+        OperationResult result = task.getResult();
+        try {
+            widgets.forEach(widget -> getPrismContext().adopt(widget));
+            getDashboardService().prefetchWidgetData(widgets, true, task, result);
+        } catch (Exception e) {
+            // Widgets will compute their data individually, reporting any errors.
+            LOGGER.debug("Couldn't prefetch dashboard widget data: {}", e.getMessage(), e);
+        }
+    }
+
     private Component populateMetricWidget(IModel<DashboardWidgetType> model) {
         return new MetricWidgetPanel(PageDashboardConfigurable.ID_WIDGET, model);
     }
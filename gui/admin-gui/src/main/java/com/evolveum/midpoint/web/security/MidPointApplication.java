@@ -81,6 +81,7 @@ import com.evolveum.midpoint.common.Clock;
 import com.evolveum.midpoint.common.LocalizationService;
 import com.evolveum.midpoint.common.configuration.api.MidpointConfiguration;
 import com.evolveum.midpoint.gui.api.page.PageAdminLTE;
+import com.evolveum.midpoint.gui.api.registry.GuiComponentRegistry;
 import com.evolveum.midpoint.gui.api.util.MidPointApplicationConfiguration;
 import com.evolveum.midpoint.gui.api.util.WebComponentUtil;
 import com.evolveum.midpoint.gui.api.util.WebModelServiceUtils;
@@ -156,6 +157,7 @@ public class MidPointApplication extends AuthenticatedWebApplication implements
     @Autowired private MidpointConfiguration configuration;
     @Autowired private Protector protector;
     @Autowired private MatchingRuleRegistry matchingRuleRegistry;
+    @Autowired private GuiComponentRegistry guiComponentRegistry;
     @Autowired private SecurityEnforcer securityEnforcer;
     @Autowired private SecurityContextManager securityContextManager;
     @Autowired private SystemObjectCache systemObjectCache;
@@ -175,6 +177,11 @@ public class MidPointApplication extends AuthenticatedWebApplication implements
      * If set to false, we will not clean up disk page store files during application initialization.
      */
     @Value("${wicket.disk-page-store.cleanupOnStart:true}") private boolean diskPageStoreCleanupOnStart;
+    /**
+     * If set to true, the pages are serialized by (experimental) {@link MidPointPageSerializer}
+     * instead of the standard Wicket serializer.
+     */
+    @Value("${wicket.compact-serialization.enabled:false}") private boolean compactSerializationEnabled;
 
     private WebApplicationConfiguration webApplicationConfiguration;
 
@@ -258,6 +265,9 @@ public class MidPointApplication extends AuthenticatedWebApplication implements
             mount(new MountedMapper("/liveSession", LiveSessionsPage.class, new PageParametersEncoder()));
             mount(new MountedMapper("/pageStore", PageStorePage.class, new PageParametersEncoder()));
         }
+        if (compactSerializationEnabled && !RuntimeConfigurationType.DEVELOPMENT.equals(getConfigurationType())) {
+            getFrameworkSettings().setSerializer(new MidPointPageSerializer(getApplicationKey()));
+        }
 
         //exception handling an error pages
         ApplicationSettings appSettings = getApplicationSettings();
@@ -558,6 +568,10 @@ public class MidPointApplication extends AuthenticatedWebApplication implements
         return matchingRuleRegistry;
     }
 
+    public GuiComponentRegistry getGuiComponentRegistry() {
+        return guiComponentRegistry;
+    }
+
     public SystemConfigurationType getSystemConfigurationIfAvailable() {
         try {
             PrismObject<SystemConfigurationType> config = systemObjectCache.getSystemConfiguration(new OperationResult("dummy"));
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.web.security;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.core.util.objects.checker.CheckingObjectOutputStream;
+import org.apache.wicket.core.util.objects.checker.ObjectSerializationChecker;
+import org.apache.wicket.serialize.java.JavaSerializer;
+
+import com.evolveum.midpoint.prism.Definition;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * Serializer for the Wicket page store that avoids writing the schema definitions with each page and compresses the result.
+ *
+ * Pages hold prism objects, containers and their wrappers, which in turn point to (large graphs of) item definitions.
+ * Definitions from the schema registry are replaced by {@link SchemaDefinitionIndex.Reference}s, which are resolved
+ * back to the registry definitions on deserialization. The rest is written using the standard Java serialization,
+ * so the identity of objects shared among the page components (e.g. values held by the wrappers) is kept.
+ *
+ * As in {@link JavaSerializer}, when an object cannot be serialized, the object graph is checked again
+ * by {@link ObjectSerializationChecker}, so the error points to the field that holds the non-serializable object.
+ *
+ * Keeps simple statistics about the serialized pages (count, total and maximal size); they are available via the getters,
+ * and are logged on DEBUG level after each {@link #STATISTICS_LOG_INTERVAL} pages.
+ *
+ * Experimental; it is used only if `wicket.compact-serialization.enabled` is set to `true`.
+ */
+public class MidPointPageSerializer extends JavaSerializer {
+
+    private static final Trace LOGGER = TraceManager.getTrace(MidPointPageSerializer.class);
+
+    private static final int COMPRESS_BUFFER_SIZE = 4 * 1024;
+
+    /** How often (in pages) the statistics are logged. */
+    private static final int STATISTICS_LOG_INTERVAL = 1000;
+
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAccumulator maxBytes = new LongAccumulator(Long::max, 0);
+    private final AtomicLong pagesLogged = new AtomicLong();
+
+    public MidPointPageSerializer(String applicationKey) {
+        super(applicationKey);
+    }
+
+    @Override
+    public byte[] serialize(Object object) {
+        byte[] data = super.serialize(object);
+        if (data != null) {
+            recordSerialized(object, data.length);
+        }
+        return data;
+    }
+
+    private void recordSerialized(Object object, int size) {
+        pages.increment();
+        bytes.add(size);
+        maxBytes.accumulate(size);
+        LOGGER.trace("Serialized {} into {} bytes", object, size);
+
+        long count = pages.sum();
+        long logged = pagesLogged.get();
+        if (count - logged >= STATISTICS_LOG_INTERVAL && pagesLogged.compareAndSet(logged, count)) {
+            LOGGER.debug("Page serialization statistics: {} pages, {} bytes per page on average, {} bytes max",
+                    count, getAverageBytesPerPage(), getMaxBytesPerPage());
+        }
+    }
+
+    /** Number of pages (or other objects) successfully serialized. */
+    public long getSerializedPages() {
+        return pages.sum();
+    }
+
+    /** Total size of the serialized data, in bytes. */
+    public long getSerializedBytes() {
+        return bytes.sum();
+    }
+
+    public long getAverageBytesPerPage() {
+        long count = pages.sum();
+        return count > 0 ? bytes.sum() / count : 0;
+    }
+
+    public long getMaxBytesPerPage() {
+        return maxBytes.get();
+    }
+
+    @Override
+    protected ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        OutputStream deflaterStream = new DeflaterOutputStream(out, deflater, COMPRESS_BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end(); // not done by the stream itself, as the deflater was provided by us
+                }
+            }
+        };
+        return new SerializationCheckerObjectOutputStream(new DefinitionReplacingObjectOutputStream(deflaterStream));
+    }
+
+    @Override
+    protected ObjectInputStream newObjectInputStream(InputStream in) throws IOException {
+        return super.newObjectInputStream(new InflaterInputStream(in));
+    }
+
+    /**
+     * Writes the objects using the delegate stream. If that fails, collects the information about the object
+     * that cannot be serialized; the same as the (private) stream that {@link JavaSerializer} uses.
+     */
+    private static class SerializationCheckerObjectOutputStream extends ObjectOutputStream {
+
+        private final ObjectOutputStream delegate;
+
+        SerializationCheckerObjectOutputStream(ObjectOutputStream delegate) throws IOException {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected void writeObjectOverride(Object obj) throws IOException {
+            try {
+                delegate.writeObject(obj);
+            } catch (Exception e) {
+                if (CheckingObjectOutputStream.isAvailable()) {
+                    try {
+                        // The output is not needed, we only want the checker to find the culprit.
+                        new CheckingObjectOutputStream(OutputStream.nullOutputStream(), new ObjectSerializationChecker(e))
+                                .writeObject(obj);
+                    } catch (CheckingObjectOutputStream.ObjectCheckException x) {
+                        throw x;
+                    } catch (Exception x) {
+                        x.initCause(e);
+                        throw new WicketRuntimeException(
+                                "A problem occurred while trying to collect debug information about not serializable object", x);
+                    }
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static class DefinitionReplacingObjectOutputStream extends ObjectOutputStream {
+
+        private final SchemaDefinitionIndex index = SchemaDefinitionIndex.get();
+
+        DefinitionReplacingObjectOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj instanceof Definition definition) {
+                SchemaDefinitionIndex.Reference reference = index.getReference(definition);
+                if (reference != null) {
+                    return reference;
+                }
+            }
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.web.security;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.xml.namespace.QName;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.evolveum.midpoint.prism.*;
+import com.evolveum.midpoint.prism.schema.PrismSchema;
+import com.evolveum.midpoint.prism.schema.SchemaDescription;
+import com.evolveum.midpoint.prism.schema.SchemaRegistry;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.UserType;
+
+/**
+ * Maps the definitions from the schema registry to serializable {@link Reference}s, so that they do not have to be serialized
+ * (along with everything they point to) with each page. See {@link MidPointPageSerializer}.
+ *
+ * Only the definitions that are present in the registry are indexed: complex type definitions, definitions of their items,
+ * and object definitions. Definitions created or refined at run time (e.g. resource object definitions) are serialized
+ * as usual.
+ *
+ * The index is rebuilt when the schema registry is reloaded (e.g. when a schema extension is changed).
+ */
+class SchemaDefinitionIndex {
+
+    private static final Trace LOGGER = TraceManager.getTrace(SchemaDefinitionIndex.class);
+
+    private static volatile SchemaDefinitionIndex instance;
+
+    /** The definitions are compared by identity: only the very instances from the registry can be replaced by references. */
+    @NotNull private final Map<Definition, Reference> references = new IdentityHashMap<>();
+
+    /** Used to detect the reload of the schema registry, which creates new definitions. */
+    private final ComplexTypeDefinition sentinel;
+
+    private SchemaDefinitionIndex(@NotNull SchemaRegistry registry) {
+        sentinel = registry.findComplexTypeDefinitionByType(UserType.COMPLEX_TYPE);
+        for (SchemaDescription description : registry.getSchemaDescriptions()) {
+            PrismSchema schema = description.getNamespace() != null ?
+                    registry.findSchemaByNamespace(description.getNamespace()) : null;
+            if (schema != null) {
+                for (ComplexTypeDefinition ctd : schema.getComplexTypeDefinitions()) {
+                    indexComplexTypeDefinition(registry, ctd);
+                }
+            }
+        }
+        LOGGER.debug("Schema definition index built with {} entries", references.size());
+    }
+
+    private void indexComplexTypeDefinition(SchemaRegistry registry, ComplexTypeDefinition ctd) {
+        QName typeName = ctd.getTypeName();
+        if (registry.findComplexTypeDefinitionByType(typeName) != ctd) {
+            return; // not the definition we would get when resolving the reference
+        }
+        references.put(ctd, new Reference(typeName, null, false));
+        for (ItemDefinition<?> itemDefinition : ctd.getDefinitions()) {
+            references.putIfAbsent(itemDefinition, new Reference(typeName, itemDefinition.getItemName(), false));
+        }
+        Class<?> compileTimeClass = ctd.getCompileTimeClass();
+        if (compileTimeClass != null && ObjectType.class.isAssignableFrom(compileTimeClass)) {
+            PrismObjectDefinition<?> objectDefinition = registry.findObjectDefinitionByType(typeName);
+            if (objectDefinition != null) {
+                references.put(objectDefinition, new Reference(typeName, null, true));
+            }
+        }
+    }
+
+    static @NotNull SchemaDefinitionIndex get() {
+        SchemaRegistry registry = PrismContext.get().getSchemaRegistry();
+        SchemaDefinitionIndex current = instance;
+        if (current == null || current.sentinel != registry.findComplexTypeDefinitionByType(UserType.COMPLEX_TYPE)) {
+            synchronized (SchemaDefinitionIndex.class) {
+                current = instance;
+                if (current == null
+                        || current.sentinel != registry.findComplexTypeDefinitionByType(UserType.COMPLEX_TYPE)) {
+                    current = new SchemaDefinitionIndex(registry);
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Returns the reference to be serialized instead of the definition, or `null` if the definition is not indexed. */
+    @Nullable Reference getReference(@NotNull Definition definition) {
+        return references.get(definition);
+    }
+
+    /**
+     * A serializable pointer to a definition in the schema registry. It is resolved back to the definition on deserialization.
+     *
+     * @param typeName Complex type (or object type) name.
+     * @param itemName Name of the item in the complex type; `null` if the complex type (or object) definition itself is referenced.
+     * @param object Whether the object definition (with the given type) is referenced.
+     */
+    record Reference(@NotNull QName typeName, @Nullable QName itemName, boolean object) implements Serializable {
+
+        @Serial private static final long serialVersionUID = 1L;
+
+        @Serial
+        private Object readResolve() throws ObjectStreamException {
+            SchemaRegistry registry = PrismContext.get().getSchemaRegistry();
+            Definition resolved;
+            if (object) {
+                resolved = registry.findObjectDefinitionByType(typeName);
+            } else {
+                ComplexTypeDefinition ctd = registry.findComplexTypeDefinitionByType(typeName);
+                if (ctd == null || itemName == null) {
+                    resolved = ctd;
+                } else {
+                    resolved = ctd.findLocalItemDefinition(itemName);
+                }
+            }
+            if (resolved == null) {
+                // E.g. the schema extension was changed in the meanwhile; the page cannot be used anymore.
+                throw new InvalidObjectException("Definition for " + this + " no longer exists in the schema registry");
+            }
+            return resolved;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import com.evolveum.midpoint.gui.impl.prism.wrapper.PrismContainerWrapperImpl;
 import com.evolveum.midpoint.gui.impl.prism.wrapper.PrismReferenceValueWrapperImpl;
 import com.evolveum.midpoint.test.util.TestUtil;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
@@ -875,6 +876,77 @@ public class TestIntegrationObjectWrapperFactory extends AbstractInitializedGuiI
     /**
      * MID-3126
      */
+    /**
+     * Item wrappers of large multivalued container values are created when accessed, using the current wrapper context
+     * (which may have been changed since the value wrapper was created).
+     */
+    @Test
+    public void test300DeferredValueItemsUseCurrentContext() throws Exception {
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        given("user with many assignments, wrapped in a context that is not read-only");
+        PrismObject<UserType> user = addUserWithManyAssignments(task, result);
+        WrapperContext context = new WrapperContext(task, result);
+        PrismObjectWrapper<UserType> objectWrapper =
+                getServiceLocator(task).<UserType>findObjectWrapperFactory(user.getDefinition())
+                        .createObjectWrapper(user, ItemStatus.NOT_CHANGED, context);
+        PrismContainerValueWrapper<AssignmentType> assignmentValue =
+                objectWrapper.<AssignmentType>findContainer(UserType.F_ASSIGNMENT).getValues().get(0);
+        assertFalse("Item wrappers were created upfront", assignmentValue.isItemsInitialized());
+
+        when("context is switched to read-only, and the assignment items are accessed");
+        context.setReadOnly(true);
+        PrismPropertyWrapper<String> description = assignmentValue.findProperty(AssignmentType.F_DESCRIPTION);
+
+        then("the item wrappers are created according to the current context");
+        assertTrue("Item wrappers were not created", assignmentValue.isItemsInitialized());
+        assertNotNull("No description wrapper", description);
+        assertTrue("Description is not read-only", description.isReadOnly());
+        assertEquals("Wrong description", "assignment-0", description.getValue().getRealValue());
+    }
+
+    /**
+     * After the wrapper is serialized (e.g. with the page), neither the wrapper context nor the factory is available.
+     * The item wrappers are created using the kept context settings and the registered factory.
+     */
+    @Test
+    public void test310DeferredValueItemsAfterSerialization() throws Exception {
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        given("user with many assignments, wrapped in a read-only context");
+        PrismObject<UserType> user = addUserWithManyAssignments(task, result);
+        WrapperContext context = new WrapperContext(task, result);
+        context.setReadOnly(true);
+        PrismObjectWrapper<UserType> objectWrapper =
+                getServiceLocator(task).<UserType>findObjectWrapperFactory(user.getDefinition())
+                        .createObjectWrapper(user, ItemStatus.NOT_CHANGED, context);
+
+        when("the wrapper is serialized and deserialized, and the assignment items are accessed");
+        PrismObjectWrapper<UserType> deserialized = SerializationUtils.roundtrip(objectWrapper);
+        PrismContainerValueWrapper<AssignmentType> assignmentValue =
+                deserialized.<AssignmentType>findContainer(UserType.F_ASSIGNMENT).getValues().get(1);
+        assertFalse("Item wrappers were created before serialization", assignmentValue.isItemsInitialized());
+        PrismPropertyWrapper<String> description = assignmentValue.findProperty(AssignmentType.F_DESCRIPTION);
+
+        then("the item wrappers are created according to the original context");
+        assertNotNull("No description wrapper", description);
+        assertTrue("Description is not read-only", description.isReadOnly());
+        assertEquals("Wrong description", "assignment-1", description.getValue().getRealValue());
+
+        and("the delta is still empty");
+        assertTrue("Non-empty delta", deserialized.getObjectDelta().isEmpty());
+    }
+
+    private PrismObject<UserType> addUserWithManyAssignments(Task task, OperationResult result) throws CommonException {
+        UserType user = new UserType().name("many-assignments-" + getTestNameShort());
+        for (int i = 0; i < 60; i++) {
+            user.getAssignment().add(new AssignmentType().description("assignment-" + i));
+        }
+        return getUser(addObject(user.asPrismObject(), task, result));
+    }
+
     @Test
     public void test800EditSchemaJackPropReadAllModifySomeUser() throws Exception {
         given();
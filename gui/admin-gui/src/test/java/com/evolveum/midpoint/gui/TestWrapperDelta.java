@@ -458,6 +458,60 @@ public class TestWrapperDelta extends AbstractInitializedGuiIntegrationTest {
 
     }
 
+    /**
+     * Values of large multivalued containers have their item wrappers created only when accessed.
+     * Only the accessed value should contribute to the delta.
+     */
+    @Test
+    public void test400ModifyOneOfManyAssignments() throws Exception {
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        given("user with more assignments than get their item wrappers created upfront");
+        UserType user = new UserType().name("many-assignments");
+        for (int i = 0; i < 60; i++) {
+            user.getAssignment().add(new AssignmentType().description("assignment-" + i));
+        }
+        String userOid = addObject(user.asPrismObject(), task, result);
+
+        WrapperContext ctx = new WrapperContext(task, result);
+        PrismObjectWrapper<UserType> objectWrapper = createObjectWrapper(getUser(userOid), ItemStatus.NOT_CHANGED, ctx);
+        PrismContainerWrapper<AssignmentType> assignments = objectWrapper.findContainer(UserType.F_ASSIGNMENT);
+        assertEquals("Wrong number of assignment values", 60, assignments.getValues().size());
+        assertTrue("Item wrappers were created upfront",
+                assignments.getValues().stream().noneMatch(v -> v.isItemsInitialized()));
+
+        when("description of one assignment is changed");
+        PrismContainerValueWrapper<AssignmentType> changedValue = assignments.getValues().get(10);
+        PrismPropertyWrapper<String> description = changedValue.findProperty(AssignmentType.F_DESCRIPTION);
+        description.getValue().setRealValue("changed");
+        ObjectDelta<UserType> delta = objectWrapper.getObjectDelta();
+
+        then("only the changed value has its item wrappers created");
+        assertEquals("Wrong number of values with item wrappers", 1,
+                assignments.getValues().stream().filter(v -> v.isItemsInitialized()).count());
+
+        and("the delta contains only the change");
+        Long changedId = changedValue.getNewValue().getId();
+        assertModificationsSize(delta, 1);
+        assertModification(delta, ItemPath.create(UserType.F_ASSIGNMENT, changedId, AssignmentType.F_DESCRIPTION),
+                ModificationTypeType.REPLACE, "changed");
+
+        executeChanges(delta, null, task, result);
+        assertSuccess(result);
+
+        UserType userAfter = getUser(userOid).asObjectable();
+        assertEquals("Wrong number of assignments", 60, userAfter.getAssignment().size());
+        for (AssignmentType assignment : userAfter.getAssignment()) {
+            if (changedId.equals(assignment.getId())) {
+                assertEquals("Wrong changed description", "changed", assignment.getDescription());
+            } else {
+                assertTrue("Unexpected description " + assignment.getDescription(),
+                        assignment.getDescription().startsWith("assignment-"));
+            }
+        }
+    }
+
     private PrismContainerValue<AssignmentType> createDummyResourceAssignment(PrismObjectWrapper<UserType> objectWrapper, int existingAssignments, Task task, OperationResult result) throws Exception {
         PrismContainerWrapper<AssignmentType> assignment = objectWrapper.findContainer(UserType.F_ASSIGNMENT);
         assertNotNull("unexpected null assignment wrapper", assignment);
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import org.apache.wicket.serialize.java.JavaSerializer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.gui.api.factory.wrapper.WrapperContext;
+import com.evolveum.midpoint.gui.api.prism.ItemStatus;
+import com.evolveum.midpoint.gui.api.prism.wrapper.PrismObjectWrapper;
+import com.evolveum.midpoint.gui.api.prism.wrapper.PrismPropertyWrapper;
+import com.evolveum.midpoint.gui.test.TestMidPointSpringApplication;
+import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.prism.PrismObjectDefinition;
+import com.evolveum.midpoint.prism.delta.ObjectDelta;
+import com.evolveum.midpoint.prism.polystring.PolyString;
+import com.evolveum.midpoint.prism.util.PrismTestUtil;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.task.api.Task;
+import com.evolveum.midpoint.web.security.MidPointPageSerializer;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.UserType;
+
+/**
+ * Tests that the objects serialized by {@link MidPointPageSerializer} are deserialized to the same state,
+ * with the definitions resolved back from the schema registry.
+ */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+@SpringBootTest(classes = TestMidPointSpringApplication.class)
+public class TestMidPointPageSerializer extends AbstractInitializedGuiIntegrationTest {
+
+    private static final String APPLICATION_KEY = "test";
+
+    private final MidPointPageSerializer serializer = new MidPointPageSerializer(APPLICATION_KEY);
+
+    @Test
+    public void test100RoundTripObjectWithRegistryDefinition() {
+        given("new object with the definition from the schema registry");
+        PrismObject<UserType> user = new UserType()
+                .name("serialized")
+                .description("serialized user")
+                .asPrismObject();
+        assertThat(user.getDefinition()).isSameAs(getUserDefinition());
+
+        when("it is serialized and deserialized");
+        //noinspection unchecked
+        PrismObject<UserType> deserialized = (PrismObject<UserType>) serializer.deserialize(serializer.serialize(user));
+
+        then("the object is the same, and it points to the definition from the registry");
+        assertThat(deserialized).isNotSameAs(user);
+        assertThat(deserialized.equivalent(user)).as("equivalent to the original").isTrue();
+        assertThat(deserialized.getDefinition()).isSameAs(getUserDefinition());
+        assertThat(deserialized.findProperty(UserType.F_DESCRIPTION).getDefinition())
+                .isSameAs(getUserDefinition().findPropertyDefinition(UserType.F_DESCRIPTION));
+    }
+
+    @Test
+    public void test110RoundTripObjectWrapper() throws Exception {
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        given("wrapper of user jack");
+        PrismObject<UserType> jack = getUser(USER_JACK_OID);
+        PrismObjectWrapper<UserType> wrapper =
+                getServiceLocator(task).<UserType>findObjectWrapperFactory(jack.getDefinition())
+                        .createObjectWrapper(jack, ItemStatus.NOT_CHANGED, new WrapperContext(task, result));
+
+        when("it is serialized and deserialized");
+        byte[] data = serializer.serialize(wrapper);
+        //noinspection unchecked
+        PrismObjectWrapper<UserType> deserialized = (PrismObjectWrapper<UserType>) serializer.deserialize(data);
+
+        then("the data are smaller than the ones of the standard serializer");
+        assertThat(data).isNotNull();
+        assertThat(data.length).isLessThan(new JavaSerializer(APPLICATION_KEY).serialize(wrapper).length);
+
+        and("the wrapped object is the same");
+        assertThat(deserialized.getObject().equivalent(jack)).as("equivalent to the original").isTrue();
+        assertThat(deserialized.getObjectDelta().isEmpty()).as("delta is empty").isTrue();
+
+        when("the deserialized wrapper is modified");
+        PrismPropertyWrapper<PolyString> fullName = deserialized.findProperty(UserType.F_FULL_NAME);
+        fullName.getValue().setRealValue(PrismTestUtil.createPolyString("Jack Serialized"));
+
+        then("the delta is computed as usual");
+        ObjectDelta<UserType> delta = deserialized.getObjectDelta();
+        assertThat(delta.getModifications()).hasSize(1);
+        assertThat(delta.getModifications().iterator().next().getPath().equivalent(UserType.F_FULL_NAME)).isTrue();
+    }
+
+    @Test
+    public void test120NotSerializableObject() {
+        given("object that holds a non-serializable value");
+        NotSerializableHolder holder = new NotSerializableHolder();
+        long pagesBefore = serializer.getSerializedPages();
+        long bytesBefore = serializer.getSerializedBytes();
+
+        expect("it is not serialized (the path to the value is logged by the serialization checker)");
+        assertThat(serializer.serialize(holder)).isNull();
+
+        and("it is not counted in the statistics");
+        assertThat(serializer.getSerializedPages()).isEqualTo(pagesBefore);
+        assertThat(serializer.getSerializedBytes()).isEqualTo(bytesBefore);
+    }
+
+    @Test
+    public void test130Statistics() {
+        given("fresh serializer");
+        MidPointPageSerializer serializer = new MidPointPageSerializer(APPLICATION_KEY);
+        assertThat(serializer.getSerializedPages()).isZero();
+        assertThat(serializer.getAverageBytesPerPage()).isZero();
+
+        when("two objects of different size are serialized");
+        byte[] small = serializer.serialize(new UserType().name("small").asPrismObject());
+        byte[] large = serializer.serialize(new UserType()
+                .name("large")
+                .description(randomText(100))
+                .asPrismObject());
+
+        then("the statistics reflect the sizes of the serialized data");
+        assertThat(small.length).isLessThan(large.length);
+        assertThat(serializer.getSerializedPages()).isEqualTo(2);
+        assertThat(serializer.getSerializedBytes()).isEqualTo(small.length + large.length);
+        assertThat(serializer.getMaxBytesPerPage()).isEqualTo(large.length);
+        assertThat(serializer.getAverageBytesPerPage()).isEqualTo((small.length + large.length) / 2);
+    }
+
+    /** Text that is not compressed much, so that the size of the serialized data depends on its length. */
+    private String randomText(int parts) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts; i++) {
+            sb.append(UUID.randomUUID());
+        }
+        return sb.toString();
+    }
+
+    private PrismObjectDefinition<UserType> getUserDefinition() {
+        return prismContext.getSchemaRegistry().findObjectDefinitionByCompileTimeClass(UserType.class);
+    }
+
+    @SuppressWarnings("unused")
+    private static class NotSerializableHolder implements Serializable {
+        private final Object value = new Object();
+    }
+}
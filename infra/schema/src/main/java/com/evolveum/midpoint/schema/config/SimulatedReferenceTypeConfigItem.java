@@ -89,6 +89,10 @@ public class SimulatedReferenceTypeConfigItem
         return BooleanUtils.isNotFalse(value().isExplicitReferentialIntegrity());
     }
 
+    public @Nullable Integer getBulkReadingThreshold() {
+        return value().getBulkReadingThreshold();
+    }
+
     @Override
     public @NotNull String localDescription() {
         return "simulated reference type '%s' definition".formatted(value().getName());
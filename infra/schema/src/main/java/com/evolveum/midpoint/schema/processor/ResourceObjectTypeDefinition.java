@@ -114,6 +114,9 @@ public interface ResourceObjectTypeDefinition
     /** Returns the "synchronization opportunistic" flag value, if present here. (It may be standalone.) */
     @Nullable Boolean isSynchronizationOpportunistic();
 
+    /** Returns the "skip unchanged objects" flag value, if present here. Not available in legacy configuration. */
+    @Nullable Boolean isSynchronizationSkipUnchanged();
+
     /** Returns the focus type name, if present here. (It may be standalone.) */
     @Nullable QName getFocusTypeName();
 
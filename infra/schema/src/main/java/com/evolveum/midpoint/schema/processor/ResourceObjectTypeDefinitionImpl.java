@@ -307,6 +307,12 @@ public final class ResourceObjectTypeDefinitionImpl
         return synchronization != null ? synchronization.isOpportunistic() : null;
     }
 
+    @Override
+    public Boolean isSynchronizationSkipUnchanged() {
+        SynchronizationReactionsType synchronization = definitionBean.getSynchronization();
+        return synchronization != null ? synchronization.isSkipUnchanged() : null;
+    }
+
     @Override
     public QName getFocusTypeName() {
         ResourceObjectFocusSpecificationType focusSpec = definitionBean.getFocus();
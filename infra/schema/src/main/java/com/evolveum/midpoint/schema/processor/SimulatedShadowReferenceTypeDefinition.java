@@ -49,6 +49,9 @@ public abstract class SimulatedShadowReferenceTypeDefinition
 
     private final boolean requiresExplicitReferentialIntegrity;
 
+    /** See `bulkReadingThreshold` in the XSD. Null means no bulk reading. Not available for legacy simulations. */
+    @Nullable private final Integer bulkReadingThreshold;
+
     @NotNull private final ShadowSimpleAttributeDefinition<?> subjectSidePrimaryBindingAttributeDefinition;
 
     /** Never empty. Immutable. */
@@ -65,6 +68,7 @@ public abstract class SimulatedShadowReferenceTypeDefinition
             @Nullable QName primaryBindingMatchingRuleLegacy,
             @NotNull ResourceObjectAssociationDirectionType direction,
             boolean requiresExplicitReferentialIntegrity,
+            @Nullable Integer bulkReadingThreshold,
             @NotNull ResourceObjectDefinition generalizedObjectSideObjectDefinition,
             @NotNull ShadowSimpleAttributeDefinition<?> subjectSidePrimaryBindingAttributeDefinition,
             @NotNull Collection<SimulatedReferenceTypeParticipantDefinition> subjects,
@@ -76,6 +80,7 @@ public abstract class SimulatedShadowReferenceTypeDefinition
         this.primaryBindingMatchingRuleLegacy = primaryBindingMatchingRuleLegacy;
         this.direction = direction;
         this.requiresExplicitReferentialIntegrity = requiresExplicitReferentialIntegrity;
+        this.bulkReadingThreshold = bulkReadingThreshold;
         this.subjectSidePrimaryBindingAttributeDefinition = subjectSidePrimaryBindingAttributeDefinition;
         this.subjects = List.copyOf(MiscUtil.stateNonEmpty(subjects, "no subject definitions in %s", this));
         this.objects = List.copyOf(MiscUtil.stateNonEmpty(objects, "no object definitions in %s", this));
@@ -109,6 +114,10 @@ public abstract class SimulatedShadowReferenceTypeDefinition
         return requiresExplicitReferentialIntegrity;
     }
 
+    public @Nullable Integer getBulkReadingThreshold() {
+        return bulkReadingThreshold;
+    }
+
     /** Returns the definition of the binding attribute without knowing what particular object is involved. */
     public <T> ShadowSimpleAttributeDefinition<T> getObjectAttributeDefinition(AttributeBinding binding) {
         try {
@@ -186,6 +195,7 @@ public abstract class SimulatedShadowReferenceTypeDefinition
         DebugUtil.debugDumpWithLabelLn(sb, "primaryBindingMatchingRuleLegacy", primaryBindingMatchingRuleLegacy, indent + 1);
         DebugUtil.debugDumpWithLabelLn(sb, "direction", direction, indent + 1);
         DebugUtil.debugDumpWithLabelLn(sb, "requiresExplicitReferentialIntegrity", requiresExplicitReferentialIntegrity, indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "bulkReadingThreshold", bulkReadingThreshold, indent + 1);
         DebugUtil.debugDumpWithLabelToStringLn(sb, "generalizedObjectSideObjectDefinition", getGeneralizedObjectSideObjectDefinition(), indent + 1); // consider removing
         DebugUtil.debugDumpWithLabelLn(sb, "subjectDelineations", subjects, indent + 1);
         DebugUtil.debugDumpWithLabel(sb, "objectDelineations", objects, indent + 1);
@@ -209,7 +219,7 @@ public abstract class SimulatedShadowReferenceTypeDefinition
                 @NotNull Collection<SimulatedReferenceTypeParticipantDefinition> objects) {
             super(referenceTypeLocalName, subjectItemName,
                     primaryAttributeBinding, secondaryAttributeBinding, primaryBindingMatchingRuleLegacy,
-                    direction, requiresExplicitReferentialIntegrity, generalizedObjectSideObjectDefinition,
+                    direction, requiresExplicitReferentialIntegrity, null, generalizedObjectSideObjectDefinition,
                     subjectSidePrimaryBindingAttributeDefinition, subjects, objects);
         }
 
@@ -293,14 +303,15 @@ public abstract class SimulatedShadowReferenceTypeDefinition
                 @Nullable QName primaryBindingMatchingRuleLegacy,
                 @NotNull ResourceObjectAssociationDirectionType direction,
                 boolean requiresExplicitReferentialIntegrity,
+                @Nullable Integer bulkReadingThreshold,
                 @NotNull ResourceObjectDefinition generalizedObjectSideObjectDefinition,
                 @NotNull ShadowSimpleAttributeDefinition<?> subjectSidePrimaryBindingAttributeDefinition,
                 @NotNull Collection<SimulatedReferenceTypeParticipantDefinition> subjects,
                 @NotNull Collection<SimulatedReferenceTypeParticipantDefinition> objects) {
             super(referenceTypeLocalName, localSubjectItemName,
                     primaryAttributeBinding, secondaryAttributeBinding, primaryBindingMatchingRuleLegacy,
-                    direction, requiresExplicitReferentialIntegrity, generalizedObjectSideObjectDefinition,
-                    subjectSidePrimaryBindingAttributeDefinition, subjects, objects);
+                    direction, requiresExplicitReferentialIntegrity, bulkReadingThreshold,
+                    generalizedObjectSideObjectDefinition, subjectSidePrimaryBindingAttributeDefinition, subjects, objects);
         }
 
         static Modern parse(
@@ -340,6 +351,7 @@ public abstract class SimulatedShadowReferenceTypeDefinition
                     null,
                     simulationCI.getDirection(),
                     simulationCI.requiresExplicitReferentialIntegrity(),
+                    simulationCI.getBulkReadingThreshold(),
                     generalizedObjectSideObjectDefinition,
                     subjectSidePrimaryBindingAttrDef,
                     subjects,
@@ -66,6 +66,12 @@ public class SynchronizationPolicy {
     /** TODO */
     private final boolean opportunistic;
 
+    /**
+     * If `true`, reconciliation and import skip the synchronization of linked objects that have not changed
+     * since the last full synchronization. See `SynchronizationReactionsType#skipUnchanged`.
+     */
+    private final boolean skipUnchanged;
+
     /** legacy name */
     @Nullable private final String name;
 
@@ -85,6 +91,7 @@ public class SynchronizationPolicy {
             @NotNull CorrelationDefinitionType correlationDefinitionBean,
             boolean synchronizationEnabled,
             boolean opportunistic,
+            boolean skipUnchanged,
             @Nullable String name,
             @NotNull ResourceObjectTypeDelineation delineation,
             @NotNull Collection<? extends ObjectSynchronizationReactionDefinition> reactions,
@@ -95,6 +102,7 @@ public class SynchronizationPolicy {
         this.correlationDefinitionBean = correlationDefinitionBean;
         this.synchronizationEnabled = synchronizationEnabled;
         this.opportunistic = opportunistic;
+        this.skipUnchanged = skipUnchanged;
         this.name = name;
         this.delineation = delineation;
         this.reactions = new ArrayList<>(reactions);
@@ -119,6 +127,10 @@ public class SynchronizationPolicy {
         return opportunistic;
     }
 
+    public boolean isSkipUnchanged() {
+        return skipUnchanged;
+    }
+
     public @Nullable String getName() {
         return name;
     }
@@ -121,6 +121,8 @@ public class SynchronizationPolicyFactory {
                         typeDef.isSynchronizationOpportunistic(),
                         () -> !Boolean.FALSE.equals(synchronizationBean.isOpportunistic()));
 
+        boolean skipUnchanged = Boolean.TRUE.equals(typeDef.isSynchronizationSkipUnchanged());
+
         ResourceObjectTypeDelineation delineation = getDelineation(synchronizationBean, typeDef, resource);
 
         var reactions =
@@ -134,6 +136,7 @@ public class SynchronizationPolicyFactory {
                 correlationDefinitionBean,
                 synchronizationEnabled,
                 opportunistic,
+                skipUnchanged,
                 synchronizationBean.getName(),
                 delineation,
                 reactions,
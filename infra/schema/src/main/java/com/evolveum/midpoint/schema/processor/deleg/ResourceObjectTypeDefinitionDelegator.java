@@ -89,6 +89,11 @@ public interface ResourceObjectTypeDefinitionDelegator extends ResourceObjectDef
         return delegate().isSynchronizationOpportunistic();
     }
 
+    @Override
+    default @Nullable Boolean isSynchronizationSkipUnchanged() {
+        return delegate().isSynchronizationSkipUnchanged();
+    }
+
     @Override
     default @Nullable QName getFocusTypeName() {
         return delegate().getFocusTypeName();
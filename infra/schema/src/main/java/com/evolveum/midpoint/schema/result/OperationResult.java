@@ -255,7 +255,7 @@ public class OperationResult
     private Map<String, Collection<String>> params;
     private Map<String, Collection<String>> context;
     private Map<String, Collection<String>> returns;
-    @NotNull private final List<String> qualifiers = new ArrayList<>();
+    private List<String> qualifiers; // allocated lazily, as most results have no qualifiers
 
     private long token;
     private String messageCode;
@@ -265,7 +265,7 @@ public class OperationResult
     private int count = 1;
     private int hiddenRecordsCount;
     private List<OperationResult> subresults;
-    private List<String> details;
+    private List<String> details; // allocated lazily
     private boolean summarizeErrors;
     private boolean summarizePartialErrors;
     private boolean summarizeSuccesses;
@@ -283,7 +283,7 @@ public class OperationResult
     @CanBeNone private long cpuMicroseconds = NONE_LONG;
     @CanBeNone private long invocationId = NONE_LONG;
 
-    private final List<LogSegmentType> logSegments = new ArrayList<>();
+    private List<LogSegmentType> logSegments; // allocated lazily, as the log entries are collected only when tracing
 
     /** See {@link #markExceptionRecorded()}. */
     private boolean exceptionRecorded;
@@ -302,6 +302,14 @@ public class OperationResult
      */
     private boolean recordingValues = true;
 
+    /**
+     * If `true`, the result is used in the lightweight mode, intended for bulk processing (e.g. of items in activities)
+     * where the results are only summarized and then thrown away. See {@link #lightweight()}.
+     *
+     * Never set if {@link #preserve} is `true` or {@link #tracingProfile} is set up.
+     */
+    private boolean lightweight;
+
     /**
      * True if we collect log entries.
      * Maybe it could be replaced by checking {@link #logRecorder} being not null and open?
@@ -326,7 +334,7 @@ public class OperationResult
      */
     private TraceDictionaryType extractedDictionary; // NOT SERIALIZED
 
-    private final List<TraceType> traces = new ArrayList<>();
+    private List<TraceType> traces; // allocated lazily
 
     /** The operation monitoring configuration for the current thread when the current operation started. */
     private OperationMonitoringConfiguration operationMonitoringConfigurationAtStart;
@@ -406,7 +414,6 @@ public class OperationResult
         this.userFriendlyMessage = userFriendlyMessage;
         this.cause = cause;
         this.subresults = subresults;
-        this.details = new ArrayList<>();
     }
 
     public static OperationResult keepRootOnly(OperationResult result) {
@@ -430,6 +437,7 @@ public class OperationResult
         subresult.tracingProfile = tracingProfile;
         subresult.preserve = preserve;
         subresult.recordingValues = recordingValues;
+        subresult.lightweight = lightweight;
         subresult.parentLogRecorder = logRecorder;
         subresult.propagateHandledErrorAsSuccess = propagateHandledErrorAsSuccess;
         return subresult;
@@ -501,7 +509,7 @@ public class OperationResult
                 LevelOverrideTurboFilter.overrideLogging(loggingOverrideConfiguration);
                 startedLoggingOverride = true;
             }
-            logRecorder = LogRecorder.open(logSegments, parentLogRecorder, this);
+            logRecorder = LogRecorder.open(getLogSegments(), parentLogRecorder, this);
         }
     }
 
@@ -559,7 +567,7 @@ public class OperationResult
 
     private long computeNotOwnTimeMicros() {
         long total = 0;
-        for (OperationResult subresult : getSubresults()) {
+        for (OperationResult subresult : emptyIfNull(subresults)) {
             total += zeroIfNone(subresult.microseconds);
         }
         return total;
@@ -744,17 +752,46 @@ public class OperationResult
     }
 
     public void addSubresult(OperationResult subresult) {
+        if (lightweight) {
+            pruneLastSubresult();
+        }
         getSubresults().add(subresult);
         if (subresult.tracingProfile == null) {
             subresult.tracingProfile = tracingProfile;
-            subresult.recordingValues = recordingValues;
+            // The parent can switch the lightweight mode on, but not off: the subresult may have requested it explicitly.
+            if (lightweight || subresult.lightweight) {
+                subresult.lightweight = true;
+                subresult.recordingValues = false;
+            } else {
+                subresult.recordingValues = recordingValues;
+            }
         } else {
             subresult.recordingValues = true;
+            subresult.lightweight = false;
         }
         subresult.preserve = preserve;
+        if (preserve) {
+            subresult.lightweight = false;
+        }
         subresult.propagateHandledErrorAsSuccess = propagateHandledErrorAsSuccess;
     }
 
+    /**
+     * In the lightweight mode, the subresults of the last (closed and successful) subresult are dropped when its next
+     * sibling is added. At that time, they are no longer needed for the status computation nor for the summarization;
+     * the subresult itself (with its status, message, and counts) is kept.
+     */
+    private void pruneLastSubresult() {
+        OperationResult last = getLastSubresult();
+        if (last != null
+                && last.subresults != null
+                && last.isClosed()
+                && (last.isSuccess() || last.isNotApplicable())
+                && last.canBeCleanedUp()) {
+            last.subresults = null;
+        }
+    }
+
     public OperationResult findSubresult(String operation) {
         if (subresults == null) {
             return null;
@@ -935,7 +972,7 @@ public class OperationResult
         if (!skipFinish) {
             recordEnd();
         }
-        if (getSubresults().isEmpty()) {
+        if (subresults == null || subresults.isEmpty()) {
             if (status == OperationResultStatus.UNKNOWN) {
                 status = OperationResultStatus.SUCCESS;
             }
@@ -1151,7 +1188,7 @@ public class OperationResult
     }
 
     public void addTrace(TraceType trace) {
-        traces.add(trace);
+        getTraces().add(trace);
     }
 
     /** TEMPORARY. We need to find a way how to override this when we need the recording for specific task. */
@@ -1160,22 +1197,50 @@ public class OperationResult
         return this;
     }
 
+    /**
+     * Switches this result (and its future subresults) to the lightweight mode, unless the result is traced or preserved.
+     * In this mode:
+     *
+     * . parameters, context, and return values are not recorded (as with {@link #notRecordingValues()}),
+     * . the subresults of closed successful subresults are dropped as soon as their next sibling is added,
+     * see {@link #pruneLastSubresult()}.
+     *
+     * The status, message, exception, and counts of all the results created are kept, so the status computation,
+     * summarization and the inspection of (direct) subresults work as usual. Errors and warnings are kept with their
+     * whole subtrees.
+     */
+    @Override
+    public OperationResultBuilder lightweight() {
+        if (tracingProfile == null && !preserve) {
+            this.lightweight = true;
+            this.recordingValues = false;
+        }
+        return this;
+    }
+
+    public boolean isLightweight() {
+        return lightweight;
+    }
+
     @Override
     public OperationResultBuilder tracingProfile(CompiledTracingProfile profile) {
         this.tracingProfile = profile;
         if (profile != null) {
             this.recordingValues = true;
+            this.lightweight = false;
         }
         return this;
     }
 
     public <T> T getFirstTrace(Class<T> traceClass) {
-        Optional<TraceType> first = traces.stream().filter(t -> traceClass.isAssignableFrom(t.getClass())).findFirst();
+        Optional<TraceType> first = emptyIfNull(traces).stream()
+                .filter(t -> traceClass.isAssignableFrom(t.getClass()))
+                .findFirst();
         if (first.isPresent()) {
             //noinspection unchecked
             return (T) first.get();
         } else {
-            for (OperationResult subresult : getSubresults()) {
+            for (OperationResult subresult : emptyIfNull(subresults)) {
                 T firstInSubresult = subresult.getFirstTrace(traceClass);
                 if (firstInSubresult != null) {
                     return firstInSubresult;
@@ -1260,8 +1325,8 @@ public class OperationResult
      */
     public void deleteSubresultsIfPossible() {
         stateCheck(isClosed(), "operation result is not closed: %s", this);
-        if (isSuccess() && canBeCleanedUp()) {
-            getSubresults().clear();
+        if (isSuccess() && canBeCleanedUp() && subresults != null) {
+            subresults.clear();
         }
     }
 
@@ -1410,7 +1475,7 @@ public class OperationResult
 
     @Override
     public OperationResult addQualifier(String value) {
-        qualifiers.add(value);
+        getQualifiers().add(value);
         return this;
     }
 
@@ -2128,10 +2193,13 @@ public class OperationResult
 
     public void appendDetail(String detailLine) {
         // May be switched to a more structured method later
-        details.add(detailLine);
+        getDetail().add(detailLine);
     }
 
-    public List<String> getDetail() {
+    public @NotNull List<String> getDetail() {
+        if (details == null) {
+            details = new ArrayList<>();
+        }
         return details;
     }
 
@@ -2183,7 +2251,9 @@ public class OperationResult
         result.setOwnMicrosecondsFromNullable(bean.getOwnMicroseconds());
         result.setCpuMicrosecondsFromNullable(bean.getCpuMicroseconds());
         result.setInvocationIdFromNullable(bean.getInvocationId());
-        result.logSegments.addAll(bean.getLog());
+        if (!bean.getLog().isEmpty()) {
+            result.getLogSegments().addAll(bean.getLog());
+        }
         result.setMonitoredOperations(bean.getMonitoredOperations());
         return result;
     }
@@ -2231,11 +2301,12 @@ public class OperationResult
         bean.setMessage(opResult.getMessage());
         bean.setMessageCode(opResult.getMessageCode());
 
-        if (opResult.getCause() != null || !opResult.details.isEmpty()) {
+        boolean hasDetails = opResult.details != null && !opResult.details.isEmpty();
+        if (opResult.getCause() != null || hasDetails) {
             StringBuilder detailSb = new StringBuilder();
 
             // Record text messages in details (if present)
-            if (!opResult.details.isEmpty()) {
+            if (hasDetails) {
                 for (String line : opResult.details) {
                     detailSb.append(line);
                     detailSb.append("\n");
@@ -2288,8 +2359,8 @@ public class OperationResult
         bean.setOwnMicroseconds(opResult.getOwnMicroseconds());
         bean.setCpuMicroseconds(opResult.getCpuMicroseconds());
         bean.setInvocationId(opResult.getInvocationId());
-        bean.getLog().addAll(opResult.logSegments); // consider cloning here
-        bean.getTrace().addAll(opResult.traces); // consider cloning here
+        bean.getLog().addAll(emptyIfNull(opResult.logSegments)); // consider cloning here
+        bean.getTrace().addAll(emptyIfNull(opResult.traces)); // consider cloning here
         bean.setMonitoredOperations(cloneCloneable(opResult.getMonitoredOperations()));
         return bean;
     }
@@ -2644,7 +2715,7 @@ public class OperationResult
             sb.append("\n");
         }
 
-        for (String line : details) {
+        for (String line : emptyIfNull(details)) {
             DebugUtil.indentDebugDump(sb, indent + 2);
             sb.append("[d]");
             sb.append(line);
@@ -2757,6 +2828,7 @@ public class OperationResult
     public OperationResultBuilder preserve() {
         this.preserve = true;
         this.recordingValues = true;
+        this.lightweight = false;
         return this;
     }
 
@@ -2835,7 +2907,9 @@ public class OperationResult
 
         clone.operationKind = operationKind;
         clone.status = status;
-        clone.qualifiers.addAll(qualifiers);
+        if (qualifiers != null) {
+            clone.getQualifiers().addAll(qualifiers);
+        }
         clone.params = cloneParams(params, full);
         clone.context = cloneParams(context, full);
         clone.returns = cloneParams(returns, full);
@@ -2855,7 +2929,7 @@ public class OperationResult
                 }
             }
         }
-        clone.details = full ? CloneUtil.clone(details) : details;
+        clone.details = full && details != null ? CloneUtil.clone(details) : details;
         clone.summarizeErrors = summarizeErrors;
         clone.summarizePartialErrors = summarizePartialErrors;
         clone.summarizeSuccesses = summarizeSuccesses;
@@ -2867,7 +2941,9 @@ public class OperationResult
         clone.microseconds = microseconds;
         clone.cpuMicroseconds = cpuMicroseconds;
         clone.invocationId = invocationId;
-        clone.traces.addAll(CloneUtil.cloneCollectionMembers(traces));
+        if (traces != null) {
+            clone.getTraces().addAll(CloneUtil.cloneCollectionMembers(traces));
+        }
 
         clone.building = building;
         clone.futureParent = futureParent;
@@ -2977,7 +3053,7 @@ public class OperationResult
                 invocationId == result.invocationId &&
                 Objects.equals(tracingProfile, result.tracingProfile) &&
                 Objects.equals(operation, result.operation) &&
-                Objects.equals(qualifiers, result.qualifiers) &&
+                Objects.equals(emptyIfNull(qualifiers), emptyIfNull(result.qualifiers)) &&
                 status == result.status &&
                 Objects.equals(params, result.params) &&
                 Objects.equals(context, result.context) &&
@@ -2987,18 +3063,18 @@ public class OperationResult
                 Objects.equals(userFriendlyMessage, result.userFriendlyMessage) &&
                 Objects.equals(cause, result.cause) &&
                 Objects.equals(subresults, result.subresults) &&
-                Objects.equals(details, result.details) &&
-                Objects.equals(traces, result.traces) &&
+                Objects.equals(emptyIfNull(details), emptyIfNull(result.details)) &&
+                Objects.equals(emptyIfNull(traces), emptyIfNull(result.traces)) &&
                 Objects.equals(asynchronousOperationReference, result.asynchronousOperationReference);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(
-                operation, qualifiers, status, params, context, returns, token, messageCode,
-                message, userFriendlyMessage, cause, count, hiddenRecordsCount, subresults, details,
+                operation, emptyIfNull(qualifiers), status, params, context, returns, token, messageCode,
+                message, userFriendlyMessage, cause, count, hiddenRecordsCount, subresults, emptyIfNull(details),
                 summarizeErrors, summarizePartialErrors, summarizeSuccesses, building, start, end,
-                microseconds, cpuMicroseconds, invocationId, traces, asynchronousOperationReference);
+                microseconds, cpuMicroseconds, invocationId, emptyIfNull(traces), asynchronousOperationReference);
     }
 
     /** This is public API; we should not use {@link NoValueUtil#NONE_LONG} here. */
@@ -3063,7 +3139,10 @@ public class OperationResult
         return tracingProfile;
     }
 
-    public List<TraceType> getTraces() {
+    public @NotNull List<TraceType> getTraces() {
+        if (traces == null) {
+            traces = new ArrayList<>();
+        }
         return traces;
     }
 
@@ -3076,6 +3155,9 @@ public class OperationResult
     }
 
     public @NotNull List<String> getQualifiers() {
+        if (qualifiers == null) {
+            qualifiers = new ArrayList<>();
+        }
         return qualifiers;
     }
 
@@ -3087,7 +3169,10 @@ public class OperationResult
         this.callerReason = callerReason;
     }
 
-    public List<LogSegmentType> getLogSegments() {
+    public @NotNull List<LogSegmentType> getLogSegments() {
+        if (logSegments == null) {
+            logSegments = new ArrayList<>();
+        }
         return logSegments;
     }
 
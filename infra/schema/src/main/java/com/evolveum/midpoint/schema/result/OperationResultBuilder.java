@@ -98,4 +98,6 @@ public interface OperationResultBuilder {
     OperationResultBuilder preserve();
 
     OperationResultBuilder notRecordingValues();
+
+    OperationResultBuilder lightweight();
 }
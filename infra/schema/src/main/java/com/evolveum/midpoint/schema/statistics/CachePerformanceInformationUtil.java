@@ -32,11 +32,11 @@ public class CachePerformanceInformationUtil {
             CachePerformanceCollector.CacheData info) {
         SingleCachePerformanceInformationType rv = new SingleCachePerformanceInformationType();
         rv.setName(cache);
-        rv.setHitCount(info.hits.intValue());
-        rv.setWeakHitCount(info.weakHits.intValue());
-        rv.setMissCount(info.misses.intValue());
-        rv.setPassCount(info.passes.intValue());
-        rv.setNotAvailableCount(info.notAvailable.intValue());
+        rv.setHitCount(toCount(info.hits.longValue()));
+        rv.setWeakHitCount(toCount(info.weakHits.longValue()));
+        rv.setMissCount(toCount(info.misses.longValue()));
+        rv.setPassCount(toCount(info.passes.longValue()));
+        rv.setNotAvailableCount(toCount(info.notAvailable.longValue()));
         return rv;
     }
 
@@ -62,11 +62,19 @@ public class CachePerformanceInformationUtil {
 
     private static void addTo(@NotNull SingleCachePerformanceInformationType aggregate,
             @NotNull SingleCachePerformanceInformationType part) {
-        aggregate.setHitCount(aggregate.getHitCount() + part.getHitCount());
-        aggregate.setWeakHitCount(aggregate.getWeakHitCount() + part.getWeakHitCount());
-        aggregate.setMissCount(aggregate.getMissCount() + part.getMissCount());
-        aggregate.setPassCount(aggregate.getPassCount() + part.getPassCount());
-        aggregate.setNotAvailableCount(aggregate.getNotAvailableCount() + part.getNotAvailableCount());
+        aggregate.setHitCount(toCount((long) aggregate.getHitCount() + part.getHitCount()));
+        aggregate.setWeakHitCount(toCount((long) aggregate.getWeakHitCount() + part.getWeakHitCount()));
+        aggregate.setMissCount(toCount((long) aggregate.getMissCount() + part.getMissCount()));
+        aggregate.setPassCount(toCount((long) aggregate.getPassCount() + part.getPassCount()));
+        aggregate.setNotAvailableCount(toCount((long) aggregate.getNotAvailableCount() + part.getNotAvailableCount()));
+    }
+
+    /**
+     * Converts a count to the value stored in {@link SingleCachePerformanceInformationType}. The counts there are `int`
+     * values, so the ones that do not fit are capped at {@link Integer#MAX_VALUE} instead of overflowing.
+     */
+    public static int toCount(long count) {
+        return (int) Math.min(count, Integer.MAX_VALUE);
     }
 
     public static String format(CachesPerformanceInformationType information) {
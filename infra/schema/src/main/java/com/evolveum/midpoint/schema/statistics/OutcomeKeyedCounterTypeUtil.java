@@ -58,6 +58,26 @@ public class OutcomeKeyedCounterTypeUtil {
         return counter.getCount();
     }
 
+    /**
+     * Decrements counter corresponding to given outcome. The counter is removed if it drops to zero.
+     * Returns false if there is no such (non-zero) counter.
+     */
+    public static boolean decrementCounter(List<OutcomeKeyedCounterType> counters, QualifiedItemProcessingOutcomeType outcome) {
+        OutcomeKeyedCounterType counter = counters.stream()
+                .filter(c -> Objects.equals(c.getOutcome(), outcome))
+                .findFirst()
+                .orElse(null);
+        if (counter == null || or0(counter.getCount()) <= 0) {
+            return false;
+        }
+        if (counter.getCount() > 1) {
+            counter.setCount(counter.getCount() - 1);
+        } else {
+            counters.remove(counter);
+        }
+        return true;
+    }
+
     public static int getSuccessCount(List<? extends OutcomeKeyedCounterType> counters) {
         return getCount(counters, OutcomeKeyedCounterTypeUtil::isSuccess);
     }
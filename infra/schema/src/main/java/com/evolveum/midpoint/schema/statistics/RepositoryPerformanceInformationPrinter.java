@@ -91,6 +91,10 @@ public class RepositoryPerformanceInformationPrinter extends AbstractStatisticsP
         record.add(nullIfFalse(hasRetries, op.getMaxWastedTime()));
         record.add(nullIfFalse(hasRetries, avg(op.getTotalWastedTime(), invocationCount)));
         record.add(nullIfFalse(hasRetries, percent(op.getTotalWastedTime(), totalTime)));
+
+        record.add(op.getMinPageSize());
+        record.add(op.getMaxPageSize());
+        record.add(avg(op.getTotalPageSize(), op.getPageCount()));
     }
 
     private void createFormatting() {
@@ -119,5 +123,8 @@ public class RepositoryPerformanceInformationPrinter extends AbstractStatisticsP
         addColumn("Max", RIGHT, formatInt());
         addColumn("Avg", RIGHT, formatFloat1());
         addColumn("Wasted %", RIGHT, formatPercent2());
+        addColumn("Min page", RIGHT, formatInt());
+        addColumn("Max page", RIGHT, formatInt());
+        addColumn("Avg page", RIGHT, formatFloat1());
     }
 }
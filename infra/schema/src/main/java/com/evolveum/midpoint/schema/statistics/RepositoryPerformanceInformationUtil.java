@@ -6,6 +6,8 @@
 
 package com.evolveum.midpoint.schema.statistics;
 
+import static com.evolveum.midpoint.util.MiscUtil.or0;
+
 import com.evolveum.midpoint.schema.statistics.AbstractStatisticsPrinter.Options;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.RepositoryOperationPerformanceInformationType;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.RepositoryPerformanceInformationType;
@@ -49,6 +51,32 @@ public class RepositoryPerformanceInformationUtil {
         aggregate.setTotalWastedTime(aggregate.getTotalWastedTime() + part.getTotalWastedTime());
         aggregate.setMinWastedTime(min(aggregate.getMinWastedTime(), part.getMinWastedTime()));
         aggregate.setMaxWastedTime(max(aggregate.getMaxWastedTime(), part.getMaxWastedTime()));
+        if (part.getPageCount() != null) {
+            aggregate.setPageCount(or0(aggregate.getPageCount()) + part.getPageCount());
+            aggregate.setTotalPageSize(or0(aggregate.getTotalPageSize()) + or0(part.getTotalPageSize()));
+            aggregate.setMinPageSize(min(aggregate.getMinPageSize(), part.getMinPageSize()));
+            aggregate.setMaxPageSize(max(aggregate.getMaxPageSize(), part.getMaxPageSize()));
+        }
+    }
+
+    private static Integer min(Integer a, Integer b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else {
+            return Math.min(a, b);
+        }
+    }
+
+    private static Integer max(Integer a, Integer b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else {
+            return Math.max(a, b);
+        }
     }
 
     private static Long min(Long a, Long b) {
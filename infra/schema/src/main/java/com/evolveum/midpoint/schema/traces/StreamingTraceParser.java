@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.schema.traces;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.xml.stream.*;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.prism.PrismContext;
+import com.evolveum.midpoint.schema.constants.SchemaConstants;
+import com.evolveum.midpoint.util.annotation.Experimental;
+import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.OperationResultType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.TracingOutputType;
+
+/**
+ * Parses a trace file without loading it into memory as a whole.
+ *
+ * The XML document is read using StAX. Top-level items (metadata, environment, dictionary) and individual operation result
+ * nodes (without their children) are cut out of the document and parsed separately; the results are passed
+ * to a {@link Visitor} in document order. So, the memory needed is given by the size of the largest node,
+ * not by the size of the whole trace.
+ *
+ * Both standard traces (root element `tracingOutput`) and plain operation results (root element `operationResult`)
+ * are supported. The trace is parsed in "raw" mode, i.e. the dictionary references are not expanded.
+ *
+ * Note that the children of an operation result node must be placed after all the other items of the node;
+ * this is how prism serializes them. Any content after the children is ignored.
+ */
+@Experimental
+public class StreamingTraceParser {
+
+    private static final Trace LOGGER = TraceManager.getTrace(StreamingTraceParser.class);
+
+    private static final String TRACING_OUTPUT = StreamingTraceWriter.ROOT_ELEMENT_NAME;
+    private static final String OPERATION_RESULT = "operationResult";
+
+    @NotNull private final PrismContext prismContext;
+
+    public StreamingTraceParser(@NotNull PrismContext prismContext) {
+        this.prismContext = prismContext;
+    }
+
+    /** Receives parts of the parsed trace. */
+    public interface Visitor {
+
+        /**
+         * Called for each top-level item of the trace other than the result tree (i.e. metadata, environment, dictionary).
+         * The item is provided within an otherwise empty {@link TracingOutputType}.
+         */
+        default void visitHeader(@NotNull TracingOutputType header) throws SchemaException, IOException {
+        }
+
+        /**
+         * Called for each operation result node, before its children. The node contains no children.
+         * The depth of the root node is zero.
+         *
+         * @return false if the node and its whole subtree should be skipped; {@link #endResult(OperationResultType, int)}
+         * is not called for such a node then.
+         */
+        boolean startResult(@NotNull OperationResultType result, int depth) throws SchemaException, IOException;
+
+        /** Called for each operation result node (that was not skipped), after its children. */
+        default void endResult(@NotNull OperationResultType result, int depth) throws SchemaException, IOException {
+        }
+    }
+
+    public void parse(@NotNull File file, @NotNull Visitor visitor) throws IOException, SchemaException {
+        boolean isZip = file.getName().toLowerCase().endsWith(".zip");
+        parse(new FileInputStream(file), isZip, file.getPath(), visitor);
+    }
+
+    /** Parses the trace from the stream, closing it afterwards. */
+    public void parse(@NotNull InputStream stream, boolean isZip, String description, @NotNull Visitor visitor)
+            throws IOException, SchemaException {
+        long start = System.currentTimeMillis();
+        try (InputStream ignored = stream) {
+            if (isZip) {
+                ZipInputStream zis = new ZipInputStream(stream);
+                ZipEntry zipEntry = zis.getNextEntry();
+                if (zipEntry != null) {
+                    parseXml(zis, description, visitor);
+                } else {
+                    LOGGER.error("No zip entry in input file '{}'", description);
+                }
+            } else {
+                parseXml(stream, description, visitor);
+            }
+        } catch (XMLStreamException e) {
+            throw new SchemaException("Couldn't parse trace " + description + ": " + e.getMessage(), e);
+        }
+        LOGGER.debug("Parsed the content of {} in {} milliseconds", description, System.currentTimeMillis() - start);
+    }
+
+    private void parseXml(InputStream stream, String description, Visitor visitor)
+            throws XMLStreamException, SchemaException, IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(stream);
+        try {
+            new Run(reader, visitor).parseRoot(description);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /** State of a single parsing run. */
+    private class Run {
+
+        @NotNull private final XMLStreamReader reader;
+        @NotNull private final Visitor visitor;
+        @NotNull private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+        /** Namespace declarations of the structural elements we are in, i.e. the ones that are not copied into fragments. */
+        @NotNull private final Deque<Map<String, String>> namespaceScopes = new ArrayDeque<>();
+
+        private Run(@NotNull XMLStreamReader reader, @NotNull Visitor visitor) {
+            this.reader = reader;
+            this.visitor = visitor;
+        }
+
+        private void parseRoot(String description) throws XMLStreamException, SchemaException, IOException {
+            reader.nextTag();
+            String rootName = reader.getLocalName();
+            if (OPERATION_RESULT.equals(rootName)) {
+                parseResult(0);
+            } else if (TRACING_OUTPUT.equals(rootName)) {
+                namespaceScopes.push(getNamespaceDeclarations());
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    if (TracingOutputType.F_RESULT.getLocalPart().equals(reader.getLocalName())) {
+                        parseResult(0);
+                    } else {
+                        parseHeader();
+                    }
+                }
+                namespaceScopes.pop();
+            } else {
+                LOGGER.error("Wrong root element in input file '{}': {}", description, reader.getName());
+            }
+        }
+
+        /** Reader is at the start of the header item; at the end it is at its end. */
+        private void parseHeader() throws XMLStreamException, SchemaException, IOException {
+            StringWriter buffer = new StringWriter();
+            XMLStreamWriter writer = startFragment(buffer, TRACING_OUTPUT);
+            copyStartElement(writer, reader.getLocalName(), getInScopeNamespaces(getNamespaceDeclarations()));
+            int level = 0;
+            while (level >= 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    copyStartElement(writer, reader.getLocalName(), getNamespaceDeclarations());
+                    level++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    writer.writeEndElement();
+                    level--;
+                } else {
+                    copyContent(writer, event);
+                }
+            }
+            String xml = endFragment(writer, buffer);
+            TracingOutputType header = (TracingOutputType) prismContext.parserFor(xml).xml().compat().parseRealValue();
+            visitor.visitHeader(header);
+        }
+
+        /**
+         * Reader is at the start of the result node; at the end it is at its end.
+         * The own content of the node is copied to a separate document (named `operationResult`) and parsed
+         * before the first child is processed.
+         */
+        private void parseResult(int depth) throws XMLStreamException, SchemaException, IOException {
+            Map<String, String> ownDeclarations = getNamespaceDeclarations();
+
+            StringWriter buffer = new StringWriter();
+            XMLStreamWriter writer = startFragment(buffer, null);
+            copyStartElement(writer, OPERATION_RESULT, getInScopeNamespaces(ownDeclarations));
+
+            namespaceScopes.push(ownDeclarations);
+            try {
+                OperationResultType result = null;
+                int level = 0;
+                while (true) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if (level == 0 && isPartialResults()) {
+                            if (result == null) {
+                                result = parseResultFragment(writer, buffer);
+                                if (!visitor.startResult(result, depth)) {
+                                    skipElement(); // the child
+                                    skipElement(); // the rest of this node
+                                    return;
+                                }
+                            }
+                            parseResult(depth + 1);
+                        } else if (result != null) {
+                            LOGGER.warn("Ignoring {} after partial results of {}", reader.getName(), result.getOperation());
+                            skipElement();
+                        } else {
+                            copyStartElement(writer, reader.getLocalName(), getNamespaceDeclarations());
+                            level++;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (level == 0) {
+                            if (result == null) {
+                                result = parseResultFragment(writer, buffer);
+                                if (!visitor.startResult(result, depth)) {
+                                    return;
+                                }
+                            }
+                            visitor.endResult(result, depth);
+                            return;
+                        } else {
+                            writer.writeEndElement();
+                            level--;
+                        }
+                    } else if (result == null) {
+                        copyContent(writer, event);
+                    }
+                }
+            } finally {
+                namespaceScopes.pop();
+            }
+        }
+
+        private OperationResultType parseResultFragment(XMLStreamWriter writer, StringWriter buffer)
+                throws XMLStreamException, SchemaException {
+            writer.writeEndElement();
+            String xml = endFragment(writer, buffer);
+            return (OperationResultType) prismContext.parserFor(xml).xml().compat().parseRealValue();
+        }
+
+        private boolean isPartialResults() {
+            return OperationResultType.F_PARTIAL_RESULTS.getLocalPart().equals(reader.getLocalName());
+        }
+
+        /** Skips the rest of the current element, i.e. until its end tag. */
+        private void skipElement() throws XMLStreamException {
+            int level = 0;
+            while (level >= 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    level++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    level--;
+                }
+            }
+        }
+
+        private XMLStreamWriter startFragment(StringWriter buffer, String wrapperElementName) throws XMLStreamException {
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(buffer);
+            if (wrapperElementName != null) {
+                writer.writeStartElement("", wrapperElementName, SchemaConstants.NS_C);
+                writer.writeDefaultNamespace(SchemaConstants.NS_C);
+            }
+            return writer;
+        }
+
+        private String endFragment(XMLStreamWriter writer, StringWriter buffer) throws XMLStreamException {
+            writer.writeEndDocument(); // closes the wrapper, if there is any
+            writer.close();
+            return buffer.toString();
+        }
+
+        /** Copies the start element the reader is at, optionally renaming it (keeping its namespace). */
+        private void copyStartElement(XMLStreamWriter writer, String localName, Map<String, String> namespaces)
+                throws XMLStreamException {
+            writer.writeStartElement(
+                    Objects.requireNonNullElse(reader.getPrefix(), ""),
+                    localName,
+                    Objects.requireNonNullElse(reader.getNamespaceURI(), ""));
+            for (Map.Entry<String, String> namespace : namespaces.entrySet()) {
+                if (namespace.getKey().isEmpty()) {
+                    writer.writeDefaultNamespace(namespace.getValue());
+                } else {
+                    writer.writeNamespace(namespace.getKey(), namespace.getValue());
+                }
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String namespaceUri = reader.getAttributeNamespace(i);
+                if (namespaceUri == null || namespaceUri.isEmpty()) {
+                    writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                } else {
+                    writer.writeAttribute(
+                            reader.getAttributePrefix(i), namespaceUri, reader.getAttributeLocalName(i),
+                            reader.getAttributeValue(i));
+                }
+            }
+        }
+
+        private void copyContent(XMLStreamWriter writer, int event) throws XMLStreamException {
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.SPACE -> writer.writeCharacters(reader.getText());
+                case XMLStreamConstants.CDATA -> writer.writeCData(reader.getText());
+                default -> {
+                    // comments, processing instructions and the like are not needed
+                }
+            }
+        }
+
+        /** Namespaces declared directly on the current element. Default namespace has an empty prefix. */
+        private Map<String, String> getNamespaceDeclarations() {
+            Map<String, String> declarations = new LinkedHashMap<>();
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                declarations.put(
+                        Objects.requireNonNullElse(reader.getNamespacePrefix(i), ""),
+                        Objects.requireNonNullElse(reader.getNamespaceURI(i), ""));
+            }
+            return declarations;
+        }
+
+        /** Namespaces declared by the enclosing structural elements, overridden by the provided ones. */
+        private Map<String, String> getInScopeNamespaces(Map<String, String> ownDeclarations) {
+            Map<String, String> namespaces = new LinkedHashMap<>();
+            Iterator<Map<String, String>> outermostFirst = namespaceScopes.descendingIterator();
+            while (outermostFirst.hasNext()) {
+                namespaces.putAll(outermostFirst.next());
+            }
+            namespaces.putAll(ownDeclarations);
+            return namespaces;
+        }
+    }
+}
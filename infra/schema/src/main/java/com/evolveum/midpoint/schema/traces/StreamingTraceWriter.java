@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.schema.traces;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.xml.namespace.QName;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.prism.PrismContext;
+import com.evolveum.midpoint.prism.SerializationOptions;
+import com.evolveum.midpoint.schema.constants.SchemaConstants;
+import com.evolveum.midpoint.util.annotation.Experimental;
+import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.OperationResultType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.TracingOutputType;
+
+/**
+ * Writes a trace (i.e. {@link TracingOutputType}) incrementally, one operation result node at a time.
+ *
+ * The output is a regular trace XML document, readable by {@link TraceParser} and {@link StreamingTraceParser}.
+ * But the whole document is never held in memory: each item (metadata, environment, dictionary) and each operation result
+ * node (without its children) is serialized separately and written to the output right away.
+ *
+ * The dictionary should be written before the result tree, so that streaming consumers have it when processing the results.
+ *
+ * Usage: {@link #writeItem(QName, Object)} for the top-level items, {@link #startResult(OperationResultType)} and
+ * {@link #endResult()} (properly nested) or {@link #writeResult(OperationResultType)} for the result tree,
+ * then {@link #close()}.
+ */
+@Experimental
+public class StreamingTraceWriter implements Closeable {
+
+    static final String ROOT_ELEMENT_NAME = "tracingOutput";
+
+    @NotNull private final PrismContext prismContext;
+    @NotNull private final Writer writer;
+
+    /** Closing tags of the result nodes that were started but not ended yet. */
+    @NotNull private final Deque<String> openResults = new ArrayDeque<>();
+
+    private long charsWritten;
+
+    public StreamingTraceWriter(@NotNull PrismContext prismContext, @NotNull File file, boolean zip) throws IOException {
+        this.prismContext = prismContext;
+        if (zip) {
+            ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(file));
+            zipOutputStream.putNextEntry(new ZipEntry(TraceWriter.ZIP_ENTRY_NAME));
+            this.writer = new BufferedWriter(new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8));
+        } else {
+            this.writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        }
+        write("<" + ROOT_ELEMENT_NAME + " xmlns=\"" + SchemaConstants.NS_C + "\">\n");
+    }
+
+    /** Writes a top-level item of the trace, e.g. {@link TracingOutputType#F_DICTIONARY}. */
+    public void writeItem(@NotNull QName itemName, @NotNull Object realValue) throws SchemaException, IOException {
+        write(serialize(realValue, itemName));
+        write("\n");
+    }
+
+    /**
+     * Writes the opening part of the result node: its own content, without the children (that are ignored, if present).
+     * The first result started at the top level is the root of the result tree.
+     */
+    public void startResult(@NotNull OperationResultType result) throws SchemaException, IOException {
+        QName elementName = openResults.isEmpty() ? TracingOutputType.F_RESULT : OperationResultType.F_PARTIAL_RESULTS;
+        String xml = serializeWithoutChildren(result, elementName);
+        int closingTagStart = xml.lastIndexOf("</");
+        if (closingTagStart >= 0) {
+            write(xml.substring(0, closingTagStart));
+            openResults.push(xml.substring(closingTagStart));
+        } else {
+            // an empty element like <result xmlns="..."/>
+            String startTag = xml.substring(0, xml.length() - 2);
+            int nameEnd = 1;
+            while (nameEnd < startTag.length() && !Character.isWhitespace(startTag.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            write(startTag + ">");
+            openResults.push("</" + startTag.substring(1, nameEnd) + ">");
+        }
+    }
+
+    /** Writes the closing part of the most recently started result node. */
+    public void endResult() throws IOException {
+        if (openResults.isEmpty()) {
+            throw new IllegalStateException("No result node to end");
+        }
+        write(openResults.pop());
+        write("\n");
+    }
+
+    /** Writes the whole result tree, node by node. */
+    public void writeResult(@NotNull OperationResultType result) throws SchemaException, IOException {
+        startResult(result);
+        for (OperationResultType child : result.getPartialResults()) {
+            writeResult(child);
+        }
+        endResult();
+    }
+
+    /** Number of characters (of uncompressed XML) written so far. */
+    public long getCharsWritten() {
+        return charsWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!openResults.isEmpty()) {
+                throw new IllegalStateException("Result nodes left unfinished: " + openResults.size());
+            }
+            write("</" + ROOT_ELEMENT_NAME + ">\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Serializes the node without its children. The children are temporarily detached, as creating a shallow copy
+     * would need to enumerate all the items (and it is easy to forget some of them).
+     */
+    private String serializeWithoutChildren(OperationResultType result, QName elementName) throws SchemaException {
+        if (result.getPartialResults().isEmpty()) {
+            return serialize(result, elementName);
+        }
+        List<OperationResultType> children = new ArrayList<>(result.getPartialResults());
+        result.getPartialResults().clear();
+        try {
+            return serialize(result, elementName);
+        } finally {
+            result.getPartialResults().addAll(children);
+        }
+    }
+
+    private String serialize(Object realValue, QName elementName) throws SchemaException {
+        String xml = prismContext.xmlSerializer()
+                .options(
+                        SerializationOptions
+                                .createSerializeReferenceNames()
+                                .escapeInvalidCharacters(true)
+                                .serializeUnsupportedTypesAsString(true))
+                .serializeRealValue(realValue, elementName)
+                .trim();
+        if (xml.startsWith("<?xml")) {
+            xml = xml.substring(xml.indexOf("?>") + 2).trim();
+        }
+        return xml;
+    }
+
+    private void write(String text) throws IOException {
+        writer.write(text);
+        charsWritten += text.length();
+    }
+}
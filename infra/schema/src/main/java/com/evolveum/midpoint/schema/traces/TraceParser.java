@@ -10,8 +10,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import com.evolveum.midpoint.util.annotation.Experimental;
 
@@ -19,16 +19,12 @@ import org.jetbrains.annotations.NotNull;
 
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.util.exception.SchemaException;
-import com.evolveum.midpoint.util.logging.Trace;
-import com.evolveum.midpoint.util.logging.TraceManager;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.OperationResultType;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.TracingOutputType;
 
 @Experimental
 public class TraceParser {
 
-    private static final Trace LOGGER = TraceManager.getTrace(TraceParser.class);
-
     @NotNull private final PrismContext prismContext;
 
     public TraceParser(@NotNull PrismContext prismContext) {
@@ -57,35 +53,57 @@ public class TraceParser {
         return wholeTracingOutput;
     }
 
+    /**
+     * Reads the trace using {@link StreamingTraceParser}, building the tree from individually parsed nodes.
+     * This is much less memory-hungry than parsing the whole document at once.
+     */
     public TracingOutputType getObject(InputStream stream, boolean isZip, String description) throws IOException, SchemaException {
-        long start = System.currentTimeMillis();
-        Object object;
-        if (isZip) {
-            try (ZipInputStream zis = new ZipInputStream(stream)) {
-                ZipEntry zipEntry = zis.getNextEntry();
-                if (zipEntry != null) {
-                    object = prismContext.parserFor(zis).xml().compat().parseRealValue();
-                } else {
-                    LOGGER.error("No zip entry in input file '{}'", description);
-                    object = null;
-                }
+        TreeBuilder treeBuilder = new TreeBuilder();
+        new StreamingTraceParser(prismContext).parse(stream, isZip, description, treeBuilder);
+        return treeBuilder.tracingOutput;
+    }
+
+    /** Puts the parsed parts together. */
+    private static class TreeBuilder implements StreamingTraceParser.Visitor {
+
+        private TracingOutputType tracingOutput;
+        private final Deque<OperationResultType> openResults = new ArrayDeque<>();
+
+        @Override
+        public void visitHeader(@NotNull TracingOutputType header) {
+            TracingOutputType output = getTracingOutput();
+            if (header.getMetadata() != null) {
+                output.setMetadata(header.getMetadata().clone());
+            }
+            if (header.getEnvironment() != null) {
+                output.setEnvironment(header.getEnvironment().clone());
+            }
+            if (header.getDictionary() != null) {
+                output.setDictionary(header.getDictionary().clone());
             }
-        } else {
-            object = prismContext.parserFor(stream).xml().compat().parseRealValue();
         }
-        stream.close();
-        long read = System.currentTimeMillis();
-        LOGGER.debug("Read the content of {} in {} milliseconds", description, read - start);
-
-        if (object instanceof TracingOutputType) {
-            return (TracingOutputType) object;
-        } else if (object instanceof OperationResultType) {
-            TracingOutputType rv = new TracingOutputType(prismContext);
-            rv.setResult((OperationResultType) object);
-            return rv;
-        } else {
-            LOGGER.error("Wrong object type in input file '{}': {}", description, object);
-            return null;
+
+        @Override
+        public boolean startResult(@NotNull OperationResultType result, int depth) {
+            if (openResults.isEmpty()) {
+                getTracingOutput().setResult(result);
+            } else {
+                openResults.peek().getPartialResults().add(result);
+            }
+            openResults.push(result);
+            return true;
+        }
+
+        @Override
+        public void endResult(@NotNull OperationResultType result, int depth) {
+            openResults.pop();
+        }
+
+        private TracingOutputType getTracingOutput() {
+            if (tracingOutput == null) {
+                tracingOutput = new TracingOutputType();
+            }
+            return tracingOutput;
         }
     }
 }
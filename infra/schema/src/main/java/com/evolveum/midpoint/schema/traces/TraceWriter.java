@@ -22,7 +22,7 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.TracingOutputType;
 @Experimental
 public class TraceWriter {
 
-    private static final String ZIP_ENTRY_NAME = "trace.xml";
+    static final String ZIP_ENTRY_NAME = "trace.xml";
 
     @NotNull private final PrismContext prismContext;
 
@@ -48,4 +48,30 @@ public class TraceWriter {
         }
         return xml;
     }
+
+    /**
+     * Writes the trace node by node using {@link StreamingTraceWriter}, so the whole XML is never held in memory.
+     * The dictionary is written before the result tree.
+     *
+     * @return Number of characters written (before compression).
+     */
+    public long writeTraceIncrementally(TracingOutputType tracingOutput, File file, boolean zip)
+            throws SchemaException, IOException {
+        StreamingTraceWriter writer = new StreamingTraceWriter(prismContext, file, zip);
+        try (writer) {
+            if (tracingOutput.getMetadata() != null) {
+                writer.writeItem(TracingOutputType.F_METADATA, tracingOutput.getMetadata());
+            }
+            if (tracingOutput.getEnvironment() != null) {
+                writer.writeItem(TracingOutputType.F_ENVIRONMENT, tracingOutput.getEnvironment());
+            }
+            if (tracingOutput.getDictionary() != null) {
+                writer.writeItem(TracingOutputType.F_DICTIONARY, tracingOutput.getDictionary());
+            }
+            if (tracingOutput.getResult() != null) {
+                writer.writeResult(tracingOutput.getResult());
+            }
+        }
+        return writer.getCharsWritten();
+    }
 }
@@ -39,6 +39,9 @@ public class ContainerValueIdGenerator {
     /** PCVs without ID; to be generated in {@link #assignMissingContainerIds()}. */
     private final List<PrismContainerValue<?>> pcvsWithoutId = new ArrayList<>();
 
+    /** PCVs that got their IDs from this generator, see {@link #removeGeneratedIds()}. */
+    private final List<PrismContainerValue<?>> pcvsWithGeneratedId = new ArrayList<>();
+
     /** Tracks max CID: either existing or generated. */
     private long maxUsedId = 0;
 
@@ -163,11 +166,23 @@ public class ContainerValueIdGenerator {
     private void assignMissingContainerIds() {
         for (PrismContainerValue<?> val : pcvsWithoutId) {
             val.setId(nextId());
+            pcvsWithGeneratedId.add(val);
             generated++;
         }
         pcvsWithoutId.clear();
     }
 
+    /**
+     * Removes the IDs assigned by this generator, e.g. when the object was not stored because the transaction
+     * was rolled back. The values are then without IDs again, as they were before the generator processed them.
+     */
+    public void removeGeneratedIds() {
+        for (PrismContainerValue<?> val : pcvsWithGeneratedId) {
+            val.setId(null);
+        }
+        pcvsWithGeneratedId.clear();
+    }
+
     public long nextId() {
         maxUsedId++;
         return maxUsedId;
@@ -8,6 +8,7 @@ package com.evolveum.midpoint.schema.util.task;
 
 import static com.evolveum.midpoint.util.MiscUtil.stateCheck;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -21,6 +22,9 @@ import org.jetbrains.annotations.Nullable;
 import com.evolveum.midpoint.prism.PrismContainer;
 import com.evolveum.midpoint.prism.PrismContainerValue;
 import com.evolveum.midpoint.prism.path.ItemPath;
+import com.evolveum.midpoint.schema.GetOperationOptions;
+import com.evolveum.midpoint.schema.SchemaService;
+import com.evolveum.midpoint.schema.SelectorOptions;
 import com.evolveum.midpoint.util.MiscUtil;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
@@ -36,6 +40,17 @@ public class ActivityStateUtil {
 
     private static final Trace LOGGER = TraceManager.getTrace(ActivityStateUtil.class);
 
+    /**
+     * Options for retrieving a task with the activity state only, e.g. for dynamic modifications of the activity state.
+     * The repository can then avoid reading (and writing) the whole task, if it stores the activity state separately.
+     */
+    public static Collection<SelectorOptions<GetOperationOptions>> createActivityStateOnlyOptions() {
+        return SchemaService.get().getOperationOptionsBuilder()
+                .dontRetrieve()
+                .item(TaskType.F_ACTIVITY_STATE).retrieve()
+                .build();
+    }
+
     /**
      * @return True if the progress of the task can be determined by looking only at the task itself.
      * Currently this is true for tasks without delegation.
@@ -7,6 +7,8 @@
 package com.evolveum.midpoint.schema;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
 
 import static com.evolveum.midpoint.prism.util.PrismTestUtil.getPrismContext;
 import static com.evolveum.midpoint.xml.ns._public.common.common_3.OperationResultImportanceType.MAJOR;
@@ -208,6 +210,92 @@ public class TestOperationResult extends AbstractSchemaTest {
         checkResultConversion(root, true);
     }
 
+    @Test
+    public void testLightweightMode() throws Exception {
+        given();
+        OperationResult root = OperationResult.newResult("root")
+                .lightweight()
+                .build();
+
+        when("first subresult is processed successfully, second one fails");
+        OperationResult sub1 = root.subresult("sub1")
+                .addParam("param", "value")
+                .build();
+        OperationResult sub11 = sub1.createSubresult("sub11");
+        sub11.recordSuccess();
+        sub1.close();
+
+        OperationResult sub2 = root.createSubresult("sub2");
+        OperationResult sub21 = sub2.createSubresult("sub21");
+        sub21.recordFatalError("Fatal");
+        sub2.close();
+
+        OperationResult sub3 = root.createSubresult("sub3");
+        sub3.recordSuccess();
+        root.close();
+
+        then();
+        System.out.println("Lightweight result:\n" + root.debugDump());
+        assertTrue("sub1 is not lightweight", sub1.isLightweight());
+        assertTrue("param was recorded", sub1.getParams().isEmpty());
+        assertEquals("Wrong # of root subresults", 3, root.getSubresults().size());
+        assertEquals("Subresults of successful sub1 were not dropped", 0, sub1.getSubresults().size());
+        assertEquals("Subresults of failed sub2 were dropped", 1, sub2.getSubresults().size());
+        assertEquals("Wrong status of sub1", OperationResultStatus.SUCCESS, sub1.getStatus());
+        assertEquals("Wrong overall status", OperationResultStatus.FATAL_ERROR, root.getStatus());
+
+        checkResultConversion(root, false);
+    }
+
+    /** The lightweight mode requested for a subresult (as done for item results) must survive its addition to the parent. */
+    @Test
+    public void testLightweightModeOfSubresult() {
+        given("regular (non-lightweight) parent");
+        OperationResult parent = OperationResult.newResult("parent").build();
+
+        when("lightweight subresult is built and processed");
+        OperationResult item = parent.subresult("item")
+                .lightweight()
+                .build();
+        OperationResult sub1 = item.subresult("sub1")
+                .addParam("param", "value")
+                .build();
+        OperationResult sub11 = sub1.createSubresult("sub11");
+        sub11.recordSuccess();
+        sub1.close();
+        OperationResult sub2 = item.createSubresult("sub2");
+        sub2.recordSuccess();
+        item.close();
+        parent.close();
+
+        then("subresult is lightweight and pruning takes place");
+        assertFalse("parent is lightweight", parent.isLightweight());
+        assertTrue("item is not lightweight", item.isLightweight());
+        assertTrue("sub1 is not lightweight", sub1.isLightweight());
+        assertTrue("param was recorded", sub1.getParams().isEmpty());
+        assertEquals("Wrong # of item subresults", 2, item.getSubresults().size());
+        assertEquals("Subresults of successful sub1 were not dropped", 0, sub1.getSubresults().size());
+        assertEquals("Wrong overall status", OperationResultStatus.SUCCESS, parent.getStatus());
+    }
+
+    @Test
+    public void testLightweightModeIgnoredWhenPreserving() {
+        when();
+        OperationResult root = OperationResult.newResult("root")
+                .preserve()
+                .lightweight()
+                .build();
+        OperationResult sub = root.subresult("sub")
+                .addParam("param", "value")
+                .build();
+        sub.close();
+
+        then();
+        assertFalse("root is lightweight", root.isLightweight());
+        assertFalse("sub is lightweight", sub.isLightweight());
+        assertEquals("param was not recorded", 1, sub.getParams().size());
+    }
+
     private void checkResultConversion(OperationResult result, boolean assertEquals) throws SchemaException {
         when();
         OperationResultType resultType = result.createOperationResultType();
@@ -6,6 +6,7 @@
 
 package com.evolveum.midpoint.schema.traces;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.AssertJUnit.assertEquals;
 
 import static com.evolveum.midpoint.prism.util.PrismTestUtil.getPrismContext;
@@ -17,6 +18,7 @@ import java.util.List;
 
 import com.evolveum.midpoint.util.annotation.Experimental;
 
+import org.apache.commons.lang3.mutable.MutableInt;
 import org.testng.annotations.Test;
 
 import com.evolveum.midpoint.prism.PrismContext;
@@ -77,6 +79,41 @@ public class TestParseTrace extends AbstractSchemaTest {
         testParseTrace(TRACE_RECONCILE_USER);
     }
 
+    /** Writes the trace incrementally, and reads it back using the streaming parser. */
+    @Test
+    public void test200WriteAndParseIncrementally() throws SchemaException, IOException {
+        given("a parsed trace");
+        PrismContext prismContext = getPrismContext();
+        TracingOutputType original = new TraceParser(prismContext).parse(TRACE_RECONCILE_USER, true);
+        int originalNodes = countNodes(original.getResult());
+
+        when("it is written node by node");
+        File file = new File("target/trace-incremental.zip");
+        long chars = new TraceWriter(prismContext).writeTraceIncrementally(original, file, true);
+
+        then("it can be read back");
+        assertThat(chars).isPositive();
+        TracingOutputType reread = new TraceParser(prismContext).parse(file, true);
+        assertThat(reread.getMetadata().getCreateTimestamp()).isEqualTo(original.getMetadata().getCreateTimestamp());
+        assertThat(reread.getDictionary().getEntry()).hasSameSizeAs(original.getDictionary().getEntry());
+        assertThat(countNodes(reread.getResult())).isEqualTo(originalNodes);
+        assertThat(reread.getResult().getOperation()).isEqualTo(original.getResult().getOperation());
+
+        and("the streaming parser can skip subtrees");
+        MutableInt visited = new MutableInt();
+        new StreamingTraceParser(prismContext).parse(file, (result, depth) -> {
+            visited.increment();
+            return depth < 1;
+        });
+        assertThat(visited.intValue()).isEqualTo(1 + original.getResult().getPartialResults().size());
+    }
+
+    private int countNodes(OperationResultType result) {
+        return 1 + result.getPartialResults().stream()
+                .mapToInt(this::countNodes)
+                .sum();
+    }
+
     private void testParseTrace(File file) throws IOException, SchemaException {
         given();
         PrismContext prismContext = getPrismContext();
@@ -309,6 +309,7 @@ public class AccCertOpenerHelper {
 
         AccessCertificationReviewerSpecificationType reviewerSpec =
                 reviewersHelper.findReviewersSpecification(campaign, 1);
+        AccCertReviewersCache reviewersCache = new AccCertReviewersCache();
 
         assert norm(campaign.getIteration()) == 1;
 
@@ -320,7 +321,8 @@ public class AccCertOpenerHelper {
             aCase.setCurrentStageCreateTimestamp(stage.getStartTimestamp());
             aCase.setCurrentStageDeadline(stage.getDeadline());
 
-            List<ObjectReferenceType> reviewers = reviewersHelper.getReviewersForCase(aCase, campaign, reviewerSpec, task, result);
+            List<ObjectReferenceType> reviewers = reviewersHelper.getReviewersForCase(
+                    aCase, campaign, reviewerSpec, reviewersCache, task, result);
             aCase.getWorkItem().addAll(createWorkItems(reviewers, 1, 1, aCase));
 
             openingContext.workItemsCreated += aCase.getWorkItem().size();
@@ -430,6 +432,7 @@ public class AccCertOpenerHelper {
 
         AccessCertificationReviewerSpecificationType reviewerSpec =
                 reviewersHelper.findReviewersSpecification(campaign, stageToBe);
+        AccCertReviewersCache reviewersCache = new AccCertReviewersCache();
 
         LOGGER.trace("cases: {}, reviewerSpec: {}", caseList.size(), reviewerSpec);
         for (AccessCertificationCaseType aCase : caseList) {
@@ -448,7 +451,8 @@ public class AccCertOpenerHelper {
                 continue;
             }
 
-            List<ObjectReferenceType> reviewers = reviewersHelper.getReviewersForCase(aCase, campaign, reviewerSpec, task, result);
+            List<ObjectReferenceType> reviewers = reviewersHelper.getReviewersForCase(
+                    aCase, campaign, reviewerSpec, reviewersCache, task, result);
             List<AccessCertificationWorkItemType> workItems = createWorkItems(reviewers, stageToBe, iteration, aCase);
             openingContext.workItemsCreated += workItems.size();
             openingContext.casesEnteringStage++;
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.certification.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import com.evolveum.midpoint.prism.util.CloneUtil;
+import com.evolveum.midpoint.util.exception.ObjectNotFoundException;
+import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectReferenceType;
+
+/**
+ * Memoizes those parts of the reviewer resolution (see {@link AccCertReviewersHelper}) that do not depend on the particular
+ * certification case: owners and approvers of the targets (and objects), and members of the roles (orgs, services)
+ * specified as reviewers. For large campaigns, the same targets and reviewer roles occur in many cases.
+ *
+ * The cached data are not invalidated. Hence, the cache should be used only for a single (bulk) operation, like the opening
+ * of a campaign stage. It can be used by multiple threads concurrently.
+ */
+public class AccCertReviewersCache {
+
+    private static final Trace LOGGER = TraceManager.getTrace(AccCertReviewersCache.class);
+
+    private final Map<Key, List<ObjectReferenceType>> cache = new ConcurrentHashMap<>();
+
+    /** How many times were the reviewers computed, i.e. not taken from the cache. */
+    private final AtomicInteger computations = new AtomicInteger();
+
+    /**
+     * Returns the cached value, or computes it (and caches it). The returned list is a fresh copy, so the caller may
+     * modify it, including the references in it. The `null` value provided by the supplier is treated as an empty list.
+     */
+    @NotNull List<ObjectReferenceType> get(
+            @NotNull String kind, @NotNull String oid, @NotNull ReviewersSupplier supplier)
+            throws SchemaException, ObjectNotFoundException {
+        var key = new Key(kind, oid);
+        var cached = cache.get(key);
+        if (cached == null) {
+            var computed = supplier.get();
+            computations.incrementAndGet();
+            cached = computed != null ? List.copyOf(CloneUtil.cloneCollectionMembers(computed)) : List.of();
+            cache.put(key, cached);
+            LOGGER.trace("Computed and cached {} for {}: {} reviewer(s)", kind, oid, cached.size());
+        }
+        return new ArrayList<>(CloneUtil.cloneCollectionMembers(cached));
+    }
+
+    @VisibleForTesting // public because of certification tests
+    public int size() {
+        return cache.size();
+    }
+
+    @VisibleForTesting // public because of certification tests
+    public int getComputations() {
+        return computations.get();
+    }
+
+    @Override
+    public String toString() {
+        return "AccCertReviewersCache{entries=" + cache.size() + ", computations=" + computations.get() + "}";
+    }
+
+    private record Key(@NotNull String kind, @NotNull String oid) {
+    }
+
+    @FunctionalInterface
+    interface ReviewersSupplier {
+        @Nullable Collection<ObjectReferenceType> get() throws SchemaException, ObjectNotFoundException;
+    }
+}
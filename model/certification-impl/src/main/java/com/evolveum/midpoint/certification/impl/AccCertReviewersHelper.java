@@ -28,6 +28,7 @@ import com.evolveum.midpoint.util.exception.*;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -61,22 +62,36 @@ public class AccCertReviewersHelper {
             AccessCertificationReviewerSpecificationType reviewerSpec,
             Task task,
             OperationResult result) throws SchemaException, ObjectNotFoundException {
+        return getReviewersForCase(_case, campaign, reviewerSpec, null, task, result);
+    }
+
+    /**
+     * Determines the reviewers for given case. The case-independent parts of the resolution (owners/approvers of the targets
+     * and objects, members of reviewer roles) are taken from the `cache`, if provided.
+     */
+    public List<ObjectReferenceType> getReviewersForCase(
+            AccessCertificationCaseType _case,
+            AccessCertificationCampaignType campaign,
+            AccessCertificationReviewerSpecificationType reviewerSpec,
+            @Nullable AccCertReviewersCache cache,
+            Task task,
+            OperationResult result) throws SchemaException, ObjectNotFoundException {
         if (reviewerSpec == null) {
             return Collections.emptyList(); // TODO issue a warning here?
         }
 
         List<ObjectReferenceType> reviewers = new ArrayList<>();
         if (Boolean.TRUE.equals(reviewerSpec.isUseTargetOwner())) {
-            cloneAndMerge(reviewers, getTargetObjectOwners(_case, result));
+            cloneAndMerge(reviewers, getTargetObjectOwners(_case, cache, result));
         }
         if (Boolean.TRUE.equals(reviewerSpec.isUseTargetApprover())) {
-            cloneAndMerge(reviewers, getTargetObjectApprovers(_case, result));
+            cloneAndMerge(reviewers, getTargetObjectApprovers(_case, cache, result));
         }
         if (Boolean.TRUE.equals(reviewerSpec.isUseObjectOwner())) {
-            cloneAndMerge(reviewers, getObjectOwners(_case, result));
+            cloneAndMerge(reviewers, getObjectOwners(_case, cache, result));
         }
         if (Boolean.TRUE.equals(reviewerSpec.isUseObjectApprover())) {
-            cloneAndMerge(reviewers, getObjectApprovers(_case, result));
+            cloneAndMerge(reviewers, getObjectApprovers(_case, cache, result));
         }
         if (reviewerSpec.getUseObjectManager() != null) {
             cloneAndMerge(reviewers, getObjectManagers(_case, reviewerSpec.getUseObjectManager(), task, result));
@@ -92,18 +107,19 @@ public class AccCertReviewersHelper {
                             reviewerExpression, variables, "reviewer expression", task, result);
             cloneAndMerge(reviewers, refList);
         }
-        resolveRoleReviewers(reviewers, result);
+        resolveRoleReviewers(reviewers, cache, result);
         if (reviewers.isEmpty()) {
             cloneAndMerge(reviewers, reviewerSpec.getDefaultReviewerRef());
         }
         cloneAndMerge(reviewers, reviewerSpec.getAdditionalReviewerRef());
-        resolveRoleReviewers(reviewers, result);
+        resolveRoleReviewers(reviewers, cache, result);
 
         return reviewers;
     }
 
-    private void resolveRoleReviewers(List<ObjectReferenceType> reviewers, OperationResult result)
-            throws SchemaException {
+    private void resolveRoleReviewers(
+            List<ObjectReferenceType> reviewers, @Nullable AccCertReviewersCache cache, OperationResult result)
+            throws SchemaException, ObjectNotFoundException {
         List<ObjectReferenceType> resolved = new ArrayList<>();
         for (Iterator<ObjectReferenceType> iterator = reviewers.iterator(); iterator.hasNext(); ) {
             ObjectReferenceType reviewer = iterator.next();
@@ -111,7 +127,11 @@ public class AccCertReviewersHelper {
                     || QNameUtil.match(reviewer.getType(), OrgType.COMPLEX_TYPE)
                     || QNameUtil.match(reviewer.getType(), ServiceType.COMPLEX_TYPE)) {
                 iterator.remove();
-                resolved.addAll(getMembers(reviewer, result));
+                if (cache != null) {
+                    resolved.addAll(cache.get("members", reviewer.getOid(), () -> getMembers(reviewer, result)));
+                } else {
+                    resolved.addAll(getMembers(reviewer, result));
+                }
             }
         }
         for (ObjectReferenceType ref : resolved) {
@@ -192,11 +212,15 @@ public class AccCertReviewersHelper {
         }
     }
 
-    private List<ObjectReferenceType> getTargetObjectOwners(AccessCertificationCaseType _case, OperationResult result)
+    private Collection<ObjectReferenceType> getTargetObjectOwners(
+            AccessCertificationCaseType _case, @Nullable AccCertReviewersCache cache, OperationResult result)
             throws SchemaException, ObjectNotFoundException {
         if (_case.getTargetRef() == null) {
             return null;
         }
+        if (cache != null) {
+            return cache.get("targetOwners", _case.getTargetRef().getOid(), () -> getTargetObjectOwners(_case, null, result));
+        }
         ObjectType target = resolveReference(_case.getTargetRef(), ObjectType.class, result);
         if (target instanceof AbstractRoleType) {
             return getReviewers((AbstractRoleType) target, RelationKindType.OWNER, result);
@@ -229,24 +253,34 @@ public class AccCertReviewersHelper {
         return rv;
     }
 
-    private List<ObjectReferenceType> getObjectOwners(AccessCertificationCaseType _case, OperationResult result)
+    private Collection<ObjectReferenceType> getObjectOwners(
+            AccessCertificationCaseType _case, @Nullable AccCertReviewersCache cache, OperationResult result)
             throws SchemaException, ObjectNotFoundException {
         if (_case.getObjectRef() == null) {
             return null;
         }
         ObjectType object = resolveReference(_case.getObjectRef(), ObjectType.class, result);
-        if (object instanceof AbstractRoleType) {
-            return getReviewers((AbstractRoleType) object, RelationKindType.OWNER, result);
+        if (object instanceof AbstractRoleType role) {
+            // The objects are mostly users, so we cache only the part related to roles.
+            if (cache != null) {
+                return cache.get("owners", role.getOid(), () -> getReviewers(role, RelationKindType.OWNER, result));
+            } else {
+                return getReviewers(role, RelationKindType.OWNER, result);
+            }
         } else {
             return null;
         }
     }
 
     private Collection<ObjectReferenceType> getTargetObjectApprovers(AccessCertificationCaseType _case,
-            OperationResult result) throws SchemaException, ObjectNotFoundException {
+            @Nullable AccCertReviewersCache cache, OperationResult result) throws SchemaException, ObjectNotFoundException {
         if (_case.getTargetRef() == null) {
             return null;
         }
+        if (cache != null) {
+            return cache.get("targetApprovers", _case.getTargetRef().getOid(),
+                    () -> getTargetObjectApprovers(_case, null, result));
+        }
         ObjectType target = resolveReference(_case.getTargetRef(), ObjectType.class, result);
         if (target instanceof AbstractRoleType) {
             return getReviewers((AbstractRoleType) target, RelationKindType.APPROVER, result);
@@ -258,13 +292,17 @@ public class AccCertReviewersHelper {
     }
 
     private Collection<ObjectReferenceType> getObjectApprovers(AccessCertificationCaseType _case,
-            OperationResult result) throws SchemaException, ObjectNotFoundException {
+            @Nullable AccCertReviewersCache cache, OperationResult result) throws SchemaException, ObjectNotFoundException {
         if (_case.getObjectRef() == null) {
             return null;
         }
         ObjectType object = resolveReference(_case.getObjectRef(), ObjectType.class, result);
-        if (object instanceof AbstractRoleType) {
-            return getReviewers((AbstractRoleType) object, RelationKindType.APPROVER, result);
+        if (object instanceof AbstractRoleType role) {
+            if (cache != null) {
+                return cache.get("approvers", role.getOid(), () -> getReviewers(role, RelationKindType.APPROVER, result));
+            } else {
+                return getReviewers(role, RelationKindType.APPROVER, result);
+            }
         } else {
             return null;
         }
@@ -68,6 +68,9 @@ public abstract class AccessCertificationStageManagementRun<
     private AccCertResponseComputationHelper computationHelper;
     private AccCertReviewersHelper reviewersHelper;
 
+    /** Reviewers resolution data shared by all the cases (and worker threads) of this run. */
+    private final AccCertReviewersCache reviewersCache = new AccCertReviewersCache();
+
     public AccessCertificationStageManagementRun(@NotNull ActivityRunInstantiationContext<WD, AH> context, @NotNull String shortNameCapitalized) {
         super(context, shortNameCapitalized);
     }
@@ -307,4 +310,8 @@ public abstract class AccessCertificationStageManagementRun<
     public AccCertReviewersHelper getReviewersHelper() {
         return reviewersHelper;
     }
+
+    public AccCertReviewersCache getReviewersCache() {
+        return reviewersCache;
+    }
 }
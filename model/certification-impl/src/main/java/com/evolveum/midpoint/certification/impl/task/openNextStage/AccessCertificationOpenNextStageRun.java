@@ -67,7 +67,8 @@ public final class AccessCertificationOpenNextStageRun
             return true;
         }
 
-        List<ObjectReferenceType> reviewers = getReviewersHelper().getReviewersForCase(item, getCampaign(), getReviewerSpec(), getRunningTask(), result);
+        List<ObjectReferenceType> reviewers = getReviewersHelper().getReviewersForCase(
+                item, getCampaign(), getReviewerSpec(), getReviewersCache(), getRunningTask(), result);
         List<AccessCertificationWorkItemType> workItems = createWorkItems(reviewers, getStageToBe(), getIteration(), item);
 
         item.getWorkItem().addAll(CloneUtil.cloneCollectionMembers(workItems));
@@ -66,7 +66,8 @@ public final class AccessCertificationStartCampaignRun
             aCase.setCurrentStageDeadline(getStage().getDeadline());
 
 
-            List<ObjectReferenceType> reviewers = getReviewersHelper().getReviewersForCase(aCase, getCampaign(), getReviewerSpec(), task, result);
+            List<ObjectReferenceType> reviewers = getReviewersHelper().getReviewersForCase(
+                    aCase, getCampaign(), getReviewerSpec(), getReviewersCache(), task, result);
             aCase.getWorkItem().addAll(createWorkItems(reviewers, 1, 1, aCase));
 
             AccessCertificationResponseType currentStageOutcome = getComputationHelper().computeOutcomeForStage(aCase, getCampaign(), 1);
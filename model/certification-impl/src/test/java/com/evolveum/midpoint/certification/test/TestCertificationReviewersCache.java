@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.certification.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.certification.impl.AccCertReviewersCache;
+import com.evolveum.midpoint.certification.impl.AccCertReviewersHelper;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+
+/**
+ * Tests the reviewers resolution using {@link AccCertReviewersCache}, as it is done when a campaign stage is opened.
+ *
+ * The cases are those of the "critical roles" campaign (see `certification-of-critical-roles.xml`), so that more cases
+ * share the same target.
+ */
+@ContextConfiguration(locations = { "classpath:ctx-certification-test-main.xml" })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class TestCertificationReviewersCache extends AbstractCertificationTest {
+
+    @Autowired private AccCertReviewersHelper reviewersHelper;
+
+    /**
+     * The (case-independent) reviewers are resolved once per kind and OID within a stage, and the result is the same
+     * as if no cache was used.
+     */
+    @Test
+    public void test100ReviewersAreResolvedOncePerTarget() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("cases sharing the targets, and reviewer specification using target owners, approvers, and a reviewer role");
+        List<AccessCertificationCaseType> cases = createCases();
+        var campaign = new AccessCertificationCampaignType();
+        var reviewerSpec = createReviewerSpecification();
+        var cache = new AccCertReviewersCache();
+
+        when("reviewers are determined for all the cases, with and without the cache");
+        List<List<String>> cachedReviewers = new ArrayList<>();
+        List<List<String>> uncachedReviewers = new ArrayList<>();
+        for (AccessCertificationCaseType aCase : cases) {
+            cachedReviewers.add(
+                    getOids(reviewersHelper.getReviewersForCase(aCase, campaign, reviewerSpec, cache, task, result)));
+            uncachedReviewers.add(
+                    getOids(reviewersHelper.getReviewersForCase(aCase, campaign, reviewerSpec, task, result)));
+        }
+
+        then("the reviewers are the same");
+        displayValue("reviewers", cachedReviewers);
+        assertThat(cachedReviewers).isEqualTo(uncachedReviewers);
+        assertThat(cachedReviewers.get(0)).as("reviewers of jack->CEO").contains(USER_ELAINE_OID, USER_JACK_OID);
+        assertThat(cachedReviewers.get(3)).as("reviewers of guybrush->COO").contains(USER_ADMINISTRATOR_OID);
+
+        and("each of (target owners, target approvers) x (CEO, COO, CTO) and the reviewer role members was resolved once");
+        displayValue("cache", cache);
+        assertThat(cache.size()).as("cache entries").isEqualTo(7);
+        assertThat(cache.getComputations()).as("computations").isEqualTo(7);
+    }
+
+    /** Modifications of the returned reviewers do not get into the cache. */
+    @Test
+    public void test110ReturnedReviewersAreIndependentOfCache() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("reviewers determined for a case, using the cache");
+        var aCase = createCase(USER_JACK_OID, ROLE_CEO_OID);
+        var campaign = new AccessCertificationCampaignType();
+        var reviewerSpec = createReviewerSpecification();
+        var cache = new AccCertReviewersCache();
+        List<ObjectReferenceType> reviewers =
+                reviewersHelper.getReviewersForCase(aCase, campaign, reviewerSpec, cache, task, result);
+        List<String> original = getOids(reviewers);
+
+        when("the returned reviewers are modified");
+        reviewers.forEach(reviewer -> reviewer.setOid(USER_GUYBRUSH_OID));
+        reviewers.clear();
+
+        then("the reviewers determined again (from the cache) are the original ones");
+        assertThat(getOids(reviewersHelper.getReviewersForCase(aCase, campaign, reviewerSpec, cache, task, result)))
+                .isEqualTo(original);
+        assertThat(cache.getComputations()).as("computations").isEqualTo(cache.size());
+    }
+
+    private @NotNull AccessCertificationReviewerSpecificationType createReviewerSpecification() {
+        return new AccessCertificationReviewerSpecificationType()
+                .useTargetOwner(true)
+                .useTargetApprover(true)
+                .useObjectOwner(true) // the objects are users, so nothing is cached here
+                .additionalReviewerRef(ROLE_REVIEWER_OID, RoleType.COMPLEX_TYPE);
+    }
+
+    private @NotNull List<AccessCertificationCaseType> createCases() {
+        return List.of(
+                createCase(USER_JACK_OID, ROLE_CEO_OID),
+                createCase(USER_ELAINE_OID, ROLE_CEO_OID),
+                createCase(USER_ADMINISTRATOR_OID, ROLE_CEO_OID),
+                createCase(USER_GUYBRUSH_OID, ROLE_COO_OID),
+                createCase(USER_ADMINISTRATOR_OID, ROLE_COO_OID),
+                createCase(USER_JACK_OID, ROLE_CTO_OID));
+    }
+
+    private @NotNull AccessCertificationCaseType createCase(String userOid, String roleOid) {
+        return new AccessCertificationAssignmentCaseType()
+                .objectRef(userOid, UserType.COMPLEX_TYPE)
+                .targetRef(roleOid, RoleType.COMPLEX_TYPE);
+    }
+
+    private @NotNull List<String> getOids(List<ObjectReferenceType> refs) {
+        return refs.stream()
+                .map(ObjectReferenceType::getOid)
+                .toList();
+    }
+}
@@ -608,6 +608,15 @@ public interface ModelInteractionService {
     @NotNull CollectionStats determineCollectionStats(@NotNull CompiledObjectCollectionView collectionView, @NotNull Task task, @NotNull OperationResult result)
             throws SchemaException, ObjectNotFoundException, SecurityViolationException, ConfigurationException, CommunicationException, ExpressionEvaluationException;
 
+    /**
+     * Determines the stats for more collection views at once, in the same order. Objects of the same type are counted
+     * in batches (see {@link ModelService#countObjectsBatch(Class, List, Collection, Task, OperationResult)}),
+     * so e.g. a dashboard does not need a separate database query for each of its widgets.
+     */
+    @Experimental
+    @NotNull List<CollectionStats> determineCollectionStats(@NotNull List<CompiledObjectCollectionView> collectionViews, @NotNull Task task, @NotNull OperationResult result)
+            throws SchemaException, ObjectNotFoundException, SecurityViolationException, ConfigurationException, CommunicationException, ExpressionEvaluationException;
+
     /**
      * Applying all GuiObjectListViewsType to CompiledObjectCollectionView
      */
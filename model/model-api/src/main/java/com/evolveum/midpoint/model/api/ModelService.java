@@ -9,6 +9,7 @@ package com.evolveum.midpoint.model.api;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -74,6 +75,7 @@ public interface ModelService {
     String SEARCH_CONTAINERS = CLASS_NAME_WITH_DOT + "searchContainers";
     String COUNT_CONTAINERS = CLASS_NAME_WITH_DOT + "countContainers";
     String COUNT_OBJECTS = CLASS_NAME_WITH_DOT + "countObjects";
+    String COUNT_OBJECTS_BATCH = CLASS_NAME_WITH_DOT + "countObjectsBatch";
     String SEARCH_REFERENCES = CLASS_NAME_WITH_DOT + "searchReferences";
     String COUNT_REFERENCES = CLASS_NAME_WITH_DOT + "countReferences";
     String EXECUTE_CHANGES = CLASS_NAME_WITH_DOT + "executeChanges";
@@ -485,6 +487,26 @@ public interface ModelService {
             Task task, OperationResult parentResult)
                     throws SchemaException, ObjectNotFoundException, SecurityViolationException, ConfigurationException, CommunicationException, ExpressionEvaluationException;
 
+    /**
+     * Returns the numbers of objects that match each of the specified queries, in the same order.
+     *
+     * The result is the same as if {@link #countObjects(Class, ObjectQuery, Collection, Task, OperationResult)} was called
+     * for each of the queries (including the authorizations applied), but the objects stored in the repository may be
+     * counted in a single pass over the data. Useful e.g. for dashboards that display many counts over the same type.
+     */
+    @Experimental
+    default <T extends ObjectType> @NotNull List<Integer> countObjectsBatch(
+            Class<T> type, List<ObjectQuery> queries, Collection<SelectorOptions<GetOperationOptions>> options,
+            Task task, OperationResult parentResult)
+            throws SchemaException, ObjectNotFoundException, SecurityViolationException, ConfigurationException,
+            CommunicationException, ExpressionEvaluationException {
+        List<Integer> counts = new ArrayList<>(queries.size());
+        for (ObjectQuery query : queries) {
+            counts.add(countObjects(type, query, options, task, parentResult));
+        }
+        return counts;
+    }
+
 
 
     default <T extends ObjectType> SearchResultList<PrismObject<T>> searchObjects(TypedQuery<T> query,
@@ -6,6 +6,7 @@
 
 package com.evolveum.midpoint.model.api.authentication;
 
+import com.evolveum.midpoint.prism.util.CloneUtil;
 import com.evolveum.midpoint.util.DebugDumpable;
 import com.evolveum.midpoint.util.DebugUtil;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.DashboardType;
@@ -55,6 +56,14 @@ public class CompiledDashboardType implements DebugDumpable, Serializable {
         return originalDashboard.getOid();
     }
 
+    /** The original dashboard is shared (it is not modified by the GUI). */
+    public CompiledDashboardType clone() {
+        CompiledDashboardType clone = new CompiledDashboardType(originalDashboard);
+        clone.displayType = CloneUtil.clone(displayType);
+        clone.visibility = visibility;
+        return clone;
+    }
+
     @Override
     public String debugDump(int indent) {
         StringBuilder sb = DebugUtil.createTitleStringBuilderLn(CompiledDashboardType.class, indent);
@@ -17,6 +17,7 @@ import java.util.function.BooleanSupplier;
 import jakarta.annotation.PostConstruct;
 import javax.xml.namespace.QName;
 
+import com.evolveum.midpoint.prism.util.CloneUtil;
 import com.evolveum.midpoint.schema.ResourceShadowCoordinates;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
 
@@ -523,6 +524,40 @@ public class CompiledGuiProfile implements DebugDumpable, Serializable {
         this.accessRequest = accessRequest;
     }
 
+    /**
+     * Creates a deep copy of this profile, so that it can be further modified (e.g. when shared profile parts
+     * are completed for a specific principal).
+     */
+    public CompiledGuiProfile clone() {
+        CompiledGuiProfile clone = new CompiledGuiProfile();
+        clone.defaultTimezone = defaultTimezone;
+        clone.preferredDataLanguage = preferredDataLanguage;
+        clone.enableExperimentalFeatures = enableExperimentalFeatures;
+        clone.useNewDesign = useNewDesign;
+        clone.additionalMenuLink = CloneUtil.cloneCollectionMembers(additionalMenuLink);
+        clone.userDashboardLink = CloneUtil.cloneCollectionMembers(userDashboardLink);
+        objectCollectionViews.forEach(view -> clone.objectCollectionViews.add(view.clone()));
+        shadowCollectionViews.forEach(view -> clone.shadowCollectionViews.add(view.clone()));
+        clone.defaultObjectCollectionView = defaultObjectCollectionView != null ? defaultObjectCollectionView.clone() : null;
+        clone.defaultObjectCollectionViewsSettings = CloneUtil.clone(defaultObjectCollectionViewsSettings);
+        configurableDashboards.forEach(dashboard -> clone.configurableDashboards.add(dashboard.clone()));
+        clone.defaultExportSettings = CloneUtil.clone(defaultExportSettings);
+        clone.objectDetails = CloneUtil.clone(objectDetails);
+        clone.feedbackMessagesHook = CloneUtil.clone(feedbackMessagesHook);
+        clone.roleManagement = CloneUtil.clone(roleManagement);
+        clone.accessRequest = CloneUtil.clone(accessRequest);
+        clone.approvals = CloneUtil.clone(approvals);
+        clone.features = CloneUtil.cloneCollectionMembers(features);
+        clone.displayFormats = CloneUtil.clone(displayFormats);
+        clone.jpegPhoto = jpegPhoto != null ? jpegPhoto.clone() : null;
+        clone.locale = locale;
+        clone.homePage = CloneUtil.clone(homePage);
+        clone.selfProfilePage = CloneUtil.clone(selfProfilePage);
+        clone.dependencies = new HashSet<>(dependencies);
+        clone.invalid = invalid;
+        return clone;
+    }
+
     @Override
     public String debugDump(int indent) {
         StringBuilder sb = DebugUtil.createTitleStringBuilderLn(CompiledGuiProfile.class, indent);
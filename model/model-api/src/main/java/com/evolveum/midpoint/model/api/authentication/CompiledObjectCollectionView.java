@@ -382,6 +382,14 @@ public class CompiledObjectCollectionView implements DebugDumpable, Serializable
 
     public CompiledObjectCollectionView clone() {
         CompiledObjectCollectionView clone = new CompiledObjectCollectionView(containerType, viewIdentifier);
+        copyValuesTo(clone);
+        return clone;
+    }
+
+    /** Copies (clones) the values of this view to the other one. To be used by {@link #clone()} in subclasses. */
+    protected void copyValuesTo(CompiledObjectCollectionView clone) {
+        clone.containerType = containerType;
+        clone.viewIdentifier = viewIdentifier;
         clone.actions = CloneUtil.cloneCollectionMembers(actions);
         clone.collection = CloneUtil.clone(collection);
         clone.columns = CloneUtil.cloneCollectionMembers(columns);
@@ -397,12 +405,12 @@ public class CompiledObjectCollectionView implements DebugDumpable, Serializable
         clone.options = CloneUtil.cloneCollectionMembers(options);
         clone.domainOptions = CloneUtil.cloneCollectionMembers(domainOptions);
         clone.paging = CloneUtil.clone(paging);
+        clone.pagingOptions = CloneUtil.clone(pagingOptions);
         clone.name = CloneUtil.clone(name);
         clone.visibility = visibility;
         clone.applicableForOperation = applicableForOperation;
         clone.includeDefaultColumns = includeDefaultColumns;
         clone.objectCollectionDescription = objectCollectionDescription;
         clone.defaultView = defaultView;
-        return clone;
     }
 }
@@ -6,6 +6,7 @@
 
 package com.evolveum.midpoint.model.api.authentication;
 
+import com.evolveum.midpoint.prism.util.CloneUtil;
 import com.evolveum.midpoint.util.DebugUtil;
 import com.evolveum.midpoint.util.annotation.Experimental;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
@@ -67,6 +68,16 @@ public class CompiledShadowCollectionView extends CompiledObjectCollectionView {
         return viewType;
     }
 
+    @Override
+    public CompiledShadowCollectionView clone() {
+        CompiledShadowCollectionView clone = new CompiledShadowCollectionView();
+        copyValuesTo(clone);
+        clone.resourceRef = CloneUtil.clone(resourceRef);
+        clone.shadowKindType = shadowKindType;
+        clone.intent = intent;
+        return clone;
+    }
+
     public void setResourceRef(ObjectReferenceType resourceRef) {
         this.resourceRef = resourceRef;
     }
@@ -6,6 +6,8 @@
 
 package com.evolveum.midpoint.model.api.interaction;
 
+import java.util.List;
+
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.util.annotation.Experimental;
@@ -21,6 +23,16 @@ public interface DashboardService {
     DashboardWidget createWidgetData(DashboardWidgetType widget, boolean useDisplaySource, Task task, OperationResult result)
             throws CommonException;
 
+    /**
+     * Determines the collection stats for all object collection widgets at once, so objects of the same type are counted
+     * in a single repository query. The stats are kept for a short time and used by subsequent calls of
+     * {@link #createWidgetData(DashboardWidgetType, boolean, Task, OperationResult)} for the same widgets and user.
+     *
+     * It is only an optimization: the widget data are computed correctly also without calling this method.
+     */
+    void prefetchWidgetData(List<DashboardWidgetType> widgets, boolean useDisplaySource, Task task, OperationResult result)
+            throws CommonException;
+
     ObjectCollectionType getObjectCollectionType(DashboardWidgetType widget, Task task, OperationResult result) throws ObjectNotFoundException,
             SchemaException, CommunicationException, ConfigurationException, SecurityViolationException, ExpressionEvaluationException;
 
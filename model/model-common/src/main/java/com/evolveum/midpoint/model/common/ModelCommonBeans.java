@@ -11,6 +11,7 @@ import com.evolveum.midpoint.model.api.ModelInteractionService;
 import com.evolveum.midpoint.model.api.ModelService;
 import com.evolveum.midpoint.model.common.archetypes.ArchetypeManager;
 import com.evolveum.midpoint.model.common.expression.ExpressionProfileManager;
+import com.evolveum.midpoint.model.common.expression.evaluator.caching.GlobalSearchExpressionEvaluatorCache;
 import com.evolveum.midpoint.model.common.expression.functions.FunctionLibraryManager;
 import com.evolveum.midpoint.model.common.mapping.metadata.MetadataMappingEvaluator;
 import com.evolveum.midpoint.prism.PrismContext;
@@ -70,4 +71,5 @@ public class ModelCommonBeans {
     @Autowired public ArchetypeManager archetypeManager;
     @Autowired public ExpressionProfileManager expressionProfileManager;
     @Autowired public FunctionLibraryManager functionLibraryManager;
+    @Autowired public GlobalSearchExpressionEvaluatorCache globalSearchExpressionEvaluatorCache;
 }
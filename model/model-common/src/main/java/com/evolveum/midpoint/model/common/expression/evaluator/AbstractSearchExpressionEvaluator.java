@@ -33,6 +33,7 @@ import com.evolveum.midpoint.common.LocalizationService;
 import com.evolveum.midpoint.model.api.ModelService;
 import com.evolveum.midpoint.model.common.ModelCommonBeans;
 import com.evolveum.midpoint.model.common.expression.evaluator.caching.AbstractSearchExpressionEvaluatorCache;
+import com.evolveum.midpoint.model.common.expression.evaluator.caching.GlobalSearchExpressionEvaluatorCache;
 import com.evolveum.midpoint.model.common.expression.evaluator.transformation.AbstractValueTransformationExpressionEvaluator;
 import com.evolveum.midpoint.model.common.util.PopulatorUtil;
 import com.evolveum.midpoint.prism.*;
@@ -82,6 +83,8 @@ public abstract class AbstractSearchExpressionEvaluator<
      * todo preview changes method calls in this class should be removed and everything should go through ModelService.executeChanges()
      */
     protected final CacheConfigurationManager cacheConfigurationManager = ModelCommonBeans.get().cacheConfigurationManager;
+    private final GlobalSearchExpressionEvaluatorCache globalCache =
+            ModelCommonBeans.get().globalSearchExpressionEvaluatorCache;
 
     AbstractSearchExpressionEvaluator(
             QName elementName,
@@ -318,6 +321,7 @@ public abstract class AbstractSearchExpressionEvaluator<
             return requireNonNullElse(expressionEvaluatorBean.getSearchStrategy(), ObjectSearchStrategyType.IN_REPOSITORY);
         }
 
+        /** Executes the search, using the node-wide {@link GlobalSearchExpressionEvaluatorCache}, if enabled. */
         private Collection<ObjectFound<O, V>> executeSearch(
                 Collection<ObjectQuery> queries,
                 ObjectSearchStrategyType searchStrategy,
@@ -325,6 +329,55 @@ public abstract class AbstractSearchExpressionEvaluator<
                 List<ItemDelta<V, D>> newValueDeltas)
                 throws ExpressionEvaluationException, ObjectNotFoundException, SchemaException {
 
+            if (createOnDemandRetry || !globalCache.isAvailable(targetTypeClass, searchStrategy)) {
+                return executeSearchUncached(queries, searchStrategy, createOnDemandRetry, newValueDeltas);
+            }
+
+            var key = new GlobalSearchExpressionEvaluatorCache.Key(getElementName(), targetTypeClass, List.copyOf(queries));
+            List<PrismObject<O>> cachedObjects = globalCache.get(key);
+            if (cachedObjects != null) {
+                return createObjectsFound(cachedObjects, newValueDeltas);
+            }
+
+            long invalidationCount = globalCache.getInvalidationCount();
+            var objectsFound = executeSearchUncached(queries, searchStrategy, false, newValueDeltas);
+            if (!objectsFound.isEmpty()) {
+                // Negative results are not cached, for the same reason as in executeSearchUsingCache.
+                globalCache.put(
+                        key,
+                        objectsFound.stream()
+                                .map(objectFound -> objectFound.sourceObject())
+                                .toList(),
+                        invalidationCount);
+            }
+            return objectsFound;
+        }
+
+        /** The objects were already checked by {@link #isAcceptable(PrismObject)} when they were put into the cache. */
+        private @NotNull Collection<ObjectFound<O, V>> createObjectsFound(
+                @NotNull List<PrismObject<O>> objects, List<ItemDelta<V, D>> newValueDeltas)
+                throws ExpressionEvaluationException, ObjectNotFoundException, SchemaException {
+            var objectsFound = new ArrayList<ObjectFound<O, V>>(objects.size());
+            for (PrismObject<O> object : objects) {
+                try {
+                    objectsFound.add(
+                            new ObjectFound<>(
+                                    object,
+                                    createResultValue(object.getOid(), getObjectTypeName(object), null, newValueDeltas)));
+                } catch (CommunicationException | ConfigurationException | SecurityViolationException e) {
+                    throw new ExpressionEvaluationException("Unexpected expression exception " + e + ": " + e.getMessage(), e);
+                }
+            }
+            return objectsFound;
+        }
+
+        private Collection<ObjectFound<O, V>> executeSearchUncached(
+                Collection<ObjectQuery> queries,
+                ObjectSearchStrategyType searchStrategy,
+                boolean createOnDemandRetry,
+                List<ItemDelta<V, D>> newValueDeltas)
+                throws ExpressionEvaluationException, ObjectNotFoundException, SchemaException {
+
             // TODO think about handling of CommunicationException | ConfigurationException | SecurityViolationException
             // Currently if tryAlsoRepository=true (for ON_RESOURCE strategy), such errors result in searching pure repo. And if there's no such
             // object in the repo, probably no exception is raised.
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.model.common.expression.evaluator.caching;
+
+import static com.evolveum.midpoint.util.caching.CacheConfiguration.getStatisticsLevel;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.xml.namespace.QName;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.evolveum.midpoint.CacheInvalidationContext;
+import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.prism.query.ObjectQuery;
+import com.evolveum.midpoint.repo.api.Cache;
+import com.evolveum.midpoint.repo.api.CacheRegistry;
+import com.evolveum.midpoint.schema.cache.CacheConfigurationManager;
+import com.evolveum.midpoint.schema.cache.CacheType;
+import com.evolveum.midpoint.schema.statistics.CachePerformanceInformationUtil;
+import com.evolveum.midpoint.util.caching.CacheConfiguration;
+import com.evolveum.midpoint.util.caching.CachePerformanceCollector;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+
+/**
+ * Node-wide cache of the objects found by search-based expression evaluators (e.g. `assignmentTargetSearch`
+ * or `associationTargetSearch`).
+ *
+ * Unlike {@link AbstractSearchExpressionEvaluatorCache}, it is shared by all threads and survives individual clockwork
+ * operations. Hence, e.g. a recomputation of many users that resolve the same role by name does not have to issue
+ * the same query over and over.
+ *
+ * The cache is keyed by the evaluator kind, target object type, and the queries after the expressions in them were
+ * evaluated. It holds (immutable) objects found, not the values created from them, because the values can depend
+ * on other parts of the evaluation context (e.g. the `populate` configuration).
+ *
+ * Only repository searches are cached, and only for object types enabled in the `globalSearchExpressionEvaluatorCache`
+ * caching profile setting. The cache is disabled by default.
+ *
+ * Invalidation: any change of an object of the target type (or its sub- or supertype) reported to this node removes
+ * the entries for that type, because we cannot tell whether the changed object matches (or did match) any of the queries.
+ * The invalidation is node-local for most types: changes done on other nodes are reported here only for the types
+ * that are always invalidated clusterwide (e.g. the system configuration), or for which clusterwide invalidation
+ * is configured in the global repository caches. Therefore, entries also expire after the configured time to live,
+ * which bounds the staleness of the results after a change done on another node.
+ *
+ * The number of entries is limited by the configured maximal size; the least recently used entries are evicted first.
+ * Expired entries are removed when accessed, or evicted as not recently used.
+ */
+@Component
+public class GlobalSearchExpressionEvaluatorCache implements Cache {
+
+    private static final Trace LOGGER = TraceManager.getTrace(GlobalSearchExpressionEvaluatorCache.class);
+    private static final Trace LOGGER_CONTENT =
+            TraceManager.getTrace(GlobalSearchExpressionEvaluatorCache.class.getName() + ".content");
+
+    /** In seconds. Used if there is no time to live configured. */
+    private static final int DEFAULT_TIME_TO_LIVE = 60;
+
+    /** Used if there is no max size configured. */
+    private static final int DEFAULT_MAX_SIZE = 10000;
+
+    @Autowired private CacheRegistry cacheRegistry;
+    @Autowired private CacheConfigurationManager cacheConfigurationManager;
+
+    /** Replaced (i.e. cleared) when the configured maximal size changes. */
+    private volatile SizeLimitedEntries entries = new SizeLimitedEntries(DEFAULT_MAX_SIZE);
+
+    /** Incremented on each invalidation; used to avoid caching objects that were (potentially) modified during the search. */
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @PostConstruct
+    public void register() {
+        cacheRegistry.registerCache(this);
+    }
+
+    @PreDestroy
+    public void unregister() {
+        cacheRegistry.unregisterCache(this);
+    }
+
+    @VisibleForTesting
+    @Nullable CacheConfiguration getConfiguration() {
+        return cacheConfigurationManager.getConfiguration(CacheType.GLOBAL_SEARCH_EXPRESSION_EVALUATOR_CACHE);
+    }
+
+    /** Is the cache enabled for given target type and search strategy? */
+    public boolean isAvailable(@NotNull Class<? extends ObjectType> type, @NotNull ObjectSearchStrategyType searchStrategy) {
+        if (searchStrategy != ObjectSearchStrategyType.IN_REPOSITORY) {
+            return false; // changes on resources are not reported via the repository cache invalidation
+        }
+        CacheConfiguration configuration = getConfiguration();
+        return configuration != null
+                && configuration.supportsObjectType(type)
+                && !Integer.valueOf(0).equals(configuration.getMaxSize());
+    }
+
+    /** Returns the (immutable) objects found for given key, or `null` if there is no live entry for it. */
+    public <O extends ObjectType> @Nullable List<PrismObject<O>> get(@NotNull Key key) {
+        var cache = entries.cache();
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+            cache.asMap().remove(key, entry);
+            entry = null;
+        }
+        if (entry != null) {
+            hits.increment();
+            registerAccess(key.type(), true);
+            LOGGER.trace("HIT for {}", key);
+            //noinspection unchecked
+            return (List<PrismObject<O>>) (List<?>) entry.objects;
+        } else {
+            misses.increment();
+            registerAccess(key.type(), false);
+            LOGGER.trace("MISS for {}", key);
+            return null;
+        }
+    }
+
+    private void registerAccess(Class<?> type, boolean hit) {
+        CacheConfiguration configuration = getConfiguration();
+        var statisticsLevel = getStatisticsLevel(
+                configuration != null ? configuration.getForObjectType(type) : null, configuration);
+        if (hit) {
+            CachePerformanceCollector.INSTANCE.registerHit(GlobalSearchExpressionEvaluatorCache.class, type, statisticsLevel);
+        } else {
+            CachePerformanceCollector.INSTANCE.registerMiss(GlobalSearchExpressionEvaluatorCache.class, type, statisticsLevel);
+        }
+    }
+
+    /** Returns the value to be passed to {@link #put(Key, Collection, long)}. */
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * Stores immutable copies of the objects found, if there was no invalidation since the search has started.
+     *
+     * @param key Key used for the search; its queries are cloned here, so the client can continue using them.
+     * @param invalidationCountBefore Value of {@link #getInvalidationCount()} before the search.
+     */
+    public void put(
+            @NotNull Key key,
+            @NotNull Collection<? extends PrismObject<? extends ObjectType>> objects,
+            long invalidationCountBefore) {
+        CacheConfiguration configuration = getConfiguration();
+        if (configuration == null) {
+            return; // the configuration was changed in the meanwhile
+        }
+        var cache = getEntries(configuration);
+        CacheConfiguration.CacheObjectTypeConfiguration typeConfiguration = configuration.getForObjectType(key.type());
+        Integer timeToLive = typeConfiguration != null ? typeConfiguration.getEffectiveTimeToLive() : null;
+        Entry entry = new Entry(
+                objects.stream()
+                        .<PrismObject<?>>map(o -> o.isImmutable() ? o : o.createImmutableClone())
+                        .toList(),
+                System.currentTimeMillis() + (timeToLive != null ? timeToLive : DEFAULT_TIME_TO_LIVE) * 1000L);
+        Key storedKey = key.cloneQueries();
+        cache.put(storedKey, entry);
+        if (invalidationCount.get() != invalidationCountBefore) {
+            // We cannot be sure the objects were found in their current state.
+            cache.asMap().remove(storedKey, entry);
+        }
+    }
+
+    private com.google.common.cache.Cache<Key, Entry> getEntries(@NotNull CacheConfiguration configuration) {
+        long maxSize = configuration.getMaxSize() != null ? configuration.getMaxSize() : DEFAULT_MAX_SIZE;
+        SizeLimitedEntries current = entries;
+        if (current.maxSize() != maxSize) {
+            synchronized (this) {
+                current = entries;
+                if (current.maxSize() != maxSize) {
+                    LOGGER.debug("Maximal size changed from {} to {}, clearing the cache", current.maxSize(), maxSize);
+                    current = new SizeLimitedEntries(maxSize);
+                    entries = current;
+                }
+            }
+        }
+        return current.cache();
+    }
+
+    @Override
+    public void invalidate(Class<?> type, String oid, CacheInvalidationContext context) {
+        if (type == null) {
+            invalidationCount.incrementAndGet();
+            entries.cache().invalidateAll();
+        } else if (ObjectType.class.isAssignableFrom(type)) {
+            invalidationCount.incrementAndGet();
+            entries.cache().asMap().keySet().removeIf(key -> key.type().isAssignableFrom(type) || type.isAssignableFrom(key.type()));
+        }
+    }
+
+    @Override
+    public @NotNull Collection<SingleCacheStateInformationType> getStateInformation() {
+        return Collections.singleton(new SingleCacheStateInformationType()
+                .name(GlobalSearchExpressionEvaluatorCache.class.getName())
+                .size((int) entries.cache().size())
+                .performance(new SingleCachePerformanceInformationType()
+                        .name(GlobalSearchExpressionEvaluatorCache.class.getName())
+                        .hitCount(CachePerformanceInformationUtil.toCount(hits.longValue()))
+                        .missCount(CachePerformanceInformationUtil.toCount(misses.longValue()))));
+    }
+
+    @Override
+    public void dumpContent() {
+        if (LOGGER_CONTENT.isInfoEnabled()) {
+            entries.cache().asMap().forEach((k, v) -> LOGGER_CONTENT.info("Cached search expression result: {}: {}", k, v));
+        }
+    }
+
+    /**
+     * Key of the cached search.
+     *
+     * @param evaluatorName Name of the evaluator element (e.g. `assignmentTargetSearch`), as each kind of evaluator
+     * can use its own search options and additional filtering.
+     * @param type Target object type.
+     * @param queries Queries with the expressions evaluated.
+     */
+    public record Key(
+            @NotNull QName evaluatorName,
+            @NotNull Class<? extends ObjectType> type,
+            @NotNull List<ObjectQuery> queries) {
+
+        @NotNull Key cloneQueries() {
+            return new Key(evaluatorName, type, queries.stream().map(q -> q.clone()).toList());
+        }
+    }
+
+    /** Entries evicted in the LRU order when there are more than `maxSize` of them. */
+    private record SizeLimitedEntries(long maxSize, @NotNull com.google.common.cache.Cache<Key, Entry> cache) {
+
+        SizeLimitedEntries(long maxSize) {
+            this(maxSize, CacheBuilder.newBuilder().maximumSize(maxSize).build());
+        }
+    }
+
+    private record Entry(@NotNull List<PrismObject<?>> objects, long expiresAt) {
+
+        @Override
+        public String toString() {
+            return "Entry{objects=" + objects + ", expiresAt=" + expiresAt + "}";
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.model.common.expression.evaluator.caching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import javax.xml.namespace.QName;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Test;
+import org.xml.sax.SAXException;
+
+import com.evolveum.midpoint.model.common.AbstractModelCommonTest;
+import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.prism.util.PrismTestUtil;
+import com.evolveum.midpoint.schema.MidPointPrismContextFactory;
+import com.evolveum.midpoint.schema.constants.SchemaConstants;
+import com.evolveum.midpoint.util.caching.CacheConfiguration;
+import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+
+/**
+ * Tests {@link GlobalSearchExpressionEvaluatorCache} without the Spring context; the configuration is provided directly.
+ */
+public class TestGlobalSearchExpressionEvaluatorCache extends AbstractModelCommonTest {
+
+    private static final QName ASSIGNMENT_TARGET_SEARCH = new QName(SchemaConstants.NS_C, "assignmentTargetSearch");
+
+    private CacheConfiguration configuration;
+    private GlobalSearchExpressionEvaluatorCache cache;
+
+    @BeforeSuite
+    public void setup() throws SchemaException, SAXException, IOException {
+        PrismTestUtil.resetPrismContext(MidPointPrismContextFactory.FACTORY);
+    }
+
+    @BeforeMethod
+    public void createCache() {
+        configuration = new CacheConfiguration();
+        configuration.getObjectTypes().put(RoleType.class, configuration.new CacheObjectTypeConfiguration());
+        cache = new GlobalSearchExpressionEvaluatorCache() {
+            @Override
+            @Nullable CacheConfiguration getConfiguration() {
+                return configuration;
+            }
+        };
+    }
+
+    @Test
+    public void test100HitAndInvalidation() {
+        given("cached search result");
+        var key = key("r1");
+        var role = role("r1");
+        cache.put(key, List.of(role), cache.getInvalidationCount());
+
+        expect("it is returned as an immutable copy");
+        List<PrismObject<RoleType>> cached = cache.get(key);
+        assertThat(cached).hasSize(1);
+        assertThat(cached.get(0).getOid()).isEqualTo(role.getOid());
+        assertThat(cached.get(0).isImmutable()).isTrue();
+
+        when("an object of unrelated type is changed");
+        cache.invalidate(UserType.class, UUID.randomUUID().toString(), null);
+
+        then("the entry is still there");
+        assertThat(cache.<RoleType>get(key)).hasSize(1);
+
+        when("a role is changed");
+        cache.invalidate(RoleType.class, UUID.randomUUID().toString(), null);
+
+        then("the entry is gone");
+        assertThat(cache.<RoleType>get(key)).isNull();
+    }
+
+    @Test
+    public void test110ResultOfSearchConcurrentWithInvalidationIsNotCached() {
+        given("search started before an invalidation");
+        long invalidationCountBefore = cache.getInvalidationCount();
+        cache.invalidate(AbstractRoleType.class, UUID.randomUUID().toString(), null);
+
+        when("its result is put into the cache");
+        var key = key("r1");
+        cache.put(key, List.of(role("r1")), invalidationCountBefore);
+
+        then("it is not cached");
+        assertThat(cache.<RoleType>get(key)).isNull();
+    }
+
+    @Test
+    public void test120LeastRecentlyUsedEntriesAreEvicted() {
+        given("cache limited to 5 entries");
+        configuration.setMaxSize(5);
+
+        when("more entries are put in it");
+        for (int i = 0; i < 50; i++) {
+            cache.put(key("r" + i), List.of(role("r" + i)), cache.getInvalidationCount());
+        }
+
+        then("old entries are evicted, and the new ones are cached");
+        assertThat(cache.getStateInformation().iterator().next().getSize()).isLessThanOrEqualTo(5);
+        assertThat(cache.<RoleType>get(key("r49"))).hasSize(1);
+        assertThat(cache.<RoleType>get(key("r0"))).isNull();
+    }
+
+    @Test
+    public void test130ExpiredEntriesAreNotReturned() throws Exception {
+        given("cache with time to live of 1 second");
+        configuration.setTimeToLive(1);
+        var key = key("r1");
+        cache.put(key, List.of(role("r1")), cache.getInvalidationCount());
+        assertThat(cache.<RoleType>get(key)).hasSize(1);
+
+        when("the time to live passes");
+        Thread.sleep(1100);
+
+        then("the entry is not returned, and is removed");
+        assertThat(cache.<RoleType>get(key)).isNull();
+        assertThat(cache.getStateInformation().iterator().next().getSize()).isZero();
+    }
+
+    @Test
+    public void test140StatisticsAreReported() {
+        given("a hit and two misses");
+        var key = key("r1");
+        cache.get(key);
+        cache.put(key, List.of(role("r1")), cache.getInvalidationCount());
+        cache.get(key);
+        cache.get(key("r2"));
+
+        expect("they are reported");
+        SingleCachePerformanceInformationType performance =
+                cache.getStateInformation().iterator().next().getPerformance();
+        assertThat(performance.getHitCount()).isEqualTo(1);
+        assertThat(performance.getMissCount()).isEqualTo(2);
+    }
+
+    private @NotNull GlobalSearchExpressionEvaluatorCache.Key key(String roleName) {
+        return new GlobalSearchExpressionEvaluatorCache.Key(
+                ASSIGNMENT_TARGET_SEARCH, RoleType.class,
+                List.of(PrismTestUtil.getPrismContext().queryFor(RoleType.class)
+                        .item(RoleType.F_NAME).eqPoly(roleName)
+                        .build()));
+    }
+
+    private @NotNull PrismObject<RoleType> role(String name) {
+        return new RoleType()
+                .oid(UUID.randomUUID().toString())
+                .name(name)
+                .asPrismObject();
+    }
+}
@@ -7,6 +7,7 @@
 package com.evolveum.midpoint.model.impl.controller;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.xml.namespace.QName;
 
@@ -42,6 +43,7 @@ import com.evolveum.midpoint.prism.PrismContainerDefinition;
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.query.ObjectFilter;
+import com.evolveum.midpoint.prism.query.ObjectQuery;
 import com.evolveum.midpoint.prism.query.RefFilter;
 import com.evolveum.midpoint.repo.common.ObjectResolver;
 import com.evolveum.midpoint.repo.common.expression.ExpressionFactory;
@@ -238,6 +240,48 @@ public class CollectionProcessor {
         return stats;
     }
 
+    /**
+     * The same as {@link #determineCollectionStats(CompiledObjectCollectionView, Task, OperationResult)} for more views.
+     * The objects of the same type (and with the same options) are counted in a batch,
+     * see {@link ModelService#countObjectsBatch(Class, List, Collection, Task, OperationResult)}.
+     */
+    @NotNull List<CollectionStats> determineCollectionStats(
+            @NotNull List<CompiledObjectCollectionView> collectionViews, Task task, OperationResult result)
+            throws SchemaException, ObjectNotFoundException, SecurityViolationException, ConfigurationException,
+            CommunicationException, ExpressionEvaluationException {
+        List<CollectionStats> statsList = new ArrayList<>(collectionViews.size());
+        Map<CountBatchKey, CountBatch> batches = new LinkedHashMap<>();
+        for (CompiledObjectCollectionView collectionView : collectionViews) {
+            CollectionStats stats = new CollectionStats();
+            statsList.add(stats);
+            Class<? extends ObjectType> targetClass = collectionView.getTargetClass();
+            addToCountBatch(batches, targetClass, evaluateExpressionsInFilter(collectionView.getFilter(), result, task),
+                    collectionView.getOptions(), stats::setObjectCount);
+            addToCountBatch(batches, targetClass, evaluateExpressionsInFilter(collectionView.getDomainFilter(), result, task),
+                    collectionView.getDomainOptions(), stats::setDomainCount);
+        }
+        for (var entry : batches.entrySet()) {
+            CountBatchKey key = entry.getKey();
+            CountBatch batch = entry.getValue();
+            List<Integer> counts = modelService.countObjectsBatch(key.type(), batch.queries(), key.options(), task, result);
+            for (int i = 0; i < counts.size(); i++) {
+                batch.consumers().get(i).accept(counts.get(i));
+            }
+        }
+        return statsList;
+    }
+
+    private void addToCountBatch(Map<CountBatchKey, CountBatch> batches, Class<? extends ObjectType> type,
+            ObjectFilter filter, Collection<SelectorOptions<GetOperationOptions>> options, Consumer<Integer> countConsumer) {
+        if (filter == null) {
+            return; // no count, just like in countObjects below
+        }
+        CountBatch batch = batches.computeIfAbsent(
+                new CountBatchKey(type, options), k -> new CountBatch(new ArrayList<>(), new ArrayList<>()));
+        batch.queries().add(prismContext.queryFactory().createQuery(filter));
+        batch.consumers().add(countConsumer);
+    }
+
     private <O extends ObjectType> Integer countObjects(Class<O> targetTypeClass, ObjectFilter filter, Collection<SelectorOptions<GetOperationOptions>> options, Task task, OperationResult result) throws SchemaException, ObjectNotFoundException, SecurityViolationException, ConfigurationException, CommunicationException, ExpressionEvaluationException {
         if (filter == null) {
             return null;
@@ -820,4 +864,15 @@ public class CollectionProcessor {
         }
         return defaultViewIdentifier;
     }
+
+    /** Identifies the counts that can be determined in a single batch: the same type and the same options. */
+    private record CountBatchKey(
+            @NotNull Class<? extends ObjectType> type,
+            Collection<SelectorOptions<GetOperationOptions>> options) {
+    }
+
+    private record CountBatch(
+            @NotNull List<ObjectQuery> queries,
+            @NotNull List<Consumer<Integer>> consumers) {
+    }
 }
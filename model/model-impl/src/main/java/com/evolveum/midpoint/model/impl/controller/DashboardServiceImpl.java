@@ -32,6 +32,7 @@ import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.query.ObjectFilter;
 import com.evolveum.midpoint.prism.query.ObjectQuery;
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
 import com.evolveum.midpoint.repo.common.expression.ExpressionFactory;
 import com.evolveum.midpoint.repo.common.expression.ExpressionUtil;
 import com.evolveum.midpoint.schema.*;
@@ -40,6 +41,7 @@ import com.evolveum.midpoint.schema.expression.VariablesMap;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.schema.util.MiscSchemaUtil;
 import com.evolveum.midpoint.schema.util.ObjectQueryUtil;
+import com.evolveum.midpoint.security.api.SecurityContextManager;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.task.api.TaskManager;
 import com.evolveum.midpoint.util.QNameUtil;
@@ -70,16 +72,61 @@ public class DashboardServiceImpl implements DashboardService {
     @Autowired private ExpressionFactory expressionFactory;
     @Autowired private ModelObjectResolver objectResolver;
     @Autowired private SchemaService schemaService;
+    @Autowired private SecurityContextManager securityContextManager;
+
+    private final PrefetchedCollectionStats prefetchedCollectionStats = new PrefetchedCollectionStats();
 
     @Override
     public DashboardWidget createWidgetData(DashboardWidgetType widget, boolean useDisplaySource, Task task, OperationResult result)
             throws CommonException {
         DashboardWidget data = createEmptyWidgetData(widget);
-        getNumberMessage(widget, data, useDisplaySource, task, result);
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(ReadReplicaRouting.CALLER_DASHBOARD)) {
+            getNumberMessage(widget, data, useDisplaySource, task, result);
+        }
         LOGGER.debug("Widget Data: {}", data);
         return data;
     }
 
+    @Override
+    public void prefetchWidgetData(List<DashboardWidgetType> widgets, boolean useDisplaySource, Task task, OperationResult result)
+            throws CommonException {
+        List<CollectionRefSpecificationType> collectionSpecs = new ArrayList<>();
+        List<CompiledObjectCollectionView> compiledCollections = new ArrayList<>();
+        for (DashboardWidgetType widget : widgets) {
+            if (getSourceTypeForNumberMessage(widget, useDisplaySource) != DashboardWidgetSourceTypeType.OBJECT_COLLECTION
+                    || isDataFieldsOfPresentationNullOrEmpty(widget.getPresentation())) {
+                continue;
+            }
+            CollectionRefSpecificationType collectionSpec = getCollectionRefSpecificationType(widget, task, result);
+            if (collectionSpec != null && !collectionSpecs.contains(collectionSpec)) {
+                collectionSpecs.add(collectionSpec);
+                compiledCollections.add(
+                        modelInteractionService.compileObjectCollectionView(collectionSpec, null, task, result));
+            }
+        }
+        if (compiledCollections.isEmpty()) {
+            return;
+        }
+        List<CollectionStats> stats;
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(ReadReplicaRouting.CALLER_DASHBOARD)) {
+            stats = modelInteractionService.determineCollectionStats(compiledCollections, task, result);
+        }
+        String principalOid = securityContextManager.getPrincipalOid();
+        for (int i = 0; i < collectionSpecs.size(); i++) {
+            prefetchedCollectionStats.put(principalOid, collectionSpecs.get(i), stats.get(i));
+        }
+        LOGGER.debug("Prefetched collection stats for {} widget collection(s)", collectionSpecs.size());
+    }
+
+    /** Returns the stats prefetched (for the current principal) for given collection, if they are still valid. */
+    private CollectionStats getPrefetchedCollectionStats(CollectionRefSpecificationType collectionSpec) {
+        CollectionStats stats = prefetchedCollectionStats.get(securityContextManager.getPrincipalOid(), collectionSpec);
+        if (stats != null) {
+            LOGGER.trace("Using prefetched collection stats for {}", collectionSpec);
+        }
+        return stats;
+    }
+
     @Override
     public DashboardWidget createEmptyWidgetData(DashboardWidgetType widget) {
         Validate.notNull(widget, "Widget is null");
@@ -351,7 +398,10 @@ public class DashboardServiceImpl implements DashboardService {
 
             CompiledObjectCollectionView compiledCollection = modelInteractionService.compileObjectCollectionView(
                     collectionSpec, null, task, task.getResult());
-            CollectionStats collStats = modelInteractionService.determineCollectionStats(compiledCollection, task, result);
+            CollectionStats collStats = getPrefetchedCollectionStats(collectionSpec);
+            if (collStats == null) {
+                collStats = modelInteractionService.determineCollectionStats(compiledCollection, task, result);
+            }
 
             Integer value = collStats.getObjectCount();//getObjectCount(valueCollection, true, task, result);
             Integer domainValue = collStats.getDomainCount();
@@ -541,5 +591,4 @@ public class DashboardServiceImpl implements DashboardService {
             return null;
         }
     }
-
 }
@@ -1214,10 +1214,8 @@ public class ModelController implements ModelService, TaskService, CaseService,
             throws SchemaException, ObjectNotFoundException, ConfigurationException,
             SecurityViolationException, CommunicationException, ExpressionEvaluationException {
 
-        // see MID-6115
-        ObjectQuery query = origQuery != null ? origQuery.clone() : null;
         OperationResult result = parentResult.createMinorSubresult(COUNT_OBJECTS);
-        result.addParam(OperationResult.PARAM_QUERY, query);
+        result.addParam(OperationResult.PARAM_QUERY, origQuery);
 
         enterModelMethod(); // outside try-catch because if this ends with an exception, cache is not entered yet
         Integer count;
@@ -1227,12 +1225,8 @@ public class ModelController implements ModelService, TaskService, CaseService,
             var rootOptions = parsedOptions.getRootOptions();
             var options = parsedOptions.getCollection();
 
-            if (checkNoneFilterBeforeAutz(query)) {
-                return 0;
-            }
-
-            ObjectQuery processedQuery = preProcessQuerySecurity(type, query, rootOptions, task, result);
-            if (checkNoneFilterAfterAutz(processedQuery, result)) {
+            ObjectQuery processedQuery = preProcessCountQuery(type, origQuery, rootOptions, task, result);
+            if (ObjectQueryUtil.isNoneQuery(processedQuery)) {
                 return 0;
             }
 
@@ -1254,6 +1248,88 @@ public class ModelController implements ModelService, TaskService, CaseService,
         return count;
     }
 
+    @Override
+    public <T extends ObjectType> @NotNull List<Integer> countObjectsBatch(Class<T> type, List<ObjectQuery> origQueries,
+            Collection<SelectorOptions<GetOperationOptions>> rawOptions, Task task, OperationResult parentResult)
+            throws SchemaException, ObjectNotFoundException, ConfigurationException,
+            SecurityViolationException, CommunicationException, ExpressionEvaluationException {
+
+        OperationResult result = parentResult.createMinorSubresult(COUNT_OBJECTS_BATCH);
+        result.addParam("queries", origQueries.size());
+
+        enterModelMethod(); // outside try-catch because if this ends with an exception, cache is not entered yet
+        try {
+            var parsedOptions = preProcessOptionsSecurity(rawOptions, task, result);
+            var rootOptions = parsedOptions.getRootOptions();
+            var options = parsedOptions.getCollection();
+
+            if (getObjectManager(type, options) != ObjectManager.REPOSITORY) {
+                // Provisioning and task manager have no batch counting, so let's simply count one by one.
+                List<Integer> counts = new ArrayList<>(origQueries.size());
+                for (ObjectQuery origQuery : origQueries) {
+                    counts.add(countObjects(type, origQuery, rawOptions, task, result));
+                }
+                return counts;
+            }
+
+            Integer[] counts = new Integer[origQueries.size()];
+            List<ObjectQuery> repoQueries = new ArrayList<>();
+            List<Integer> repoQueriesPositions = new ArrayList<>();
+            for (int i = 0; i < origQueries.size(); i++) {
+                // Each query gets its own result, so that a denial is recorded for that query only (as in countObjects).
+                OperationResult queryResult = result.createMinorSubresult(COUNT_OBJECTS);
+                queryResult.addParam(OperationResult.PARAM_QUERY, origQueries.get(i));
+                ObjectQuery processedQuery;
+                try {
+                    processedQuery = preProcessCountQuery(type, origQueries.get(i), rootOptions, task, queryResult);
+                } catch (Throwable t) {
+                    queryResult.recordException(t);
+                    throw t;
+                } finally {
+                    queryResult.close();
+                }
+                if (ObjectQueryUtil.isNoneQuery(processedQuery)) {
+                    counts[i] = 0;
+                } else {
+                    repoQueries.add(normalizeQueryIfShadowUsed(type, processedQuery));
+                    repoQueriesPositions.add(i);
+                }
+            }
+            if (!repoQueries.isEmpty()) {
+                List<Integer> repoCounts = cacheRepositoryService.countObjectsBatch(type, repoQueries, options, result);
+                for (int j = 0; j < repoQueriesPositions.size(); j++) {
+                    counts[repoQueriesPositions.get(j)] = repoCounts.get(j);
+                }
+            }
+            return Arrays.asList(counts);
+        } catch (Throwable t) {
+            ModelImplUtils.recordException(result, t);
+            throw t;
+        } finally {
+            exitModelMethod();
+            result.close();
+            result.cleanup();
+        }
+    }
+
+    /**
+     * Prepares the query for {@link #countObjects} and {@link #countObjectsBatch}: clones it (see MID-6115)
+     * and applies the authorizations. Returns a NONE query if there is nothing to count, either because it was requested
+     * so, or because the authorizations do not allow to see any object (the result is marked in the latter case).
+     */
+    private <T extends ObjectType> ObjectQuery preProcessCountQuery(
+            Class<T> type, ObjectQuery origQuery, GetOperationOptions rootOptions, Task task, OperationResult result)
+            throws SchemaException, ObjectNotFoundException, ExpressionEvaluationException,
+            CommunicationException, ConfigurationException, SecurityViolationException {
+        ObjectQuery query = origQuery != null ? origQuery.clone() : null;
+        if (checkNoneFilterBeforeAutz(query)) {
+            return query;
+        }
+        ObjectQuery processedQuery = preProcessQuerySecurity(type, query, rootOptions, task, result);
+        checkNoneFilterAfterAutz(processedQuery, result);
+        return processedQuery;
+    }
+
     @Override
     public PrismObject<? extends FocusType> searchShadowOwner(
             String shadowOid, Collection<SelectorOptions<GetOperationOptions>> rawOptions, Task task, OperationResult parentResult)
@@ -2157,6 +2157,13 @@ public class ModelInteractionServiceImpl implements ModelInteractionService {
         return collectionProcessor.determineCollectionStats(collectionView, task, result);
     }
 
+    @Override
+    public @NotNull List<CollectionStats> determineCollectionStats(
+            @NotNull List<CompiledObjectCollectionView> collectionViews, @NotNull Task task, @NotNull OperationResult result)
+            throws SchemaException, ObjectNotFoundException, SecurityViolationException, ConfigurationException, CommunicationException, ExpressionEvaluationException {
+        return collectionProcessor.determineCollectionStats(collectionViews, task, result);
+    }
+
     @Override
     public void applyView(CompiledObjectCollectionView existingView, GuiObjectListViewType objectListViewType) {
         collectionProcessor.compileView(existingView, objectListViewType);
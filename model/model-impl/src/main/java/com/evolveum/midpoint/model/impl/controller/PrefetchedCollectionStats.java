@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.model.impl.controller;
+
+import java.time.Duration;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.evolveum.midpoint.model.api.CollectionStats;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.CollectionRefSpecificationType;
+
+/**
+ * Collection stats determined by {@link DashboardServiceImpl#prefetchWidgetData}, to be used when the individual widgets
+ * are rendered shortly after that.
+ *
+ * The counts depend on the authorizations, so the stats are kept per principal. Stats determined without
+ * an authenticated principal are not kept at all.
+ *
+ * Thread-safe.
+ */
+class PrefetchedCollectionStats {
+
+    /** How long are the prefetched stats used. */
+    private static final Duration TIME_TO_LIVE = Duration.ofSeconds(10);
+
+    /** If there are more entries than this, the least recently used ones are evicted. */
+    private static final int MAX_ENTRIES = 1000;
+
+    private final Cache<Key, CollectionStats> cache;
+
+    PrefetchedCollectionStats() {
+        this(MAX_ENTRIES, TIME_TO_LIVE);
+    }
+
+    @VisibleForTesting
+    PrefetchedCollectionStats(int maxEntries, @NotNull Duration timeToLive) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    void put(@Nullable String principalOid, @NotNull CollectionRefSpecificationType collectionSpec,
+            @NotNull CollectionStats stats) {
+        if (principalOid != null) {
+            cache.put(new Key(principalOid, collectionSpec.clone()), stats);
+        }
+    }
+
+    /** Returns the stats prefetched for given principal and collection, if they are still valid. */
+    @Nullable CollectionStats get(@Nullable String principalOid, @NotNull CollectionRefSpecificationType collectionSpec) {
+        return principalOid != null ? cache.getIfPresent(new Key(principalOid, collectionSpec)) : null;
+    }
+
+    private record Key(@NotNull String principalOid, @NotNull CollectionRefSpecificationType collectionSpec) {
+    }
+}
@@ -38,6 +38,7 @@ import com.evolveum.midpoint.provisioning.api.EventDispatcher;
 import com.evolveum.midpoint.provisioning.api.ProvisioningService;
 import com.evolveum.midpoint.provisioning.api.ResourceObjectChangeListener;
 import com.evolveum.midpoint.provisioning.api.ResourceOperationListener;
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
 import com.evolveum.midpoint.schema.cache.CacheConfigurationManager;
 import com.evolveum.midpoint.schema.cache.CacheType;
 import com.evolveum.midpoint.schema.result.OperationResult;
@@ -91,7 +92,8 @@ public class Clockwork {
         task.setChannel(context.getChannel());
 
         ClockworkRunTraceType trace = null;
-        try {
+        // Clockwork must see current data, e.g. the objects it has just written; so no read replicas here.
+        try (var ignored = ReadReplicaRouting.primaryOnly()) {
             trace = recordTraceAtStart(context, result);
 
             ClockworkConflictResolver.Context conflictResolutionContext = new ClockworkConflictResolver.Context();
@@ -30,6 +30,7 @@ import com.evolveum.midpoint.model.impl.mining.algorithm.BaseAction;
 import com.evolveum.midpoint.model.impl.mining.algorithm.cluster.action.clustering.Clusterable;
 import com.evolveum.midpoint.model.impl.mining.algorithm.cluster.action.util.outlier.context.OutlierDetectionActionExecutor;
 import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
 import com.evolveum.midpoint.repo.common.activity.run.AbstractActivityRun;
 import com.evolveum.midpoint.repo.common.activity.run.state.CurrentActivityState;
 import com.evolveum.midpoint.schema.result.OperationResult;
@@ -95,8 +96,12 @@ public class ClusteringActionExecutor extends BaseAction {
 
         this.clusterable = new ClusteringBehavioralResolver();
 
-        clusterable.executeClustering(
-                roleAnalysisService, modelService, session, handler, attributeAnalysisCache, objectCategorisationCache, task, result);
+        // Loading the data for clustering is a read-heavy operation that can use repository read replicas.
+        // The clusters written here are read from the primary database then, see ReadReplicaRouting.
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(ReadReplicaRouting.CALLER_ROLE_MINING)) {
+            clusterable.executeClustering(
+                    roleAnalysisService, modelService, session, handler, attributeAnalysisCache, objectCategorisationCache, task, result);
+        }
 
         updateSessionStatistics(roleAnalysisService, modelService, session, task, result);
     }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.model.impl.security;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.xml.namespace.QName;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.evolveum.midpoint.CacheInvalidationContext;
+import com.evolveum.midpoint.model.api.authentication.CompiledGuiProfile;
+import com.evolveum.midpoint.repo.api.Cache;
+import com.evolveum.midpoint.repo.api.CacheRegistry;
+import com.evolveum.midpoint.schema.statistics.CachePerformanceInformationUtil;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+
+/**
+ * Node-wide cache of the principal-independent parts of compiled GUI profiles, i.e. the profiles compiled from the global
+ * admin GUI configuration and the configurations collected from the assignments. Principals with the same set of these
+ * configurations (typically, users with the same roles) share the cached part; only the principal-specific parts
+ * (focus admin GUI configuration, photo, locale, and so on) are computed for each of them.
+ * See {@link GuiProfileCompiler}.
+ *
+ * The cached profiles can depend on other objects (object collections, archetypes, dashboards, connectors), so the whole
+ * cache is invalidated when an object of any of the {@link #INVALIDATION_RELATED_CLASSES} is modified.
+ * The invalidation of these objects is node-local (unless the repository cache is configured otherwise). It is not
+ * distributed to other nodes by this cache, as that would mean a synchronous call to each node for each modified role
+ * or org, e.g. during a bulk import. Instead, the changes that matter most are part of the {@link Key} (the system
+ * configuration version, and the admin GUI configurations collected from the assignments); and the entries that may
+ * depend on objects changed on other nodes are used at most for {@link #TIME_TO_LIVE}.
+ *
+ * Cached profiles are never given out directly; the clients get their clones.
+ */
+@Component
+public class CompiledGuiProfileCache implements Cache {
+
+    private static final Trace LOGGER = TraceManager.getTrace(CompiledGuiProfileCache.class);
+    private static final Trace LOGGER_CONTENT = TraceManager.getTrace(CompiledGuiProfileCache.class.getName() + ".content");
+
+    /** If there are more entries than this, the least recently used ones are evicted. */
+    @VisibleForTesting
+    static final int MAX_ENTRIES = 1000;
+
+    /**
+     * Bounds the use of profiles that could depend on objects changed on other nodes, see the class comment.
+     * The same as the default time to live of the global repository cache.
+     */
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    /**
+     * Cache invalidation is invoked when an object of any of these classes (or their subclasses) is modified.
+     */
+    private static final Collection<Class<?>> INVALIDATION_RELATED_CLASSES = List.of(
+            SystemConfigurationType.class,
+            AbstractRoleType.class,
+            ObjectCollectionType.class,
+            DashboardType.class,
+            ConnectorType.class);
+
+    @Autowired private CacheRegistry cacheRegistry;
+
+    private final com.google.common.cache.Cache<Key, CompiledGuiProfile> cache;
+
+    /** Incremented on each invalidation; used to avoid caching profiles compiled from (potentially) stale data. */
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CompiledGuiProfileCache() {
+        this(MAX_ENTRIES, TIME_TO_LIVE);
+    }
+
+    @VisibleForTesting
+    CompiledGuiProfileCache(int maxEntries, @NotNull Duration timeToLive) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    @PostConstruct
+    public void register() {
+        cacheRegistry.registerCache(this);
+    }
+
+    @PreDestroy
+    public void unregister() {
+        cacheRegistry.unregisterCache(this);
+    }
+
+    /** Returns a clone of the cached profile, or `null` if there is none. */
+    @Nullable CompiledGuiProfile get(@NotNull Key key) {
+        CompiledGuiProfile cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            LOGGER.trace("HIT for {}", key);
+            return cached.clone();
+        } else {
+            misses.increment();
+            LOGGER.trace("MISS for {}", key);
+            return null;
+        }
+    }
+
+    /** Returns the value to be passed to {@link #put(Key, CompiledGuiProfile, long)}. */
+    long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * Stores a clone of the profile, unless there was an invalidation since the compilation has started.
+     *
+     * @param invalidationCountBefore Value of {@link #getInvalidationCount()} before the compilation.
+     */
+    void put(@NotNull Key key, @NotNull CompiledGuiProfile profile, long invalidationCountBefore) {
+        Key immutableKey = key.toImmutable();
+        CompiledGuiProfile cached = profile.clone();
+        cache.put(immutableKey, cached);
+        if (invalidationCount.get() != invalidationCountBefore) {
+            // We cannot be sure the profile was compiled from the current data.
+            cache.asMap().remove(immutableKey, cached);
+        }
+    }
+
+    @Override
+    public void invalidate(Class<?> type, String oid, CacheInvalidationContext context) {
+        if (type == null || isRelated(type)) {
+            invalidationCount.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    private static boolean isRelated(@NotNull Class<?> type) {
+        return INVALIDATION_RELATED_CLASSES.stream().anyMatch(c -> c.isAssignableFrom(type));
+    }
+
+    @Override
+    public @NotNull Collection<SingleCacheStateInformationType> getStateInformation() {
+        return Collections.singleton(new SingleCacheStateInformationType()
+                .name(CompiledGuiProfileCache.class.getName())
+                .size((int) cache.size())
+                .performance(new SingleCachePerformanceInformationType()
+                        .name(CompiledGuiProfileCache.class.getName())
+                        .hitCount(CachePerformanceInformationUtil.toCount(hits.longValue()))
+                        .missCount(CachePerformanceInformationUtil.toCount(misses.longValue()))));
+    }
+
+    @Override
+    public void dumpContent() {
+        if (LOGGER_CONTENT.isInfoEnabled()) {
+            cache.asMap().forEach((k, v) -> LOGGER_CONTENT.info("Cached compiled GUI profile: {}: {}", k, v));
+        }
+    }
+
+    /**
+     * Everything the shared part of the profile depends on (except for the objects covered by the invalidation):
+     * the system configuration (OID and version), the type of the principal's focus (home page and self profile page
+     * are type-dependent), and the admin GUI configurations collected from the assignments, in their order.
+     */
+    record Key(
+            @Nullable String systemConfigurationOid,
+            @Nullable String systemConfigurationVersion,
+            @NotNull QName focusType,
+            @NotNull List<AdminGuiConfigurationType> configurations) {
+
+        /** The configurations in the key must not change while the key is in the cache. */
+        Key toImmutable() {
+            List<AdminGuiConfigurationType> immutableConfigurations = new ArrayList<>(configurations.size());
+            for (AdminGuiConfigurationType configuration : configurations) {
+                AdminGuiConfigurationType clone = configuration.clone();
+                clone.asPrismContainerValue().freeze();
+                immutableConfigurations.add(clone);
+            }
+            return new Key(systemConfigurationOid, systemConfigurationVersion, focusType,
+                    Collections.unmodifiableList(immutableConfigurations));
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" + systemConfigurationOid + ":" + systemConfigurationVersion
+                    + ", focusType=" + focusType.getLocalPart()
+                    + ", configurations: " + configurations.size() + "}";
+        }
+    }
+}
@@ -29,7 +29,6 @@ import com.evolveum.midpoint.authentication.api.config.MidpointAuthentication;
 import com.evolveum.midpoint.authentication.api.util.AuthUtil;
 import com.evolveum.midpoint.model.api.authentication.*;
 import com.evolveum.midpoint.model.api.context.EvaluatedAssignment;
-import com.evolveum.midpoint.model.api.context.EvaluatedAssignmentTarget;
 import com.evolveum.midpoint.model.impl.controller.CollectionProcessor;
 import com.evolveum.midpoint.model.impl.lens.LoginAssignmentCollector;
 import com.evolveum.midpoint.model.impl.util.ModelImplUtils;
@@ -69,6 +68,9 @@ public class GuiProfileCompiler {
 
     private static final Trace LOGGER = TraceManager.getTrace(GuiProfileCompiler.class);
 
+    private static final String OP_COMPILE_SHARED_PROFILE = GuiProfileCompiler.class.getName() + ".compileSharedProfile";
+    private static final String OP_COLLECT_ASSIGNMENTS = GuiProfileCompiler.class.getName() + ".collectAssignments";
+
     @Autowired private ModelSecurityPolicyFinder modelSecurityPolicyFinder;
     @Autowired private SystemObjectCache systemObjectCache;
     @Autowired private CollectionProcessor collectionProcessor;
@@ -85,6 +87,8 @@ public class GuiProfileCompiler {
     @Autowired private AdminGuiConfigurationMergeManager adminGuiConfigurationMergeManager;
 
     @Autowired private CacheConfigurationManager cacheConfigurationManager;
+    @Autowired private CompiledGuiProfileCache compiledGuiProfileCache;
+    @Autowired private PrincipalAssignmentDataCache principalAssignmentDataCache;
 
     private static final String STATISTIC_WIDGET_PANEL_TYPE = "statisticWidget";
 
@@ -150,7 +154,7 @@ public class GuiProfileCompiler {
             return;
         }
 
-        CompiledGuiProfile compiledGuiProfile = compileFocusProfile(adminGuiConfigurations, systemConfiguration, principal, task, result);
+        CompiledGuiProfile compiledGuiProfile = compilePrincipalProfile(adminGuiConfigurations, systemConfiguration, principal, task, result);
 
         compiledGuiProfile.getObjectCollectionViews().forEach(compiledObjectCollectionView -> {
             String archetypeOid = compiledObjectCollectionView.getArchetypeOid();
@@ -188,8 +192,7 @@ public class GuiProfileCompiler {
 //                .map(originalAssignment -> (AssignmentType) originalAssignment.cloneWithoutId())
 //                .toList());
 
-        Collection<? extends EvaluatedAssignment> evaluatedAssignments = // [EP:APSO] DONE, see the called method
-                assignmentCollector.collect(focus.asPrismObject(), task, result);
+        PrincipalAssignmentDataCache.AssignmentData assignmentData = getAssignmentData(focus, task, result);
 
         MidpointAuthentication auth = AuthUtil.getMidpointAuthenticationNotRequired();
         AuthenticationChannel channel = auth != null ? auth.getAuthenticationChannel() : null;
@@ -204,28 +207,15 @@ public class GuiProfileCompiler {
             }
         }
 
-        for (EvaluatedAssignment assignment : evaluatedAssignments) {
-            if (assignment.isValid()) {
-                if (options.isCompileGuiAdminConfiguration()) {
-                    // TODO: Should we add also invalid assignments?
-                    consideredOids.addAll(assignment.getAdminGuiDependencies());
-                }
-
-                if (options.isCollectAuthorization()) {
-                    collectedAuthorizationList.addAll(collectAuthorizations(channel, assignment.getAuthorizations(), options));
-                }
-                if (options.isCompileGuiAdminConfiguration()) {
-                    adminGuiConfigurations.addAll(assignment.getAdminGuiConfigurations());
-                }
-            }
-
-
-            for (EvaluatedAssignmentTarget target : assignment.getRoles().getNonNegativeValues()) { // TODO see MID-6403
-                if (target.isValid() && target.getAssignmentPath().containsDelegation()) {
-                    collectedOtherPrivilegesLimitations.addDelegationTarget(target.getTarget(),
-                            target.getAssignmentPath().getOtherPrivilegesLimitation());
-                }
-            }
+        if (options.isCompileGuiAdminConfiguration()) {
+            consideredOids.addAll(assignmentData.adminGuiDependencies());
+            adminGuiConfigurations.addAll(assignmentData.adminGuiConfigurations());
+        }
+        if (options.isCollectAuthorization()) {
+            collectedAuthorizationList.addAll(collectAuthorizations(channel, assignmentData.authorizations(), options));
+        }
+        for (PrincipalAssignmentDataCache.DelegationTarget delegationTarget : assignmentData.delegationTargets()) {
+            collectedOtherPrivilegesLimitations.addDelegationTarget(delegationTarget.target(), delegationTarget.limitation());
         }
         List<Authorization> newAuthList = cloneOrTransformAuthorizations(principal, collectedAuthorizationList,
                 authorizationTransformer);
@@ -233,16 +223,39 @@ public class GuiProfileCompiler {
         principal.resetOtherPrivilegesLimitations(collectedOtherPrivilegesLimitations);
         //end of code restructuring due to #10781
 
-        if (!options.isCompileGuiAdminConfiguration()) {
-            return;
-        }
+        // The configuration from the focus object itself is applied separately, see compilePrincipalProfile.
+    }
 
-        if (focus instanceof UserType user && user.getAdminGuiConfiguration() != null) {
-            // config from the user object should go last (to be applied as the last one)
-            adminGuiConfigurations.add(user.getAdminGuiConfiguration());
-        } else if (focus instanceof AbstractRoleType role && role.getAdminGuiConfiguration() != null) {
-            adminGuiConfigurations.add(role.getAdminGuiConfiguration());
+    /**
+     * Evaluates the assignments of the focus and collects the relevant data from them; or takes the data
+     * from {@link PrincipalAssignmentDataCache}, if the same focus (in the same version) was evaluated recently.
+     */
+    private @NotNull PrincipalAssignmentDataCache.AssignmentData getAssignmentData(
+            FocusType focus, Task task, OperationResult result) throws SchemaException, ConfigurationException {
+        var cached = principalAssignmentDataCache.get(focus, result);
+        if (cached != null) {
+            return cached;
         }
+        long invalidationCount = principalAssignmentDataCache.getInvalidationCount();
+        Collection<? extends EvaluatedAssignment> evaluatedAssignments;
+        OperationResult collectResult = result.subresult(OP_COLLECT_ASSIGNMENTS)
+                .setMinor()
+                .build();
+        try {
+            evaluatedAssignments = // [EP:APSO] DONE, see the called method
+                    assignmentCollector.collect(focus.asPrismObject(), task, collectResult);
+        } catch (Throwable t) {
+            collectResult.recordException(t);
+            throw t;
+        } finally {
+            collectResult.close();
+        }
+        var assignmentData = PrincipalAssignmentDataCache.AssignmentData.collect(evaluatedAssignments);
+        // Errors in individual assignments are only logged; but we do not want to cache such (possibly incomplete) data.
+        if (!collectResult.isError()) {
+            principalAssignmentDataCache.put(focus, evaluatedAssignments, assignmentData, invalidationCount);
+        }
+        return assignmentData;
     }
 
     private List<Authorization> collectAuthorizations(
@@ -315,6 +328,91 @@ public class GuiProfileCompiler {
         return composite;
     }
 
+    /**
+     * Compiles the profile for the principal. The part derived from the global configuration and from the assignments
+     * is shared among principals via {@link CompiledGuiProfileCache}; only the configuration from the focus object itself
+     * (which should go last, to be applied as the last one) is applied for each principal individually.
+     *
+     * The result is the same as of {@link #compileFocusProfile(List, PrismObject, GuiProfiledPrincipal, Task, OperationResult)}
+     * called with assignment-derived configurations followed by the focus configuration.
+     */
+    private @NotNull CompiledGuiProfile compilePrincipalProfile(
+            @NotNull List<AdminGuiConfigurationType> assignedConfigurations,
+            PrismObject<SystemConfigurationType> systemConfiguration,
+            @NotNull GuiProfiledPrincipal principal,
+            Task task,
+            OperationResult result)
+            throws SchemaException, CommunicationException, ConfigurationException, SecurityViolationException,
+            ExpressionEvaluationException, ObjectNotFoundException {
+
+        LOGGER.debug("Going to compile focus profile (inner) for {}", principal.getName());
+
+        AdminGuiConfigurationType focusAdminGuiConfig = getFocusAdminGuiConfiguration(principal.getFocus());
+        AdminGuiConfigurationType globalAdminGuiConfig =
+                systemConfiguration != null ? systemConfiguration.asObjectable().getAdminGuiConfiguration() : null;
+
+        if (assignedConfigurations.isEmpty() && globalAdminGuiConfig == null && focusAdminGuiConfig == null) {
+            return new CompiledGuiProfile();
+        }
+
+        CompiledGuiProfileCache.Key key = new CompiledGuiProfileCache.Key(
+                systemConfiguration != null ? systemConfiguration.getOid() : null,
+                systemConfiguration != null ? systemConfiguration.getVersion() : null,
+                getFocusType(principal),
+                assignedConfigurations);
+        CompiledGuiProfile composite = compiledGuiProfileCache.get(key);
+        if (composite == null) {
+            long invalidationCount = compiledGuiProfileCache.getInvalidationCount();
+            OperationResult sharedResult = result.subresult(OP_COMPILE_SHARED_PROFILE)
+                    .setMinor()
+                    .build();
+            try {
+                composite = new CompiledGuiProfile();
+                if (globalAdminGuiConfig != null) {
+                    applyAdminGuiConfiguration(composite, globalAdminGuiConfig.cloneWithoutId(), principal, task, sharedResult);
+                }
+                for (AdminGuiConfigurationType adminGuiConfiguration : assignedConfigurations) {
+                    applyAdminGuiConfiguration(composite, adminGuiConfiguration.cloneWithoutId(), principal, task, sharedResult);
+                }
+            } catch (Throwable t) {
+                sharedResult.recordException(t);
+                throw t;
+            } finally {
+                sharedResult.close();
+            }
+            // Errors in individual views or dashboards are only logged; but we do not want to share such profiles.
+            if (!sharedResult.isError()) {
+                compiledGuiProfileCache.put(key, composite, invalidationCount);
+            }
+        }
+
+        if (focusAdminGuiConfig != null) {
+            applyAdminGuiConfiguration(composite, focusAdminGuiConfig.cloneWithoutId(), principal, task, result);
+        }
+
+        if (systemConfiguration != null) {
+            mergeDeprecatedRoleManagement(composite, systemConfiguration.asObjectable().getRoleManagement());
+        }
+
+        return composite;
+    }
+
+    private @Nullable AdminGuiConfigurationType getFocusAdminGuiConfiguration(FocusType focus) {
+        if (focus instanceof UserType user) {
+            return user.getAdminGuiConfiguration();
+        } else if (focus instanceof AbstractRoleType role) {
+            return role.getAdminGuiConfiguration();
+        } else {
+            return null;
+        }
+    }
+
+    private @NotNull QName getFocusType(@NotNull GuiProfiledPrincipal principal) {
+        return prismContext.getSchemaRegistry()
+                .findObjectDefinitionByCompileTimeClass(principal.getFocus().getClass())
+                .getTypeName();
+    }
+
     private void setupFocusPhoto(GuiProfiledPrincipal principal, @NotNull CompiledGuiProfile compiledGuiProfile, OperationResult result) {
         FocusType focus = principal.getFocus();
         byte[] jpegPhoto = focus.getJpegPhoto();
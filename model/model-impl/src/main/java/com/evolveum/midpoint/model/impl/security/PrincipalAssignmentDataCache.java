@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.model.impl.security;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.evolveum.midpoint.CacheInvalidationContext;
+import com.evolveum.midpoint.model.api.context.EvaluatedAssignment;
+import com.evolveum.midpoint.model.api.context.EvaluatedAssignmentTarget;
+import com.evolveum.midpoint.prism.PrismContext;
+import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.repo.api.Cache;
+import com.evolveum.midpoint.repo.api.CacheRegistry;
+import com.evolveum.midpoint.repo.api.RepositoryService;
+import com.evolveum.midpoint.schema.GetOperationOptions;
+import com.evolveum.midpoint.schema.GetOperationOptionsBuilder;
+import com.evolveum.midpoint.schema.SelectorOptions;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.statistics.CachePerformanceInformationUtil;
+import com.evolveum.midpoint.security.api.Authorization;
+import com.evolveum.midpoint.security.api.OtherPrivilegesLimitations;
+import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.util.logging.LoggingUtils;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+
+/**
+ * Node-wide cache of the data collected from the evaluated assignments of a principal's focus: authorizations,
+ * admin GUI configurations (with their dependencies), and delegations. See {@link GuiProfileCompiler}.
+ *
+ * The assignment evaluation is costly, yet for a given focus it typically yields the same results over and over: on each
+ * login, on each principal refresh, and on each REST call authenticated as the same (service) account.
+ *
+ * The entries are keyed by the focus OID. Each one holds the focus version and the versions of all objects in the evaluated
+ * assignment closure (roles, orgs, services, archetypes, delegators). An entry is used only if the focus version matches,
+ * and if the current versions of the closure objects match the stored ones. The latter are read directly from the repository
+ * (bypassing the repository cache) by a single query that fetches only the OIDs and versions, see
+ * {@link #isClosureCurrent(Entry, OperationResult)}. This check is needed in a cluster, because the invalidation of roles
+ * and users is node-local, so a change done on another node would not be noticed otherwise.
+ *
+ * Local invalidation:
+ *
+ * . A modification of an abstract role (including archetypes) or of any of the other {@link #GLOBAL_INVALIDATION_CLASSES}
+ * clears the whole cache. We cannot rely on the closure alone here, as e.g. a role reached via an inducement whose condition
+ * was false is not a part of it.
+ * . A modification of any other assignment holder (e.g. a user) removes the entry for that object only. The entries having
+ * that object in their closure (e.g. a delegator of a deputy) are left to the version check above. This keeps
+ * the invalidation cheap, and does not prevent caching during bulk modifications of users.
+ *
+ * Changes of the objects not in the closure (see above) that are done on other nodes are not checked this way, except for
+ * the system configuration, whose invalidation is clusterwide. They are reflected after the entries expire,
+ * see {@link #TIME_TO_LIVE}.
+ *
+ * The results of assignments with time-based validity, conditions, or dynamically resolved targets may change even if none
+ * of the above objects change. Hence, such results are not cached at all, see {@link #isCacheable(AssignmentHolderType,
+ * Collection)}.
+ *
+ * Cached data are never given out directly; the clients get their clones.
+ */
+@Component
+public class PrincipalAssignmentDataCache implements Cache {
+
+    private static final Trace LOGGER = TraceManager.getTrace(PrincipalAssignmentDataCache.class);
+    private static final Trace LOGGER_CONTENT = TraceManager.getTrace(PrincipalAssignmentDataCache.class.getName() + ".content");
+
+    /** If there are more entries than this, the least recently used ones are evicted. */
+    private static final int MAX_ENTRIES = 10000;
+
+    /** Bounds the use of data that could depend on objects changed on other nodes, see the class comment. */
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    /**
+     * The whole cache is invalidated when an object of any of these classes (or their subclasses) is modified.
+     * System configuration and object templates can provide lifecycle models with forced assignments.
+     */
+    private static final Collection<Class<?>> GLOBAL_INVALIDATION_CLASSES = List.of(
+            SystemConfigurationType.class,
+            AbstractRoleType.class,
+            ObjectTemplateType.class);
+
+    @Autowired private CacheRegistry cacheRegistry;
+
+    @Autowired
+    @Qualifier("repositoryService")
+    private RepositoryService plainRepositoryService;
+
+    private final com.google.common.cache.Cache<String, Entry> cache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(TIME_TO_LIVE)
+            .build();
+
+    /**
+     * Options for reading the closure objects: only OIDs and versions are needed. The repository then does not fetch
+     * (nor parse) the full objects.
+     */
+    private static final Collection<SelectorOptions<GetOperationOptions>> VERSION_ONLY_OPTIONS =
+            GetOperationOptionsBuilder.create()
+                    .dontRetrieve()
+                    .readOnly()
+                    .build();
+
+    /**
+     * Incremented on each invalidation of the whole cache; used to avoid caching data collected from (potentially)
+     * stale objects outside the closure. The changes of the focus and the closure objects are caught by the version checks.
+     */
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @PostConstruct
+    public void register() {
+        cacheRegistry.registerCache(this);
+    }
+
+    @PreDestroy
+    public void unregister() {
+        cacheRegistry.unregisterCache(this);
+    }
+
+    /**
+     * Returns a clone of the data cached for given focus (in its current version), or `null` if there are none,
+     * or if any of the objects in the closure has changed since.
+     */
+    @Nullable AssignmentData get(@NotNull AssignmentHolderType focus, @NotNull OperationResult result) {
+        String oid = focus.getOid();
+        String version = focus.getVersion();
+        Entry entry = oid != null && version != null ? cache.getIfPresent(oid) : null;
+        if (entry != null && entry.focusVersion.equals(version) && isClosureCurrent(entry, result)) {
+            hits.increment();
+            LOGGER.trace("HIT for {} (version {})", focus, version);
+            return entry.data.copy();
+        } else {
+            if (entry != null) {
+                cache.asMap().remove(oid, entry);
+            }
+            misses.increment();
+            LOGGER.trace("MISS for {} (version {})", focus, version);
+            return null;
+        }
+    }
+
+    /** Checks the stored versions of the closure objects against the repository, using a single search. */
+    private boolean isClosureCurrent(@NotNull Entry entry, @NotNull OperationResult result) {
+        Map<String, String> storedVersions = entry.closureVersions;
+        if (storedVersions.isEmpty()) {
+            return true;
+        }
+        Map<String, String> currentVersions;
+        try {
+            currentVersions = plainRepositoryService
+                    .searchObjects(
+                            AssignmentHolderType.class,
+                            PrismContext.get().queryFor(AssignmentHolderType.class)
+                                    .id(storedVersions.keySet().toArray(new String[0]))
+                                    .build(),
+                            VERSION_ONLY_OPTIONS,
+                            result)
+                    .stream()
+                    .collect(Collectors.toMap(o -> o.getOid(), o -> o.getVersion()));
+        } catch (SchemaException | RuntimeException e) {
+            LoggingUtils.logUnexpectedException(LOGGER, "Couldn't check the versions of {}, not using cached data",
+                    e, storedVersions.keySet());
+            return false;
+        }
+        for (var stored : storedVersions.entrySet()) {
+            String closureOid = stored.getKey();
+            String currentVersion = currentVersions.get(closureOid);
+            if (!stored.getValue().equals(currentVersion)) {
+                LOGGER.trace("{} was changed or deleted (version {} -> {})", closureOid, stored.getValue(), currentVersion);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the value to be passed to {@link #put(AssignmentHolderType, Collection, AssignmentData, long)}. */
+    long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * Stores a copy of the data collected from given evaluated assignments, if they are cacheable, and if there was
+     * no invalidation of the whole cache since the evaluation has started.
+     *
+     * @param invalidationCountBefore Value of {@link #getInvalidationCount()} before the evaluation.
+     */
+    void put(
+            @NotNull AssignmentHolderType focus,
+            @NotNull Collection<? extends EvaluatedAssignment> evaluatedAssignments,
+            @NotNull AssignmentData data,
+            long invalidationCountBefore) {
+        String oid = focus.getOid();
+        String version = focus.getVersion();
+        if (oid == null || version == null) {
+            return; // not a repository object
+        }
+        if (!isCacheable(focus, evaluatedAssignments)) {
+            LOGGER.trace("Assignment data for {} are not cacheable", focus);
+            return;
+        }
+        Entry entry = new Entry(version, getClosureVersions(evaluatedAssignments), data.copy());
+        cache.put(oid, entry);
+        if (invalidationCount.get() != invalidationCountBefore) {
+            // We cannot be sure the data were collected from the current objects.
+            cache.asMap().remove(oid, entry);
+        }
+    }
+
+    /**
+     * Are the results of the assignment evaluation determined solely by the versions of the focus and the objects
+     * covered by the invalidation? We check the assignments of the focus and all the assignments and inducements
+     * of the objects in the closure - even those that were not applied (e.g. because they were not valid at the time).
+     */
+    private static boolean isCacheable(
+            @NotNull AssignmentHolderType focus, @NotNull Collection<? extends EvaluatedAssignment> evaluatedAssignments) {
+        if (!areAssignmentsCacheable(focus.getAssignment())) {
+            return false;
+        }
+        for (EvaluatedAssignment evaluatedAssignment : evaluatedAssignments) {
+            if (!isAssignmentCacheable(evaluatedAssignment.getAssignment())) {
+                return false; // e.g. forced assignment from the lifecycle model
+            }
+            for (EvaluatedAssignmentTarget target : evaluatedAssignment.getRoles().getAllValues()) {
+                if (!isTargetCacheable(target.getTarget())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTargetCacheable(@Nullable PrismObject<? extends AssignmentHolderType> target) {
+        if (target == null) {
+            return false;
+        }
+        AssignmentHolderType bean = target.asObjectable();
+        if (bean.getOid() == null || bean.getVersion() == null) {
+            return false;
+        }
+        if (bean instanceof FocusType focus && hasValidityConstraints(focus.getActivation())) {
+            return false;
+        }
+        if (bean instanceof AbstractRoleType role
+                && (role.getCondition() != null || !areAssignmentsCacheable(role.getInducement()))) {
+            return false;
+        }
+        return areAssignmentsCacheable(bean.getAssignment());
+    }
+
+    private static boolean areAssignmentsCacheable(@NotNull List<AssignmentType> assignments) {
+        return assignments.stream().allMatch(a -> isAssignmentCacheable(a));
+    }
+
+    private static boolean isAssignmentCacheable(@Nullable AssignmentType assignment) {
+        if (assignment == null) {
+            return true;
+        }
+        ObjectReferenceType targetRef = assignment.getTargetRef();
+        return assignment.getCondition() == null
+                && !hasValidityConstraints(assignment.getActivation())
+                && (targetRef == null || targetRef.getOid() != null);
+    }
+
+    private static boolean hasValidityConstraints(@Nullable ActivationType activation) {
+        return activation != null && (activation.getValidFrom() != null || activation.getValidTo() != null);
+    }
+
+    private static @NotNull Map<String, String> getClosureVersions(
+            @NotNull Collection<? extends EvaluatedAssignment> evaluatedAssignments) {
+        Map<String, String> versions = new HashMap<>();
+        for (EvaluatedAssignment evaluatedAssignment : evaluatedAssignments) {
+            for (EvaluatedAssignmentTarget target : evaluatedAssignment.getRoles().getAllValues()) {
+                PrismObject<? extends AssignmentHolderType> targetObject = target.getTarget();
+                versions.put(targetObject.getOid(), targetObject.getVersion());
+            }
+        }
+        return Map.copyOf(versions);
+    }
+
+    @Override
+    public void invalidate(Class<?> type, String oid, CacheInvalidationContext context) {
+        if (type == null || GLOBAL_INVALIDATION_CLASSES.stream().anyMatch(c -> c.isAssignableFrom(type))) {
+            invalidationCount.incrementAndGet();
+            cache.invalidateAll();
+        } else if (AssignmentHolderType.class.isAssignableFrom(type)) {
+            if (oid != null) {
+                cache.invalidate(oid); // the entries having the object in the closure are left to the version check
+            } else {
+                invalidationCount.incrementAndGet();
+                cache.invalidateAll();
+            }
+        }
+    }
+
+    @Override
+    public @NotNull Collection<SingleCacheStateInformationType> getStateInformation() {
+        return Collections.singleton(new SingleCacheStateInformationType()
+                .name(PrincipalAssignmentDataCache.class.getName())
+                .size((int) cache.size())
+                .performance(new SingleCachePerformanceInformationType()
+                        .name(PrincipalAssignmentDataCache.class.getName())
+                        .hitCount(CachePerformanceInformationUtil.toCount(hits.longValue()))
+                        .missCount(CachePerformanceInformationUtil.toCount(misses.longValue()))));
+    }
+
+    @Override
+    public void dumpContent() {
+        if (LOGGER_CONTENT.isInfoEnabled()) {
+            cache.asMap().forEach((k, v) -> LOGGER_CONTENT.info("Cached assignment data: {}: {}", k, v));
+        }
+    }
+
+    private record Entry(
+            @NotNull String focusVersion,
+            @NotNull Map<String, String> closureVersions,
+            @NotNull AssignmentData data) {
+
+        @Override
+        public String toString() {
+            return "Entry{version=" + focusVersion + ", closure=" + closureVersions + ", " + data + "}";
+        }
+    }
+
+    /**
+     * The data collected from the evaluated assignments, independent of the authentication channel and other
+     * circumstances of the principal creation. Only valid assignments contribute to the first three items.
+     */
+    record AssignmentData(
+            @NotNull List<Authorization> authorizations,
+            @NotNull List<AdminGuiConfigurationType> adminGuiConfigurations,
+            @NotNull Set<String> adminGuiDependencies,
+            @NotNull List<DelegationTarget> delegationTargets) {
+
+        static @NotNull AssignmentData collect(@NotNull Collection<? extends EvaluatedAssignment> evaluatedAssignments) {
+            List<Authorization> authorizations = new ArrayList<>();
+            List<AdminGuiConfigurationType> adminGuiConfigurations = new ArrayList<>();
+            Set<String> adminGuiDependencies = new HashSet<>();
+            List<DelegationTarget> delegationTargets = new ArrayList<>();
+            for (EvaluatedAssignment assignment : evaluatedAssignments) {
+                if (assignment.isValid()) {
+                    // TODO: Should we add also invalid assignments?
+                    adminGuiDependencies.addAll(assignment.getAdminGuiDependencies());
+                    authorizations.addAll(assignment.getAuthorizations());
+                    adminGuiConfigurations.addAll(assignment.getAdminGuiConfigurations());
+                }
+                for (EvaluatedAssignmentTarget target : assignment.getRoles().getNonNegativeValues()) { // TODO see MID-6403
+                    if (target.isValid() && target.getAssignmentPath().containsDelegation()) {
+                        delegationTargets.add(new DelegationTarget(
+                                target.getTarget(), target.getAssignmentPath().getOtherPrivilegesLimitation()));
+                    }
+                }
+            }
+            return new AssignmentData(authorizations, adminGuiConfigurations, adminGuiDependencies, delegationTargets);
+        }
+
+        /** Deep enough copy, so that neither the cached data nor the data given to the client can be changed by the other. */
+        @NotNull AssignmentData copy() {
+            return new AssignmentData(
+                    authorizations.stream().map(a -> a.clone()).toList(),
+                    adminGuiConfigurations.stream().map(c -> c.clone()).toList(),
+                    Set.copyOf(adminGuiDependencies),
+                    delegationTargets.stream().map(t -> t.copy()).toList());
+        }
+
+        @Override
+        public String toString() {
+            return "AssignmentData{authorizations: " + authorizations.size()
+                    + ", adminGuiConfigurations: " + adminGuiConfigurations.size()
+                    + ", adminGuiDependencies: " + adminGuiDependencies
+                    + ", delegationTargets: " + delegationTargets.size() + "}";
+        }
+    }
+
+    /**
+     * Target of a delegation, along with the limitation of the other privileges acquired via it.
+     * The target object is used only for its type and OID, so the copies share its immutable clone.
+     */
+    record DelegationTarget(
+            @NotNull PrismObject<? extends AssignmentHolderType> target,
+            @NotNull OtherPrivilegesLimitations.Limitation limitation) {
+
+        @NotNull DelegationTarget copy() {
+            return new DelegationTarget(
+                    target.isImmutable() ? target : target.createImmutableClone(),
+                    new OtherPrivilegesLimitations.Limitation(new HashSet<>(limitation.allowedTypes())));
+        }
+    }
+}
@@ -12,12 +12,14 @@ import static com.evolveum.midpoint.common.SynchronizationUtils.createSynchroniz
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import javax.xml.datatype.XMLGregorianCalendar;
 
 import com.evolveum.midpoint.xml.ns._public.common.common_3.SynchronizationSituationType;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.evolveum.midpoint.common.SynchronizationUtils;
 import com.evolveum.midpoint.model.impl.ModelBeans;
@@ -99,6 +101,22 @@ class ShadowUpdater {
         return this;
     }
 
+    /**
+     * Stores the fingerprint of the synchronization (or removes the existing one, if `null`).
+     * See {@link SynchronizationFingerprint}.
+     */
+    ShadowUpdater updateFullSyncFingerprint(@Nullable String fingerprint) throws SchemaException {
+        String existing = shadowBefore.getFullSynchronizationFingerprint();
+        if (!Objects.equals(existing, fingerprint)) {
+            var deltaBuilder = PrismContext.get().deltaFor(ShadowType.class)
+                    .item(ShadowType.F_FULL_SYNCHRONIZATION_FINGERPRINT).old(existing);
+            addShadowDelta(
+                    (fingerprint != null ? deltaBuilder.replace(fingerprint) : deltaBuilder.replace())
+                            .asItemDelta());
+        }
+        return this;
+    }
+
     private void updateBasicSyncTimestamp(XMLGregorianCalendar now) throws SchemaException {
         applyShadowDelta(
                 SynchronizationUtils.createSynchronizationTimestampDelta(shadowBefore, now));
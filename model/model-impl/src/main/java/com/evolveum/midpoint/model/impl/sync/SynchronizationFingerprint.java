@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.model.impl.sync;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.evolveum.midpoint.provisioning.api.ResourceObjectFingerprint;
+import com.evolveum.midpoint.schema.constants.SchemaConstants;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.FocusType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.SynchronizationSituationType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.SystemConfigurationType;
+
+/**
+ * Supports skipping the synchronization of linked resource objects that did not change since their last full
+ * synchronization (see `skipUnchanged` in the synchronization reactions).
+ *
+ * The fingerprint covers everything the synchronization outcome is directly derived from: the content of the resource object,
+ * its type, the linked owner (including its version), and the versions of the resource and the system configuration.
+ * It is stored in {@link ShadowType#getFullSynchronizationFingerprint()} after a successful full synchronization.
+ *
+ * Changes in other objects (roles, archetypes, object templates, ...) are not detected; that is why the feature is opt-in.
+ */
+class SynchronizationFingerprint {
+
+    private static final Trace LOGGER = TraceManager.getTrace(SynchronizationFingerprint.class);
+
+    /**
+     * Computes the fingerprint for the current synchronization, or returns `null` if the skipping is not applicable here:
+     * not enabled, not a reconciliation/import, not a linked owner, pending operations, simulation, and so on.
+     */
+    static @Nullable String computeIfApplicable(@NotNull SynchronizationContext.Complete<?> syncCtx) {
+        if (!syncCtx.getSynchronizationPolicy().isSkipUnchanged()) {
+            return null;
+        }
+        String channel = syncCtx.getChannel();
+        if (!SchemaConstants.CHANNEL_RECON_URI.equals(channel) && !SchemaConstants.CHANNEL_IMPORT_URI.equals(channel)) {
+            LOGGER.trace("Not skipping unchanged objects for channel {}", channel);
+            return null;
+        }
+        FocusType linkedOwner = syncCtx.getLinkedOwner();
+        if (linkedOwner == null
+                || syncCtx.getSituation() != SynchronizationSituationType.LINKED
+                || syncCtx.isCorrelatorsUpdateRequested()
+                || !syncCtx.isExecutionFullyPersistent()) {
+            return null;
+        }
+        ShadowType shadow = syncCtx.getShadowedResourceObject();
+        if (!shadow.getPendingOperation().isEmpty()) {
+            return null;
+        }
+        SystemConfigurationType systemConfiguration = syncCtx.getSystemConfiguration();
+        var typeIdentification = syncCtx.getTypeIdentification();
+        String content = ResourceObjectFingerprint.compute(shadow)
+                + "|" + typeIdentification.getKind().value() + "/" + typeIdentification.getIntent() + "/" + syncCtx.getTag()
+                + "|" + linkedOwner.getOid() + ":" + linkedOwner.getVersion()
+                + "|" + syncCtx.getResourceOid() + ":" + syncCtx.getResource().getVersion()
+                + "|" + (systemConfiguration != null ? systemConfiguration.getVersion() : null);
+        return ResourceObjectFingerprint.hash(content);
+    }
+}
@@ -62,6 +62,9 @@ public class SynchronizationServiceImpl implements SynchronizationService {
     private static final String OP_SETUP_SITUATION = CLASS_NAME_WITH_DOT + "setupSituation";
     private static final String OP_NOTIFY_CHANGE = CLASS_NAME_WITH_DOT + "notifyChange";
 
+    private static final String MESSAGE_UNCHANGED =
+            "Synchronization is skipped, as neither the object nor its owner has changed since the last full synchronization";
+
     @Autowired private PrismContext prismContext;
     @Autowired private ModelBeans beans;
     @Autowired private SynchronizationContextCreator syncContextCreator;
@@ -100,6 +103,20 @@ public class SynchronizationServiceImpl implements SynchronizationService {
             SynchronizationContext.Complete<?> completeCtx = (SynchronizationContext.Complete<?>) syncCtx;
             setupLinkedOwnerAndSituation(completeCtx, change, result);
 
+            String fingerprint = SynchronizationFingerprint.computeIfApplicable(completeCtx);
+            if (fingerprint != null && fingerprint.equals(completeCtx.getShadowedResourceObject().getFullSynchronizationFingerprint())) {
+                // This is the common case in steady-state reconciliations, so the messages are not formatted eagerly.
+                LOGGER.debug("SYNCHRONIZATION is skipped for unchanged {}, ignoring change from channel {}",
+                        completeCtx.getShadowedResourceObject(), completeCtx.getChannel());
+                completeCtx.recordSyncExclusionInTask(UNCHANGED);
+                completeCtx.getUpdater()
+                        .updateAllSyncMetadataRespectingMode()
+                        .updateFullSyncTimestamp(clock.currentTimeXMLGregorianCalendar())
+                        .commit(result);
+                result.recordNotApplicable(MESSAGE_UNCHANGED);
+                return;
+            }
+
             completeCtx.recordSyncStartInTask();
             completeCtx.getUpdater()
                     .updateAllSyncMetadataRespectingMode()
@@ -119,6 +136,7 @@ public class SynchronizationServiceImpl implements SynchronizationService {
             if (completeCtx.isExecutionFullyPersistent() && !synchronizationFailure) {
                 completeCtx.getUpdater()
                         .updateFullSyncTimestamp(clock.currentTimeXMLGregorianCalendar())
+                        .updateFullSyncFingerprint(fingerprint)
                         .commit(result);
             }
 
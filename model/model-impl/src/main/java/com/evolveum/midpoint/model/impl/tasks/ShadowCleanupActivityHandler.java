@@ -10,7 +10,10 @@ import static com.evolveum.midpoint.prism.xml.XmlTypeConverter.createXMLGregoria
 import static com.evolveum.midpoint.util.MiscUtil.argCheck;
 import static com.evolveum.midpoint.xml.ns._public.common.common_3.ResourceObjectSetQueryApplicationModeType.APPEND;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import javax.xml.datatype.Duration;
 import javax.xml.namespace.QName;
 
@@ -21,14 +24,17 @@ import com.evolveum.midpoint.model.impl.sync.tasks.ProcessingScope;
 import com.evolveum.midpoint.model.impl.tasks.simple.SimpleActivityHandler;
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.prism.query.ObjectFilter;
+import com.evolveum.midpoint.provisioning.api.ProvisioningOperationContext;
 import com.evolveum.midpoint.repo.common.activity.definition.AbstractWorkDefinition;
 import com.evolveum.midpoint.repo.common.activity.definition.ResourceObjectSetSpecificationProvider;
 import com.evolveum.midpoint.repo.common.activity.definition.WorkDefinitionFactory;
 import com.evolveum.midpoint.repo.common.activity.definition.WorkDefinitionFactory.WorkDefinitionSupplier;
 import com.evolveum.midpoint.repo.common.activity.run.*;
+import com.evolveum.midpoint.repo.common.activity.run.processing.BatchedItem;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
 import com.evolveum.midpoint.schema.GetOperationOptions;
 import com.evolveum.midpoint.schema.GetOperationOptionsBuilder;
+import com.evolveum.midpoint.schema.SelectorOptions;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.schema.util.task.work.ResourceObjectSetUtil;
 import com.evolveum.midpoint.task.api.RunningTask;
@@ -63,6 +69,9 @@ public class ShadowCleanupActivityHandler
 
     private static final Trace LOGGER = TraceManager.getTrace(ShadowCleanupActivityHandler.class);
 
+    /** How many shadows are gotten from the provisioning at once. */
+    private static final int ITEM_BATCH_SIZE = 50;
+
     @Override
     protected @NotNull QName getWorkDefinitionTypeName() {
         return ShadowCleanupWorkDefinitionType.COMPLEX_TYPE;
@@ -164,24 +173,59 @@ public class ShadowCleanupActivityHandler
                             searchSpecification.getSearchOptions()));
         }
 
+        @Override
+        protected int getItemBatchSize() {
+            return ITEM_BATCH_SIZE;
+        }
+
         @Override
         public boolean processItem(@NotNull ShadowType shadow,
                 @NotNull ItemProcessingRequest<ShadowType> request, RunningTask workerTask, OperationResult result)
                 throws CommonException {
-            var options = GetOperationOptionsBuilder.create()
-                    .forceRefresh()
-                    .forceRetry()
-                    .allowNotFound()
-                    .build();
             try {
                 // TODO what if the resource does not support "read" capability?
-                provisioningService.getObject(ShadowType.class, shadow.getOid(), options, workerTask, result);
+                provisioningService.getObject(ShadowType.class, shadow.getOid(), createGetOptions(), workerTask, result);
                 // The "shadow dead" or even "shadow deleted" event should be emitted by the provisioning service
             } catch (ObjectNotFoundException e) {
                 LOGGER.trace("Shadow is no longer there - OK, that makes sense: {}", shadow);
             }
             return true;
         }
+
+        /**
+         * Gets the shadows in one call, so that the resource objects can be fetched in bulk. Shadows that were not returned
+         * (typically, because they no longer exist) are processed individually, to get the precise outcome for each of them.
+         * The repeated processing is cheap for shadows that are already dead or deleted.
+         */
+        @Override
+        public boolean processItems(@NotNull List<BatchedItem<ShadowType>> items, RunningTask workerTask,
+                OperationResult result) throws CommonException, ActivityRunException {
+            var oids = items.stream()
+                    .map(item -> item.item().getOid())
+                    .toList();
+            var shadows = provisioningService.getShadows(
+                    processingScope.getResourceOid(), oids, createGetOptions(),
+                    new ProvisioningOperationContext(), workerTask, result);
+            List<BatchedItem<ShadowType>> remaining = new ArrayList<>();
+            for (var item : items) {
+                if (shadows.containsKey(item.item().getOid())) {
+                    item.result().recordSuccess();
+                } else {
+                    remaining.add(item);
+                }
+            }
+            LOGGER.trace("Got {} out of {} shadows in bulk, processing {} individually",
+                    shadows.size(), items.size(), remaining.size());
+            return super.processItems(remaining, workerTask, result);
+        }
+
+        private Collection<SelectorOptions<GetOperationOptions>> createGetOptions() {
+            return GetOperationOptionsBuilder.create()
+                    .forceRefresh()
+                    .forceRetry()
+                    .allowNotFound()
+                    .build();
+        }
     }
 
     public static class MyWorkDefinition extends AbstractWorkDefinition implements ResourceObjectSetSpecificationProvider {
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.model.impl.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Test;
+import org.xml.sax.SAXException;
+
+import com.evolveum.midpoint.model.api.CollectionStats;
+import com.evolveum.midpoint.prism.util.PrismTestUtil;
+import com.evolveum.midpoint.schema.MidPointPrismContextFactory;
+import com.evolveum.midpoint.schema.util.MiscSchemaUtil;
+import com.evolveum.midpoint.tools.testng.AbstractUnitTest;
+import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.CollectionRefSpecificationType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectCollectionType;
+
+/**
+ * Tests {@link PrefetchedCollectionStats}, i.e. the per-principal store of the stats prefetched for dashboard widgets.
+ */
+public class TestPrefetchedCollectionStats extends AbstractUnitTest {
+
+    private static final String PRINCIPAL_1_OID = UUID.randomUUID().toString();
+    private static final String PRINCIPAL_2_OID = UUID.randomUUID().toString();
+
+    private static final String COLLECTION_1_OID = UUID.randomUUID().toString();
+    private static final String COLLECTION_2_OID = UUID.randomUUID().toString();
+
+    @BeforeSuite
+    public void setup() throws SchemaException, SAXException, IOException {
+        PrismTestUtil.resetPrismContext(MidPointPrismContextFactory.FACTORY);
+    }
+
+    @Test
+    public void test100StatsAreKeptPerPrincipal() {
+        given("stats prefetched for the first principal");
+        var prefetched = new PrefetchedCollectionStats();
+        CollectionStats stats = stats(10);
+        prefetched.put(PRINCIPAL_1_OID, spec(COLLECTION_1_OID), stats);
+
+        expect("they are used for the same principal and (equal) collection specification");
+        assertThat(prefetched.get(PRINCIPAL_1_OID, spec(COLLECTION_1_OID))).isSameAs(stats);
+
+        and("they are not used for other collection");
+        assertThat(prefetched.get(PRINCIPAL_1_OID, spec(COLLECTION_2_OID))).isNull();
+
+        and("they are not used for other principal, as the counts depend on the authorizations");
+        assertThat(prefetched.get(PRINCIPAL_2_OID, spec(COLLECTION_1_OID))).isNull();
+    }
+
+    @Test
+    public void test110StatsWithoutPrincipalAreNotKept() {
+        given("stats prefetched without a principal");
+        var prefetched = new PrefetchedCollectionStats();
+        prefetched.put(null, spec(COLLECTION_1_OID), stats(10));
+
+        expect("they are not used");
+        assertThat(prefetched.get(null, spec(COLLECTION_1_OID))).isNull();
+    }
+
+    @Test
+    public void test120KeyIsNotAffectedByChangesOfSpecification() {
+        given("stats prefetched for a collection specification");
+        var prefetched = new PrefetchedCollectionStats();
+        CollectionRefSpecificationType spec = spec(COLLECTION_1_OID);
+        prefetched.put(PRINCIPAL_1_OID, spec, stats(10));
+
+        when("the specification is modified by the caller");
+        spec.setCollectionRef(MiscSchemaUtil.createObjectReference(COLLECTION_2_OID, ObjectCollectionType.COMPLEX_TYPE));
+
+        then("the stats are still available for the original specification only");
+        assertThat(prefetched.get(PRINCIPAL_1_OID, spec(COLLECTION_1_OID))).isNotNull();
+        assertThat(prefetched.get(PRINCIPAL_1_OID, spec(COLLECTION_2_OID))).isNull();
+    }
+
+    @Test
+    public void test130StatsExpire() throws InterruptedException {
+        given("stats prefetched with a short time to live");
+        var prefetched = new PrefetchedCollectionStats(100, Duration.ofMillis(100));
+        prefetched.put(PRINCIPAL_1_OID, spec(COLLECTION_1_OID), stats(10));
+        assertThat(prefetched.get(PRINCIPAL_1_OID, spec(COLLECTION_1_OID))).isNotNull();
+
+        when("the time to live passes");
+        Thread.sleep(300);
+
+        then("the stats are not used anymore");
+        assertThat(prefetched.get(PRINCIPAL_1_OID, spec(COLLECTION_1_OID))).isNull();
+    }
+
+    @Test
+    public void test140LeastRecentlyUsedStatsAreEvicted() {
+        given("store limited to 5 entries");
+        var prefetched = new PrefetchedCollectionStats(5, Duration.ofMinutes(1));
+
+        when("stats for more principals are prefetched");
+        String firstPrincipalOid = null;
+        String lastPrincipalOid = null;
+        for (int i = 0; i < 50; i++) {
+            lastPrincipalOid = UUID.randomUUID().toString();
+            if (firstPrincipalOid == null) {
+                firstPrincipalOid = lastPrincipalOid;
+            }
+            prefetched.put(lastPrincipalOid, spec(COLLECTION_1_OID), stats(i));
+        }
+
+        then("the recent stats are kept, and the old ones are evicted");
+        assertThat(prefetched.get(lastPrincipalOid, spec(COLLECTION_1_OID))).isNotNull();
+        assertThat(prefetched.get(firstPrincipalOid, spec(COLLECTION_1_OID))).isNull();
+    }
+
+    private @NotNull CollectionRefSpecificationType spec(String collectionOid) {
+        CollectionRefSpecificationType spec = new CollectionRefSpecificationType();
+        spec.setCollectionRef(MiscSchemaUtil.createObjectReference(collectionOid, ObjectCollectionType.COMPLEX_TYPE));
+        return spec;
+    }
+
+    private @NotNull CollectionStats stats(int objectCount) {
+        CollectionStats stats = new CollectionStats();
+        stats.setObjectCount(objectCount);
+        return stats;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.model.impl.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Test;
+import org.xml.sax.SAXException;
+
+import com.evolveum.midpoint.CacheInvalidationContext;
+import com.evolveum.midpoint.model.api.authentication.CompiledGuiProfile;
+import com.evolveum.midpoint.prism.util.PrismTestUtil;
+import com.evolveum.midpoint.schema.MidPointPrismContextFactory;
+import com.evolveum.midpoint.tools.testng.AbstractUnitTest;
+import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+
+/**
+ * Tests {@link CompiledGuiProfileCache} without the Spring context.
+ */
+public class TestCompiledGuiProfileCache extends AbstractUnitTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private CompiledGuiProfileCache cache;
+
+    @BeforeSuite
+    public void setup() throws SchemaException, SAXException, IOException {
+        PrismTestUtil.resetPrismContext(MidPointPrismContextFactory.FACTORY);
+    }
+
+    @BeforeMethod
+    public void createCache() {
+        cache = new CompiledGuiProfileCache(CompiledGuiProfileCache.MAX_ENTRIES, TIME_TO_LIVE);
+    }
+
+    @Test
+    public void test100HitReturnsCloneAndInvalidation() {
+        given("cached profile");
+        var key = key("c1");
+        cache.put(key, profile("UTC"), cache.getInvalidationCount());
+
+        when("it is obtained and modified by the client");
+        CompiledGuiProfile cached = cache.get(key);
+        assertThat(cached).isNotNull();
+        cached.setDefaultTimezone("Europe/Bratislava");
+
+        then("the cached profile is not changed");
+        assertThat(cache.get(key).getDefaultTimezone()).isEqualTo("UTC");
+
+        when("an object of unrelated type is changed");
+        cache.invalidate(UserType.class, UUID.randomUUID().toString(), null);
+
+        then("the entry is still there");
+        assertThat(cache.get(key)).isNotNull();
+
+        when("an archetype is changed");
+        cache.invalidate(ArchetypeType.class, UUID.randomUUID().toString(), null);
+
+        then("the entry is gone");
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    public void test110ProfileCompiledConcurrentlyWithInvalidationIsNotCached() {
+        given("compilation started before an invalidation");
+        long invalidationCountBefore = cache.getInvalidationCount();
+        cache.invalidate(ObjectCollectionType.class, UUID.randomUUID().toString(), null);
+
+        when("the profile is put into the cache");
+        var key = key("c1");
+        cache.put(key, profile("UTC"), invalidationCountBefore);
+
+        then("it is not cached");
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    public void test120LeastRecentlyUsedEntriesAreEvicted() {
+        given("cache limited to 5 entries");
+        cache = new CompiledGuiProfileCache(5, TIME_TO_LIVE);
+
+        when("more entries are put in it");
+        for (int i = 0; i < 50; i++) {
+            cache.put(key("c" + i), profile("UTC"), cache.getInvalidationCount());
+        }
+
+        then("old entries are evicted, and the new ones are cached");
+        assertThat(cache.getStateInformation().iterator().next().getSize()).isLessThanOrEqualTo(5);
+        assertThat(cache.get(key("c49"))).isNotNull();
+        assertThat(cache.get(key("c0"))).isNull();
+    }
+
+    @Test
+    public void test130InvalidationFromOtherNodeIsApplied() {
+        given("cached profile");
+        var key = key("c1");
+        cache.put(key, profile("UTC"), cache.getInvalidationCount());
+
+        when("a related object change comes from other node");
+        cache.invalidate(RoleType.class, UUID.randomUUID().toString(), true, new CacheInvalidationContext(true, null));
+
+        then("the entry is gone");
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    public void test135EntriesExpire() throws InterruptedException {
+        given("cache with a short time to live, with a profile");
+        cache = new CompiledGuiProfileCache(CompiledGuiProfileCache.MAX_ENTRIES, Duration.ofMillis(100));
+        var key = key("c1");
+        cache.put(key, profile("UTC"), cache.getInvalidationCount());
+        assertThat(cache.get(key)).isNotNull();
+
+        when("the time to live passes (as when a related object is changed on other node)");
+        Thread.sleep(300);
+
+        then("the entry is not used anymore");
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    public void test140StatisticsAreReported() {
+        given("a hit and two misses");
+        var key = key("c1");
+        cache.get(key);
+        cache.put(key, profile("UTC"), cache.getInvalidationCount());
+        cache.get(key);
+        cache.get(key("c2"));
+
+        expect("they are reported");
+        SingleCachePerformanceInformationType performance =
+                cache.getStateInformation().iterator().next().getPerformance();
+        assertThat(performance.getHitCount()).isEqualTo(1);
+        assertThat(performance.getMissCount()).isEqualTo(2);
+    }
+
+    /** Key with a single collected configuration; the configurations differ in the parameter. */
+    private @NotNull CompiledGuiProfileCache.Key key(String configurationTimezone) {
+        return new CompiledGuiProfileCache.Key(
+                SystemObjectsType.SYSTEM_CONFIGURATION.value(), "1", UserType.COMPLEX_TYPE,
+                List.of(new AdminGuiConfigurationType()
+                        .defaultTimezone(configurationTimezone)));
+    }
+
+    private @NotNull CompiledGuiProfile profile(String timezone) {
+        CompiledGuiProfile profile = new CompiledGuiProfile();
+        profile.setDefaultTimezone(timezone);
+        return profile;
+    }
+}
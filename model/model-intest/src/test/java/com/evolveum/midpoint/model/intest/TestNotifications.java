@@ -54,12 +54,15 @@ import com.evolveum.midpoint.schema.constants.SchemaConstants;
 import com.evolveum.midpoint.schema.internals.InternalCounters;
 import com.evolveum.midpoint.schema.internals.InternalMonitor;
 import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.result.OperationResultStatus;
 import com.evolveum.midpoint.schema.util.MiscSchemaUtil;
 import com.evolveum.midpoint.task.api.LightweightIdentifierGenerator;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.test.DummyTestResource;
+import com.evolveum.midpoint.test.IntegrationTestTools;
 import com.evolveum.midpoint.test.TestObject;
 import com.evolveum.midpoint.test.util.TestUtil;
+import com.evolveum.midpoint.transport.impl.MessageDispatcher;
 import com.evolveum.midpoint.util.exception.CommonException;
 import com.evolveum.midpoint.util.exception.ObjectAlreadyExistsException;
 import com.evolveum.midpoint.util.exception.ObjectNotFoundException;
@@ -86,6 +89,7 @@ public class TestNotifications extends AbstractInitializedModelIntegrationTest {
     private static final String USERNAME_GREGOR = "gregor";
 
     @Autowired private LightweightIdentifierGenerator lightweightIdentifierGenerator;
+    @Autowired private MessageDispatcher messageDispatcher;
 
     private String accountJackOid;
     private HttpServer httpServer;
@@ -1010,6 +1014,40 @@ public class TestNotifications extends AbstractInitializedModelIntegrationTest {
                 .startsWith("Password: dummyPassword");
     }
 
+    /**
+     * With the asynchronous dispatching, the message is sent later by a dispatcher thread, but the operation
+     * that produced it must be reported as successful (not "in progress").
+     */
+    @Test
+    public void test700ModifyUserWithAsynchronousDispatch() throws Exception {
+        given("asynchronous message dispatching is enabled");
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+        preTestCleanup(AssignmentPolicyEnforcementType.FULL);
+        messageDispatcher.configure(new MessageDispatchConfigurationType().enabled(true));
+        try {
+            long queuedBefore = messageDispatcher.getQueuedCount();
+
+            when("user is modified");
+            modifyUserReplace(USER_JACK_OID, UserType.F_LOCALITY, task, result, PolyString.fromOrig("Tortuga"));
+
+            then("the operation is successful, and the message was queued");
+            result.computeStatus();
+            TestUtil.assertSuccess(result);
+            assertThat(result.getStatus()).isEqualTo(OperationResultStatus.SUCCESS);
+            assertThat(messageDispatcher.getQueuedCount()).isGreaterThan(queuedBefore);
+
+            and("the message is sent by a dispatcher thread");
+            IntegrationTestTools.waitFor("user notification is sent",
+                    () -> dummyTransport.getMessages("dummy:simpleUserNotifier") != null, 10000);
+            displayDumpable("Notifications", dummyTransport);
+            checkDummyTransportMessages("simpleUserNotifier", 1);
+        } finally {
+            messageDispatcher.configure(null);
+            notificationManager.setDisabled(true);
+        }
+    }
+
     @SuppressWarnings("Duplicates")
     private void preTestCleanup(AssignmentPolicyEnforcementType enforcementPolicy) throws ObjectNotFoundException, SchemaException, ObjectAlreadyExistsException {
         assumeAssignmentPolicy(enforcementPolicy);
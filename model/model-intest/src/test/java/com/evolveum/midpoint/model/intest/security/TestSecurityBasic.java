@@ -3953,6 +3953,40 @@ public class TestSecurityBasic extends AbstractInitializedSecurityTest {
         assertSearch(RoleType.class, query, 0);
     }
 
+    /**
+     * Counting objects in a batch must apply the authorizations exactly like counting them one by one.
+     */
+    @Test
+    public void test520CountObjectsBatchWithLimitedAuthorizations() throws Exception {
+        given();
+        cleanupAutzTest(USER_JACK_OID);
+        assignRole(USER_JACK_OID, ROLE_SELF.oid);
+        login(USER_JACK_USERNAME);
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        List<ObjectQuery> queries = List.of(
+                queryFor(UserType.class).build(),
+                createNameQuery(USER_JACK_USERNAME),
+                createNameQuery(USER_GUYBRUSH_USERNAME),
+                queryFor(UserType.class).none().build());
+
+        when("users are counted in a batch");
+        List<Integer> batchCounts = modelService.countObjectsBatch(UserType.class, queries, null, task, result);
+
+        then("the counts are the same as when counted individually");
+        List<Integer> individualCounts = new ArrayList<>();
+        for (ObjectQuery query : queries) {
+            individualCounts.add(modelService.countObjects(UserType.class, query, null, task, result));
+        }
+        displayValue("Batch counts", batchCounts);
+        assertThat(batchCounts).isEqualTo(individualCounts);
+
+        and("only jack himself is counted");
+        assertThat(batchCounts).containsExactly(1, 1, 0, 0);
+    }
+
     @SuppressWarnings("SameParameterValue")
     private void assertTaskAddAllow(String oid, String name, String ownerOid, String handlerUri) throws Exception {
         assertAllow("add task " + name,
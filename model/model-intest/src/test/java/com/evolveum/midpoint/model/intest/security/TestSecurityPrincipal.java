@@ -10,8 +10,12 @@ import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import com.evolveum.midpoint.CacheInvalidationContext;
+import com.evolveum.midpoint.model.impl.security.PrincipalAssignmentDataCache;
+import com.evolveum.midpoint.repo.cache.invalidation.Invalidator;
 import com.evolveum.midpoint.schema.constants.RelationTypes;
 import com.evolveum.midpoint.security.api.ProfileCompilerOptions;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.AuthorizationType;
 
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
@@ -49,6 +53,12 @@ public class TestSecurityPrincipal extends AbstractInitializedSecurityTest {
     @Autowired
     private GuiProfiledPrincipalManager guiProfiledPrincipalManager;
 
+    @Autowired
+    private Invalidator repositoryCacheInvalidator;
+
+    @Autowired
+    private PrincipalAssignmentDataCache principalAssignmentDataCache;
+
     protected static final String ROLE_SUPERUSER_OID = "00000000-0000-0000-0000-000000000004";
 
     @Override
@@ -277,6 +287,129 @@ public class TestSecurityPrincipal extends AbstractInitializedSecurityTest {
                 .assertUserDashboardWidgets(0);
     }
 
+    /**
+     * The role assigned to the user is changed; the principal must reflect that,
+     * even if the assignment data of the user are cached.
+     */
+    @Test
+    public void test102JackRolePirateModified() throws Exception {
+        // GIVEN
+        login(USER_ADMINISTRATOR_USERNAME);
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+        focusProfileService.getPrincipal(USER_JACK_USERNAME, UserType.class); // to fill in the cache
+
+        modifyObjectAddContainer(RoleType.class, ROLE_PIRATE_OID, RoleType.F_AUTHORIZATION, task, result,
+                new AuthorizationType()
+                        .id(1000L)
+                        .action(AUTZ_COMMAND_URL));
+
+        resetAuthentication();
+
+        // WHEN
+        MidPointPrincipal principal = focusProfileService.getPrincipal(USER_JACK_USERNAME, UserType.class);
+
+        // THEN
+        assertJack(principal);
+        assertEquals("Wrong number of authorizations", 2, principal.getAuthorities().size());
+        assertAuthorized(principal, AUTZ_COMMAND_URL);
+
+        // CLEANUP
+        login(USER_ADMINISTRATOR_USERNAME);
+        modifyObjectDeleteContainer(RoleType.class, ROLE_PIRATE_OID, RoleType.F_AUTHORIZATION, task, result,
+                new AuthorizationType()
+                        .id(1000L));
+
+        resetAuthentication();
+        principal = focusProfileService.getPrincipal(USER_JACK_USERNAME, UserType.class);
+        assertEquals("Wrong number of authorizations", 1, principal.getAuthorities().size());
+        assertNotAuthorized(principal, AUTZ_COMMAND_URL);
+    }
+
+    /**
+     * As {@link #test102JackRolePirateModified()}, but the role is changed "on another node": the change bypasses
+     * the local invalidation of model-level caches. Only the repository caches are cleared, as they would be
+     * in a cluster configured for that.
+     */
+    @Test
+    public void test103JackRolePirateModifiedOnOtherNode() throws Exception {
+        // GIVEN
+        login(USER_ADMINISTRATOR_USERNAME);
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+        focusProfileService.getPrincipal(USER_JACK_USERNAME, UserType.class); // to fill in the cache
+
+        plainRepositoryService.modifyObject(RoleType.class, ROLE_PIRATE_OID,
+                deltaFor(RoleType.class)
+                        .item(RoleType.F_AUTHORIZATION)
+                        .add(new AuthorizationType()
+                                .id(1001L)
+                                .action(AUTZ_COMMAND_URL))
+                        .asItemDeltas(),
+                result);
+        invalidateRepositoryCaches(RoleType.class, ROLE_PIRATE_OID);
+
+        resetAuthentication();
+
+        // WHEN
+        MidPointPrincipal principal = focusProfileService.getPrincipal(USER_JACK_USERNAME, UserType.class);
+
+        // THEN
+        assertJack(principal);
+        assertEquals("Wrong number of authorizations", 2, principal.getAuthorities().size());
+        assertAuthorized(principal, AUTZ_COMMAND_URL);
+
+        // CLEANUP
+        plainRepositoryService.modifyObject(RoleType.class, ROLE_PIRATE_OID,
+                deltaFor(RoleType.class)
+                        .item(RoleType.F_AUTHORIZATION)
+                        .delete(new AuthorizationType()
+                                .id(1001L))
+                        .asItemDeltas(),
+                result);
+        invalidateRepositoryCaches(RoleType.class, ROLE_PIRATE_OID);
+
+        principal = focusProfileService.getPrincipal(USER_JACK_USERNAME, UserType.class);
+        assertEquals("Wrong number of authorizations", 1, principal.getAuthorities().size());
+        assertNotAuthorized(principal, AUTZ_COMMAND_URL);
+    }
+
+    /**
+     * A modification of an unrelated user must not throw away the cached assignment data of jack
+     * (e.g. during bulk modifications of users).
+     */
+    @Test
+    public void test104JackCachedDataSurviveModificationOfOtherUser() throws Exception {
+        // GIVEN
+        login(USER_ADMINISTRATOR_USERNAME);
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+        focusProfileService.getPrincipal(USER_JACK_USERNAME, UserType.class); // to fill in the cache
+
+        modifyUserReplace(USER_BARBOSSA_OID, UserType.F_DESCRIPTION, task, result, "modified");
+
+        resetAuthentication();
+        long hitsBefore = getAssignmentDataCacheHits();
+
+        // WHEN
+        MidPointPrincipal principal = focusProfileService.getPrincipal(USER_JACK_USERNAME, UserType.class);
+
+        // THEN
+        assertJack(principal);
+        assertEquals("Wrong number of authorizations", 1, principal.getAuthorities().size());
+        assertEquals("Cached assignment data were not used", hitsBefore + 1, getAssignmentDataCacheHits());
+    }
+
+    private long getAssignmentDataCacheHits() {
+        return principalAssignmentDataCache.getStateInformation().iterator().next()
+                .getPerformance().getHitCount();
+    }
+
+    /** Clears the global repository caches only, as it is done on a remote node for clusterwide invalidations. */
+    private void invalidateRepositoryCaches(Class<?> type, String oid) {
+        repositoryCacheInvalidator.invalidate(type, oid, new CacheInvalidationContext(true, null));
+    }
+
     @Test
     public void test109JackUnassignRolePirate() throws Exception {
         // GIVEN
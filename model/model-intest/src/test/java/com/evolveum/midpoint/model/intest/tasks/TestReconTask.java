@@ -7,7 +7,11 @@
 package com.evolveum.midpoint.model.intest.tasks;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import com.evolveum.midpoint.test.DummyResourceContoller;
 import com.evolveum.midpoint.test.DummyTestResource;
 import com.evolveum.midpoint.test.TestTask;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ResourceType;
@@ -25,8 +29,12 @@ import com.evolveum.midpoint.model.intest.AbstractInitializedModelIntegrationTes
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.test.TestObject;
+import com.evolveum.midpoint.util.exception.CommonException;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.TaskType;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.evolveum.midpoint.model.api.ModelPublicConstants.RECONCILIATION_REMAINING_SHADOWS_PATH;
 import static com.evolveum.midpoint.model.api.ModelPublicConstants.RECONCILIATION_RESOURCE_OBJECTS_PATH;
 
 /**
@@ -49,6 +57,12 @@ public class TestReconTask extends AbstractInitializedModelIntegrationTest {
     private static final TestTask TASK_RECONCILIATION_HARSH =
             TestTask.file(TEST_DIR, "task-reconciliation-harsh.xml", "0a53b8f1-f91a-4a5b-a454-4985f73c3330");
 
+    private static final DummyTestResource RESOURCE_DUMMY_UNCHANGED = new DummyTestResource(
+            TEST_DIR, "resource-dummy-unchanged.xml", "548c7fd8-b2fe-4ccf-b438-b527681e675c", "unchanged");
+    private static final TestTask TASK_RECONCILIATION_UNCHANGED =
+            TestTask.file(TEST_DIR, "task-reconciliation-unchanged.xml", "a9ec7fa9-05c4-4875-b7a6-5150e62ea5ec");
+    private static final List<String> UNCHANGED_ACCOUNTS = List.of("unchanged-1", "unchanged-2", "unchanged-3");
+
     private static final String USER_FORMAT = "user-";
 
     private static final int USERS = 5;
@@ -67,6 +81,12 @@ public class TestReconTask extends AbstractInitializedModelIntegrationTest {
         RESOURCE_DUMMY_HARSH.initAndTest(this, initTask, initResult);
         RESOURCE_DUMMY_HARSH.addAccount("account1");
         TASK_RECONCILIATION_HARSH.init(this, initTask, initResult);
+
+        RESOURCE_DUMMY_UNCHANGED.initAndTest(this, initTask, initResult);
+        for (String account : UNCHANGED_ACCOUNTS) {
+            RESOURCE_DUMMY_UNCHANGED.addAccount(account);
+        }
+        TASK_RECONCILIATION_UNCHANGED.init(this, initTask, initResult);
     }
 
     TestObject<TaskType> getReconciliationTask() {
@@ -139,4 +159,120 @@ public class TestReconTask extends AbstractInitializedModelIntegrationTest {
                 .display()
                 .assertFailureCount(ChangeTypeType.MODIFY, ShadowType.COMPLEX_TYPE, 0, 0);
     }
+
+    /**
+     * Unchanged accounts are not synchronized again; only the synchronization timestamps of their shadows are updated,
+     * so they are not processed by the remaining shadows activity.
+     */
+    @Test
+    public void test300UnchangedAccountsAreSkipped() throws Exception {
+        skipTestIf(isMultiNode(), "It is sufficient to run this test once");
+
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("accounts are imported, and then fully synchronized once more (recording their fingerprints)");
+        TASK_RECONCILIATION_UNCHANGED.rerun(result);
+        TASK_RECONCILIATION_UNCHANGED.rerun(result);
+        Map<String, String> fingerprintsBefore = getFullSyncFingerprints();
+
+        when("the accounts are reconciled again");
+        TASK_RECONCILIATION_UNCHANGED.rerun(result);
+
+        then("the fingerprints of the accounts are not changed");
+        assertThat(getFullSyncFingerprints()).isEqualTo(fingerprintsBefore);
+
+        and("the remaining shadows activity does not process them");
+        // @formatter:off
+        TASK_RECONCILIATION_UNCHANGED.assertAfter()
+                .activityState(RECONCILIATION_RESOURCE_OBJECTS_PATH)
+                    .itemProcessingStatistics()
+                        .assertTotalCounts(UNCHANGED_ACCOUNTS.size(), 0)
+                    .end()
+                .end()
+                .activityState(RECONCILIATION_REMAINING_SHADOWS_PATH)
+                    .itemProcessingStatistics()
+                        .assertTotalCounts(0, 0);
+        // @formatter:on
+    }
+
+    /** The shadow of a deleted account is not seen, so it is processed by the remaining shadows activity. */
+    @Test
+    public void test310DeletedAccountIsProcessedAsRemainingShadow() throws Exception {
+        skipTestIf(isMultiNode(), "It is sufficient to run this test once");
+
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("an account is deleted on the resource");
+        String deletedAccount = UNCHANGED_ACCOUNTS.get(0);
+        String deletedShadowOid = findAccountByUsername(deletedAccount, RESOURCE_DUMMY_UNCHANGED.get()).getOid();
+        RESOURCE_DUMMY_UNCHANGED.controller.deleteAccount(deletedAccount);
+
+        when("the accounts are reconciled");
+        TASK_RECONCILIATION_UNCHANGED.rerun(result);
+
+        then("the shadow of the deleted account is processed by the remaining shadows activity");
+        // @formatter:off
+        TASK_RECONCILIATION_UNCHANGED.assertAfter()
+                .activityState(RECONCILIATION_REMAINING_SHADOWS_PATH)
+                    .itemProcessingStatistics()
+                        .assertTotalCounts(1, 0)
+                        .assertLastSuccessObjectOid(deletedShadowOid);
+        // @formatter:on
+    }
+
+    /** Only changed accounts are synchronized; the others are skipped as unchanged. */
+    @Test
+    public void test320ChangedAccountIsSynchronized() throws Exception {
+        skipTestIf(isMultiNode(), "It is sufficient to run this test once");
+
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("an account is changed on the resource");
+        String changedAccount = UNCHANGED_ACCOUNTS.get(1);
+        String unchangedAccount = UNCHANGED_ACCOUNTS.get(2);
+        ShadowType changedBefore = findAccountByUsername(changedAccount, RESOURCE_DUMMY_UNCHANGED.get()).asObjectable();
+        ShadowType unchangedBefore = findAccountByUsername(unchangedAccount, RESOURCE_DUMMY_UNCHANGED.get()).asObjectable();
+        RESOURCE_DUMMY_UNCHANGED.controller.getDummyResource().getAccountByName(changedAccount)
+                .replaceAttributeValue(DummyResourceContoller.DUMMY_ACCOUNT_ATTRIBUTE_FULLNAME_NAME, "Changed");
+
+        when("the accounts are reconciled");
+        TASK_RECONCILIATION_UNCHANGED.rerun(result);
+
+        then("the changed account is synchronized, and the unchanged one is skipped");
+        // @formatter:off
+        TASK_RECONCILIATION_UNCHANGED.assertAfter()
+                .activityState(RECONCILIATION_RESOURCE_OBJECTS_PATH)
+                    .itemProcessingStatistics()
+                        .assertTotalCounts(1, 0, 1)
+                        .assertLastSuccessObjectOid(changedBefore.getOid());
+        // @formatter:on
+
+        and("the changed shadow has new full synchronization timestamp and fingerprint");
+        ShadowType changedAfter = findAccountByUsername(changedAccount, RESOURCE_DUMMY_UNCHANGED.get()).asObjectable();
+        assertThat(changedAfter.getFullSynchronizationTimestamp())
+                .isNotEqualTo(changedBefore.getFullSynchronizationTimestamp());
+        assertThat(changedAfter.getFullSynchronizationFingerprint())
+                .isNotNull()
+                .isNotEqualTo(changedBefore.getFullSynchronizationFingerprint());
+
+        and("the unchanged shadow keeps its fingerprint");
+        ShadowType unchangedAfter = findAccountByUsername(unchangedAccount, RESOURCE_DUMMY_UNCHANGED.get()).asObjectable();
+        assertThat(unchangedAfter.getFullSynchronizationFingerprint())
+                .isEqualTo(unchangedBefore.getFullSynchronizationFingerprint());
+    }
+
+    private Map<String, String> getFullSyncFingerprints() throws CommonException {
+        Map<String, String> fingerprints = new HashMap<>();
+        for (String account : UNCHANGED_ACCOUNTS) {
+            ShadowType shadow = findAccountByUsername(account, RESOURCE_DUMMY_UNCHANGED.get()).asObjectable();
+            assertThat(shadow.getFullSynchronizationFingerprint())
+                    .as("full synchronization fingerprint of " + account)
+                    .isNotNull();
+            fingerprints.put(shadow.getOid(), shadow.getFullSynchronizationFingerprint());
+        }
+        return fingerprints;
+    }
 }
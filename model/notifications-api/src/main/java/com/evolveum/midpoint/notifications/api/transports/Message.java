@@ -41,6 +41,23 @@ public class Message implements DebugDumpable {
         attachments.addAll(message.getAttachment());
     }
 
+    /**
+     * Returns a copy of this message that can be modified (e.g. by recipient filtering in a transport)
+     * without affecting the original one. The attachments are shared.
+     */
+    public @NotNull Message copy() {
+        Message copy = new Message();
+        copy.from = from;
+        copy.to = new ArrayList<>(to);
+        copy.cc = new ArrayList<>(cc);
+        copy.bcc = new ArrayList<>(bcc);
+        copy.subject = subject;
+        copy.body = body;
+        copy.contentType = contentType;
+        copy.attachments = new ArrayList<>(attachments);
+        return copy;
+    }
+
     public String getBody() {
         return body;
     }
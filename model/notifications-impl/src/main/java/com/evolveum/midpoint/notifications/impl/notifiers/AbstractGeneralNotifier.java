@@ -329,7 +329,7 @@ public abstract class AbstractGeneralNotifier<E extends Event, N extends General
         message.setTo(addresses);
 
         getLogger().trace("Sending notification via transport {}:\n{}", transportName, message);
-        transport.send(
+        transportService.send(
                 message, transportName, ctx.sendingContext(), result);
         return 1;
     }
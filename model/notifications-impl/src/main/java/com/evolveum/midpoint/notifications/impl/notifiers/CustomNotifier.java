@@ -18,7 +18,6 @@ import com.evolveum.midpoint.notifications.api.EventProcessingContext;
 import com.evolveum.midpoint.notifications.api.NotificationManager;
 import com.evolveum.midpoint.notifications.api.events.Event;
 import com.evolveum.midpoint.notifications.api.transports.Message;
-import com.evolveum.midpoint.notifications.api.transports.Transport;
 import com.evolveum.midpoint.notifications.api.transports.TransportService;
 import com.evolveum.midpoint.notifications.impl.handlers.AggregatedEventHandler;
 import com.evolveum.midpoint.notifications.impl.handlers.BaseHandler;
@@ -85,12 +84,11 @@ public class CustomNotifier extends BaseHandler<Event, CustomNotifierType> {
             try {
                 for (String transportName : handlerConfig.value().getTransport()) {
                     variables.put(ExpressionConstants.VAR_TRANSPORT_NAME, transportName, String.class);
-                    Transport<?> transport = transportService.getTransport(transportName);
 
                     Message message = getMessageFromExpression(handlerConfig, variables, ctx, result);
                     if (message != null) {
                         getLogger().trace("Sending notification via transport {}:\n{}", transportName, message);
-                        transport.send(message, transportName, ctx.sendingContext(), result);
+                        transportService.send(message, transportName, ctx.sendingContext(), result);
                     } else {
                         getLogger().debug("No message for transport {}, won't send anything", transportName);
                     }
@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.transport.impl;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.SerializationException;
+import org.apache.commons.lang3.SerializationUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.evolveum.midpoint.notifications.api.events.Event;
+import com.evolveum.midpoint.notifications.api.transports.Message;
+import com.evolveum.midpoint.notifications.api.transports.SendingContext;
+import com.evolveum.midpoint.notifications.api.transports.Transport;
+import com.evolveum.midpoint.prism.xml.XmlTypeConverter;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.result.OperationResultStatus;
+import com.evolveum.midpoint.task.api.Task;
+import com.evolveum.midpoint.task.api.TaskManager;
+import com.evolveum.midpoint.util.DebugDumpable;
+import com.evolveum.midpoint.util.DebugUtil;
+import com.evolveum.midpoint.util.logging.LoggingUtils;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.MessageDispatchConfigurationType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectReferenceType;
+
+/**
+ * Asynchronous ("outbox") sending of messages.
+ *
+ * When enabled, messages are not sent by the thread that created them (typically the one executing the clockwork),
+ * but put into in-memory queues served by dedicated dispatcher threads ("lanes"). Messages are assigned to lanes
+ * by their primary recipient (the first "to" address), so all messages for the same primary recipient are sent
+ * by the same thread, in the order they were queued. There is no such guarantee for the other recipients
+ * of a message (cc, bcc, other "to" addresses), as their messages may be assigned to different lanes.
+ * A lane takes up to `batchSize` messages at once and sends them grouped by transport.
+ *
+ * Failed sending attempts are retried (in the lane thread, to keep the ordering) up to `maxAttempts` times.
+ * Each attempt gets its own copy of the message, as transports may modify it (e.g. when filtering the recipients).
+ * If a lane queue is full, the caller waits until there is a free place in it, so that the message does not overtake
+ * the queued ones. Only when the lanes are being stopped (e.g. on reconfiguration), or when the caller is the lane
+ * thread itself, the message is not accepted, and the caller sends it synchronously.
+ *
+ * Notifier evaluation and message formatting are still done synchronously, as events reference live data
+ * (e.g. the lens context) that must not be accessed after the operation continues. For the same reason, the event
+ * is passed to the transport (e.g. to custom transport expressions) as a serialized copy taken when the message
+ * is queued; if the copy cannot be created, the message is sent synchronously.
+ */
+@Component
+public class MessageDispatcher implements DebugDumpable {
+
+    private static final Trace LOGGER = TraceManager.getTrace(MessageDispatcher.class);
+
+    private static final String OP_DISPATCH = MessageDispatcher.class.getName() + ".dispatch";
+    private static final String OP_SEND_BATCH = MessageDispatcher.class.getName() + ".sendBatch";
+    private static final String OP_SEND = MessageDispatcher.class.getName() + ".send";
+
+    private static final int DEFAULT_THREADS = 2;
+    private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final long DEFAULT_RETRY_INTERVAL = 10_000L;
+
+    private static final long SHUTDOWN_TIMEOUT = 10_000L;
+
+    /** How long the caller waits for a free place in a full queue before checking whether the lane is being stopped. */
+    private static final long OVERFLOW_WAIT_INTERVAL = 500L;
+
+    @Autowired private TaskManager taskManager;
+
+    /** Current configuration; null if the asynchronous dispatching is disabled. */
+    private volatile DispatchSettings settings;
+
+    /** Currently running lanes; empty if the asynchronous dispatching is disabled. */
+    @NotNull private volatile List<Lane> lanes = List.of();
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * Applies the configuration from the system configuration. Lanes are restarted only if the configuration
+     * has changed; queued messages of stopped lanes are sent before the lanes terminate.
+     */
+    public synchronized void configure(@Nullable MessageDispatchConfigurationType config) {
+        DispatchSettings newSettings = DispatchSettings.of(config);
+        if (Objects.equals(newSettings, settings)) {
+            return;
+        }
+        stopLanes();
+        settings = newSettings;
+        if (newSettings != null) {
+            List<Lane> newLanes = new ArrayList<>(newSettings.threads);
+            for (int i = 0; i < newSettings.threads; i++) {
+                Lane lane = new Lane(i, newSettings);
+                newLanes.add(lane);
+                lane.start();
+            }
+            lanes = List.copyOf(newLanes);
+            LOGGER.info("Asynchronous message dispatching enabled: {}", newSettings);
+        }
+    }
+
+    public boolean isEnabled() {
+        return !lanes.isEmpty();
+    }
+
+    /**
+     * Tries to queue the message for asynchronous sending. If queued, the outcome is recorded as a success (queuing
+     * the message is what the caller asked for); the result of sending is then known only to the lane.
+     * If the lane queue is full, waits until the message can be queued.
+     *
+     * @return false if the message was not accepted (dispatching is disabled, the lanes are being stopped, the event
+     * cannot be copied, or the caller is a dispatcher thread with a full queue); the caller is then responsible
+     * for sending it synchronously
+     */
+    public boolean dispatch(
+            @NotNull Message message, @NotNull Transport<?> transport, String transportName,
+            @NotNull SendingContext ctx, @NotNull OperationResult parentResult) {
+        List<Lane> currentLanes = lanes;
+        if (currentLanes.isEmpty()) {
+            return false;
+        }
+        OperationResult result = parentResult.subresult(OP_DISPATCH)
+                .setMinor()
+                .addParam("transportName", transportName)
+                .build();
+        try {
+            Lane lane = currentLanes.get(Math.floorMod(orderingKey(message).hashCode(), currentLanes.size()));
+            SendingContext dispatchContext;
+            try {
+                dispatchContext = createDispatchContext(ctx);
+            } catch (SerializationException e) {
+                LoggingUtils.logException(LOGGER, "Couldn't copy the event, message will be sent synchronously", e);
+                result.recordNotApplicable("Event couldn't be copied");
+                return false;
+            }
+            if (!lane.put(new QueuedMessage(message.copy(), transport, transportName, dispatchContext))) {
+                LOGGER.debug("Message couldn't be queued to {}, it will be sent synchronously", lane);
+                result.recordNotApplicable("Message couldn't be queued");
+                return false;
+            }
+            queued.incrementAndGet();
+            result.addReturn("dispatched", "asynchronously");
+            result.recordStatus(OperationResultStatus.SUCCESS, "Message was queued for asynchronous sending");
+            return true;
+        } catch (Throwable t) {
+            result.recordException(t);
+            throw t;
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Messages with the same key are processed by the same lane, preserving their relative order.
+     * The key is the primary recipient: the first "to" address, or (if there is none) the first cc or bcc one.
+     */
+    private static @NotNull String orderingKey(Message message) {
+        for (List<String> recipients : List.of(message.getTo(), message.getCc(), message.getBcc())) {
+            if (!recipients.isEmpty()) {
+                return recipients.get(0);
+            }
+        }
+        return "";
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        stopLanes();
+        settings = null;
+    }
+
+    /** Signals all the lanes to stop, and then waits for them (altogether) at most {@link #SHUTDOWN_TIMEOUT}. */
+    private void stopLanes() {
+        List<Lane> oldLanes = lanes;
+        lanes = List.of();
+        oldLanes.forEach(Lane::requestStop);
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT;
+        for (Lane lane : oldLanes) {
+            lane.awaitTermination(deadline);
+        }
+    }
+
+    private void sendBatch(@NotNull List<QueuedMessage> batch, @NotNull DispatchSettings laneSettings) {
+        batches.incrementAndGet();
+        OperationResult result = new OperationResult(OP_SEND_BATCH);
+        // grouping by transport preserves the order of messages within each transport (and hence for each recipient)
+        Map<String, List<QueuedMessage>> byTransport = new LinkedHashMap<>();
+        for (QueuedMessage queuedMessage : batch) {
+            byTransport.computeIfAbsent(queuedMessage.transportName, k -> new ArrayList<>()).add(queuedMessage);
+        }
+        for (Map.Entry<String, List<QueuedMessage>> entry : byTransport.entrySet()) {
+            LOGGER.trace("Sending {} message(s) via transport {}", entry.getValue().size(), entry.getKey());
+            for (QueuedMessage queuedMessage : entry.getValue()) {
+                sendWithRetries(queuedMessage, laneSettings, result);
+            }
+        }
+        result.computeStatusIfUnknown();
+    }
+
+    private void sendWithRetries(
+            @NotNull QueuedMessage queuedMessage, @NotNull DispatchSettings laneSettings, @NotNull OperationResult parentResult) {
+        for (int attempt = 1; ; attempt++) {
+            OperationResult result = parentResult.subresult(OP_SEND)
+                    .setMinor()
+                    .addParam("transportName", queuedMessage.transportName)
+                    .addParam("attempt", attempt)
+                    .build();
+            try {
+                queuedMessage.transport.send(
+                        queuedMessage.message.copy(), queuedMessage.transportName, queuedMessage.ctx, result);
+                result.computeStatusIfUnknown();
+            } catch (Throwable t) {
+                result.recordFatalError(t);
+                LoggingUtils.logUnexpectedException(LOGGER, "Couldn't send message via transport {}", t,
+                        queuedMessage.transportName);
+            } finally {
+                result.close();
+            }
+            if (!result.isError()) {
+                sent.incrementAndGet();
+                return;
+            }
+            if (attempt >= laneSettings.maxAttempts) {
+                failed.incrementAndGet();
+                LOGGER.warn("Message couldn't be sent via transport {} after {} attempt(s), giving up:\n{}",
+                        queuedMessage.transportName, attempt, queuedMessage.message.debugDumpLazily(1));
+                return;
+            }
+            retried.incrementAndGet();
+            LOGGER.debug("Attempt {} to send message via transport {} failed, will retry in {} ms",
+                    attempt, queuedMessage.transportName, laneSettings.retryInterval);
+            try {
+                //noinspection BusyWait
+                Thread.sleep(laneSettings.retryInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.incrementAndGet();
+                LOGGER.warn("Interrupted while waiting to retry sending message via transport {}, giving up",
+                        queuedMessage.transportName);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates sending context usable in the dispatcher thread; the original task and event must not be used there.
+     *
+     * @throws SerializationException if the event cannot be copied
+     */
+    private @NotNull SendingContext createDispatchContext(@NotNull SendingContext original) {
+        Event originalEvent = original.event();
+        Event eventCopy = originalEvent != null ? SerializationUtils.clone(originalEvent) : null;
+        Task originalTask = original.task();
+        Task task = taskManager.createTaskInstance(OP_SEND);
+        ObjectReferenceType ownerRef = originalTask.getOwnerRef();
+        if (ownerRef != null) {
+            task.setOwnerRef(ownerRef.clone());
+        }
+        task.setChannel(originalTask.getChannel());
+        return new SendingContext(original.expressionProfile(), eventCopy, task);
+    }
+
+    public long getQueuedCount() {
+        return queued.get();
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getRetriedCount() {
+        return retried.get();
+    }
+
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+
+    public int getWaitingCount() {
+        return lanes.stream().mapToInt(lane -> lane.queue.size()).sum();
+    }
+
+    @Override
+    public String debugDump(int indent) {
+        StringBuilder sb = DebugUtil.createTitleStringBuilderLn(getClass(), indent);
+        DebugUtil.debugDumpWithLabelLn(sb, "settings", String.valueOf(settings), indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "waiting", getWaitingCount(), indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "queued", queued.get(), indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "sent", sent.get(), indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "failed", failed.get(), indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "retried", retried.get(), indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "overflows", overflows.get(), indent + 1);
+        DebugUtil.debugDumpWithLabel(sb, "batches", batches.get(), indent + 1);
+        return sb.toString();
+    }
+
+    private record DispatchSettings(int threads, int queueCapacity, int batchSize, int maxAttempts, long retryInterval) {
+
+        static DispatchSettings of(MessageDispatchConfigurationType config) {
+            if (config == null || !Boolean.TRUE.equals(config.isEnabled())) {
+                return null;
+            }
+            return new DispatchSettings(
+                    positiveOrDefault(config.getThreads(), DEFAULT_THREADS),
+                    positiveOrDefault(config.getQueueCapacity(), DEFAULT_QUEUE_CAPACITY),
+                    positiveOrDefault(config.getBatchSize(), DEFAULT_BATCH_SIZE),
+                    positiveOrDefault(config.getMaxAttempts(), DEFAULT_MAX_ATTEMPTS),
+                    config.getRetryInterval() != null
+                            ? XmlTypeConverter.toMillis(config.getRetryInterval())
+                            : DEFAULT_RETRY_INTERVAL);
+        }
+
+        private static int positiveOrDefault(Integer value, int defaultValue) {
+            return value != null && value > 0 ? value : defaultValue;
+        }
+    }
+
+    private record QueuedMessage(
+            @NotNull Message message, @NotNull Transport<?> transport, String transportName, @NotNull SendingContext ctx) {
+    }
+
+    /** A single dispatcher thread with its queue. */
+    private class Lane implements Runnable {
+
+        private final int index;
+        @NotNull private final DispatchSettings laneSettings;
+        @NotNull private final BlockingQueue<QueuedMessage> queue;
+        @NotNull private final Thread thread;
+        private volatile boolean stopRequested;
+
+        Lane(int index, @NotNull DispatchSettings laneSettings) {
+            this.index = index;
+            this.laneSettings = laneSettings;
+            this.queue = new LinkedBlockingQueue<>(laneSettings.queueCapacity);
+            this.thread = new Thread(this, "message-dispatcher-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        /**
+         * Queues the message, waiting for a free place if the queue is full (the waiting is counted as an overflow).
+         * Returns false if the lane is being stopped, or if the queue is full and the caller is the lane thread itself
+         * (e.g. a custom transport that executes an operation producing a message); it cannot wait for itself.
+         */
+        boolean put(QueuedMessage queuedMessage) {
+            if (stopRequested) {
+                return false;
+            }
+            if (queue.offer(queuedMessage)) {
+                return true;
+            }
+            overflows.incrementAndGet();
+            if (Thread.currentThread() == thread) {
+                return false;
+            }
+            LOGGER.debug("Message queue of {} is full, waiting for a free place", this);
+            try {
+                while (!stopRequested) {
+                    if (queue.offer(queuedMessage, OVERFLOW_WAIT_INTERVAL, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        void requestStop() {
+            stopRequested = true;
+        }
+
+        void awaitTermination(long deadline) {
+            try {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining > 0) {
+                    thread.join(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                LOGGER.warn("{} did not stop in time, {} message(s) were not sent", this, queue.size());
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<QueuedMessage> batch = new ArrayList<>(laneSettings.batchSize);
+            while (true) {
+                try {
+                    QueuedMessage first = queue.poll(500, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (stopRequested) {
+                            return;
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, laneSettings.batchSize - 1);
+                    sendBatch(batch, laneSettings);
+                } catch (InterruptedException e) {
+                    LOGGER.debug("{} interrupted, {} message(s) were not sent", this, queue.size());
+                    return;
+                } catch (Throwable t) {
+                    LoggingUtils.logUnexpectedException(LOGGER, "Unexpected exception in {}", t, this);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Lane #" + index + " (" + queue.size() + " waiting)";
+        }
+    }
+}
@@ -56,6 +56,7 @@ public class TransportServiceImpl implements TransportService {
     @Autowired private PrismContext prismContext;
     @Autowired private ExpressionFactory expressionFactory;
     @Autowired private Protector protector;
+    @Autowired private MessageDispatcher messageDispatcher;
 
     @Autowired
     @Qualifier("cacheRepositoryService")
@@ -109,6 +110,7 @@ public class TransportServiceImpl implements TransportService {
     public void refreshTransportConfiguration(SystemConfigurationChangeEvent event) {
         clearPreviousConfiguration();
         createTransports(event.getSystemConfiguration());
+        configureDispatcher(event.getSystemConfiguration());
     }
 
     /** TODO: Implicit legacy notifiers, this should go in 4.6. */
@@ -120,10 +122,16 @@ public class TransportServiceImpl implements TransportService {
         registerTransport(legacyCustomTransport);
     }
 
+    /**
+     * Sends the message, or queues it for asynchronous sending if the "outbox" mode is enabled,
+     * see {@link MessageDispatcher}.
+     */
     @Override
     public void send(Message message, String transportName, SendingContext ctx, OperationResult parentResult) {
         Transport<?> transport = getTransport(transportName);
-        transport.send(message, transportName, ctx, parentResult);
+        if (!messageDispatcher.dispatch(message, transport, transportName, ctx, parentResult)) {
+            transport.send(message, transportName, ctx, parentResult);
+        }
     }
 
     @Override
@@ -162,6 +170,11 @@ public class TransportServiceImpl implements TransportService {
         config.getCustomTransport().forEach(this::createCustomTransport);
     }
 
+    private void configureDispatcher(SystemConfigurationType systemConfiguration) {
+        MessageTransportConfigurationType config = systemConfiguration.getMessageTransportConfiguration();
+        messageDispatcher.configure(config != null ? config.getAsynchronousDispatch() : null);
+    }
+
     private void clearPreviousConfiguration() {
         for (String transport : transportsFromSysConfig) {
             transports.remove(transport);
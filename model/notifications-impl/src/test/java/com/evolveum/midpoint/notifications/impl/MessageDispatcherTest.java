@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.notifications.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.evolveum.midpoint.test.IntegrationTestTools.waitFor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.notifications.api.events.Event;
+import com.evolveum.midpoint.notifications.api.transports.Message;
+import com.evolveum.midpoint.notifications.api.transports.SendingContext;
+import com.evolveum.midpoint.notifications.impl.events.CustomEventImpl;
+import com.evolveum.midpoint.prism.xml.XmlTypeConverter;
+import com.evolveum.midpoint.schema.expression.ExpressionProfile;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.result.OperationResultStatus;
+import com.evolveum.midpoint.task.api.LightweightIdentifier;
+import com.evolveum.midpoint.task.api.LightweightIdentifierGenerator;
+import com.evolveum.midpoint.test.AbstractIntegrationTest;
+import com.evolveum.midpoint.transport.impl.MessageDispatcher;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.EventOperationType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.EventStatusType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.MessageDispatchConfigurationType;
+
+/**
+ * Tests the asynchronous ("outbox") sending of messages by {@link MessageDispatcher}.
+ */
+@ContextConfiguration(locations = { "classpath:ctx-notifications-test.xml" })
+public class MessageDispatcherTest extends AbstractIntegrationTest {
+
+    private static final String OP_DISPATCH = MessageDispatcherTest.class.getName() + ".dispatch";
+    private static final long TIMEOUT = 10_000;
+
+    @Autowired private MessageDispatcher messageDispatcher;
+
+    private final AtomicInteger idSeq = new AtomicInteger();
+    private final LightweightIdentifierGenerator lightweightIdentifierGenerator =
+            () -> new LightweightIdentifier(System.currentTimeMillis(), 0, idSeq.incrementAndGet());
+
+    @AfterMethod
+    public void disableDispatching() {
+        messageDispatcher.configure(null);
+    }
+
+    @Test
+    public void test100DispatchIsAsynchronous() throws Exception {
+        given("asynchronous dispatching is enabled");
+        messageDispatcher.configure(dispatchConfiguration());
+        RecordingTransport transport = new RecordingTransport("recording", 0);
+        OperationResult result = new OperationResult(OP_DISPATCH);
+        Message message = createMessage("jack@example.com");
+        CustomEventImpl event = createCustomEvent();
+
+        when("message is dispatched");
+        boolean dispatched = messageDispatcher.dispatch(
+                message, transport, transport.getName(), createSendingContext(event), result);
+
+        then("it is accepted, and the caller's result is a success (not 'in progress', as it would propagate upwards)");
+        assertThat(dispatched).isTrue();
+        result.computeStatus();
+        assertThat(result.getStatus()).isEqualTo(OperationResultStatus.SUCCESS);
+
+        and("it is sent by a dispatcher thread, with a copy of the message and of the event");
+        waitFor("message is sent", () -> transport.getAttempts().size() == 1, TIMEOUT);
+        Attempt attempt = transport.getAttempts().get(0);
+        assertThat(attempt.threadName()).startsWith("message-dispatcher-");
+        assertThat(attempt.message()).isNotSameAs(message);
+        assertThat(attempt.message().getTo()).containsExactly("jack@example.com");
+        assertThat(attempt.event()).isNotSameAs(event);
+        assertThat(attempt.event().getId()).isEqualTo(event.getId());
+    }
+
+    @Test
+    public void test110RetriesUseFreshCopies() throws Exception {
+        given("dispatching with a transport that fails twice and modifies the message");
+        messageDispatcher.configure(dispatchConfiguration());
+        RecordingTransport transport = new RecordingTransport("failing", 2);
+        long retriedBefore = messageDispatcher.getRetriedCount();
+        long sentBefore = messageDispatcher.getSentCount();
+
+        when("message is dispatched");
+        boolean dispatched = messageDispatcher.dispatch(createMessage("jack@example.com"), transport,
+                transport.getName(), createSendingContext(null), new OperationResult(OP_DISPATCH));
+
+        then("it is sent on the third attempt");
+        assertThat(dispatched).isTrue();
+        waitFor("message is sent", () -> messageDispatcher.getSentCount() == sentBefore + 1, TIMEOUT);
+        assertThat(transport.getAttempts()).hasSize(3);
+        assertThat(messageDispatcher.getRetriedCount()).isEqualTo(retriedBefore + 2);
+
+        and("each attempt got the original recipients, not the ones modified by the previous attempt");
+        for (Attempt attempt : transport.getAttempts()) {
+            assertThat(attempt.recipients()).containsExactly("jack@example.com");
+        }
+    }
+
+    @Test
+    public void test120ShutdownSendsQueuedMessages() throws Exception {
+        given("dispatching with a slow transport, with messages queued");
+        messageDispatcher.configure(dispatchConfiguration());
+        RecordingTransport transport = new RecordingTransport("slow", 0);
+        transport.delay = 100;
+        int messages = 5;
+        for (int i = 0; i < messages; i++) {
+            boolean dispatched = messageDispatcher.dispatch(createMessage("user" + i + "@example.com"), transport,
+                    transport.getName(), createSendingContext(null), new OperationResult(OP_DISPATCH));
+            assertThat(dispatched).isTrue();
+        }
+
+        when("dispatching is stopped");
+        messageDispatcher.shutdown();
+
+        then("the queued messages are sent before the lanes terminate");
+        assertThat(transport.getAttempts()).hasSize(messages);
+        assertThat(messageDispatcher.isEnabled()).isFalse();
+
+        and("new messages are not accepted");
+        assertThat(messageDispatcher.dispatch(createMessage("jack@example.com"), transport,
+                transport.getName(), createSendingContext(null), new OperationResult(OP_DISPATCH)))
+                .isFalse();
+    }
+
+    @Test
+    public void test130MessagesForPrimaryRecipientAreSentInOrder() throws Exception {
+        given("dispatching with more lanes and a slow transport");
+        messageDispatcher.configure(dispatchConfiguration().threads(4));
+        RecordingTransport transport = new RecordingTransport("ordered", 0);
+        transport.delay = 20;
+
+        when("messages for the same primary recipient, with various other recipients, are dispatched");
+        int messages = 10;
+        for (int i = 0; i < messages; i++) {
+            Message message = createMessage("jack@example.com");
+            message.setSubject("message " + i);
+            message.getTo().add("other" + i + "@example.com");
+            message.setCc(new ArrayList<>(List.of("cc" + i + "@example.com")));
+            assertThat(messageDispatcher.dispatch(message, transport, transport.getName(),
+                    createSendingContext(null), new OperationResult(OP_DISPATCH)))
+                    .isTrue();
+        }
+
+        then("they are sent by the same thread, in the order they were dispatched");
+        waitFor("messages are sent", () -> transport.getAttempts().size() == messages, TIMEOUT);
+        List<Attempt> attempts = transport.getAttempts();
+        assertThat(attempts).extracting(Attempt::threadName).containsOnly(attempts.get(0).threadName());
+        for (int i = 0; i < messages; i++) {
+            assertThat(attempts.get(i).message().getSubject()).isEqualTo("message " + i);
+        }
+    }
+
+    @Test
+    public void test140FullQueueMakesCallerWait() throws Exception {
+        given("dispatching with a single lane with a tiny queue and a slow transport");
+        messageDispatcher.configure(dispatchConfiguration().threads(1).queueCapacity(1));
+        RecordingTransport transport = new RecordingTransport("overflowing", 0);
+        transport.delay = 50;
+        long overflowsBefore = messageDispatcher.getOverflowCount();
+
+        when("more messages than the queue can hold are dispatched");
+        int messages = 5;
+        for (int i = 0; i < messages; i++) {
+            Message message = createMessage("jack@example.com");
+            message.setSubject("message " + i);
+            OperationResult result = new OperationResult(OP_DISPATCH);
+            boolean dispatched = messageDispatcher.dispatch(
+                    message, transport, transport.getName(), createSendingContext(null), result);
+
+            then("each is queued (the caller waits for a free place), not sent synchronously");
+            assertThat(dispatched).isTrue();
+            result.computeStatus();
+            assertThat(result.getStatus()).isEqualTo(OperationResultStatus.SUCCESS);
+        }
+        assertThat(messageDispatcher.getOverflowCount()).isGreaterThan(overflowsBefore);
+
+        and("all are sent by the lane, in the original order");
+        waitFor("messages are sent", () -> transport.getAttempts().size() == messages, TIMEOUT);
+        for (int i = 0; i < messages; i++) {
+            Attempt attempt = transport.getAttempts().get(i);
+            assertThat(attempt.threadName()).startsWith("message-dispatcher-");
+            assertThat(attempt.message().getSubject()).isEqualTo("message " + i);
+        }
+    }
+
+    private MessageDispatchConfigurationType dispatchConfiguration() {
+        return new MessageDispatchConfigurationType()
+                .enabled(true)
+                .threads(2)
+                .maxAttempts(3)
+                .retryInterval(XmlTypeConverter.createDuration("PT0.01S"));
+    }
+
+    private Message createMessage(String to) {
+        Message message = new Message();
+        message.setTo(new ArrayList<>(List.of(to)));
+        message.setSubject("test");
+        message.setBody("test body");
+        return message;
+    }
+
+    private SendingContext createSendingContext(Event event) {
+        return new SendingContext(ExpressionProfile.full(), event, getTestTask());
+    }
+
+    private CustomEventImpl createCustomEvent() {
+        return new CustomEventImpl(
+                lightweightIdentifierGenerator, "test", null,
+                EventOperationType.ADD, EventStatusType.SUCCESS, "test-channel");
+    }
+
+    private record Attempt(String threadName, Message message, List<String> recipients, Event event) {
+    }
+
+    /** Records the attempts; fails the first ones if requested. Modifies the recipients, as some transports do. */
+    private static class RecordingTransport extends TestMessageTransport {
+
+        private final List<Attempt> attempts = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger failuresLeft;
+        private volatile long delay;
+
+        RecordingTransport(String name, int failures) {
+            super(name);
+            failuresLeft = new AtomicInteger(failures);
+        }
+
+        @Override
+        public void send(Message message, String name, SendingContext ctx, OperationResult parentResult) {
+            attempts.add(new Attempt(
+                    Thread.currentThread().getName(), message, List.copyOf(message.getTo()), ctx.event()));
+            message.setTo(new ArrayList<>(List.of("redirected@example.com")));
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Simulated failure");
+            }
+            super.send(message, name, ctx, parentResult);
+        }
+
+        List<Attempt> getAttempts() {
+            return attempts;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import com.evolveum.midpoint.util.exception.ConfigurationException;
 
 import org.jetbrains.annotations.NotNull;
 
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
 import com.evolveum.midpoint.repo.common.activity.run.*;
 import com.evolveum.midpoint.repo.common.activity.run.processing.GenericProcessingRequest;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
@@ -100,11 +101,13 @@ public final class ClassicCollectionReportExportActivityRun<T>
 
     @Override
     public Integer determineOverallSize(OperationResult result) throws CommonException {
-        return support.countRecords(
-                searchSpecificationHolder.getType(),
-                searchSpecificationHolder.getQuery(),
-                searchSpecificationHolder.getOptions(),
-                result);
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(ReadReplicaRouting.CALLER_REPORT)) {
+            return support.countRecords(
+                    searchSpecificationHolder.getType(),
+                    searchSpecificationHolder.getQuery(),
+                    searchSpecificationHolder.getOptions(),
+                    result);
+        }
     }
 
     @Override
@@ -119,7 +122,9 @@ public final class ClassicCollectionReportExportActivityRun<T>
                     new GenericProcessingRequest<>(sequence.getAndIncrement(), record, this);
             return coordinator.submit(request, lResult);
         };
-        searchSpecificationHolder.run(handler, gResult);
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(ReadReplicaRouting.CALLER_REPORT)) {
+            searchSpecificationHolder.run(handler, gResult);
+        }
     }
 
     @Override
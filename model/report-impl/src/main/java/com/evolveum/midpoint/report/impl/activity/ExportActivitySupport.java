@@ -8,6 +8,7 @@ package com.evolveum.midpoint.report.impl.activity;
 
 import static com.evolveum.midpoint.util.MiscUtil.or0;
 
+import java.io.File;
 import java.util.Collection;
 
 import com.evolveum.midpoint.prism.Containerable;
@@ -64,10 +65,10 @@ public class ExportActivitySupport extends ReportActivitySupport {
 
     /**
      * Save exported report to a file. This is the variant for distributed reports that assumes we have the
-     * aggregated data as a String, plus pre-existing (empty) aggregated {@link ReportDataType} object.
+     * aggregated data in a (temporary) file, plus pre-existing (empty) aggregated {@link ReportDataType} object.
      */
     void saveAggregatedReportData(
-            @NotNull String aggregatedData,
+            @NotNull File aggregatedData,
             @NotNull ReportDataWriter<? extends ExportedReportDataRow, ? extends ExportedReportHeaderRow> completingDataWriter,
             @NotNull ObjectReferenceType aggregatedDataRef,
             @NotNull OperationResult result) throws CommonException {
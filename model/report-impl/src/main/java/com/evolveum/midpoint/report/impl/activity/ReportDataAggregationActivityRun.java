@@ -6,12 +6,18 @@
 
 package com.evolveum.midpoint.report.impl.activity;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Objects;
 
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.repo.common.activity.run.*;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
+import com.evolveum.midpoint.repo.common.reports.ReportSupportUtil;
 import com.evolveum.midpoint.report.impl.ReportUtils;
 import com.evolveum.midpoint.report.impl.controller.ExportedReportDataRow;
 import com.evolveum.midpoint.report.impl.controller.ExportedReportHeaderRow;
@@ -28,6 +34,7 @@ import org.jetbrains.annotations.NotNull;
 
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.util.exception.CommonException;
+import com.evolveum.midpoint.util.exception.SystemException;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ReportDataType;
 
 import static com.evolveum.midpoint.util.MiscUtil.stateCheck;
@@ -45,11 +52,13 @@ final class ReportDataAggregationActivityRun
     @NotNull private final DistributedReportExportActivitySupport support;
 
     /**
-     * Data from all the partial reports.
-     *
-     * TODO eliminate gathering in memory: write to a file immediately after getting the data.
+     * Temporary file with data from all the partial reports. They are appended to it as the partial report data objects
+     * are processed, so the aggregated data are never kept in memory.
      */
-    private final StringBuilder aggregatedData = new StringBuilder();
+    private File aggregatedDataFile;
+
+    /** Writer for {@link #aggregatedDataFile}. */
+    private Writer aggregatedDataWriter;
 
     /** Data writer which completes the content of the report (e.g. by providing HTML code at the end) */
     private ReportDataWriter<ExportedReportDataRow, ExportedReportHeaderRow> completingDataWriter;
@@ -81,6 +90,13 @@ final class ReportDataAggregationActivityRun
                 FileFormatTypeType.CSV, // default type
                 getActivityHandler().reportService,
                 support.getCompiledCollectionView(result));
+
+        try {
+            aggregatedDataFile = File.createTempFile("report-aggregation-", ".tmp", ReportSupportUtil.getOrCreateExportDir());
+            aggregatedDataWriter = Files.newBufferedWriter(aggregatedDataFile.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SystemException("Couldn't create temporary file for aggregated report data: " + e.getMessage(), e);
+        }
     }
 
     @Override
@@ -104,8 +120,14 @@ final class ReportDataAggregationActivityRun
             @NotNull ItemProcessingRequest<ReportDataType> request, RunningTask workerTask, OperationResult result)
             throws CommonException {
         LOGGER.info("Appending data from {} (and deleting the object)", reportData);
+        boolean first = expectedSequentialNumber == 1;
         checkSequentialNumber(reportData); // TODO check also the total # of buckets (after we know it at the start!)
-        aggregatedData.append(reportData.getData());
+        try {
+            completingDataWriter.appendAggregatedData(
+                    aggregatedDataWriter, Objects.requireNonNullElse(reportData.getData(), ""), first);
+        } catch (IOException e) {
+            throw new SystemException("Couldn't write aggregated report data to " + aggregatedDataFile + ": " + e.getMessage(), e);
+        }
         getActivityHandler().commonTaskBeans.repositoryService.deleteObject(ReportDataType.class, reportData.getOid(), result);
         return true;
     }
@@ -121,10 +143,25 @@ final class ReportDataAggregationActivityRun
 
     @Override
     public void afterRun(OperationResult result) throws CommonException {
-        support.saveAggregatedReportData(
-                aggregatedData.toString(),
-                completingDataWriter,
-                support.getGlobalReportDataRef(),
-                result);
+        try {
+            aggregatedDataWriter.close();
+            support.saveAggregatedReportData(
+                    aggregatedDataFile,
+                    completingDataWriter,
+                    support.getGlobalReportDataRef(),
+                    result);
+        } catch (IOException e) {
+            throw new SystemException("Couldn't write aggregated report data to " + aggregatedDataFile + ": " + e.getMessage(), e);
+        } finally {
+            deleteAggregatedDataFile();
+        }
+    }
+
+    private void deleteAggregatedDataFile() {
+        try {
+            Files.deleteIfExists(aggregatedDataFile.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("Couldn't delete temporary file {}: {}", aggregatedDataFile, e.getMessage(), e);
+        }
     }
 }
@@ -25,6 +25,7 @@ import com.evolveum.midpoint.prism.Containerable;
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.prism.PrismPropertyValue;
 import com.evolveum.midpoint.prism.query.*;
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
 import com.evolveum.midpoint.report.impl.ReportServiceImpl;
 import com.evolveum.midpoint.report.impl.ReportUtils;
@@ -233,6 +234,11 @@ public final class ReportDataCreationActivityRun
      * but they use collection-based configuration instead. However, even that complex configurations must boil
      * down to simple search specification - and this is done exactly in this method.
      */
+    @Override
+    protected String getReadReplicaCaller() {
+        return ReadReplicaRouting.CALLER_REPORT;
+    }
+
     @Override
     public @NotNull SearchSpecification<Containerable> createCustomSearchSpecification(OperationResult result) {
         return masterSearchSpecification.clone();
@@ -8,7 +8,10 @@ package com.evolveum.midpoint.report.impl.activity;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.*;
 
@@ -16,7 +19,6 @@ import com.evolveum.midpoint.model.api.ModelService;
 import com.evolveum.midpoint.model.common.ModelCommonBeans;
 import com.evolveum.midpoint.schema.constants.ObjectTypes;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -92,24 +94,28 @@ class SaveReportFileSupport {
     void saveSimpleReportData(
             ReportDataWriter<? extends ExportedReportDataRow, ? extends ExportedReportHeaderRow> dataWriter,
             OperationResult result) throws CommonException {
-        saveReportData(dataWriter.completeReport(), dataWriter, null, result);
+        try {
+            saveReportData(dataWriter::writeCompleteReport, dataWriter, null, result);
+        } finally {
+            dataWriter.reset(); // deletes temporary files with rows spilled to disk (if any)
+        }
     }
 
-    /** @see #saveAggregatedReportData(String, ReportDataWriter, ObjectReferenceType, OperationResult) */
+    /** @see ExportActivitySupport#saveAggregatedReportData(File, ReportDataWriter, ObjectReferenceType, OperationResult) */
     void saveAggregatedReportData(
-            @NotNull String aggregatedData,
+            @NotNull File aggregatedData,
             @NotNull ReportDataWriter<? extends ExportedReportDataRow, ? extends ExportedReportHeaderRow> completingDataWriter,
             @NotNull ObjectReferenceType preExistingDataRef,
             @NotNull OperationResult result) throws CommonException {
         saveReportData(
-                completingDataWriter.completeReport(aggregatedData),
+                output -> completingDataWriter.writeCompleteReport(output, aggregatedData),
                 completingDataWriter,
                 preExistingDataRef,
                 result);
     }
 
     private void saveReportData(
-            String completedReport,
+            ReportContentWriter reportContentWriter,
             ReportDataWriter<? extends ExportedReportDataRow, ? extends ExportedReportHeaderRow> dataWriter,
             @Nullable ObjectReferenceType emptyExportedDataObjectRef,
             OperationResult result) throws CommonException {
@@ -122,7 +128,7 @@ class SaveReportFileSupport {
         String aggregatedFilePath = getDestinationFileName(report, dataWriter);
 
         if (storeType == ONLY_FILE || storeType == WIDGET_AND_FILE)  {
-            writeToReportFile(completedReport, aggregatedFilePath, dataWriter.getEncoding());
+            writeToReportFile(reportContentWriter, aggregatedFilePath, dataWriter.getEncoding());
             saveReportDataObject(dataWriter, aggregatedFilePath, emptyExportedDataObjectRef, result);
             if (report.getPostReportScript() != null) {
                 processPostReportScript(report, aggregatedFilePath, runningTask, result);
@@ -200,11 +206,10 @@ class SaveReportFileSupport {
         return formatDate.format(createDate);
     }
 
-    private void writeToReportFile(String contextOfFile, String aggregatedFilePath, @NotNull Charset encoding) {
-        try {
-            FileUtils.writeByteArrayToFile(
-                    new File(aggregatedFilePath),
-                    contextOfFile.getBytes(encoding));
+    private void writeToReportFile(
+            ReportContentWriter reportContentWriter, String aggregatedFilePath, @NotNull Charset encoding) {
+        try (Writer output = Files.newBufferedWriter(Path.of(aggregatedFilePath), encoding)) {
+            reportContentWriter.write(output);
         } catch (IOException e) {
             throw new SystemException("Couldn't write aggregated report to " + aggregatedFilePath, e);
         }
@@ -386,4 +391,10 @@ class SaveReportFileSupport {
             LOGGER.error("An exception has occurred during post report script execution {}", e.getLocalizedMessage(), e);
         }
     }
+
+    /** Writes the content of the report to the (already opened) output file. */
+    @FunctionalInterface
+    private interface ReportContentWriter {
+        void write(Writer output) throws IOException;
+    }
 }
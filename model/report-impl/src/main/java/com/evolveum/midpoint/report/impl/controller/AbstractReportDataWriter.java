@@ -6,8 +6,11 @@
 
 package com.evolveum.midpoint.report.impl.controller;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -25,9 +28,9 @@ public abstract class AbstractReportDataWriter<ED extends ExportedReportDataRow,
     private ExportedReportHeaderRow headerRow;
 
     /**
-     * Data rows to be put into resulting CSV file.
+     * Data rows to be put into resulting file. Only a limited number of them is kept in memory, see {@link ReportDataRowBuffer}.
      */
-    @NotNull private final List<ED> dataRows = new ArrayList<>();
+    @NotNull private final ReportDataRowBuffer<ED> dataRows = new ReportDataRowBuffer<>(this::formatDataRow);
 
     @NotNull protected final ReportServiceImpl reportService;
 
@@ -44,37 +47,36 @@ public abstract class AbstractReportDataWriter<ED extends ExportedReportDataRow,
         return headerRow;
     }
 
-    @NotNull
-    protected List<ED> getDataRows() {
-        return dataRows;
-    }
-
     /**
-     * Thread safety: Guarded by `this`.
-     *
-     * Tries to find a place where new row is to be inserted. It is the first row (from backwards) where the sequential number
-     * is less than the number of row being inserted.
+     * Appends a row of data to the report.
      *
-     * Note: we are going from the end because we assume that the new object will be placed approximately there.
-     * So the time complexity is more O(n) than O(n^2) as it would be if we would go from the beginning of the list.
-     *
-     * Beware that after implementing use = inner or left join (~ asRow mode), there may be multiple rows with the same
-     * sequential number. They are produced within the same thread, so their order is guaranteed now: the insertion algorithm
-     * places them into the order they are generated in.
+     * The rows are kept sorted by the sequential number. Beware that after implementing use = inner or left join
+     * (~ asRow mode), there may be multiple rows with the same sequential number. They are produced within the same thread,
+     * so their order is guaranteed now: the buffer keeps them in the order they are generated in.
      *
      * @param row Formatted (string) values for the row.
      */
     @Override
-    public synchronized void appendDataRow(ED row) {
-        int i;
-        for (i = getDataRows().size() - 1; i >= 0; i--) {
-            if (getDataRows().get(i).getSequentialNumber() <= row.getSequentialNumber()) {
-                break;
-            }
-        }
-        getDataRows().add(i + 1, row);
+    public void appendDataRow(ED row) {
+        dataRows.add(row);
     }
 
+    /** Returns true if there are no data rows (in memory or spilled to disk). */
+    protected boolean hasNoDataRows() {
+        return dataRows.isEmpty();
+    }
+
+    /** Writes all data rows, in their final textual form and correct order, to the output. */
+    protected void writeDataRows(@NotNull Writer output) throws IOException {
+        dataRows.writeTo(output);
+    }
+
+    /**
+     * Converts a data row into its final textual form, e.g. a CSV record including the record separator.
+     * Called when the rows are spilled to disk or written to the output.
+     */
+    protected abstract String formatDataRow(ED row);
+
     @Override
     public void reset() {
         headerRow = null;
@@ -96,4 +98,14 @@ public abstract class AbstractReportDataWriter<ED extends ExportedReportDataRow,
     public String completeReport() {
         return completeReport(getStringData());
     }
+
+    @Override
+    public void writeCompleteReport(@NotNull Writer output) throws IOException {
+        output.write(completeReport());
+    }
+
+    @Override
+    public void writeCompleteReport(@NotNull Writer output, @NotNull File aggregatedData) throws IOException {
+        output.write(completeReport(Files.readString(aggregatedData.toPath(), StandardCharsets.UTF_8)));
+    }
 }
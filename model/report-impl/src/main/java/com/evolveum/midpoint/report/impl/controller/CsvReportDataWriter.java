@@ -6,16 +6,16 @@
 
 package com.evolveum.midpoint.report.impl.controller;
 
-import java.io.IOException;
-import java.io.StringWriter;
+import java.io.*;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -31,6 +31,9 @@ public class CsvReportDataWriter extends AbstractReportDataWriter<ExportedReport
 
     @NotNull private final CommonCsvSupport support;
 
+    /** Format used for both header and data records; header is printed explicitly, as rows are formatted one by one. */
+    @NotNull private final CSVFormat csvFormat;
+
     @Nullable private final FileFormatConfigurationType configuration;
 
     @NotNull private final Map<String, String> widgetsData = new HashMap<>();
@@ -40,6 +43,7 @@ public class CsvReportDataWriter extends AbstractReportDataWriter<ExportedReport
             @Nullable FileFormatConfigurationType configuration) {
         super(reportService);
         this.support = new CommonCsvSupport(configuration);
+        this.csvFormat = support.createCsvFormat();
         this.configuration = configuration;
     }
 
@@ -58,19 +62,32 @@ public class CsvReportDataWriter extends AbstractReportDataWriter<ExportedReport
     public String getStringData() {
         try {
             StringWriter stringWriter = new StringWriter();
-            CSVFormat csvFormat = createCsvFormat();
-            CSVPrinter printer = new CSVPrinter(stringWriter, csvFormat);
-
-            for (ExportedReportDataRow row : getDataRows()) {
-                printer.printRecord(createPhysicalColumnsList(row));
-            }
-            printer.flush();
+            writeStringData(stringWriter);
             return stringWriter.toString();
         } catch (IOException e) {
             throw new SystemException("Unexpected IOException: " + e.getMessage(), e);
         }
     }
 
+    /** Writes the header (if present) and all data rows to the output. */
+    private void writeStringData(Writer output) throws IOException {
+        if (getHeaderRow() != null) {
+            csvFormat.printRecord(output, createPhysicalColumnsList(getHeaderRow()).toArray());
+        }
+        writeDataRows(output);
+    }
+
+    @Override
+    protected String formatDataRow(ExportedReportDataRow row) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            csvFormat.printRecord(sb, createPhysicalColumnsList(row).toArray());
+            return sb.toString();
+        } catch (IOException e) {
+            throw new SystemException("Unexpected IOException: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean shouldWriteHeader() {
         return support.isHeader();
@@ -91,17 +108,6 @@ public class CsvReportDataWriter extends AbstractReportDataWriter<ExportedReport
         return configuration;
     }
 
-    private CSVFormat createCsvFormat() {
-        CSVFormat csvFormat = support.createCsvFormat();
-        if (getHeaderRow() != null) {
-            return csvFormat
-                    .withHeader(createPhysicalColumnsList(getHeaderRow()).toArray(new String[0]))
-                    .withSkipHeaderRecord(false);
-        } else {
-            return csvFormat.withSkipHeaderRecord(true);
-        }
-    }
-
     private List<String> createPhysicalColumnsList(ExportedReportHeaderRow row) {
         return row.getLabels();
     }
@@ -126,15 +132,27 @@ public class CsvReportDataWriter extends AbstractReportDataWriter<ExportedReport
 
     @Override
     public String completeReport(String aggregatedData) {
-        String reportContent = super.completeReport(aggregatedData);
+        return super.completeReport(aggregatedData) + getFooter();
+    }
 
-        String subscriptionFooter = reportService.missingSubscriptionFooter();
-        if (subscriptionFooter != null) {
-            // CSV has final line terminator, so this goes on a new line:
-            reportContent += subscriptionFooter + System.lineSeparator();
+    @Override
+    public void writeCompleteReport(@NotNull Writer output) throws IOException {
+        writeStringData(output);
+        output.write(getFooter());
+    }
+
+    @Override
+    public void writeCompleteReport(@NotNull Writer output, @NotNull File aggregatedData) throws IOException {
+        try (Reader reader = Files.newBufferedReader(aggregatedData.toPath(), StandardCharsets.UTF_8)) {
+            reader.transferTo(output);
         }
+        output.write(getFooter());
+    }
 
-        return reportContent;
+    private @NotNull String getFooter() {
+        String subscriptionFooter = reportService.missingSubscriptionFooter();
+        // CSV has final line terminator, so this goes on a new line:
+        return subscriptionFooter != null ? subscriptionFooter + System.lineSeparator() : "";
     }
 
     @Override
@@ -6,6 +6,11 @@
 
 package com.evolveum.midpoint.report.impl.controller;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.function.Function;
 
@@ -178,6 +183,23 @@ public class HtmlDashboardReportDataWriter
         return body.toString();
     }
 
+    /** Dashboard reports are small, so they are created in memory. */
+    @Override
+    public void writeCompleteReport(@NotNull Writer output) throws IOException {
+        output.write(completeReport());
+    }
+
+    @Override
+    public void appendAggregatedData(@NotNull Writer aggregatedData, @NotNull String partialData, boolean first)
+            throws IOException {
+        aggregatedData.write(partialData);
+    }
+
+    @Override
+    public void writeCompleteReport(@NotNull Writer output, @NotNull File aggregatedData) throws IOException {
+        output.write(completeReport(Files.readString(aggregatedData.toPath(), StandardCharsets.UTF_8)));
+    }
+
     private CommonHtmlSupport getDefaultSupport() {
         return data.get(BASIC_WIDGET_ROW_KEY).support;
     }
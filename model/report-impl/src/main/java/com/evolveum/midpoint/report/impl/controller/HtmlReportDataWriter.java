@@ -6,6 +6,9 @@
 
 package com.evolveum.midpoint.report.impl.controller;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 
 import j2html.TagCreator;
@@ -17,6 +20,7 @@ import org.jetbrains.annotations.Nullable;
 import com.evolveum.midpoint.common.LocalizationService;
 import com.evolveum.midpoint.model.api.authentication.CompiledObjectCollectionView;
 import com.evolveum.midpoint.report.impl.ReportServiceImpl;
+import com.evolveum.midpoint.util.exception.SystemException;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.FileFormatConfigurationType;
 
 /**
@@ -25,6 +29,11 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.FileFormatConfigurat
 public class HtmlReportDataWriter<ED extends ExportedReportDataRow, EH extends ExportedReportHeaderRow>
         extends AbstractReportDataWriter<ED, EH> {
 
+    private static final String THEAD_END = "</thead>";
+    private static final String TBODY_START = "<tbody>";
+    private static final String TBODY_END = "</tbody>";
+    private static final String TABLE_BOX_END = "</table></div>";
+
     @NotNull private final CommonHtmlSupport support;
 
     final LocalizationService localizationService;
@@ -43,7 +52,25 @@ public class HtmlReportDataWriter<ED extends ExportedReportDataRow, EH extends E
 
     @Override
     public String getStringData() {
-        return getStringDataInternal(getHeaderRow(), getDataRows());
+        try {
+            StringWriter stringWriter = new StringWriter();
+            writeStringData(stringWriter);
+            return stringWriter.toString();
+        } catch (IOException e) {
+            throw new SystemException("Unexpected IOException: " + e.getMessage(), e);
+        }
+    }
+
+    /** Writes the table header (if present) and body (if there are any rows) to the output. */
+    private void writeStringData(Writer output) throws IOException {
+        if (getHeaderRow() != null) {
+            output.write(createTHead(getHeaderRow()));
+        }
+        if (!hasNoDataRows()) {
+            output.write(TBODY_START);
+            writeDataRows(output);
+            output.write(TBODY_END);
+        }
     }
 
     protected String getStringDataInternal(ExportedReportHeaderRow headerRow, List<ED> dataRows) {
@@ -51,25 +78,28 @@ public class HtmlReportDataWriter<ED extends ExportedReportDataRow, EH extends E
         if (headerRow != null) {
             sb.append(createTHead(headerRow));
         }
-        ContainerTag tBody = TagCreator.tbody();
-        dataRows.forEach(row -> {
-            ContainerTag tr = TagCreator.tr();
-            row.getValues().forEach(values -> {
-                if (values.size() == 1 && values.iterator().next().startsWith(CommonHtmlSupport.VALUE_CSS_STYLE_TAG)) {
-                    String value = values.iterator().next();
-                    tr.with(TagCreator.th().withStyle(value.substring((value.indexOf("{") + 1), value.indexOf("}"))));
-                } else {
-                    tr.with(TagCreator.th(formatColumn(values)));
-                }
-            });
-            tBody.with(tr);
-        });
-        if (tBody.getNumChildren() != 0) {
-            sb.append(tBody.render());
+        if (!dataRows.isEmpty()) {
+            sb.append(TBODY_START);
+            dataRows.forEach(row -> sb.append(formatDataRow(row)));
+            sb.append(TBODY_END);
         }
         return sb.toString();
     }
 
+    @Override
+    protected String formatDataRow(ED row) {
+        ContainerTag tr = TagCreator.tr();
+        row.getValues().forEach(values -> {
+            if (values.size() == 1 && values.iterator().next().startsWith(CommonHtmlSupport.VALUE_CSS_STYLE_TAG)) {
+                String value = values.iterator().next();
+                tr.with(TagCreator.th().withStyle(value.substring((value.indexOf("{") + 1), value.indexOf("}"))));
+            } else {
+                tr.with(TagCreator.th(formatColumn(values)));
+            }
+        });
+        return tr.render();
+    }
+
     @Override
     public boolean shouldWriteHeader() {
         return true;
@@ -123,27 +153,81 @@ public class HtmlReportDataWriter<ED extends ExportedReportDataRow, EH extends E
         return configuration;
     }
 
-    private String completeReportInternal(String aggregatedData, boolean parseData) {
-        String cssStyle = support.getCssStyle();
+    /**
+     * Streams the report: all the rows go directly from the buffer (or spilled runs) to the output.
+     */
+    @Override
+    public void writeCompleteReport(@NotNull Writer output) throws IOException {
+        output.write(createReportStart());
+        writeStringData(output);
+        output.write(createReportEnd());
+    }
+
+    /**
+     * The header (present in the first part only) is written as is, table bodies of individual parts are merged
+     * into a single one. See also {@link #parseAggregatedData(String)}.
+     */
+    @Override
+    public void appendAggregatedData(@NotNull Writer aggregatedData, @NotNull String partialData, boolean first)
+            throws IOException {
+        String rows = partialData;
+        if (first) {
+            int headerEnd = partialData.indexOf(THEAD_END);
+            if (headerEnd >= 0) {
+                aggregatedData.write(partialData, 0, headerEnd + THEAD_END.length());
+                rows = partialData.substring(headerEnd + THEAD_END.length());
+            }
+            aggregatedData.write(TBODY_START);
+        }
+        aggregatedData.write(rows.replace(TBODY_START, "").replace(TBODY_END, ""));
+    }
+
+    @Override
+    public void writeCompleteReport(@NotNull Writer output, @NotNull File aggregatedData) throws IOException {
+        output.write(createReportStart());
+        if (aggregatedData.length() > 0) {
+            try (Reader reader = Files.newBufferedReader(aggregatedData.toPath(), StandardCharsets.UTF_8)) {
+                reader.transferTo(output);
+            }
+            output.write(TBODY_END);
+        }
+        output.write(createReportEnd());
+    }
 
-        StringBuilder body = new StringBuilder();
-        body.append("<div> <style> ").append(cssStyle).append(" </style>");
+    private String completeReportInternal(String aggregatedData, boolean parseData) {
+        return createReportStart()
+                + (parseData ? parseAggregatedData(aggregatedData) : aggregatedData)
+                + createReportEnd();
+    }
 
-        String table = createTableBox(aggregatedData, support, parseData);
-        body.append(table).append("</div>");
+    /** Everything up to the start of the table content. */
+    private String createReportStart() {
+        return "<div> <style> " + support.getCssStyle() + " </style>" + createTableBoxStart(support);
+    }
 
+    /** Everything after the table content. */
+    private String createReportEnd() {
+        StringBuilder end = new StringBuilder(TABLE_BOX_END).append("</div>");
         String subscriptionFooter = reportService.missingSubscriptionFooter();
         if (subscriptionFooter != null) {
-            body.append("<div>")
+            end.append("<div>")
                     .append(subscriptionFooter)
                     .append("</div>");
         }
-
-        return body.toString();
+        return end.toString();
     }
 
     protected String createTableBox(String aggregatedData, CommonHtmlSupport support, boolean parseData) {
-        StringBuilder table = new StringBuilder();
+        String parsedData;
+        if (parseData) {
+            parsedData = parseAggregatedData(aggregatedData);
+        } else {
+            parsedData = aggregatedData;
+        }
+        return createTableBoxStart(support) + parsedData + TABLE_BOX_END;
+    }
+
+    private String createTableBoxStart(CommonHtmlSupport support) {
         String style = support.getCssStyleOfTable();
         String classes = support.getCssClassOfTable();
 
@@ -153,19 +237,7 @@ public class HtmlReportDataWriter<ED extends ExportedReportDataRow, EH extends E
         String tableBox = TagCreator.div().withClasses("box", "boxed-table", classes).withStyle(style).with(div).render();
         tableBox = tableBox.substring(0, tableBox.length() - 6);
 
-        String parsedData;
-        if (parseData) {
-            parsedData = parseAggregatedData(aggregatedData);
-        } else {
-            parsedData = aggregatedData;
-        }
-
-        table.append(tableBox)
-                .append("<table class=\"table table-striped table-hover table-bordered\">")
-                .append(parsedData)
-                .append("</table>")
-                .append("</div>");
-        return table.toString();
+        return tableBox + "<table class=\"table table-striped table-hover table-bordered\">";
     }
 
     private String parseAggregatedData(String aggregatedData) {
@@ -174,14 +246,14 @@ public class HtmlReportDataWriter<ED extends ExportedReportDataRow, EH extends E
         }
         StringBuilder sb = new StringBuilder();
         String formattedData = aggregatedData;
-        if (aggregatedData.contains("</thead>")) {
-            String tHeader = aggregatedData.substring(0, aggregatedData.indexOf("</thead>") + 8);
+        if (aggregatedData.contains(THEAD_END)) {
+            String tHeader = aggregatedData.substring(0, aggregatedData.indexOf(THEAD_END) + THEAD_END.length());
             sb.append(tHeader);
             formattedData = formattedData.replace(tHeader, "");
         }
-        sb.append("<tbody>");
-        sb.append(formattedData.replaceAll("<tbody>", "").replaceAll("</tbody>", ""));
-        sb.append("</tbody>");
+        sb.append(TBODY_START);
+        sb.append(formattedData.replaceAll(TBODY_START, "").replaceAll(TBODY_END, ""));
+        sb.append(TBODY_END);
         return sb.toString();
     }
 }
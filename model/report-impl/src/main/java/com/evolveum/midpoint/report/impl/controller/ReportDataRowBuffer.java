@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.report.impl.controller;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.repo.common.reports.ReportSupportUtil;
+import com.evolveum.midpoint.util.exception.SystemException;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * Buffers data rows of an exported report, keeping them sorted by {@link ExportedReportDataRow#getSequentialNumber()}.
+ *
+ * Only a limited number of rows is kept in memory. When the limit is reached, the buffered rows are formatted
+ * and written ("spilled") as a sorted run into a temporary file in the export directory. When the output is requested,
+ * the runs and the rows still in memory are merged and streamed to the output.
+ *
+ * Thread safety: all public methods are synchronized, as rows are appended by multiple worker threads.
+ */
+class ReportDataRowBuffer<ED extends ExportedReportDataRow> {
+
+    private static final Trace LOGGER = TraceManager.getTrace(ReportDataRowBuffer.class);
+
+    /** Default maximal number of rows kept in memory. */
+    static final int DEFAULT_MAX_ROWS_IN_MEMORY = 10_000;
+
+    /** Converts a row to its final textual form (e.g. CSV record or HTML table row). */
+    @NotNull private final Function<ED, String> formatter;
+
+    private final int maxRowsInMemory;
+
+    /** Rows kept in memory, sorted by the sequential number. */
+    @NotNull private final List<ED> rows = new ArrayList<>();
+
+    /** Temporary files with sorted runs of formatted rows. */
+    @NotNull private final List<File> spilledRuns = new ArrayList<>();
+
+    ReportDataRowBuffer(@NotNull Function<ED, String> formatter) {
+        this(formatter, DEFAULT_MAX_ROWS_IN_MEMORY);
+    }
+
+    ReportDataRowBuffer(@NotNull Function<ED, String> formatter, int maxRowsInMemory) {
+        this.formatter = formatter;
+        this.maxRowsInMemory = maxRowsInMemory;
+    }
+
+    /**
+     * Inserts the row at the correct place. We are going from the end because we assume that the new row will be
+     * placed approximately there. Rows with the same sequential number are kept in the order they were added.
+     */
+    synchronized void add(@NotNull ED row) {
+        int i;
+        for (i = rows.size() - 1; i >= 0; i--) {
+            if (rows.get(i).getSequentialNumber() <= row.getSequentialNumber()) {
+                break;
+            }
+        }
+        rows.add(i + 1, row);
+        if (rows.size() >= maxRowsInMemory) {
+            spill();
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return rows.isEmpty() && spilledRuns.isEmpty();
+    }
+
+    /** Writes all the (formatted) rows, ordered by their sequential number, to the output. */
+    synchronized void writeTo(@NotNull Writer output) throws IOException {
+        if (spilledRuns.isEmpty()) {
+            for (ED row : rows) {
+                output.write(formatter.apply(row));
+            }
+        } else {
+            mergeTo(output);
+        }
+    }
+
+    /** Removes all the rows, including the spilled ones. */
+    synchronized void clear() {
+        rows.clear();
+        for (File run : spilledRuns) {
+            try {
+                Files.deleteIfExists(run.toPath());
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't delete temporary report file {}: {}", run, e.getMessage(), e);
+            }
+        }
+        spilledRuns.clear();
+    }
+
+    private void spill() {
+        File run;
+        try {
+            run = File.createTempFile("report-rows-", ".tmp", ReportSupportUtil.getOrCreateExportDir());
+        } catch (IOException e) {
+            throw new SystemException("Couldn't create temporary file for report rows: " + e.getMessage(), e);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+            for (ED row : rows) {
+                byte[] bytes = formatter.apply(row).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(row.getSequentialNumber());
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new SystemException("Couldn't write report rows to " + run + ": " + e.getMessage(), e);
+        }
+        LOGGER.trace("Spilled {} report row(s) to {}", rows.size(), run);
+        spilledRuns.add(run);
+        rows.clear();
+    }
+
+    /**
+     * Merges the spilled runs with the in-memory rows. For equal sequential numbers, earlier runs go first,
+     * followed by the in-memory rows; this keeps the order in which the rows were added.
+     */
+    private void mergeTo(@NotNull Writer output) throws IOException {
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            PriorityQueue<RunReader> queue = new PriorityQueue<>();
+            for (File run : spilledRuns) {
+                RunReader reader = new RunReader(readers.size(), run);
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            int memoryIndex = 0;
+            while (!queue.isEmpty() || memoryIndex < rows.size()) {
+                RunReader head = queue.peek();
+                if (memoryIndex < rows.size()
+                        && (head == null || rows.get(memoryIndex).getSequentialNumber() < head.sequentialNumber)) {
+                    output.write(formatter.apply(rows.get(memoryIndex++)));
+                } else {
+                    queue.poll();
+                    output.write(head.text);
+                    if (head.advance()) {
+                        queue.add(head);
+                    }
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /** Sequential reader of a spilled run. Ordered by the current row, then by the run index. */
+    private static class RunReader implements Comparable<RunReader>, Closeable {
+
+        private final int index;
+        @NotNull private final DataInputStream input;
+        private int sequentialNumber;
+        private String text;
+
+        RunReader(int index, @NotNull File file) throws FileNotFoundException {
+            this.index = index;
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                sequentialNumber = input.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+            return true;
+        }
+
+        @Override
+        public int compareTo(@NotNull RunReader other) {
+            int bySequentialNumber = Integer.compare(sequentialNumber, other.sequentialNumber);
+            return bySequentialNumber != 0 ? bySequentialNumber : Integer.compare(index, other.index);
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -6,6 +6,9 @@
 
 package com.evolveum.midpoint.report.impl.controller;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.function.Function;
@@ -21,11 +24,11 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.FileFormatConfigurat
  * Responsibilities:
  *
  * 1. Buffers semi-formatted ({@link ExportedReportHeaderRow} and {@link ExportedReportDataRow}) objects,
- * maintaining their correct order.
+ * maintaining their correct order. (Possibly spilling them to disk, see {@link ReportDataRowBuffer}.)
  *
- * 2. Produces final string form when asked to do so.
+ * 2. Produces final string form when asked to do so, or streams it to a {@link Writer}.
  *
- * 2. Holds the file-format-specific configuration.
+ * 3. Holds the file-format-specific configuration.
  */
 public interface ReportDataWriter<ED extends ExportedReportDataRow, EH extends ExportedReportHeaderRow> {
 
@@ -71,6 +74,29 @@ public interface ReportDataWriter<ED extends ExportedReportDataRow, EH extends E
      */
     String completeReport();
 
+    /**
+     * Writes the same content as {@link #completeReport()} to the output, without creating it as a single string
+     * (if supported by the writer).
+     */
+    void writeCompleteReport(@NotNull Writer output) throws IOException;
+
+    /**
+     * Appends partial data (from {@link #getStringData()} of a writer used for a bucket) to the aggregated data.
+     * The parts must be appended in the order of buckets.
+     *
+     * @param first true if this is the first part being appended
+     */
+    default void appendAggregatedData(@NotNull Writer aggregatedData, @NotNull String partialData, boolean first)
+            throws IOException {
+        aggregatedData.write(partialData);
+    }
+
+    /**
+     * Writes the same content as {@link #completeReport(String)} to the output, taking aggregated data
+     * (created by {@link #appendAggregatedData(Writer, String, boolean)}, in UTF-8) from the given file.
+     */
+    void writeCompleteReport(@NotNull Writer output, @NotNull File aggregatedData) throws IOException;
+
     @Nullable
     default Function<String, String> getFunctionForWidgetStatus() {
         return null;
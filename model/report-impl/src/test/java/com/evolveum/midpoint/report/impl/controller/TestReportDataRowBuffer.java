@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.report.impl.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.common.configuration.api.MidpointConfiguration;
+import com.evolveum.midpoint.repo.common.reports.ReportSupportUtil;
+import com.evolveum.midpoint.tools.testng.AbstractUnitTest;
+
+/**
+ * Tests spilling of report rows to disk and merging them back in correct order.
+ */
+public class TestReportDataRowBuffer extends AbstractUnitTest {
+
+    @BeforeClass
+    public void setupMidPointHome() throws IOException {
+        if (System.getProperty(MidpointConfiguration.MIDPOINT_HOME_PROPERTY) == null) {
+            System.setProperty(MidpointConfiguration.MIDPOINT_HOME_PROPERTY,
+                    Files.createTempDirectory("midpoint-home").toString());
+        }
+    }
+
+    @Test
+    public void test100RowsWithoutSpilling() throws IOException {
+        given("buffer with rows added out of order");
+        ReportDataRowBuffer<ExportedReportDataRow> buffer = new ReportDataRowBuffer<>(this::format, 100);
+        buffer.add(row(2, "b"));
+        buffer.add(row(0, "x"));
+        buffer.add(row(1, "a"));
+
+        when("rows are written");
+        String output = write(buffer);
+
+        then("rows are sorted");
+        assertThat(output).isEqualTo("0:x;1:a;2:b;");
+    }
+
+    @Test
+    public void test110RowsWithSpilling() throws IOException {
+        given("buffer spilling each 3 rows");
+        ReportDataRowBuffer<ExportedReportDataRow> buffer = new ReportDataRowBuffer<>(this::format, 3);
+        for (int i : List.of(5, 1, 3, 0, 4, 2, 7)) {
+            buffer.add(row(i, "v" + i));
+        }
+        buffer.add(row(3, "w3")); // same sequential number as a row that was spilled
+
+        when("rows are written");
+        String output = write(buffer);
+
+        then("rows are merged in the correct order");
+        assertThat(output).isEqualTo("0:v0;1:v1;2:v2;3:v3;3:w3;4:v4;5:v5;7:v7;");
+        assertThat(buffer.isEmpty()).isFalse();
+
+        when("buffer is cleared");
+        buffer.clear();
+
+        then("buffer is empty and no temporary files are left");
+        assertThat(buffer.isEmpty()).isTrue();
+        assertThat(write(buffer)).isEmpty();
+        File[] files = ReportSupportUtil.getExportDir().listFiles((dir, name) -> name.startsWith("report-rows-"));
+        assertThat(files).isEmpty();
+    }
+
+    private ExportedReportDataRow row(int sequentialNumber, String value) {
+        ExportedReportDataRow row = new ExportedReportDataRow(sequentialNumber);
+        row.addColumn(List.of(value));
+        return row;
+    }
+
+    private String format(ExportedReportDataRow row) {
+        return row.getSequentialNumber() + ":" + String.join(",", row.getValues().get(0)) + ";";
+    }
+
+    private String write(ReportDataRowBuffer<ExportedReportDataRow> buffer) throws IOException {
+        StringWriter writer = new StringWriter();
+        buffer.writeTo(writer);
+        return writer.toString();
+    }
+}
@@ -8,6 +8,7 @@ package com.evolveum.midpoint.provisioning.api;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.evolveum.midpoint.prism.query.ObjectFilter;
@@ -75,6 +76,7 @@ import static com.evolveum.midpoint.provisioning.api.ProvisioningOperationContex
 public interface ProvisioningService {
 
     String OP_GET_OBJECT = ProvisioningService.class.getName() + ".getObject";
+    String OP_GET_SHADOWS = ProvisioningService.class.getName() + ".getShadows";
     String OP_SEARCH_OBJECTS = ProvisioningService.class.getName() + ".searchObjects";
     String OP_SEARCH_OBJECTS_ITERATIVE = ProvisioningService.class.getName() + ".searchObjectsIterative";
     String OP_COUNT_OBJECTS = ProvisioningService.class.getName() + ".countObjects";
@@ -348,6 +350,30 @@ public interface ProvisioningService {
                 getObject(ShadowType.class, oid, options, new ProvisioningOperationContext(), task, result));
     }
 
+    /**
+     * Returns multiple shadows of a single resource. The result is the same as if each of the shadows was obtained by
+     * {@link #getObject(Class, String, Collection, ProvisioningOperationContext, Task, OperationResult)}; but the resource
+     * objects are fetched from the resource in bulk, if possible. See `maxIdentifiersInFilter` in the read capability.
+     *
+     * The failures related to individual shadows (e.g., a shadow does not exist) are not thrown; the affected shadows
+     * are simply missing in the returned map, and the failures are recorded in the operation result. Shadows
+     * with problems that were handled (e.g., the resource is down) are returned, along with their fetch result.
+     *
+     * The raw mode is not supported.
+     *
+     * @param resourceOid OID of the resource all the shadows belong to
+     * @param oids OIDs of the shadows to get
+     * @return shadows retrieved, keyed by their OIDs, in the order of `oids`
+     */
+    @Experimental
+    @NotNull Map<String, PrismObject<ShadowType>> getShadows(
+            @NotNull String resourceOid,
+            @NotNull Collection<String> oids,
+            @Nullable Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull ProvisioningOperationContext context,
+            @NotNull Task task,
+            @NotNull OperationResult parentResult);
+
     /**
      * This is method doesn't take {@link ProvisioningOperationContext} as a parameter to simplify backward compatibility for now.
      * It shouldn't be used, will be deprecated and removed after tests were updated accordingly.
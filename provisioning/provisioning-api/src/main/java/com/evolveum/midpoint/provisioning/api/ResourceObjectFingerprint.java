@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.provisioning.api;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import javax.xml.namespace.QName;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.evolveum.midpoint.prism.*;
+import com.evolveum.midpoint.prism.path.ItemName;
+import com.evolveum.midpoint.prism.polystring.PolyString;
+import com.evolveum.midpoint.schema.processor.ShadowReferenceAttributeValue;
+import com.evolveum.midpoint.util.QNameUtil;
+import com.evolveum.midpoint.util.exception.SystemException;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowType;
+
+/**
+ * Computes a content fingerprint of a resource object (or a shadow): a hash of its attributes, associations,
+ * activation, and auxiliary object classes.
+ *
+ * Items and values are sorted before hashing, so the fingerprint does not depend on the order in which the resource
+ * returns them. Operational data, like the caching metadata or synchronization situation, are not included.
+ *
+ * Note that the fingerprint depends on the form of the object. For example, a resource object as seen by the provisioning
+ * module (with reference attributes) and the corresponding shadowed object (with associations) generally have different
+ * fingerprints. Only fingerprints computed at the same place should be compared with each other.
+ */
+public class ResourceObjectFingerprint {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private static final List<ItemName> CONTENT_ITEMS = List.of(
+            ShadowType.F_AUXILIARY_OBJECT_CLASS,
+            ShadowType.F_ATTRIBUTES,
+            ShadowType.F_ASSOCIATIONS,
+            ShadowType.F_ACTIVATION);
+
+    /** Returns the fingerprint of the content of given object, as a hexadecimal string. */
+    public static @NotNull String compute(@NotNull ShadowType object) {
+        StringBuilder sb = new StringBuilder();
+        PrismObject<ShadowType> prismObject = object.asPrismObject();
+        for (ItemName itemName : CONTENT_ITEMS) {
+            Item<?, ?> item = prismObject.findItem(itemName);
+            if (item != null) {
+                appendItem(sb, item);
+            }
+        }
+        return hash(sb.toString());
+    }
+
+    private static void appendItem(StringBuilder sb, Item<?, ?> item) {
+        sb.append(QNameUtil.qNameToUri(item.getElementName())).append('=');
+        List<String> values = new ArrayList<>(item.getValues().size());
+        for (PrismValue value : item.getValues()) {
+            values.add(valueToString(value));
+        }
+        values.sort(Comparator.naturalOrder());
+        sb.append('[');
+        for (String value : values) {
+            sb.append(value.length()).append(':').append(value); // the length prevents ambiguities
+        }
+        sb.append(']');
+    }
+
+    private static String valueToString(PrismValue value) {
+        if (value instanceof PrismContainerValue<?> containerValue) {
+            return containerValueToString(containerValue);
+        } else if (value instanceof ShadowReferenceAttributeValue refAttrValue && refAttrValue.getOid() == null) {
+            // Not shadowized yet; so we use the identifiers of the referenced object.
+            var attributesContainer = refAttrValue.getAttributesContainerIfPresent();
+            return "ref:" + (attributesContainer != null ? containerValueToString(attributesContainer.getValue()) : "");
+        } else if (value instanceof PrismReferenceValue refValue) {
+            return "ref:" + refValue.getOid();
+        } else if (value instanceof PrismPropertyValue<?> propertyValue) {
+            return realValueToString(propertyValue.getRealValue());
+        } else {
+            return String.valueOf(value);
+        }
+    }
+
+    private static String containerValueToString(PrismContainerValue<?> containerValue) {
+        List<Item<?, ?>> items = new ArrayList<>(containerValue.getItems());
+        items.sort(Comparator.comparing(item -> QNameUtil.qNameToUri(item.getElementName())));
+        StringBuilder sb = new StringBuilder("{");
+        for (Item<?, ?> item : items) {
+            appendItem(sb, item);
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String realValueToString(@Nullable Object realValue) {
+        if (realValue instanceof byte[] bytes) {
+            return Base64.getEncoder().encodeToString(bytes);
+        } else if (realValue instanceof PolyString polyString) {
+            return polyString.getOrig();
+        } else if (realValue instanceof QName qName) {
+            return QNameUtil.qNameToUri(qName);
+        } else {
+            return String.valueOf(realValue);
+        }
+    }
+
+    /** Hashes arbitrary content in the same way as the fingerprints are computed; for derived fingerprints. */
+    public static @NotNull String hash(@NotNull String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(ALGORITHM);
+            return HexFormat.of().formatHex(
+                    digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new SystemException("Couldn't compute resource object fingerprint: " + e.getMessage(), e);
+        }
+    }
+}
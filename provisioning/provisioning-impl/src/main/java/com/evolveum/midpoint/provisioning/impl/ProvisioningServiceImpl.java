@@ -9,7 +9,9 @@ package com.evolveum.midpoint.provisioning.impl;
 import static com.evolveum.midpoint.schema.util.ObjectTypeUtil.asPrismObject;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -163,6 +165,38 @@ public class ProvisioningServiceImpl implements ProvisioningService, SystemConfi
                 .asPrismObject();
     }
 
+    @Override
+    public @NotNull Map<String, PrismObject<ShadowType>> getShadows(
+            @NotNull String resourceOid,
+            @NotNull Collection<String> oids,
+            @Nullable Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull ProvisioningOperationContext context,
+            @NotNull Task task,
+            @NotNull OperationResult parentResult) {
+
+        Preconditions.checkArgument(!GetOperationOptions.isRaw(SelectorOptions.findRootOptions(options)),
+                "Raw mode is not supported when getting multiple shadows");
+
+        OperationResult result = parentResult.subresult(OP_GET_SHADOWS)
+                .addParam("resourceOid", resourceOid)
+                .addParam("shadows", oids.size())
+                .addArbitraryObjectCollectionAsParam(OperationResult.PARAM_OPTIONS, options)
+                .addContext(OperationResult.CONTEXT_IMPLEMENTATION_CLASS, ProvisioningServiceImpl.class)
+                .build();
+        try {
+            Map<String, PrismObject<ShadowType>> shadows = new LinkedHashMap<>();
+            shadowsFacade.getShadows(resourceOid, oids, options, context, task, result)
+                    .forEach((oid, shadow) -> shadows.put(oid, shadow.asPrismObject()));
+            return shadows;
+        } catch (Throwable t) {
+            result.recordException(t);
+            throw t;
+        } finally {
+            result.close();
+            result.cleanup();
+        }
+    }
+
     @Override
     public <T extends ObjectType> String addObject(
             @NotNull PrismObject<T> object,
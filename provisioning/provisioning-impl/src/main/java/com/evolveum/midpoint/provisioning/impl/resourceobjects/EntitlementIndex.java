@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.provisioning.impl.resourceobjects;
+
+import static com.evolveum.midpoint.provisioning.impl.resourceobjects.DelineationProcessor.determineQueryWithConstraints;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.namespace.QName;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.evolveum.midpoint.prism.PrismPropertyValue;
+import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
+import com.evolveum.midpoint.provisioning.ucf.api.ShadowItemsToReturn;
+import com.evolveum.midpoint.provisioning.util.ShadowItemsToReturnProvider;
+import com.evolveum.midpoint.schema.config.AssociationConfigItem.AttributeBinding;
+import com.evolveum.midpoint.schema.processor.ResourceObjectDefinition;
+import com.evolveum.midpoint.schema.processor.ShadowAttributeDefinition;
+import com.evolveum.midpoint.schema.processor.ShadowSimpleAttributeDefinition;
+import com.evolveum.midpoint.schema.processor.SimulatedReferenceTypeParticipantDefinition;
+import com.evolveum.midpoint.schema.processor.SimulatedShadowReferenceTypeDefinition;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.util.exception.*;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * In-memory index of entitlement objects for "object to subject" simulated references, used when reading
+ * the entitlements of many subjects found by a single search operation (typically, a bucket of a search-based activity).
+ *
+ * Instead of searching for the entitlements of each subject individually (see {@link EntitlementObjectSearch}),
+ * all the entitlement objects are fetched once, and indexed by the normalized values of the object-side binding attribute,
+ * e.g. `ri:members`. The lookups are then served from memory.
+ *
+ * Limitations:
+ *
+ * . The index is used only if the reference type is configured so (`bulkReadingThreshold`), and it is built only after
+ * that number of subjects asked for the entitlements, so that small searches (and individual objects) are still resolved
+ * by the targeted searches. The index lives as long as the search, so the objects are fetched for each search.
+ * . If the number of indexed values exceeds {@link #MAX_INDEXED_VALUES}, the index is given up, and it is not tried
+ * for the reference type again (until the resource changes). If it cannot be built for any other reason, it is given up
+ * for the current search. The per-subject searches are used in both cases.
+ * . The values are matched using the normalizer of the object-side binding attribute of each object participant
+ * (delineation), which is what the resource is expected to do when evaluating the per-subject search filter.
+ *
+ * Thread safety: the index can be used by multiple worker threads processing the objects found by the search.
+ */
+class EntitlementIndex {
+
+    private static final Trace LOGGER = TraceManager.getTrace(EntitlementIndex.class);
+
+    /** Maximal number of binding attribute values (e.g. group members) kept in the index for a single reference. */
+    static final int MAX_INDEXED_VALUES = 500_000;
+
+    /**
+     * References whose index exceeded {@link #MAX_INDEXED_VALUES}. We do not try to index them again, as fetching
+     * all the objects only to give up would be a waste. The resource version is a part of the key, so a change
+     * of the resource allows a new attempt.
+     */
+    private static final Set<OversizedReference> OVERSIZED_REFERENCES = ConcurrentHashMap.newKeySet();
+
+    /** Indices for individual references, keyed by the subject-side reference attribute name, e.g. `ri:group`. */
+    @NotNull private final Map<QName, ReferenceIndex> referenceIndices = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the entitlement objects pointing to the subject with the given binding attribute value (e.g. account DN),
+     * or `null` if the index cannot be used (yet or at all); the caller should search for the entitlements by itself then.
+     *
+     * Returned objects are clones, so the caller can use them freely.
+     */
+    @Nullable Collection<ExistingResourceObjectShadow> getEntitlements(
+            @NotNull ProvisioningContext subjectCtx,
+            @NotNull SimulatedShadowReferenceTypeDefinition simulationDefinition,
+            @NotNull AttributeBinding binding,
+            @NotNull PrismPropertyValue<?> subjectAttrValue,
+            @NotNull OperationResult result) {
+        Integer threshold = simulationDefinition.getBulkReadingThreshold();
+        if (threshold == null) {
+            return null;
+        }
+        var referenceIndex = referenceIndices.computeIfAbsent(
+                simulationDefinition.getLocalSubjectItemName(),
+                k -> new ReferenceIndex(
+                        simulationDefinition, binding, threshold, OversizedReference.of(subjectCtx, simulationDefinition)));
+        return referenceIndex.getEntitlements(subjectCtx, subjectAttrValue, result);
+    }
+
+    private static class ReferenceIndex {
+
+        @NotNull private final SimulatedShadowReferenceTypeDefinition simulationDefinition;
+        @NotNull private final AttributeBinding binding;
+        private final int threshold;
+        @NotNull private final OversizedReference oversizedReferenceKey;
+
+        /** Number of requests so far; used to decide when to build the index. */
+        @NotNull private final AtomicInteger requests = new AtomicInteger();
+
+        /** Indices for individual object participants (delineations). Null if not built (yet). */
+        private volatile List<ParticipantIndex> participantIndices;
+
+        /** True if the index was given up; we use the per-subject searches then. */
+        private volatile boolean unusable;
+
+        ReferenceIndex(
+                @NotNull SimulatedShadowReferenceTypeDefinition simulationDefinition,
+                @NotNull AttributeBinding binding,
+                int threshold,
+                @NotNull OversizedReference oversizedReferenceKey) {
+            this.simulationDefinition = simulationDefinition;
+            this.binding = binding;
+            this.threshold = threshold;
+            this.oversizedReferenceKey = oversizedReferenceKey;
+        }
+
+        @Nullable Collection<ExistingResourceObjectShadow> getEntitlements(
+                @NotNull ProvisioningContext subjectCtx,
+                @NotNull PrismPropertyValue<?> subjectAttrValue,
+                @NotNull OperationResult result) {
+            if (unusable) {
+                return null;
+            }
+            if (participantIndices == null) {
+                if (requests.incrementAndGet() <= threshold) {
+                    return null;
+                }
+                build(subjectCtx, result);
+                if (unusable) {
+                    return null;
+                }
+            }
+            List<ExistingResourceObjectShadow> entitlements = new ArrayList<>();
+            for (ParticipantIndex participantIndex : participantIndices) {
+                Object normalizedValue;
+                try {
+                    normalizedValue = normalize(participantIndex.objectAttrDef(), subjectAttrValue);
+                } catch (SchemaException | ClassCastException e) {
+                    LOGGER.trace("Couldn't normalize subject value {}, falling back to the search: {}",
+                            subjectAttrValue, e.getMessage());
+                    return null;
+                }
+                for (var entitlement : participantIndex.objectsByValue().getOrDefault(normalizedValue, List.of())) {
+                    entitlements.add(entitlement.clone());
+                }
+            }
+            return entitlements;
+        }
+
+        private synchronized void build(@NotNull ProvisioningContext subjectCtx, @NotNull OperationResult result) {
+            if (participantIndices != null || unusable) {
+                return; // built (or given up) by another thread
+            }
+            if (OVERSIZED_REFERENCES.contains(oversizedReferenceKey)) {
+                LOGGER.trace("Entitlement index for {} was too large before, not trying again", oversizedReferenceKey);
+                unusable = true;
+                return;
+            }
+            List<ParticipantIndex> indices = new ArrayList<>();
+            var indexedObjects = new AtomicInteger();
+            var indexedValues = new AtomicInteger();
+            try {
+                for (var participantDef : simulationDefinition.getObjects()) {
+                    var participantIndex =
+                            indexParticipant(subjectCtx, participantDef, indexedObjects, indexedValues, result);
+                    if (participantIndex == null) {
+                        LOGGER.info("Entitlement index for {} would exceed {} values, not reading the objects in bulk "
+                                        + "(until the resource changes), using per-subject searches instead",
+                                oversizedReferenceKey, MAX_INDEXED_VALUES);
+                        OVERSIZED_REFERENCES.add(oversizedReferenceKey);
+                        unusable = true;
+                        return;
+                    }
+                    indices.add(participantIndex);
+                }
+            } catch (CommonException | RuntimeException e) {
+                LOGGER.warn("Couldn't build entitlement index for {}, using per-subject searches instead: {}",
+                        simulationDefinition.getLocalSubjectItemName(), e.getMessage(), e);
+                unusable = true;
+                return;
+            }
+            LOGGER.debug("Entitlement index for {} built: {} values of {} objects",
+                    simulationDefinition.getLocalSubjectItemName(), indexedValues.get(), indexedObjects.get());
+            participantIndices = List.copyOf(indices);
+        }
+
+        /** Returns `null` if the index got too large. */
+        private @Nullable ParticipantIndex indexParticipant(
+                @NotNull ProvisioningContext subjectCtx,
+                @NotNull SimulatedReferenceTypeParticipantDefinition participantDef,
+                @NotNull AtomicInteger indexedObjects,
+                @NotNull AtomicInteger indexedValues,
+                @NotNull OperationResult result)
+                throws SchemaException, ExpressionEvaluationException, CommunicationException,
+                SecurityViolationException, ConfigurationException, ObjectNotFoundException {
+
+            ShadowSimpleAttributeDefinition<?> objectAttrDef = participantDef.getObjectAttributeDefinition(binding);
+            var objectDefinition = participantDef.getObjectDefinition();
+            ProvisioningContext wildcardCtx = subjectCtx.toWildcard();
+            var queryWithConstraints = determineQueryWithConstraints(
+                    wildcardCtx, objectDefinition, participantDef.getDelineation(), null, result);
+
+            LOGGER.trace("Fetching all object-to-subject association objects for the index: {}", queryWithConstraints);
+            Map<Object, List<ExistingResourceObjectShadow>> objectsByValue = new HashMap<>();
+            var tooLarge = new boolean[1];
+            try {
+                ResourceObjectSearchOperation.execute(
+                        wildcardCtx,
+                        objectDefinition,
+                        (objectFound, lResult) -> {
+                            objectFound.initialize(subjectCtx.getTask(), lResult);
+                            if (!objectFound.isOk()) {
+                                throw new SystemException(
+                                        "Couldn't process entitlement: " + objectFound + ": " + objectFound.getExceptionEncountered());
+                            }
+                            var entitlement = objectFound.getResourceObject();
+                            indexedObjects.incrementAndGet();
+                            for (var value : entitlement.getAttributeValues(objectAttrDef.getItemName())) {
+                                var objects = objectsByValue.computeIfAbsent(
+                                        normalize(objectAttrDef, value), k -> new ArrayList<>());
+                                if (objects.isEmpty() || objects.get(objects.size() - 1) != entitlement) {
+                                    objects.add(entitlement); // the object may have more values with the same normalized form
+                                }
+                                if (indexedValues.incrementAndGet() > MAX_INDEXED_VALUES) {
+                                    tooLarge[0] = true;
+                                    return false;
+                                }
+                            }
+                            return true;
+                        },
+                        queryWithConstraints,
+                        getAttributesToReturn(subjectCtx, objectDefinition, objectAttrDef),
+                        false,
+                        result);
+            } catch (EntitlementObjectSearch.LocalTunnelException e) {
+                throw e.schemaException;
+            }
+            return tooLarge[0] ? null : new ParticipantIndex(objectAttrDef, objectsByValue);
+        }
+
+        /** Default attributes to return (as for {@link EntitlementObjectSearch}), plus the binding attribute. */
+        private @NotNull ShadowItemsToReturn getAttributesToReturn(
+                @NotNull ProvisioningContext subjectCtx,
+                @NotNull ResourceObjectDefinition objectDefinition,
+                @NotNull ShadowSimpleAttributeDefinition<?> objectAttrDef) {
+            var itemsToReturn = Objects.requireNonNullElseGet(
+                    new ShadowItemsToReturnProvider(subjectCtx.getResource(), objectDefinition, null)
+                            .createAttributesToReturn(),
+                    ShadowItemsToReturn::new);
+            List<ShadowAttributeDefinition<?, ?, ?, ?>> explicit = new ArrayList<>();
+            if (itemsToReturn.getItemsToReturn() != null) {
+                explicit.addAll(itemsToReturn.getItemsToReturn());
+            }
+            if (!explicit.contains(objectAttrDef)) {
+                explicit.add(objectAttrDef);
+            }
+            itemsToReturn.setItemsToReturn(explicit);
+            return itemsToReturn;
+        }
+
+        private static <T> Object normalize(
+                @NotNull ShadowSimpleAttributeDefinition<T> attrDef, @NotNull PrismPropertyValue<?> value)
+                throws SchemaException {
+            T realValue = attrDef.getTypeClass().cast(value.getRealValue());
+            return attrDef.getNormalizer().normalize(realValue);
+        }
+    }
+
+    /** Entitlement objects of a single participant (delineation), by the normalized value of its binding attribute. */
+    private record ParticipantIndex(
+            @NotNull ShadowSimpleAttributeDefinition<?> objectAttrDef,
+            @NotNull Map<Object, List<ExistingResourceObjectShadow>> objectsByValue) {
+    }
+
+    /** Identifies the reference type whose index was too large; see {@link #OVERSIZED_REFERENCES}. */
+    private record OversizedReference(
+            @NotNull String resourceOid, @Nullable String resourceVersion, @NotNull QName referenceName) {
+
+        static OversizedReference of(
+                @NotNull ProvisioningContext ctx, @NotNull SimulatedShadowReferenceTypeDefinition simulationDefinition) {
+            var resource = ctx.getResource();
+            return new OversizedReference(
+                    ctx.getResourceOid(), resource.getVersion(), simulationDefinition.getLocalSubjectItemName());
+        }
+
+        @Override
+        public String toString() {
+            return referenceName.getLocalPart() + " on resource " + resourceOid;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import static com.evolveum.midpoint.provisioning.impl.resourceobjects.Entitlemen
 import java.util.Objects;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
 import com.evolveum.midpoint.schema.config.AssociationConfigItem.AttributeBinding;
@@ -34,9 +35,16 @@ class EntitlementReader {
     /** {@link ProvisioningContext} of the subject fetch/search/whatever operation. */
     @NotNull private final ProvisioningContext subjectCtx;
 
-    private EntitlementReader(@NotNull ResourceObjectShadow subject, @NotNull ProvisioningContext subjectCtx) {
+    /** Index of entitlements shared by all the subjects found by the current search, if available. */
+    @Nullable private final EntitlementIndex entitlementIndex;
+
+    private EntitlementReader(
+            @NotNull ResourceObjectShadow subject,
+            @NotNull ProvisioningContext subjectCtx,
+            @Nullable EntitlementIndex entitlementIndex) {
         this.subject = subject;
         this.subjectCtx = subjectCtx;
+        this.entitlementIndex = entitlementIndex;
     }
 
     /**
@@ -46,10 +54,11 @@ class EntitlementReader {
     public static void read(
             @NotNull ResourceObjectShadow subject,
             @NotNull ProvisioningContext subjectCtx,
+            @Nullable EntitlementIndex entitlementIndex,
             @NotNull OperationResult result)
             throws SchemaException, CommunicationException, ObjectNotFoundException, ConfigurationException,
             SecurityViolationException, ExpressionEvaluationException {
-        new EntitlementReader(subject, subjectCtx)
+        new EntitlementReader(subject, subjectCtx, entitlementIndex)
                 .doRead(result);
     }
 
@@ -135,6 +144,7 @@ class EntitlementReader {
      * attribute - e.g. `ri:dn`.
      *
      * Iterates through all the delineations specified in the simulation.
+     * If the {@link #entitlementIndex} can be used, the objects are taken from it instead.
      *
      * NOTE: Just as {@link #convertSubjectAttributeToReferenceAttribute(AttributeBinding, SimulatedShadowReferenceTypeDefinition)},
      * this method does not filter the results according object types specified in the association type definition.
@@ -154,6 +164,19 @@ class EntitlementReader {
             return;
         }
 
+        if (entitlementIndex != null) {
+            var indexed = entitlementIndex.getEntitlements(
+                    subjectCtx, simulationDefinition, primaryBinding, searchOp.getSubjectAttrValue(), result);
+            if (indexed != null) {
+                for (ExistingResourceObjectShadow entitlementObject : indexed) {
+                    addRefAttrValueFromEntitlementObject(simulationDefinition, entitlementObject);
+                }
+                LOGGER.trace("Processed {} entitlement-to-subject association(s) for subject {} using the index",
+                        indexed.size(), subject.getHumanReadableNameLazily());
+                return;
+            }
+        }
+
         searchOp.execute((objectFound, lResult) -> {
             objectFound.initialize(subjectCtx.getTask(), lResult);
             if (objectFound.isOk()) {
@@ -12,6 +12,7 @@ import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.util.exception.*;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Makes resource objects "complete" by resolving simulated activation, associations, and so on.
@@ -37,6 +38,21 @@ class ResourceObjectCompleter {
             @NotNull OperationResult result)
             throws SchemaException, CommunicationException, ObjectNotFoundException, ConfigurationException,
             SecurityViolationException, ExpressionEvaluationException {
+        return completeResourceObject(ctx, resourceObject, fetchAssociations, null, result);
+    }
+
+    /**
+     * As {@link #completeResourceObject(ProvisioningContext, ExistingResourceObjectShadow, boolean, OperationResult)},
+     * but with the entitlements possibly taken from the index shared by the objects found by a search.
+     */
+    static @NotNull CompleteResourceObject completeResourceObject(
+            @NotNull ProvisioningContext ctx,
+            @NotNull ExistingResourceObjectShadow resourceObject,
+            boolean fetchAssociations,
+            @Nullable EntitlementIndex entitlementIndex,
+            @NotNull OperationResult result)
+            throws SchemaException, CommunicationException, ObjectNotFoundException, ConfigurationException,
+            SecurityViolationException, ExpressionEvaluationException {
 
         if (resourceObject.isError()) {
             // The idea is that we do not want to process objects which are not guaranteed to be "complete".
@@ -50,7 +66,7 @@ class ResourceObjectCompleter {
                 .completeBehavior(resourceObject, result);
 
         if (fetchAssociations) {
-            EntitlementReader.read(resourceObject, ctx, result);
+            EntitlementReader.read(resourceObject, ctx, entitlementIndex, result);
         }
 
         return CompleteResourceObject.of(resourceObject, ErrorState.ok());
@@ -7,6 +7,7 @@
 package com.evolveum.midpoint.provisioning.impl.resourceobjects;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.xml.datatype.XMLGregorianCalendar;
 
@@ -97,6 +98,21 @@ public class ResourceObjectConverter {
                 ctx, primaryIdentification, fetchAssociations, shadowItemsToReturn, result);
     }
 
+    /**
+     * Fetches multiple resource objects (of the same object definition) by their primary identifiers, without completing them.
+     * Objects that do not exist are not present in the returned map.
+     * The resource must have "full" reading capability (i.e., no caching-only).
+     */
+    public @NotNull Map<ResourceObjectIdentification.WithPrimary, ExistingResourceObjectShadow> fetchRawResourceObjects(
+            @NotNull ProvisioningContext ctx,
+            @NotNull Collection<ResourceObjectIdentification.WithPrimary> primaryIdentifications,
+            @Nullable ShadowItemsToReturn shadowItemsToReturn,
+            @NotNull OperationResult result)
+            throws ObjectNotFoundException, CommunicationException, SchemaException, SecurityViolationException,
+            ConfigurationException, ExpressionEvaluationException {
+        return ResourceObjectFetchOperation.executeRawMultiple(ctx, primaryIdentifications, shadowItemsToReturn, result);
+    }
+
     /**
      * "Completes" the provided "raw" resource object, i.e. executes
      * {@link ResourceObjectCompleter#completeResourceObject(ProvisioningContext, ExistingResourceObjectShadow, boolean, OperationResult)}.
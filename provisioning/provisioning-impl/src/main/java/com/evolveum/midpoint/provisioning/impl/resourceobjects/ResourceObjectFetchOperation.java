@@ -6,6 +6,11 @@
 
 package com.evolveum.midpoint.provisioning.impl.resourceobjects;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
 import com.evolveum.midpoint.provisioning.api.GenericConnectorException;
 import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
 import com.evolveum.midpoint.provisioning.ucf.api.*;
@@ -25,6 +30,7 @@ import org.jetbrains.annotations.Nullable;
  * - {@link ResourceObjectConverter#fetchResourceObject(ProvisioningContext, ResourceObjectIdentification.WithPrimary,
  * ShadowItemsToReturn, boolean, OperationResult)}
  * - plus "fetch raw" called from various places, mainly related to entitlements
+ * - plus "fetch raw multiple" used when getting multiple shadows at once
  */
 class ResourceObjectFetchOperation extends AbstractResourceObjectRetrievalOperation {
 
@@ -68,6 +74,44 @@ class ResourceObjectFetchOperation extends AbstractResourceObjectRetrievalOperat
                 .executeRaw(null, result);
     }
 
+    /**
+     * Fetches multiple objects (of the same object definition) by their primary identifiers, using
+     * {@link ConnectorInstance#fetchObjects(Collection, ShadowItemsToReturn, int, SchemaAwareUcfExecutionContext,
+     * OperationResult)}. Like {@link #executeRaw(ProvisioningContext, ResourceObjectIdentification.WithPrimary,
+     * OperationResult)}, there is no "post-processing" here. Objects that were not found are not present in the returned map.
+     */
+    static @NotNull Map<ResourceObjectIdentification.WithPrimary, ExistingResourceObjectShadow> executeRawMultiple(
+            @NotNull ProvisioningContext ctx,
+            @NotNull Collection<ResourceObjectIdentification.WithPrimary> identifications,
+            @Nullable ShadowItemsToReturn shadowItemsToReturn,
+            @NotNull OperationResult result)
+            throws CommunicationException, SchemaException, SecurityViolationException, ConfigurationException,
+            ObjectNotFoundException, ExpressionEvaluationException {
+
+        checkFullReadCapability(ctx);
+
+        ReadCapabilityType readCapability = ctx.getEnabledCapability(ReadCapabilityType.class);
+        int maxIdentifiersInFilter = readCapability != null
+                ? Objects.requireNonNullElse(readCapability.getMaxIdentifiersInFilter(), 0)
+                : 0;
+
+        ConnectorInstance connector = ctx.getConnector(ReadCapabilityType.class, result);
+        try {
+            var ucfObjects = connector.fetchObjects(
+                    identifications, shadowItemsToReturn, maxIdentifiersInFilter, ctx.getUcfExecutionContext(), result);
+            Map<ResourceObjectIdentification.WithPrimary, ExistingResourceObjectShadow> objects = new LinkedHashMap<>();
+            for (var entry : ucfObjects.entrySet()) {
+                objects.put(entry.getKey(), ExistingResourceObjectShadow.fromUcf(entry.getValue(), ctx.getResourceRef()));
+            }
+            return objects;
+        } catch (GenericFrameworkException e) {
+            result.setFatalError(
+                    "Generic error in the connector " + connector + ". Reason: " + e.getMessage(), e);
+            throw new GenericConnectorException(
+                    "Generic error in the connector " + connector + ". Reason: " + e.getMessage(), e);
+        }
+    }
+
     private @NotNull CompleteResourceObject execute(
             ShadowItemsToReturn shadowItemsToReturn, OperationResult result)
             throws SchemaException, ExpressionEvaluationException, CommunicationException, SecurityViolationException,
@@ -86,7 +130,7 @@ class ResourceObjectFetchOperation extends AbstractResourceObjectRetrievalOperat
             throws ObjectNotFoundException, CommunicationException, SchemaException, SecurityViolationException,
             ConfigurationException, ExpressionEvaluationException {
 
-        checkFullReadCapability();
+        checkFullReadCapability(ctx);
 
         ConnectorInstance connector = ctx.getConnector(ReadCapabilityType.class, result);
         try {
@@ -122,7 +166,7 @@ class ResourceObjectFetchOperation extends AbstractResourceObjectRetrievalOperat
         }
     }
 
-    private void checkFullReadCapability() {
+    private static void checkFullReadCapability(@NotNull ProvisioningContext ctx) {
         ReadCapabilityType readCapability = ctx.getEnabledCapability(ReadCapabilityType.class);
         if (readCapability == null) {
             throw new UnsupportedOperationException(
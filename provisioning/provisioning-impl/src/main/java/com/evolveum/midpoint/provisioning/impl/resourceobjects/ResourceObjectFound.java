@@ -9,6 +9,7 @@ package com.evolveum.midpoint.provisioning.impl.resourceobjects;
 import java.util.Objects;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
 import com.evolveum.midpoint.provisioning.ucf.api.UcfResourceObject;
@@ -38,23 +39,29 @@ public class ResourceObjectFound extends AbstractLazilyInitializableResourceEnti
      */
     @NotNull private final ExistingResourceObjectShadow initialResourceObject;
 
+    /** Index of entitlements shared by the objects found by the search; null if not applicable. */
+    @Nullable private final EntitlementIndex entitlementIndex;
+
     /** Result of the processing. */
     private CompleteResourceObject completeResourceObject;
 
     private ResourceObjectFound(
             @NotNull ProvisioningContext ctx,
             @NotNull UcfResourceObject initialUcfResourceObject,
-            boolean fetchAssociations) {
+            boolean fetchAssociations,
+            @Nullable EntitlementIndex entitlementIndex) {
         super(ctx, fetchAssociations);
         this.initialUcfResourceObject = initialUcfResourceObject;
         this.initialResourceObject = ExistingResourceObjectShadow.fromUcf(initialUcfResourceObject, ctx.getResourceRef());
+        this.entitlementIndex = entitlementIndex;
     }
 
     static ResourceObjectFound fromUcf(
             @NotNull UcfResourceObject ucfResourceObject,
             @NotNull ProvisioningContext ctx,
-            boolean fetchAssociations) {
-        return new ResourceObjectFound(ctx, ucfResourceObject, fetchAssociations);
+            boolean fetchAssociations,
+            @Nullable EntitlementIndex entitlementIndex) {
+        return new ResourceObjectFound(ctx, ucfResourceObject, fetchAssociations, entitlementIndex);
     }
 
     /**
@@ -69,7 +76,8 @@ public class ResourceObjectFound extends AbstractLazilyInitializableResourceEnti
                 initialResourceObject.bean.getAuxiliaryObjectClass(),
                 task);
         completeResourceObject =
-                ResourceObjectCompleter.completeResourceObject(effectiveCtx, initialResourceObject, fetchAssociations, result);
+                ResourceObjectCompleter.completeResourceObject(
+                        effectiveCtx, initialResourceObject, fetchAssociations, entitlementIndex, result);
         getInitializationState().recordError(completeResourceObject.errorState());
     }
 
@@ -56,6 +56,12 @@ class ResourceObjectSearchOperation extends AbstractResourceObjectRetrievalOpera
     /** Just for numbering the objects for diagnostics purposes (for now). */
     private final AtomicInteger objectCounter = new AtomicInteger(0);
 
+    /**
+     * Entitlements for "object to subject" references, shared by all the objects found by this search.
+     * Present only if the associations are to be fetched.
+     */
+    @Nullable private final EntitlementIndex entitlementIndex;
+
     private ResourceObjectSearchOperation(
             @NotNull ProvisioningContext ctx,
             @NotNull ResourceObjectHandler resultHandler,
@@ -67,6 +73,7 @@ class ResourceObjectSearchOperation extends AbstractResourceObjectRetrievalOpera
         this.resultHandler = resultHandler;
         this.queryWithConstraints = queryWithConstraints;
         this.shadowItemsToReturn = shadowItemsToReturn;
+        this.entitlementIndex = fetchAssociations ? new EntitlementIndex() : null;
     }
 
     /** The standard case: definition and limitations are taken from the context. */
@@ -197,7 +204,7 @@ class ResourceObjectSearchOperation extends AbstractResourceObjectRetrievalOpera
     private boolean handleObjectFound(UcfResourceObject ucfObject, OperationResult parentResult) {
         ucfObject.checkConsistence();
 
-        ResourceObjectFound objectFound = ResourceObjectFound.fromUcf(ucfObject, ctx, fetchAssociations);
+        ResourceObjectFound objectFound = ResourceObjectFound.fromUcf(ucfObject, ctx, fetchAssociations, entitlementIndex);
 
         // In order to utilize the cache right from the beginning.
         RepositoryCache.enterLocalCaches(b.cacheConfigurationManager);
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2010-2022 Evolveum and contributors
+ * Copyright (C) 2010-2025 Evolveum and contributors
  *
  * Licensed under the EUPL-1.2 or later.
  */
@@ -11,10 +11,14 @@ import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.repo.api.Cache;
 import com.evolveum.midpoint.repo.api.RepositoryService;
 import com.evolveum.midpoint.repo.api.CacheRegistry;
+import com.evolveum.midpoint.schema.cache.CacheConfigurationManager;
+import com.evolveum.midpoint.schema.cache.CacheType;
 import com.evolveum.midpoint.schema.internals.InternalMonitor;
 import com.evolveum.midpoint.schema.processor.ResourceSchemaFactory;
 import com.evolveum.midpoint.schema.processor.ResourceSchemaRegistry;
 import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.statistics.CachePerformanceInformationUtil;
+import com.evolveum.midpoint.util.caching.CacheConfiguration;
 import com.evolveum.midpoint.util.caching.CachePerformanceCollector;
 import com.evolveum.midpoint.util.exception.ConfigurationException;
 import com.evolveum.midpoint.util.exception.ObjectNotFoundException;
@@ -22,6 +26,7 @@ import com.evolveum.midpoint.util.exception.SchemaException;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ResourceType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.SingleCachePerformanceInformationType;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.SingleCacheStateInformationType;
 
 import com.google.common.collect.HashMultimap;
@@ -35,10 +40,11 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.evolveum.midpoint.util.MiscUtil.schemaCheck;
 import static com.evolveum.midpoint.util.caching.CacheConfiguration.StatisticsLevel.PER_CACHE;
@@ -53,6 +59,13 @@ import static com.evolveum.midpoint.util.caching.CacheConfiguration.StatisticsLe
  * The cache deals with concrete resources, i.e. _not_ the abstract ones. So, when an abstract resource is invalidated,
  * all concrete ones that inherit from it should be invalidated as well.
  *
+ * Concurrency: the cached resources are kept in an immutable {@link #snapshot} map that is replaced (copy-on-write)
+ * when a resource is put into the cache or invalidated. Hence, the reads are lock-free; only the (rare) writes are
+ * synchronized. When a resource is requested by OID only ({@link #getIfLatest(String, boolean, OperationResult)}),
+ * its version is checked in the repository only if it was not validated during the last "time to live" interval
+ * (see `resourceCache` in the caching profile); the default is to check it each time. Between the checks, the freshness
+ * of the cached resources depends on the invalidation events (see {@link #invalidate(Class, String, CacheInvalidationContext)}).
+ *
  * @author Radovan Semancik
  */
 @Component
@@ -63,6 +76,7 @@ public class ResourceCache implements Cache {
 
     @Autowired private ResourceSchemaRegistry resourceSchemaRegistry;
     @Autowired private CacheRegistry cacheRegistry;
+    @Autowired private CacheConfigurationManager cacheConfigurationManager;
     @Autowired @Qualifier("cacheRepositoryService") private RepositoryService repositoryService;
 
     @PostConstruct
@@ -76,18 +90,25 @@ public class ResourceCache implements Cache {
     }
 
     /**
+     * Current content of the cache. The map itself is immutable; it is replaced as a whole when the content changes.
+     * Writers must be guarded by `this`.
+     *
      * Note that prism objects in this map are always not null and immutable.
      * And they must remain immutable after getting them from the cache.
-     *
-     * As for ConcurrentHashMap: Although we use synchronization whenever possible, let's be extra cautious here.
      */
-    private final Map<String, PrismObject<ResourceType>> cache = new ConcurrentHashMap<>();
+    private volatile Map<String, CachedResource> snapshot = Map.of();
 
     /**
      * `K -> V` means that (concrete) resource `V` depends on (concrete or abstract) resource `K`.
+     *
+     * Guarded by `this`.
      */
     private final SetMultimap<String, String> dependencyMap = HashMultimap.create();
 
+    /** Statistics for {@link #getStateInformation()}. */
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
     /**
      * Puts a (complete) resource into the cache.
      *
@@ -106,21 +127,28 @@ public class ResourceCache implements Cache {
 
         updateDependencies(oid, ancestorsOids);
 
-        PrismObject<ResourceType> cachedResource = cache.get(oid);
+        CachedResource cachedResource = snapshot.get(oid);
         if (cachedResource == null) {
             LOGGER.debug("Caching(new): {}", resource);
-            cache.put(oid, resource.asPrismObject().immutableCopy());
+            publish(oid, new CachedResource(resource.asPrismObject().immutableCopy()));
         } else if (compareVersion(resource.getVersion(), cachedResource.getVersion())) {
             LOGGER.debug("Caching fizzle, resource already cached: {}", resource);
             // We already have equivalent resource, nothing to do
             //  TODO is this correct? What if the resource being put here is newer than the existing one (although having the same version)?
         } else {
             LOGGER.debug("Caching(replace): {}", resource);
-            cache.put(oid, resource.asPrismObject().immutableCopy());
+            publish(oid, new CachedResource(resource.asPrismObject().immutableCopy()));
             resourceSchemaRegistry.putSchema(oid, ResourceSchemaFactory.getCompleteSchema(resource));
         }
     }
 
+    /** Replaces the snapshot by a new one, containing given resource. Must be guarded by `this` (caller's responsibility). */
+    private void publish(@NotNull String oid, @NotNull CachedResource cachedResource) {
+        Map<String, CachedResource> newSnapshot = new HashMap<>(snapshot);
+        newSnapshot.put(oid, cachedResource);
+        snapshot = Collections.unmodifiableMap(newSnapshot);
+    }
+
     /**
      * Updates the {@link #dependencyMap} with the current information about ancestors of given (concrete) resource.
      *
@@ -145,71 +173,86 @@ public class ResourceCache implements Cache {
     /**
      * Gets a resource if it has specified version. If it has not, purges it from the cache (even if it exists there).
      */
-    synchronized PrismObject<ResourceType> get(@NotNull String oid, String requestedVersion, boolean readOnly) {
+    PrismObject<ResourceType> get(@NotNull String oid, String requestedVersion, boolean readOnly) {
         InternalMonitor.getResourceCacheStats().recordRequest();
 
-        PrismObject<ResourceType> resourceToReturn;
-        PrismObject<ResourceType> cachedResource = cache.get(oid);
+        CachedResource cachedResource = snapshot.get(oid);
         if (cachedResource == null) {
             LOGGER.debug("MISS(not cached) for {} (get)", oid);
-            resourceToReturn = null;
+            return recordMiss();
         } else if (!compareVersion(requestedVersion, cachedResource.getVersion())) {
             LOGGER.debug("MISS(wrong version) for {} (req={}, actual={})", oid, requestedVersion, cachedResource.getVersion());
             LOGGER.trace("Cached resource version {} does not match requested resource version {}, purging from cache",
                     cachedResource.getVersion(), requestedVersion);
             invalidateSingle(oid);
-            resourceToReturn = null;
-        } else if (readOnly) {
-            cachedResource.checkImmutable();
-            LOGGER.trace("HIT(read only) for {} (v{})", cachedResource, cachedResource.getVersion());
-            resourceToReturn = cachedResource;
+            return recordMiss();
         } else {
-            LOGGER.debug("HIT(returning clone) for {} (v{})", cachedResource, cachedResource.getVersion());
-            resourceToReturn = cachedResource.clone();
+            cachedResource.markValidated();
+            return recordHit(cachedResource, readOnly);
         }
-
-        if (resourceToReturn != null) {
-            CachePerformanceCollector.INSTANCE.registerHit(ResourceCache.class, ResourceType.class, PER_CACHE);
-            InternalMonitor.getResourceCacheStats().recordHit();
-        } else {
-            CachePerformanceCollector.INSTANCE.registerMiss(ResourceCache.class, ResourceType.class, PER_CACHE);
-            InternalMonitor.getResourceCacheStats().recordMiss();
-        }
-        return resourceToReturn;
     }
 
     /**
      * Gets a resource without specifying requested version: returns one only if it has the same version as in the repo.
+     * The version is not checked if the resource was validated recently enough, see {@link #getTimeToVersionCheck()}.
      *
-     * This requires a cooperation with the repository cache. Therefore this method is NOT synchronized
-     * and has operation result as its parameter.
+     * This requires a cooperation with the repository cache. Therefore this method has operation result as its parameter.
      */
     PrismObject<ResourceType> getIfLatest(@NotNull String oid, boolean readonly, OperationResult parentResult)
             throws SchemaException, ObjectNotFoundException {
         // First let's check if the cache contains given resource. If not, we can avoid getting version from the repo.
-        if (contains(oid)) {
+        CachedResource cachedResource = snapshot.get(oid);
+        if (cachedResource == null) {
+            LOGGER.debug("MISS(not cached) for {} (getIfLatest)", oid);
+            return recordMiss();
+        } else if (cachedResource.isValidatedWithin(getTimeToVersionCheck())) {
+            InternalMonitor.getResourceCacheStats().recordRequest();
+            return recordHit(cachedResource, readonly);
+        } else {
             String version = repositoryService.getVersion(ResourceType.class, oid, parentResult);
             return get(oid, version, readonly);
+        }
+    }
+
+    private PrismObject<ResourceType> recordHit(@NotNull CachedResource cachedResource, boolean readOnly) {
+        PrismObject<ResourceType> resource = cachedResource.resource;
+        PrismObject<ResourceType> resourceToReturn;
+        if (readOnly) {
+            resource.checkImmutable();
+            LOGGER.trace("HIT(read only) for {} (v{})", resource, resource.getVersion());
+            resourceToReturn = resource;
         } else {
-            LOGGER.debug("MISS(not cached) for {} (getIfLatest)", oid);
-            CachePerformanceCollector.INSTANCE.registerMiss(ResourceCache.class, ResourceType.class, PER_CACHE);
-            InternalMonitor.getResourceCacheStats().recordMiss();
-            return null;
+            LOGGER.debug("HIT(returning clone) for {} (v{})", resource, resource.getVersion());
+            resourceToReturn = resource.clone();
         }
+        hits.increment();
+        CachePerformanceCollector.INSTANCE.registerHit(ResourceCache.class, ResourceType.class, PER_CACHE);
+        InternalMonitor.getResourceCacheStats().recordHit();
+        return resourceToReturn;
+    }
+
+    private PrismObject<ResourceType> recordMiss() {
+        misses.increment();
+        CachePerformanceCollector.INSTANCE.registerMiss(ResourceCache.class, ResourceType.class, PER_CACHE);
+        InternalMonitor.getResourceCacheStats().recordMiss();
+        return null;
     }
 
-    private synchronized boolean contains(@NotNull String oid) {
-        return cache.containsKey(oid);
+    /** How long (in milliseconds) can we use a cached resource without checking its version in the repository. */
+    private long getTimeToVersionCheck() {
+        CacheConfiguration configuration = cacheConfigurationManager.getConfiguration(CacheType.RESOURCE_CACHE);
+        Integer timeToLive = configuration != null ? configuration.getTimeToLive() : null;
+        return timeToLive != null ? timeToLive * 1000L : 0;
     }
 
     /**
      * Returns currently cached version. FOR DIAGNOSTICS ONLY.
      */
-    synchronized String getVersion(String oid) {
+    String getVersion(String oid) {
         if (oid == null) {
             return null;
         }
-        PrismObject<ResourceType> cachedResource = cache.get(oid);
+        CachedResource cachedResource = snapshot.get(oid);
         if (cachedResource == null) {
             return null;
         }
@@ -229,19 +272,26 @@ public class ResourceCache implements Cache {
 
     /** Invalidates single (concrete) resource and all its descendants. */
     synchronized void invalidateSingle(@NotNull String oid) {
+        Map<String, CachedResource> newSnapshot = new HashMap<>(snapshot);
+        invalidateSingle(oid, newSnapshot);
+        snapshot = Collections.unmodifiableMap(newSnapshot);
+    }
+
+    /** Must be guarded by `this` (caller's responsibility). */
+    private void invalidateSingle(@NotNull String oid, @NotNull Map<String, CachedResource> newSnapshot) {
         Set<String> descendants = new HashSet<>(dependencyMap.get(oid));
         LOGGER.trace("Invalidating {} and all its descendants: {}", oid, descendants);
 
-        invalidateSingleShallow(oid);
-        descendants.forEach(this::invalidateSingle);
+        invalidateSingleShallow(oid, newSnapshot);
+        descendants.forEach(descendant -> invalidateSingle(descendant, newSnapshot));
     }
 
     /**
-     * Removes the specific resource from {@link #cache} and {@link #dependencyMap}). Not touching the descendants.
+     * Removes the specific resource from the new snapshot and {@link #dependencyMap}). Not touching the descendants.
      * Must be guarded by `this` (caller's responsibility).
      */
-    private void invalidateSingleShallow(@NotNull String oid) {
-        cache.remove(oid);
+    private void invalidateSingleShallow(@NotNull String oid, @NotNull Map<String, CachedResource> newSnapshot) {
+        newSnapshot.remove(oid);
         dependencyMap.removeAll(oid);
         dependencyMap.entries().removeIf(
                 entry -> oid.equals(entry.getValue()));
@@ -250,25 +300,56 @@ public class ResourceCache implements Cache {
     /** Invalidates the whole cache. Must be guarded by `this` (caller's responsibility). */
     private void invalidateAll() {
         LOGGER.trace("Invalidating the whole cache");
-        cache.clear();
+        snapshot = Map.of();
         dependencyMap.clear();
     }
 
     @NotNull
     @Override
-    public synchronized Collection<SingleCacheStateInformationType> getStateInformation() {
+    public Collection<SingleCacheStateInformationType> getStateInformation() {
         return Collections.singleton(
                 new SingleCacheStateInformationType()
                         .name(ResourceCache.class.getName())
-                        .size(cache.size())
+                        .size(snapshot.size())
+                        .performance(new SingleCachePerformanceInformationType()
+                                .name(ResourceCache.class.getName())
+                                .hitCount(CachePerformanceInformationUtil.toCount(hits.longValue()))
+                                .missCount(CachePerformanceInformationUtil.toCount(misses.longValue())))
         );
     }
 
     @Override
     public void dumpContent() {
         if (LOGGER_CONTENT.isInfoEnabled()) {
-            cache.forEach((oid, resource) -> LOGGER_CONTENT.info("Cached resource: {}: {} (version: {})",
-                    oid, resource, resource.getVersion()));
+            snapshot.forEach((oid, cachedResource) -> LOGGER_CONTENT.info("Cached resource: {}: {} (version: {})",
+                    oid, cachedResource.resource, cachedResource.getVersion()));
+        }
+    }
+
+    /** A resource in the cache, along with the time its version was last known to be current. */
+    private static class CachedResource {
+
+        /** Immutable. */
+        @NotNull private final PrismObject<ResourceType> resource;
+
+        /** When was the version of the resource last checked against the repository, see {@link System#currentTimeMillis()}. */
+        private volatile long validatedAt;
+
+        CachedResource(@NotNull PrismObject<ResourceType> resource) {
+            this.resource = resource;
+            this.validatedAt = System.currentTimeMillis();
+        }
+
+        String getVersion() {
+            return resource.getVersion();
+        }
+
+        void markValidated() {
+            validatedAt = System.currentTimeMillis();
+        }
+
+        boolean isValidatedWithin(long interval) {
+            return interval > 0 && System.currentTimeMillis() - validatedAt < interval;
         }
     }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.provisioning.impl.shadows;
+
+import static com.evolveum.midpoint.util.MiscUtil.argCheck;
+
+import java.util.*;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.evolveum.midpoint.prism.crypto.EncryptionException;
+import com.evolveum.midpoint.provisioning.api.ProvisioningOperationContext;
+import com.evolveum.midpoint.provisioning.api.ProvisioningService;
+import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
+import com.evolveum.midpoint.provisioning.impl.resourceobjects.ResourceObjectConverter;
+import com.evolveum.midpoint.provisioning.ucf.api.ShadowItemsToReturn;
+import com.evolveum.midpoint.provisioning.util.ProvisioningUtil;
+import com.evolveum.midpoint.schema.GetOperationOptions;
+import com.evolveum.midpoint.schema.SelectorOptions;
+import com.evolveum.midpoint.schema.processor.ResourceObjectDefinition;
+import com.evolveum.midpoint.schema.processor.ResourceObjectIdentification;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.ShadowUtil;
+import com.evolveum.midpoint.task.api.Task;
+import com.evolveum.midpoint.util.exception.CommonException;
+import com.evolveum.midpoint.util.logging.LoggingUtils;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowType;
+
+/**
+ * Implements getting multiple shadows of a single resource at once. See
+ * {@link ProvisioningService#getShadows(String, Collection, Collection, ProvisioningOperationContext, Task, OperationResult)}
+ * for the contract.
+ *
+ * Each shadow is processed by its own {@link ShadowGetOperation}, just like when it is gotten individually. The only difference
+ * is that the resource objects are fetched in advance, in bulk, using
+ * {@link ResourceObjectConverter#fetchRawResourceObjects(ProvisioningContext, Collection, ShadowItemsToReturn, OperationResult)}
+ * - for those shadows for which the fetching is (most probably) needed.
+ */
+class ShadowGetMultipleOperation {
+
+    private static final Trace LOGGER = TraceManager.getTrace(ShadowGetMultipleOperation.class);
+
+    private static final String OP_PREFETCH_RESOURCE_OBJECTS =
+            ShadowGetMultipleOperation.class.getName() + ".prefetchResourceObjects";
+    private static final String OP_GET_SHADOW = ShadowGetMultipleOperation.class.getName() + ".getShadow";
+
+    @NotNull private final String resourceOid;
+    @NotNull private final Collection<String> oids;
+    @Nullable private final Collection<SelectorOptions<GetOperationOptions>> options;
+    @NotNull private final ProvisioningOperationContext context;
+    @NotNull private final Task task;
+
+    @NotNull private final ShadowsLocalBeans b = ShadowsLocalBeans.get();
+
+    /** Operations for individual shadows, keyed by the shadow OID. */
+    @NotNull private final Map<String, ShadowGetOperation> operations = new LinkedHashMap<>();
+
+    private ShadowGetMultipleOperation(
+            @NotNull String resourceOid,
+            @NotNull Collection<String> oids,
+            @Nullable Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull ProvisioningOperationContext context,
+            @NotNull Task task) {
+        this.resourceOid = resourceOid;
+        this.oids = oids;
+        this.options = options;
+        this.context = context;
+        this.task = task;
+    }
+
+    static @NotNull Map<String, ShadowType> execute(
+            @NotNull String resourceOid,
+            @NotNull Collection<String> oids,
+            @Nullable Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull ProvisioningOperationContext context,
+            @NotNull Task task,
+            @NotNull OperationResult result) {
+        return new ShadowGetMultipleOperation(resourceOid, oids, options, context, task)
+                .execute(result);
+    }
+
+    private @NotNull Map<String, ShadowType> execute(OperationResult result) {
+        Map<String, ShadowType> shadows = new LinkedHashMap<>();
+        for (String oid : new LinkedHashSet<>(oids)) {
+            OperationResult shadowResult = result.subresult(OP_GET_SHADOW)
+                    .addParam(OperationResult.PARAM_OID, oid)
+                    .setMinor()
+                    .build();
+            try {
+                prepareOperation(oid, shadowResult);
+            } catch (CommonException | RuntimeException e) {
+                LOGGER.debug("Couldn't get shadow {}: {}", oid, e.getMessage(), e);
+                shadowResult.recordException(e);
+            } finally {
+                shadowResult.close();
+            }
+        }
+
+        prefetchResourceObjects(result);
+
+        for (var entry : operations.entrySet()) {
+            String oid = entry.getKey();
+            OperationResult shadowResult = result.subresult(OP_GET_SHADOW)
+                    .addParam(OperationResult.PARAM_OID, oid)
+                    .build();
+            ShadowType shadow = null;
+            try {
+                var retrieved = entry.getValue().execute(shadowResult);
+                ReturnedShadowValidityChecker.check(retrieved, options);
+                shadow = retrieved.getBean();
+            } catch (CommonException | EncryptionException | RuntimeException e) {
+                LOGGER.debug("Couldn't get shadow {}: {}", oid, e.getMessage(), e);
+                shadowResult.recordException(e);
+            } finally {
+                shadowResult.close();
+            }
+            if (shadow != null) {
+                shadows.put(oid, ProvisioningUtil.storeFetchResultIfApplicable(shadow, shadowResult));
+            }
+        }
+        return shadows;
+    }
+
+    private void prepareOperation(String oid, OperationResult result) throws CommonException {
+        var rawRepoShadow = b.shadowFinder.getRepoShadow(oid, GetOperationOptions.disableReadOnly(options), result);
+        String shadowResourceOid = ShadowUtil.getResourceOid(rawRepoShadow.getBean());
+        argCheck(resourceOid.equals(shadowResourceOid),
+                "Shadow %s belongs to resource %s, not to %s", rawRepoShadow, shadowResourceOid, resourceOid);
+        operations.put(oid, ShadowGetOperation.prepare(rawRepoShadow, null, options, context, task, result));
+    }
+
+    /**
+     * Fetches the resource objects in bulk, separately for each object definition. Any failures are ignored here;
+     * the affected objects will be fetched (and the errors processed) individually.
+     */
+    private void prefetchResourceObjects(OperationResult parentResult) {
+        Map<ResourceObjectDefinition, List<ShadowGetOperation>> operationsByDefinition = new LinkedHashMap<>();
+        Map<ShadowGetOperation, ResourceObjectIdentification.WithPrimary> identifications = new HashMap<>();
+        for (ShadowGetOperation operation : operations.values()) {
+            try {
+                var identification = operation.getIdentificationToPrefetch();
+                if (identification != null) {
+                    identifications.put(operation, identification);
+                    operationsByDefinition
+                            .computeIfAbsent(identification.getResourceObjectDefinition(), k -> new ArrayList<>())
+                            .add(operation);
+                }
+            } catch (CommonException e) {
+                LOGGER.trace("Not prefetching the resource object for {}: {}", operation, e.getMessage(), e);
+            }
+        }
+
+        for (var operationsForDefinition : operationsByDefinition.values()) {
+            if (operationsForDefinition.size() < 2) {
+                continue; // nothing to gain here
+            }
+            var ctx = operationsForDefinition.get(0).getCtx();
+            Set<ResourceObjectIdentification.WithPrimary> toFetch = new LinkedHashSet<>();
+            operationsForDefinition.forEach(operation -> toFetch.add(identifications.get(operation)));
+
+            OperationResult result = parentResult.subresult(OP_PREFETCH_RESOURCE_OBJECTS)
+                    .addParam("objects", toFetch.size())
+                    .build();
+            try {
+                var objects = b.resourceObjectConverter.fetchRawResourceObjects(
+                        ctx, toFetch, ctx.createItemsToReturn(), result);
+                LOGGER.trace("Prefetched {} out of {} resource objects", objects.size(), toFetch.size());
+                var prefetched = new ShadowGetOperation.Prefetched(toFetch, objects);
+                operationsForDefinition.forEach(operation -> operation.setPrefetched(prefetched));
+            } catch (CommonException | RuntimeException e) {
+                LoggingUtils.logExceptionAsWarning(LOGGER,
+                        "Couldn't prefetch {} resource objects, they will be fetched individually", e, toFetch.size());
+                result.recordException(e);
+                result.muteError();
+            } finally {
+                result.close();
+            }
+        }
+    }
+}
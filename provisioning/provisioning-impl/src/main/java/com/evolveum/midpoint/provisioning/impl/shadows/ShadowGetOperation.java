@@ -18,6 +18,8 @@ import static com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowLifecyc
 import static com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowLifecycleStateType.GESTATING;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
 import javax.xml.datatype.XMLGregorianCalendar;
 
 import com.evolveum.midpoint.provisioning.impl.*;
@@ -96,6 +98,12 @@ class ShadowGetOperation {
 
     @NotNull private final XMLGregorianCalendar now;
 
+    /**
+     * Resource objects fetched in advance, along with other objects, when getting multiple shadows at once.
+     * See {@link ShadowGetMultipleOperation}.
+     */
+    @Nullable private Prefetched prefetched;
+
     private ShadowGetOperation(
             @NotNull ProvisioningContext ctx,
             @NotNull RepoShadow repoShadow,
@@ -122,10 +130,33 @@ class ShadowGetOperation {
             throws SchemaException, ExpressionEvaluationException, ConfigurationException, ObjectNotFoundException,
             CommunicationException, SecurityViolationException, EncryptionException {
         var rawRepoShadow = obtainRepositoryShadow(oid, providedRepositoryShadow, options, result);
+        return prepare(rawRepoShadow, identifiersOverride, options, context, task, result)
+                .executeInternal(result);
+    }
+
+    /** Creates the operation for given repository shadow, without executing it. */
+    static @NotNull ShadowGetOperation prepare(
+            @NotNull RawRepoShadow rawRepoShadow,
+            @Nullable Collection<ShadowSimpleAttribute<?>> identifiersOverride,
+            @Nullable Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull ProvisioningOperationContext context,
+            @NotNull Task task,
+            @NotNull OperationResult result)
+            throws SchemaException, ExpressionEvaluationException, ConfigurationException, ObjectNotFoundException,
+            CommunicationException {
         var ctx = createProvisioningContext(rawRepoShadow, options, context, task, result);
         var repoShadow = ctx.adoptRawRepoShadow(rawRepoShadow);
-        return new ShadowGetOperation(ctx, repoShadow, identifiersOverride, options)
-                .executeInternal(result);
+        return new ShadowGetOperation(ctx, repoShadow, identifiersOverride, options);
+    }
+
+    /**
+     * Executes the operation created by
+     * {@link #prepare(RawRepoShadow, Collection, Collection, ProvisioningOperationContext, Task, OperationResult)}.
+     */
+    Shadow execute(OperationResult result)
+            throws ObjectNotFoundException, CommunicationException, SchemaException,
+            ConfigurationException, SecurityViolationException, ExpressionEvaluationException, EncryptionException {
+        return executeInternal(result);
     }
 
     private Shadow executeInternal(OperationResult parentResult)
@@ -219,6 +250,42 @@ class ShadowGetOperation {
         }
     }
 
+    /**
+     * Returns the identification of the resource object that is to be (most probably) fetched by this operation,
+     * if it can be fetched in advance along with other objects. Returns `null` if the resource object will not be fetched
+     * (e.g. the cached shadow will be returned), or if the fetching should be done individually.
+     *
+     * This is just an estimate; the execution may take a different path, e.g. after the shadow is refreshed.
+     */
+    @Nullable ResourceObjectIdentification.WithPrimary getIdentificationToPrefetch()
+            throws ConfigurationException, SchemaException {
+        if (isNoFetch()
+                || identifiersOverride != null
+                || isForceRefresh(rootOptions)
+                || isForceRetry(rootOptions)
+                || ResourceTypeUtil.isRefreshOnRead(ctx.getResource())
+                || ctx.isInMaintenance()
+                || !ctx.hasRealReadCapability()
+                || repoShadow.isDead()
+                || repoShadow.hasPendingAddOrDeleteOperation()
+                || getReasonForReturningCachedShadow() != null) {
+            return null;
+        }
+        if (repoShadow.getIdentification() instanceof ResourceObjectIdentification.WithPrimary primary) {
+            return primary;
+        } else {
+            return null;
+        }
+    }
+
+    void setPrefetched(@Nullable Prefetched prefetched) {
+        this.prefetched = prefetched;
+    }
+
+    @NotNull ProvisioningContext getCtx() {
+        return ctx;
+    }
+
     private static ShadowsLocalBeans b() {
         return ShadowsLocalBeans.get();
     }
@@ -367,6 +434,13 @@ class ShadowGetOperation {
                         ExistingResourceObjectShadow.fromRepoShadow(repoShadow),
                         true,
                         result);
+            } else if (prefetched != null && prefetched.identifications().contains(identification)) {
+                completeObject = b.resourceObjectConverter.completeResourceObject(
+                        ctx,
+                        getPrefetchedResourceObject(identification),
+                        true,
+                        result);
+                markResourceUp(result);
             } else {
                 completeObject = b.resourceObjectConverter.fetchResourceObject(
                         ctx,
@@ -403,6 +477,20 @@ class ShadowGetOperation {
         }
     }
 
+    private @NotNull ExistingResourceObjectShadow getPrefetchedResourceObject(
+            @NotNull ResourceObjectIdentification.WithPrimary identification) throws ObjectNotFoundException {
+        assert prefetched != null;
+        var object = prefetched.objects().get(identification);
+        if (object != null) {
+            LOGGER.trace("Using prefetched resource object for {}", identification);
+            return object;
+        } else {
+            throw new ObjectNotFoundException(
+                    "Object not found. identifiers=%s (fetched along with other objects)".formatted(identification),
+                    ShadowType.class, null, ctx.isAllowNotFound());
+        }
+    }
+
     private void markResourceUp(OperationResult result) throws ObjectNotFoundException {
         // The resourceManager.modifyResourceAvailabilityStatus method retrieves the resource from cache. It is a bit
         // costly now (e.g., it includes ResourceType cloning). Even if this cost could be reduced, we may skip the operation
@@ -547,6 +635,15 @@ class ShadowGetOperation {
         return b.clock.currentTimeMillis() - retrievalTimestampMillis < stalenessOption;
     }
 
+    /**
+     * Resource objects fetched in advance for the given identifications. Those identifications that are not present
+     * in {@link #objects} correspond to objects that were not found on the resource.
+     */
+    record Prefetched(
+            @NotNull Set<ResourceObjectIdentification.WithPrimary> identifications,
+            @NotNull Map<ResourceObjectIdentification.WithPrimary, ExistingResourceObjectShadow> objects) {
+    }
+
     private static class ReturnCachedException extends Exception {
         private final String reason;
 
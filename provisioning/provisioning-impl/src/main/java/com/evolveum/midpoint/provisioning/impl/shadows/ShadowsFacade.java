@@ -7,6 +7,7 @@
 package com.evolveum.midpoint.provisioning.impl.shadows;
 
 import java.util.Collection;
+import java.util.Map;
 
 import com.evolveum.midpoint.schema.util.RawRepoShadow;
 
@@ -86,6 +87,21 @@ public class ShadowsFacade {
         return shadow;
     }
 
+    /**
+     * Gets multiple shadows of a single resource, fetching the resource objects in bulk, if possible.
+     * Assumes that the mode is not raw. See {@link ShadowGetMultipleOperation}.
+     */
+    public @NotNull Map<String, ShadowType> getShadows(
+            @NotNull String resourceOid,
+            @NotNull Collection<String> oids,
+            @Nullable Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull ProvisioningOperationContext context,
+            @NotNull Task task,
+            @NotNull OperationResult result) {
+        assert !GetOperationOptions.isRaw(options);
+        return ShadowGetMultipleOperation.execute(resourceOid, oids, options, context, task, result);
+    }
+
     public String addResourceObject(
             @NotNull ShadowType resourceObjectToAdd,
             OperationProvisioningScriptsType scripts,
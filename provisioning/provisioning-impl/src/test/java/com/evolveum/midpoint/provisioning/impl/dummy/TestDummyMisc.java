@@ -12,9 +12,7 @@ import static com.evolveum.midpoint.schema.constants.SchemaConstants.*;
 import static com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowKindType.ACCOUNT;
 
 import java.io.File;
-import java.util.Collection;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import com.evolveum.midpoint.test.TestObject;
@@ -27,13 +25,17 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.testng.annotations.Test;
 
+import com.evolveum.icf.dummy.resource.DummyAccount;
 import com.evolveum.icf.dummy.resource.DummyGroup;
+import com.evolveum.midpoint.prism.equivalence.EquivalenceStrategy;
+import com.evolveum.midpoint.provisioning.api.ProvisioningOperationContext;
 import com.evolveum.midpoint.repo.cache.RepositoryCache;
 import com.evolveum.midpoint.schema.GetOperationOptionsBuilder;
 import com.evolveum.midpoint.schema.ResourceShadowCoordinates;
 import com.evolveum.midpoint.schema.cache.CacheConfigurationManager;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.schema.util.Resource;
+import com.evolveum.midpoint.schema.util.ShadowUtil;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.test.DummyTestResource;
 import com.evolveum.midpoint.util.MiscUtil;
@@ -84,6 +86,10 @@ public class TestDummyMisc extends AbstractDummyTest {
             }
     );
 
+    private static final DummyTestResource RESOURCE_DUMMY_BULK_READ = new DummyTestResource(
+            TEST_DIR, "resource-dummy-bulk-read.xml", "0d6f7f0e-61a4-4b0c-8a4e-5e0f3c2b9d36", "bulk-read",
+            c -> c.populateWithDefaultSchema());
+
     @Override
     public void initSystem(Task initTask, OperationResult initResult) throws Exception {
         super.initSystem(initTask, initResult);
@@ -96,6 +102,9 @@ public class TestDummyMisc extends AbstractDummyTest {
         initDummyResource(RESOURCE_DUMMY_MANY_ASSOCIATED_INTENTS, initResult);
         testResourceAssertSuccess(RESOURCE_DUMMY_MANY_ASSOCIATED_INTENTS, initTask, initResult);
         createGroup(TYPE_1, "A");
+
+        initDummyResource(RESOURCE_DUMMY_BULK_READ, initResult);
+        testResourceAssertSuccess(RESOURCE_DUMMY_BULK_READ, initTask, initResult);
     }
 
     private void createGroup(String type, String name) throws Exception {
@@ -229,4 +238,78 @@ public class TestDummyMisc extends AbstractDummyTest {
                 .as("repo searches for ShadowType")
                 .isEqualTo(1);
     }
+
+    /**
+     * Getting multiple shadows at once, with the resource objects fetched by searches with OR'ed UIDs.
+     * The result should be the same as if the shadows were gotten one by one.
+     */
+    @Test
+    public void test300GettingMultipleShadows() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("five accounts with shadows, plus a shadow on a different resource");
+        List<String> names = List.of("bulk-1", "bulk-2", "bulk-3", "bulk-4", "bulk-5");
+        for (String name : names) {
+            RESOURCE_DUMMY_BULK_READ.controller.addAccount(name, "Original " + name);
+        }
+        Map<String, String> oids = new LinkedHashMap<>();
+        for (String name : names) {
+            oids.put(name, getShadowOid(RESOURCE_DUMMY_BULK_READ, name, task, result));
+        }
+        RESOURCE_DUMMY_ATTRIBUTES_TO_GET.controller.addAccount("bulk-other");
+        var otherResourceShadowOid = getShadowOid(RESOURCE_DUMMY_ATTRIBUTES_TO_GET, "bulk-other", task, result);
+
+        and("accounts modified and one deleted on the resource");
+        for (String name : names) {
+            RESOURCE_DUMMY_BULK_READ.controller.getDummyResource().getAccountByName(name)
+                    .replaceAttributeValue(DummyAccount.ATTR_FULLNAME_NAME, "Modified " + name);
+        }
+        RESOURCE_DUMMY_BULK_READ.controller.deleteAccount("bulk-4");
+
+        when("the shadows (plus a non-existent and a foreign one) are gotten at once");
+        var nonExistentOid = UUID.randomUUID().toString();
+        List<String> requestedOids = new ArrayList<>(oids.values());
+        requestedOids.add(nonExistentOid);
+        requestedOids.add(otherResourceShadowOid);
+        var shadows = provisioningService.getShadows(
+                RESOURCE_DUMMY_BULK_READ.oid, requestedOids, null, new ProvisioningOperationContext(), task, result);
+
+        then("existing shadows are returned, in the requested order, with the current state of the resource objects");
+        assertThat(shadows.keySet()).containsExactly(
+                oids.get("bulk-1"), oids.get("bulk-2"), oids.get("bulk-3"), oids.get("bulk-5"));
+        for (String name : List.of("bulk-1", "bulk-2", "bulk-3", "bulk-5")) {
+            var shadow = shadows.get(oids.get(name));
+            assertThat(shadow.asObjectable().getFetchResult()).as("fetch result of " + name).isNull();
+            assertThat(ShadowUtil.<String>getAttributeValue(
+                    shadow, RESOURCE_DUMMY_BULK_READ.controller.getAttributeFullnameQName()))
+                    .as("full name of " + name)
+                    .isEqualTo("Modified " + name);
+        }
+
+        and("the shadows are the same as when gotten individually");
+        for (var entry : shadows.entrySet()) {
+            var individual = provisioningService.getObject(ShadowType.class, entry.getKey(), null, task, result);
+            assertThat(ShadowUtil.getAttributesContainer(entry.getValue()).getValue()
+                    .equals(ShadowUtil.getAttributesContainer(individual).getValue(), EquivalenceStrategy.REAL_VALUE))
+                    .as("attributes of " + individual + " are equivalent")
+                    .isTrue();
+        }
+
+        and("the deleted account is not returned, and neither are the non-existent and foreign shadows");
+        assertThat(shadows).doesNotContainKeys(oids.get("bulk-4"), nonExistentOid, otherResourceShadowOid);
+    }
+
+    private String getShadowOid(DummyTestResource resource, String name, Task task, OperationResult result)
+            throws Exception {
+        var shadows = provisioningService.searchObjects(
+                ShadowType.class,
+                Resource.of(resource.get())
+                        .queryFor(RI_ACCOUNT_OBJECT_CLASS)
+                        .and()
+                        .item(ShadowType.F_ATTRIBUTES, ICFS_NAME).eq(name)
+                        .build(),
+                null, task, result);
+        return MiscUtil.extractSingletonRequired(shadows).getOid();
+    }
 }
@@ -0,0 +1,24 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.provisioning.impl.opendj;
+
+import java.io.File;
+
+/**
+ * As {@link TestOpenDjAssociationsModernSimulated}, but the objects of the object-to-subject references are read in bulk
+ * (`bulkReadingThreshold` is 0), i.e. the subjects found by a search get them from the index, not by individual searches.
+ * The results must be the same, including the delineations of the objects.
+ */
+public class TestOpenDjAssociationsModernSimulatedBulkReading extends AbstractOpenDjSimulatedAssociationsTest {
+
+    private static final File RESOURCE_OPENDJ_FILE = new File(TEST_DIR, "resource-opendj-modern-bulk-reading.xml");
+
+    @Override
+    protected File getResourceOpenDjFile() {
+        return RESOURCE_OPENDJ_FILE;
+    }
+}
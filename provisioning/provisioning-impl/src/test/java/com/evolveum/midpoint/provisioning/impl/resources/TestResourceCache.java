@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.provisioning.impl.resources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.evolveum.midpoint.test.util.MidPointTestConstants.TEST_RESOURCES_DIR;
+
+import java.io.File;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.CacheInvalidationContext;
+import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.provisioning.impl.AbstractProvisioningIntegrationTest;
+import com.evolveum.midpoint.repo.api.RepositoryService;
+import com.evolveum.midpoint.repo.cache.invalidation.Invalidator;
+import com.evolveum.midpoint.schema.cache.CacheConfigurationManager;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.task.api.Task;
+import com.evolveum.midpoint.test.DummyTestResource;
+import com.evolveum.midpoint.util.exception.CommonException;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+
+/**
+ * Tests {@link ResourceCache}: the use of the time to live for version checks, the reload of changed resources,
+ * the invalidation, and the statistics.
+ *
+ * Resources are changed via the plain repository service here, as they would be on another node: the resource cache
+ * is not invalidated then. Only the global repository caches are cleared, so that the current version is seen
+ * when it is checked.
+ */
+public class TestResourceCache extends AbstractProvisioningIntegrationTest {
+
+    private static final File TEST_DIR = new File(TEST_RESOURCES_DIR, "resource-cache");
+
+    private static final DummyTestResource RESOURCE_DUMMY = new DummyTestResource(
+            TEST_DIR, "resource-dummy.xml", "3c6c5a3e-5f1d-4b8e-9a57-2e4f0b7d9c18", "cached");
+
+    /** Time to live for the version checks, when they are enabled; in seconds. */
+    private static final int TIME_TO_LIVE = 600;
+
+    @Autowired private ResourceCache resourceCache;
+    @Autowired private CacheConfigurationManager cacheConfigurationManager;
+    @Autowired private Invalidator repositoryCacheInvalidator;
+
+    @Autowired
+    @Qualifier("repositoryService") // we want repo implementation, not cache
+    private RepositoryService plainRepositoryService;
+
+    @Override
+    public void initSystem(Task initTask, OperationResult initResult) throws Exception {
+        super.initSystem(initTask, initResult);
+        RESOURCE_DUMMY.initAndTest(this, initTask, initResult);
+    }
+
+    /** Within the time to live, the cached resource is returned without checking its version in the repository. */
+    @Test
+    public void test100CachedResourceIsUsedWithinTimeToLive() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("time to live is set, and the resource is cached");
+        setResourceCacheTimeToLive(TIME_TO_LIVE);
+        try {
+            String cachedVersion = loadResource(task, result);
+
+            and("the resource is changed in the repository (without invalidating the resource cache)");
+            String newVersion = modifyResourceBypassingCache("changed in test100", result);
+            assertThat(newVersion).isNotEqualTo(cachedVersion);
+
+            when("the resource is obtained from the cache");
+            PrismObject<ResourceType> resource = resourceCache.getIfLatest(RESOURCE_DUMMY.oid, true, result);
+
+            then("the cached version is returned, as the version was not checked");
+            assertThat(resource).as("cached resource").isNotNull();
+            assertThat(resource.getVersion()).isEqualTo(cachedVersion);
+        } finally {
+            setResourceCacheTimeToLive(null);
+        }
+    }
+
+    /** Without the time to live (the default), the version is checked; if it does not match, the resource is reloaded. */
+    @Test
+    public void test110VersionMismatchForcesReload() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("the resource is cached");
+        String cachedVersion = loadResource(task, result);
+
+        and("the resource is changed in the repository (without invalidating the resource cache)");
+        String newVersion = modifyResourceBypassingCache("changed in test110", result);
+        assertThat(resourceCache.getVersion(RESOURCE_DUMMY.oid)).isEqualTo(cachedVersion);
+
+        when("the resource is obtained from the cache");
+        PrismObject<ResourceType> resource = resourceCache.getIfLatest(RESOURCE_DUMMY.oid, true, result);
+
+        then("nothing is returned, and the outdated resource is removed from the cache");
+        assertThat(resource).as("cached resource").isNull();
+        assertThat(resourceCache.getVersion(RESOURCE_DUMMY.oid)).isNull();
+
+        when("the resource is obtained from the provisioning");
+        loadResource(task, result);
+
+        then("the current version is cached");
+        assertThat(resourceCache.getVersion(RESOURCE_DUMMY.oid)).isEqualTo(newVersion);
+        assertThat(resourceCache.getIfLatest(RESOURCE_DUMMY.oid, true, result).getVersion()).isEqualTo(newVersion);
+    }
+
+    /** Invalidation replaces the snapshot; the resources obtained before are not affected. */
+    @Test
+    public void test120InvalidationReplacesSnapshot() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("the resource is cached, and obtained from the cache");
+        String cachedVersion = loadResource(task, result);
+        PrismObject<ResourceType> resourceBefore = resourceCache.getIfLatest(RESOURCE_DUMMY.oid, true, result);
+        assertThat(resourceBefore).as("cached resource").isNotNull();
+        int sizeBefore = getCacheState().getSize();
+
+        when("the resource is invalidated");
+        resourceCache.invalidate(ResourceType.class, RESOURCE_DUMMY.oid, null);
+
+        then("it is no longer in the cache");
+        assertThat(resourceCache.getVersion(RESOURCE_DUMMY.oid)).isNull();
+        assertThat(resourceCache.get(RESOURCE_DUMMY.oid, cachedVersion, true)).isNull();
+        assertThat(getCacheState().getSize()).isEqualTo(sizeBefore - 1);
+
+        and("the resource obtained before is still usable");
+        assertThat(resourceBefore.isImmutable()).as("immutable").isTrue();
+        assertThat(resourceBefore.getVersion()).isEqualTo(cachedVersion);
+
+        when("the resource is obtained from the provisioning again");
+        loadResource(task, result);
+
+        then("it is cached again");
+        assertThat(resourceCache.getVersion(RESOURCE_DUMMY.oid)).isEqualTo(cachedVersion);
+        assertThat(getCacheState().getSize()).isEqualTo(sizeBefore);
+    }
+
+    /** The hits and misses are counted in the state information. */
+    @Test
+    public void test130StateInformationCounters() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("the resource is cached");
+        String cachedVersion = loadResource(task, result);
+        SingleCachePerformanceInformationType before = getCacheState().getPerformance();
+
+        when("the resource is obtained twice (with the right version), and once with a wrong version");
+        resourceCache.getIfLatest(RESOURCE_DUMMY.oid, true, result);
+        resourceCache.get(RESOURCE_DUMMY.oid, cachedVersion, false);
+        resourceCache.get(RESOURCE_DUMMY.oid, "wrong-" + cachedVersion, true);
+
+        then("two hits and one miss are counted");
+        SingleCacheStateInformationType after = getCacheState();
+        displayValue("state information", after);
+        assertThat(after.getName()).isEqualTo(ResourceCache.class.getName());
+        assertThat(after.getPerformance().getHitCount()).isEqualTo(before.getHitCount() + 2);
+        assertThat(after.getPerformance().getMissCount()).isEqualTo(before.getMissCount() + 1);
+
+        and("the resource with the wrong version was removed");
+        assertThat(resourceCache.getVersion(RESOURCE_DUMMY.oid)).isNull();
+    }
+
+    /** Gets the resource via the provisioning service, so it is cached, and returns the version that was cached. */
+    private String loadResource(Task task, OperationResult result) throws CommonException {
+        provisioningService.getObject(ResourceType.class, RESOURCE_DUMMY.oid, null, task, result);
+        String cachedVersion = resourceCache.getVersion(RESOURCE_DUMMY.oid);
+        assertThat(cachedVersion).as("cached version").isNotNull();
+        return cachedVersion;
+    }
+
+    /** Returns the new version of the resource. */
+    private String modifyResourceBypassingCache(String description, OperationResult result) throws CommonException {
+        plainRepositoryService.modifyObject(ResourceType.class, RESOURCE_DUMMY.oid,
+                deltaFor(ResourceType.class)
+                        .item(ResourceType.F_DESCRIPTION).replace(description)
+                        .asItemDeltas(),
+                result);
+        repositoryCacheInvalidator.invalidate(ResourceType.class, RESOURCE_DUMMY.oid, new CacheInvalidationContext(true, null));
+        return plainRepositoryService.getVersion(ResourceType.class, RESOURCE_DUMMY.oid, result);
+    }
+
+    /** Sets the time to live of the resource cache (or resets it to the system configuration, if `null`). */
+    private void setResourceCacheTimeToLive(Integer timeToLive) throws CommonException {
+        SystemConfigurationType systemConfiguration = getSystemConfiguration();
+        if (timeToLive != null) {
+            systemConfiguration = systemConfiguration != null ? systemConfiguration.clone() : new SystemConfigurationType();
+            if (systemConfiguration.getInternals() == null) {
+                systemConfiguration.setInternals(new InternalsConfigurationType());
+            }
+            if (systemConfiguration.getInternals().getCaching() == null) {
+                systemConfiguration.getInternals().setCaching(new CachingConfigurationType());
+            }
+            systemConfiguration.getInternals().getCaching().getProfile().add(
+                    new CachingProfileType()
+                            .name("resource-cache-test")
+                            .global(true)
+                            .resourceCache(new CacheSettingsType()
+                                    .timeToLive(timeToLive)));
+        }
+        cacheConfigurationManager.applyCachingConfiguration(systemConfiguration);
+    }
+
+    private SingleCacheStateInformationType getCacheState() {
+        return resourceCache.getStateInformation().iterator().next();
+    }
+}
@@ -23,6 +23,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Supplier;
 
 /**
@@ -48,6 +50,7 @@ import java.util.function.Supplier;
 public interface ConnectorInstance {
 
     String OP_FETCH_OBJECT = ConnectorInstance.class.getName() + ".fetchObject";
+    String OP_FETCH_OBJECTS = ConnectorInstance.class.getName() + ".fetchObjects";
     String OP_FETCH_RESOURCE_SCHEMA = ConnectorInstance.class.getName() + ".fetchResourceSchema";
     String OP_FETCH_CAPABILITIES = ConnectorInstance.class.getName() + ".fetchCapabilities";
     String OP_ADD_OBJECT = ConnectorInstance.class.getName() + ".addObject";
@@ -200,6 +203,42 @@ public interface ConnectorInstance {
         throws ObjectNotFoundException, CommunicationException, GenericFrameworkException, SchemaException,
         SecurityViolationException, ConfigurationException;
 
+    /**
+     * Retrieves a set of specific objects from the resource; a batched version of
+     * {@link #fetchObject(ResourceObjectIdentification.WithPrimary, ShadowItemsToReturn, SchemaAwareUcfExecutionContext,
+     * OperationResult)}.
+     *
+     * All the objects must be of the same object definition. Unlike the single-object variant, objects that are not found
+     * are simply missing in the returned map; no {@link ObjectNotFoundException} is thrown.
+     *
+     * The default implementation fetches the objects one by one. Implementations may provide a more efficient way,
+     * e.g. a search by a filter that covers multiple identifiers.
+     *
+     * @param identifications objectClass+primary identifiers of the objects to fetch
+     * @param maxIdentifiersInFilter maximal number of identifiers the implementation may put into a single search filter;
+     * zero means that the objects should be fetched one by one
+     * @return objects found, keyed by their identifications (as provided by the caller)
+     */
+    default @NotNull Map<ResourceObjectIdentification.WithPrimary, UcfResourceObject> fetchObjects(
+            @NotNull Collection<ResourceObjectIdentification.WithPrimary> identifications,
+            @Nullable ShadowItemsToReturn shadowItemsToReturn,
+            int maxIdentifiersInFilter,
+            @NotNull SchemaAwareUcfExecutionContext ctx,
+            @NotNull OperationResult result)
+            throws CommunicationException, GenericFrameworkException, SchemaException, SecurityViolationException,
+            ConfigurationException {
+        Map<ResourceObjectIdentification.WithPrimary, UcfResourceObject> objects = new LinkedHashMap<>();
+        for (var identification : identifications) {
+            try {
+                objects.put(identification, fetchObject(identification, shadowItemsToReturn, ctx, result));
+            } catch (ObjectNotFoundException e) {
+                // The object is simply not there. The error is recorded in the subresult; we can continue.
+                result.muteLastSubresultError();
+            }
+        }
+        return objects;
+    }
+
     /**
      * Execute iterative search operation.
      *
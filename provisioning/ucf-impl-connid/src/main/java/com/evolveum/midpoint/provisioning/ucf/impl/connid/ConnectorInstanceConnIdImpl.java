@@ -26,6 +26,7 @@ import javax.xml.namespace.QName;
 
 import com.evolveum.midpoint.util.MiscUtil;
 
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.Validate;
 import org.identityconnectors.common.pooling.ObjectPoolConfiguration;
@@ -156,6 +157,13 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
      */
     private boolean capabilitiesAndSchemaFetchedFromResource;
 
+    /**
+     * Set when we know that the search by (OR'ed) primary identifiers is not supported by the connector, so that we do not
+     * try it again for this instance. Transient failures of the search do not set this flag.
+     * See {@link #fetchObjects(Collection, ShadowItemsToReturn, int, SchemaAwareUcfExecutionContext, OperationResult)}.
+     */
+    private volatile boolean identifierFilterSearchUnsupported;
+
     /**
      * Does the resource use "legacy schema" i.e. `pass:[__ACCOUNT__]` and `pass:[__GROUP__]` object class names?
      * See e.g. https://docs.evolveum.com/connectors/connid/1.x/connector-development-guide/#schema-best-practices
@@ -546,6 +554,143 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
         }
     }
 
+    /**
+     * Fetches the objects by searching with OR'ed primary identifier (`pass:[__UID__]`) filters, at most
+     * `maxIdentifiersInFilter` identifiers in one search.
+     *
+     * If the connector cannot execute such a search, we fall back to fetching the objects one by one. The same is done
+     * for objects not returned by the search, because a search may not see everything a direct "get" operation does
+     * (e.g. objects outside the search base); so, the result is the same as if the objects were fetched individually.
+     *
+     * If the search fails or returns an object that was not asked for (i.e. the connector ignores the filter and would
+     * scan all the objects), no more searches are done in this call. The connector is marked as not supporting such
+     * searches only if the failure clearly says so (see {@link #isUnsupportedOperation(Throwable)}) or if the filter
+     * was ignored.
+     */
+    @Override
+    public @NotNull Map<ResourceObjectIdentification.WithPrimary, UcfResourceObject> fetchObjects(
+            @NotNull Collection<ResourceObjectIdentification.WithPrimary> identifications,
+            @Nullable ShadowItemsToReturn shadowItemsToReturn,
+            int maxIdentifiersInFilter,
+            @NotNull SchemaAwareUcfExecutionContext ctx,
+            @NotNull OperationResult parentResult)
+            throws CommunicationException, GenericFrameworkException, SchemaException, SecurityViolationException,
+            ConfigurationException {
+
+        OperationResult result = parentResult.subresult(OP_FETCH_OBJECTS)
+                .addParam("identifications", identifications.size())
+                .addParam("maxIdentifiersInFilter", maxIdentifiersInFilter)
+                .addContext("connector", connectorBean)
+                .build();
+        try {
+            Map<ResourceObjectIdentification.WithPrimary, UcfResourceObject> objects = new LinkedHashMap<>();
+            if (maxIdentifiersInFilter > 0 && identifications.size() > 1 && !identifierFilterSearchUnsupported) {
+                for (var chunk : ListUtils.partition(new ArrayList<>(identifications), maxIdentifiersInFilter)) {
+                    if (!searchByIdentifiers(chunk, shadowItemsToReturn, objects, ctx, result)) {
+                        break;
+                    }
+                }
+            }
+            List<ResourceObjectIdentification.WithPrimary> remaining = identifications.stream()
+                    .filter(identification -> !objects.containsKey(identification))
+                    .toList();
+            if (!remaining.isEmpty()) {
+                LOGGER.trace("Fetching {} remaining object(s) one by one", remaining.size());
+                objects.putAll(
+                        ConnectorInstance.super.fetchObjects(remaining, shadowItemsToReturn, 0, ctx, result));
+            }
+            return objects;
+        } catch (Throwable t) {
+            result.recordException(t);
+            throw t;
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Executes a single search for given identifiers, putting the objects found into `objects` map.
+     *
+     * @return false if the search failed or the filter was ignored, so no more searches should be done
+     */
+    private boolean searchByIdentifiers(
+            @NotNull List<ResourceObjectIdentification.WithPrimary> identifications,
+            @Nullable ShadowItemsToReturn shadowItemsToReturn,
+            @NotNull Map<ResourceObjectIdentification.WithPrimary, UcfResourceObject> objects,
+            @NotNull SchemaAwareUcfExecutionContext ctx,
+            @NotNull OperationResult result)
+            throws CommunicationException, SecurityViolationException {
+
+        ResourceObjectDefinition objectDefinition = identifications.get(0).getResourceObjectDefinition();
+        Map<String, ResourceObjectIdentification.WithPrimary> identificationsByUid = new HashMap<>();
+        List<ObjectFilter> filters = new ArrayList<>(identifications.size());
+        for (var identification : identifications) {
+            stateCheck(objectDefinition.equals(identification.getResourceObjectDefinition()),
+                    "Objects of different definitions cannot be fetched together: %s and %s",
+                    objectDefinition, identification.getResourceObjectDefinition());
+            identificationsByUid.put(identification.getPrimaryIdentifier().getStringOrigValue(), identification);
+            filters.add(identification.getPrimaryIdentifier().plainEqFilter());
+        }
+        ObjectQuery query = PrismContext.get().queryFactory().createQuery(
+                PrismContext.get().queryFactory().createOr(filters));
+
+        AtomicBoolean filterIgnored = new AtomicBoolean();
+        UcfObjectHandler handler = (ucfObject, lResult) -> {
+            var identification = identificationsByUid.get(String.valueOf(ucfObject.getPrimaryIdentifierValue()));
+            if (identification != null) {
+                objects.put(identification, ucfObject);
+                return true;
+            } else {
+                // We do not want to go through all the objects on the resource, for each chunk.
+                filterIgnored.set(true);
+                return false;
+            }
+        };
+        try {
+            search(objectDefinition, query, handler, shadowItemsToReturn, null, null,
+                    UcfFetchErrorReportingMethod.EXCEPTION, ctx, result);
+        } catch (CommunicationException | SecurityViolationException e) {
+            throw e;
+        } catch (GenericFrameworkException | SchemaException | ObjectNotFoundException | RuntimeException e) {
+            boolean unsupported = isUnsupportedOperation(e);
+            LoggingUtils.logExceptionAsWarning(LOGGER,
+                    "Couldn't search for {} objects by their identifiers in {}, will fetch them one by one{}", e,
+                    identifications.size(), description, unsupported ? " (also in the future)" : "");
+            result.muteLastSubresultError();
+            if (unsupported) {
+                identifierFilterSearchUnsupported = true;
+            }
+            return false;
+        }
+        if (filterIgnored.get()) {
+            LOGGER.info("The connector in {} returned an object that was not asked for when searching by identifiers; "
+                    + "it probably does not support such searches. Will fetch the objects one by one.", description);
+            identifierFilterSearchUnsupported = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Does the exception (or any of its causes) say that the operation or filter is not supported? Exceptions coming
+     * from the connector are converted by {@link ConnIdUtil#processConnIdException(Throwable, ConnectorInstanceConnIdImpl,
+     * OperationResult)}, keeping the name of the original exception class in the message.
+     */
+    static boolean isUnsupportedOperation(@NotNull Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause() != t ? t.getCause() : null) {
+            if (t instanceof UnsupportedOperationException
+                    || t.getMessage() != null && t.getMessage().contains(UnsupportedOperationException.class.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Only for tests. */
+    boolean isIdentifierFilterSearchUnsupported() {
+        return identifierFilterSearchUnsupported;
+    }
+
     /**
      * Returns null if nothing is found.
      */
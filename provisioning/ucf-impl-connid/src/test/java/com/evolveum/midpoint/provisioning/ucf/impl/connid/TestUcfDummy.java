@@ -368,6 +368,62 @@ public class TestUcfDummy extends AbstractUcfDummyTest {
         checkUcfObject(resourceObject, accountClassDefinition);
     }
 
+    /** Objects are fetched by a search with OR'ed UIDs; the missing ones are skipped. */
+    @Test
+    public void test070FetchObjectsByUids() throws Exception {
+        given("two more accounts on the resource");
+        var ctx = createExecutionContext();
+        var result = createOperationResult();
+        dummyResource.addAccount(new DummyAccount("will"));
+        dummyResource.addAccount(new DummyAccount("elaine"));
+
+        var accountClassDefinition = resourceSchema.findObjectClassDefinitionRequired(RI_ACCOUNT_OBJECT_CLASS);
+        List<ResourceObjectIdentification.WithPrimary> identifications = new ArrayList<>();
+        for (String uid : List.of("jack", "will", "nobody", "elaine")) {
+            identifications.add(ResourceObjectIdentification.withPrimary(
+                    accountClassDefinition,
+                    accountClassDefinition.<String>getPrimaryIdentifierRequired().instantiateFromRealValue(uid),
+                    List.of()));
+        }
+
+        try {
+            when("objects are fetched, at most two identifiers in a filter");
+            var objects = cc.fetchObjects(identifications, null, 2, ctx, result);
+
+            then("existing objects are returned, keyed by their identifications");
+            assertThat(objects).containsOnlyKeys(identifications.get(0), identifications.get(1), identifications.get(3));
+            objects.forEach((identification, object) -> {
+                checkUcfObject(object, accountClassDefinition);
+                assertThat(object.getPrimaryIdentifierValue())
+                        .isEqualTo(identification.getPrimaryIdentifier().getRealValue());
+            });
+
+            and("the search is still considered to be supported");
+            assertThat(((ConnectorInstanceConnIdImpl) cc).isIdentifierFilterSearchUnsupported()).isFalse();
+        } finally {
+            dummyResource.deleteAccountByName("will");
+            dummyResource.deleteAccountByName("elaine");
+        }
+    }
+
+    /** Only the failures that clearly say the operation is not supported should stop the searches by UIDs for good. */
+    @Test
+    public void test075UnsupportedOperationDetection() {
+        expect("unsupported operations are recognized, also when converted from ConnId exceptions");
+        assertThat(ConnectorInstanceConnIdImpl.isUnsupportedOperation(
+                new UnsupportedOperationException("OR filter is not supported"))).isTrue();
+        assertThat(ConnectorInstanceConnIdImpl.isUnsupportedOperation(
+                new GenericFrameworkException("java.lang.UnsupportedOperationException(OR filter)"))).isTrue();
+        assertThat(ConnectorInstanceConnIdImpl.isUnsupportedOperation(
+                new SchemaException("wrapped", new UnsupportedOperationException()))).isTrue();
+
+        and("other failures are not");
+        assertThat(ConnectorInstanceConnIdImpl.isUnsupportedOperation(
+                new GenericFrameworkException("java.net.SocketTimeoutException(Read timed out)"))).isFalse();
+        assertThat(ConnectorInstanceConnIdImpl.isUnsupportedOperation(
+                new SchemaException("Unknown attribute"))).isFalse();
+    }
+
     /** No operation, no sync changes. */
     @Test
     public void test100FetchEmptyChanges() throws Exception {
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.api;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Thread-bound information whether read-only repository operations may be routed to a read replica
+ * (if the repository has any configured).
+ *
+ * By default, everything goes to the primary database. A caller that can tolerate slightly stale data
+ * (e.g. report export, dashboard widget, GUI object list) opens a scope using {@link #allowReplicaReads(String)};
+ * an operation that must see the current data (e.g. clockwork) opens a scope using {@link #primaryOnly()}.
+ * Scopes can be nested, the innermost one applies. They should be used in try-with-resources blocks.
+ *
+ * To provide read-your-writes semantics, any write done by the current thread (see {@link #recordWrite(Class)})
+ * pins the reads of the objects of that type (including its sub- and supertypes) to the primary database
+ * until the open scopes are closed. We do not pin all the reads, as e.g. report activities update their task
+ * regularly, and this should not preclude reading the report data from the replica.
+ *
+ * As the writes are often done outside any scope (e.g. a GUI user saves an object and then displays the list of such
+ * objects in the next request), the time of the last write of each type on this node is recorded as well.
+ * The repository does not route the reads of that type to a replica until the replica could have caught up,
+ * see {@link #getLastWriteTime(Class)}. This is node-local, so it covers the usual case of sticky GUI sessions,
+ * but not writes done on other nodes.
+ *
+ * All of this is relevant only if the repository has any replicas configured, see {@link #setEnabled(boolean)}.
+ */
+public class ReadReplicaRouting {
+
+    /** Report activities, i.e. export and data collection. */
+    public static final String CALLER_REPORT = "report";
+
+    /** Dashboard widgets. */
+    public static final String CALLER_DASHBOARD = "dashboard";
+
+    /** Object lists and similar read-only views in GUI. */
+    public static final String CALLER_GUI = "gui";
+
+    /** Loading of the data for role mining. */
+    public static final String CALLER_ROLE_MINING = "roleMining";
+
+    private static final ThreadLocal<Scope> CURRENT_SCOPE_TL = new ThreadLocal<>();
+
+    /** Time of the last write of each object type on this node (see {@link #recordWrite(Class)}). */
+    private static final Map<Class<?>, Long> LAST_WRITE_TIMES = new ConcurrentHashMap<>();
+
+    /** Whether the repository has any read replicas configured. */
+    private static volatile boolean enabled;
+
+    /** Called by the repository when the read replicas are (or are no longer) available. */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+        if (!value) {
+            LAST_WRITE_TIMES.clear();
+        }
+    }
+
+    /**
+     * Opens a scope where read-only operations may be routed to a replica, if the replica configuration
+     * accepts the given caller.
+     */
+    public static @NotNull Scope allowReplicaReads(@NotNull String caller) {
+        return enter(caller);
+    }
+
+    /** Opens a scope where all operations go to the primary database. */
+    public static @NotNull Scope primaryOnly() {
+        return enter(null);
+    }
+
+    private static @NotNull Scope enter(@Nullable String caller) {
+        Scope scope = new Scope(caller, CURRENT_SCOPE_TL.get());
+        CURRENT_SCOPE_TL.set(scope);
+        return scope;
+    }
+
+    /**
+     * Returns the caller for which the replica reads of given object type are allowed in the current thread,
+     * or `null` if the read must go to the primary database.
+     * Writes done outside the current scopes are not considered here, see {@link #getLastWriteTime(Class)}.
+     */
+    public static @Nullable String getReplicaCaller(@NotNull Class<?> type) {
+        Scope scope = CURRENT_SCOPE_TL.get();
+        if (!enabled || scope == null || scope.caller == null) {
+            return null;
+        }
+        for (Class<?> writtenType : scope.writtenTypes) {
+            if (writtenType.isAssignableFrom(type) || type.isAssignableFrom(writtenType)) {
+                return null;
+            }
+        }
+        return scope.caller;
+    }
+
+    /**
+     * Returns `true` if the data of given type read in the current thread may come from a replica, so they may be stale.
+     * Such data must not be put into caches used by the code that needs the current data.
+     */
+    public static boolean mayReadFromReplica(@NotNull Class<?> type) {
+        return getReplicaCaller(type) != null;
+    }
+
+    /**
+     * Returns the time of the last write of an object of given type (including its sub- and supertypes) on this node,
+     * or 0 if there was none.
+     */
+    public static long getLastWriteTime(@NotNull Class<?> type) {
+        long last = 0;
+        for (var entry : LAST_WRITE_TIMES.entrySet()) {
+            Class<?> writtenType = entry.getKey();
+            if (writtenType.isAssignableFrom(type) || type.isAssignableFrom(writtenType)) {
+                last = Math.max(last, entry.getValue());
+            }
+        }
+        return last;
+    }
+
+    /** Records that the current thread has written an object of given type to the primary database. */
+    public static void recordWrite(@NotNull Class<?> type) {
+        if (!enabled) {
+            return;
+        }
+        LAST_WRITE_TIMES.put(type, System.currentTimeMillis());
+        for (Scope scope = CURRENT_SCOPE_TL.get(); scope != null; scope = scope.parent) {
+            if (!scope.writtenTypes.add(type)) {
+                break; // the parents have it as well
+            }
+        }
+    }
+
+    public static class Scope implements AutoCloseable {
+
+        /** Caller allowing replica reads, `null` for primary-only scope. */
+        @Nullable private final String caller;
+        @Nullable private final Scope parent;
+
+        /** Types of objects this thread has written while this scope was open. */
+        @NotNull private final Set<Class<?>> writtenTypes = new HashSet<>();
+
+        private Scope(@Nullable String caller, @Nullable Scope parent) {
+            this.caller = caller;
+            this.parent = parent;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT_SCOPE_TL.get() != this) {
+                throw new IllegalStateException("Read replica routing scopes closed in wrong order");
+            }
+            if (parent != null) {
+                CURRENT_SCOPE_TL.set(parent);
+            } else {
+                CURRENT_SCOPE_TL.remove();
+            }
+        }
+    }
+}
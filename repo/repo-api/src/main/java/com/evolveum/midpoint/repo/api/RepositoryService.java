@@ -6,7 +6,9 @@
 
 package com.evolveum.midpoint.repo.api;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.evolveum.midpoint.prism.*;
 
@@ -123,6 +125,7 @@ public interface RepositoryService extends OrgTreeEvaluator, CaseSupportMixin, A
     String OP_ADD_OBJECT_OVERWRITE = "addObjectOverwrite"; // addObject with overwrite option
     String OP_DELETE_OBJECT = "deleteObject";
     String OP_COUNT_OBJECTS = "countObjects";
+    String OP_COUNT_OBJECTS_BATCH = "countObjectsBatch";
     String OP_MODIFY_OBJECT = "modifyObject";
     String OP_MODIFY_OBJECT_DYNAMICALLY = "modifyObjectDynamically";
     String OP_GET_VERSION = "getVersion";
@@ -481,6 +484,28 @@ public interface RepositoryService extends OrgTreeEvaluator, CaseSupportMixin, A
             Collection<SelectorOptions<GetOperationOptions>> options,
             OperationResult parentResult) throws SchemaException;
 
+    /**
+     * Returns the numbers of objects that match each of the specified queries, in the same order.
+     * Null query means all objects of specified type.
+     *
+     * This is meant for callers that need many counts over the same type at once (e.g. dashboards).
+     * The implementation may evaluate the counts in a single pass over the data; the default one simply
+     * calls {@link #countObjects(Class, ObjectQuery, Collection, OperationResult)} for each query.
+     * Paging in the queries is ignored, just like in {@link #countObjects(Class, ObjectQuery, Collection, OperationResult)}.
+     */
+    @Experimental
+    default <T extends ObjectType> @NotNull List<Integer> countObjectsBatch(
+            @NotNull Class<T> type,
+            @NotNull List<ObjectQuery> queries,
+            @Nullable Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull OperationResult parentResult) throws SchemaException {
+        List<Integer> counts = new ArrayList<>(queries.size());
+        for (ObjectQuery query : queries) {
+            counts.add(countObjects(type, query, options, parentResult));
+        }
+        return counts;
+    }
+
     /**
      * Search for objects in the repository in an iterative fashion.
      *
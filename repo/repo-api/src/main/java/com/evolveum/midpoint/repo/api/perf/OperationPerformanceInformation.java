@@ -25,6 +25,10 @@ public class OperationPerformanceInformation implements ShortDumpable, Cloneable
     private long totalWastedTime;
     private Long minWastedTime;
     private Long maxWastedTime;
+    private int pageCount; // invocations with known page size
+    private long totalPageSize;
+    private Integer minPageSize;
+    private Integer maxPageSize;
 
     public int getInvocationCount() {
         return invocationCount;
@@ -58,11 +62,41 @@ public class OperationPerformanceInformation implements ShortDumpable, Cloneable
         return maxWastedTime;
     }
 
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public long getTotalPageSize() {
+        return totalPageSize;
+    }
+
+    public Integer getMinPageSize() {
+        return minPageSize;
+    }
+
+    public Integer getMaxPageSize() {
+        return maxPageSize;
+    }
+
     public synchronized void register(OperationRecord operation) {
         invocationCount++;
         executionCount += operation.getAttempts();
         addTotalTime(operation.getTotalTime());
         addWastedTime(operation.getWastedTime());
+        if (operation.getPageSize() != null) {
+            addPageSize(operation.getPageSize());
+        }
+    }
+
+    private void addPageSize(int pageSize) {
+        pageCount++;
+        totalPageSize += pageSize;
+        if (minPageSize == null || pageSize < minPageSize) {
+            minPageSize = pageSize;
+        }
+        if (maxPageSize == null || pageSize > maxPageSize) {
+            maxPageSize = pageSize;
+        }
     }
 
     private void addTotalTime(long time) {
@@ -96,6 +130,12 @@ public class OperationPerformanceInformation implements ShortDumpable, Cloneable
         rv.setTotalWastedTime(totalWastedTime);
         rv.setMinWastedTime(minWastedTime);
         rv.setMaxWastedTime(maxWastedTime);
+        if (pageCount > 0) {
+            rv.setPageCount(pageCount);
+            rv.setTotalPageSize(totalPageSize);
+            rv.setMinPageSize(minPageSize);
+            rv.setMaxPageSize(maxPageSize);
+        }
         return rv;
     }
 
@@ -107,6 +147,10 @@ public class OperationPerformanceInformation implements ShortDumpable, Cloneable
             sb.append(String.format(Locale.US, ", wasted time for %d retry/retries: %s (%s)", executionCount - invocationCount,
                     timeInfo(totalWastedTime, minWastedTime, maxWastedTime, invocationCount), percent(totalWastedTime, totalTime)));
         }
+        if (pageCount > 0) {
+            sb.append(String.format(Locale.US, ", page size (min/max/avg): %d/%d/%.1f",
+                    minPageSize, maxPageSize, (float) totalPageSize / pageCount));
+        }
     }
 
     private String timeInfo(long total, Long min, Long max, int count) {
@@ -144,6 +188,7 @@ public class OperationPerformanceInformation implements ShortDumpable, Cloneable
                 ", wastedMs=" + totalWastedTime +
                 ", minWMs=" + minWastedTime +
                 ", maxWMs=" + maxWastedTime +
+                ", pages=" + pageCount +
                 '}';
     }
 }
@@ -22,6 +22,7 @@ public class OperationRecord {
     private long startTime;
     private long totalTime; // in ms
     private long wastedTime;
+    private Integer pageSize; // requested page size (max rows), if any
 
     public OperationRecord(String kind, Class<?> objectType, long handle) {
         this.kind = kind;
@@ -40,6 +41,7 @@ public class OperationRecord {
                 ", startTime=" + new Date(startTime) +
                 ", totalTime=" + totalTime +
                 ", wastedTime=" + wastedTime +
+                (pageSize != null ? ", pageSize=" + pageSize : "") +
                 '}';
     }
 
@@ -103,4 +105,12 @@ public class OperationRecord {
     public void setWastedTime(long wastedTime) {
         this.wastedTime = wastedTime;
     }
+
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
 }
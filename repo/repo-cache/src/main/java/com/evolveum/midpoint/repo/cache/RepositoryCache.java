@@ -64,6 +64,7 @@ public class RepositoryCache implements RepositoryService, Cache {
     public static final String OP_COUNT_REFERENCES_IMPL = CLASS_NAME_WITH_DOT + OP_COUNT_REFERENCES;
     public static final String OP_SEARCH_REFERENCES_IMPL = CLASS_NAME_WITH_DOT + OP_SEARCH_REFERENCES;
     public static final String OP_COUNT_OBJECTS_IMPL = CLASS_NAME_WITH_DOT + OP_COUNT_OBJECTS;
+    public static final String OP_COUNT_OBJECTS_BATCH_IMPL = CLASS_NAME_WITH_DOT + OP_COUNT_OBJECTS_BATCH;
     public static final String OP_COUNT_CONTAINERS_IMPL = CLASS_NAME_WITH_DOT + OP_COUNT_CONTAINERS;
     public static final String OP_SEARCH_CONTAINERS_IMPL = CLASS_NAME_WITH_DOT + OP_SEARCH_CONTAINERS;
     private static final String OP_EXECUTE_QUERY_DIAGNOSTICS_IMPL = CLASS_NAME_WITH_DOT + OP_EXECUTE_QUERY_DIAGNOSTICS;
@@ -177,6 +178,13 @@ public class RepositoryCache implements RepositoryService, Cache {
         return searchOpHandler.countObjects(type, query, options, parentResult);
     }
 
+    @Override
+    public <T extends ObjectType> @NotNull List<Integer> countObjectsBatch(@NotNull Class<T> type,
+            @NotNull List<ObjectQuery> queries, @Nullable Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull OperationResult parentResult) throws SchemaException {
+        return searchOpHandler.countObjectsBatch(type, queries, options, parentResult);
+    }
+
     @Override
     public <T extends Containerable> int countContainers(Class<T> type, ObjectQuery query,
             Collection<SelectorOptions<GetOperationOptions>> options, OperationResult parentResult) {
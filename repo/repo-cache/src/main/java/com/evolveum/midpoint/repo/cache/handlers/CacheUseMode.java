@@ -13,6 +13,7 @@ import java.util.Collection;
 
 import com.evolveum.midpoint.prism.path.ItemPath;
 import com.evolveum.midpoint.prism.path.PathSet;
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
 
 import org.jetbrains.annotations.NotNull;
@@ -39,6 +40,10 @@ import com.evolveum.midpoint.schema.SelectorOptions;
  *
  * - or that we can use the data from the object cache only if it's complete, like when having {@link RetrieveOptionType#INCLUDE}
  * option; {@link #cachedDataUse} is {@link CachedDataUse#ONLY_IF_COMPLETE}.
+ *
+ * - or that we can use the cached data, but we cannot update the caches, because the data may come from a read replica
+ * (see {@link ReadReplicaRouting}), so they may be stale - and the caches are used also by the code that needs
+ * the current data.
  */
 class CacheUseMode {
 
@@ -72,7 +77,8 @@ class CacheUseMode {
         INCLUDE_OPTION_PRESENT,
         EXCLUDE_OPTION_PRESENT,
         UNTYPED_OPERATION,
-        ZERO_STALENESS_REQUESTED
+        ZERO_STALENESS_REQUESTED,
+        READ_REPLICA_POSSIBLE
     }
 
     /** Whether we can use the data from the cache. */
@@ -165,6 +171,16 @@ class CacheUseMode {
      * Main entry point. By looking at situation we determine if there's a reason to pass the cache.
      */
     static @NotNull CacheUseMode determine(Collection<SelectorOptions<GetOperationOptions>> options, Class<?> objectType) {
+        CacheUseMode mode = determineFromOptions(options, objectType);
+        if (mode.canUpdateAtLeastOneCache() && ReadReplicaRouting.mayReadFromReplica(objectType)) {
+            return mode.withoutUpdates(READ_REPLICA_POSSIBLE);
+        } else {
+            return mode;
+        }
+    }
+
+    private static @NotNull CacheUseMode determineFromOptions(
+            Collection<SelectorOptions<GetOperationOptions>> options, Class<?> objectType) {
         if (alwaysNotCacheable(objectType)) {
             return pass(NOT_CACHEABLE_TYPE);
         }
@@ -239,6 +255,16 @@ class CacheUseMode {
         return new CacheUseMode(reason, comment, cachedDataUse, canUpdateObjectCache, canUpdateVersionCache, canUpdateQueryCache);
     }
 
+    /** The same mode, except that no cache can be updated. */
+    private @NotNull CacheUseMode withoutUpdates(@NotNull PassReasonType additionalReason) {
+        if (reason == null) {
+            return new CacheUseMode(additionalReason, comment, cachedDataUse, false, false, false);
+        } else {
+            String newComment = (comment != null ? comment + ", " : "") + additionalReason;
+            return new CacheUseMode(reason, newComment, cachedDataUse, false, false, false);
+        }
+    }
+
     /**
      * Main reason of cache pass:
      *
@@ -17,6 +17,7 @@ import static com.evolveum.midpoint.schema.util.TraceUtil.isAtLeastMinimal;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.evolveum.midpoint.repo.cache.values.CachedQueryValue;
 
@@ -502,6 +503,28 @@ public class SearchOpHandler extends CachedOpHandler {
         }
     }
 
+    public <T extends ObjectType> @NotNull List<Integer> countObjectsBatch(@NotNull Class<T> type,
+            @NotNull List<ObjectQuery> queries, Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull OperationResult parentResult) throws SchemaException {
+        OperationResult result = parentResult.subresult(RepositoryCache.OP_COUNT_OBJECTS_BATCH_IMPL)
+                .addQualifier(type.getSimpleName())
+                .addParam("type", type)
+                .addParam("queries", queries.size())
+                .addArbitraryObjectCollectionAsParam("options", options)
+                .build();
+        MonitoringUtil.log("Cache: PASS countObjectsBatch ({})", false, type.getSimpleName());
+        Long startTime = repoOpStart();
+        try {
+            return repositoryService.countObjectsBatch(type, queries, options, result);
+        } catch (Throwable t) {
+            result.recordFatalError(t);
+            throw t;
+        } finally {
+            repoOpEnd(startTime);
+            result.computeStatusIfUnknown();
+        }
+    }
+
     private record CachedObject<T extends ObjectType>(PrismObject<T> object, boolean complete) {
 
         static <T extends ObjectType> CachedObject<T> of(@NotNull PrismObject<? extends ObjectType> object, boolean complete) {
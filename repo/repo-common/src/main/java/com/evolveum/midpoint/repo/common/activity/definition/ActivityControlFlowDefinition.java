@@ -6,6 +6,8 @@
 
 package com.evolveum.midpoint.repo.common.activity.definition;
 
+import javax.xml.datatype.Duration;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -77,4 +79,16 @@ public class ActivityControlFlowDefinition implements DebugDumpable, Cloneable {
     public @Nullable ExpressionType getBucketProcessingCondition() {
         return bean.getBucketProcessingCondition();
     }
+
+    public @Nullable Duration getIterationCheckpointInterval() {
+        return bean.getIterationCheckpointInterval();
+    }
+
+    public boolean isParallelExecution() {
+        return Boolean.TRUE.equals(bean.isParallelExecution());
+    }
+
+    public @Nullable String getSharedSource() {
+        return bean.getSharedSource();
+    }
 }
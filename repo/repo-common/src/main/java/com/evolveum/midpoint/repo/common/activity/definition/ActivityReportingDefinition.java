@@ -18,6 +18,7 @@ import org.jetbrains.annotations.Nullable;
 import com.evolveum.axiom.concepts.Lazy;
 import com.evolveum.midpoint.prism.Containerable;
 import com.evolveum.midpoint.repo.common.activity.run.ActivityReportingCharacteristics;
+import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.util.DebugDumpable;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
 
@@ -198,6 +199,11 @@ public class ActivityReportingDefinition implements DebugDumpable, Cloneable {
         }
     }
 
+    /** Whether the item operation results should be created in the lightweight mode, see {@link OperationResult#lightweight()}. */
+    public boolean isLightweightOperationResults() {
+        return Boolean.TRUE.equals(bean.isLightweightOperationResults());
+    }
+
     /** Are we explicitly instructed to create or not create the simulation result? */
     Boolean getExplicitSimulationResultCreationInstruction() {
         var resultDef = bean.getSimulationResult();
@@ -39,7 +39,7 @@ import static com.evolveum.midpoint.repo.common.activity.ActivityRunResultStatus
  * Responsibilities:
  *
  * 1. create and initialize all child runs,
- * 2. execute children, honoring the control flow definition (this is not implemented yet!),
+ * 2. execute children, honoring the control flow definition (only `parallelExecution` is implemented for now),
  * 3. derive composite run result from partial (children) run results.
  *
  * Note: Do not extend this class by subclassing unless really necessary.
@@ -114,10 +114,17 @@ public abstract class AbstractCompositeActivityRun<
         getTreeStateOverview().recordChildren(this, children, result);
     }
 
-    /** Executes child activities. */
+    /**
+     * Executes child activities.
+     *
+     * If parallel execution is configured, a child that waits for its subtask does not prevent the following children
+     * from being started; so all the children delegated to subtasks run at once. The children executed locally are still
+     * executed one after another.
+     */
     private void executeChildren(Collection<Activity<?, ?>> children, OperationResult result)
             throws ActivityRunException {
 
+        boolean parallel = activity.getControlFlowDefinition().isParallelExecution();
         List<ActivityRunResult> childResults = new ArrayList<>();
         // Result of a child that was not finished but also not aborted.
         // It is to be propagated to the composite run result.
@@ -160,6 +167,11 @@ public abstract class AbstractCompositeActivityRun<
             }
             if (!childRunResult.isFinished()) {
                 unfinishedChildResult = childRunResult;
+                if (parallel && childRunResult.isWaiting() && canRun()) {
+                    LOGGER.debug("Child activity '{}' is waiting, continuing with the next one (parallel execution)",
+                            child.getPath());
+                    continue;
+                }
                 break;
             }
         }
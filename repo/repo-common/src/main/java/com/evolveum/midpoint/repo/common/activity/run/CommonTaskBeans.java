@@ -14,6 +14,7 @@ import com.evolveum.midpoint.repo.common.activity.ActivityListener;
 import com.evolveum.midpoint.repo.common.activity.TaskActivityManager;
 import com.evolveum.midpoint.repo.common.activity.definition.WorkDefinitionFactory;
 import com.evolveum.midpoint.repo.common.activity.run.sources.RepositoryItemSourceFactory;
+import com.evolveum.midpoint.repo.common.activity.run.sources.SharedSearchHub;
 import com.evolveum.midpoint.repo.common.activity.handlers.ActivityHandlerRegistry;
 import com.evolveum.midpoint.repo.common.expression.ExpressionFactory;
 import com.evolveum.midpoint.repo.common.activity.run.buckets.BucketingManager;
@@ -67,6 +68,7 @@ public class CommonTaskBeans {
     @Autowired public BucketContentFactoryGenerator contentFactoryCreator;
     @Autowired public ExpressionFactory expressionFactory;
     @Autowired public RepositoryItemSourceFactory repositoryItemSourceFactory;
+    @Autowired public SharedSearchHub sharedSearchHub;
 
     @Autowired(required = false) public List<ActivityListener> activityListeners;
 
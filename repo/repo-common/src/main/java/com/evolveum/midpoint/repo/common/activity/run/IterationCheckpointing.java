@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.prism.PrismConstants;
+import com.evolveum.midpoint.prism.PrismContext;
+import com.evolveum.midpoint.prism.query.ObjectQuery;
+import com.evolveum.midpoint.prism.xml.XmlTypeConverter;
+import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
+import com.evolveum.midpoint.repo.common.activity.run.state.CurrentActivityState;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.ObjectQueryUtil;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ActivityIterationCheckpointType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.QualifiedItemProcessingOutcomeType;
+
+/**
+ * Records and applies iteration checkpoints for {@link SearchBasedActivityRun}: the OIDs of objects up to which (inclusive)
+ * all objects in the current bucket were processed. When the bucket processing is resumed, the query is narrowed
+ * to start after the checkpoint.
+ *
+ * Relies on the fact that the repository iterates over objects in the ascending OID order (if there is no explicit ordering),
+ * so the checkpoint is the OID of the last object of the longest prefix of the submitted items that were all processed.
+ * (The items can be processed by multiple worker threads, so they can be completed out of order.)
+ *
+ * The checkpoint never moves past an item that is not processed yet, or after which the processing is to be stopped.
+ * Such items (and all the items after them) will be processed again when the activity is resumed. Items that failed
+ * but the processing continued after them are treated as processed: they do not block the completion of the bucket
+ * either, and they are covered by the failed objects retry (if configured).
+ *
+ * The progress of the items included in the checkpoint is committed along with it; the progress of the items after
+ * the checkpoint stays uncommitted, and is discarded on resume. (The item processing statistics count each processing
+ * of an item, as they do when a bucket is processed again.)
+ *
+ * The checkpoint is written into the task when the activity statistics are (see
+ * {@link IterativeActivityRun#beforeStatisticsUpdate()}), so it is stored together with the progress, by the same
+ * repository update; and when the processing of the bucket ends without completing it.
+ *
+ * See `iterationCheckpointInterval` in `ActivityControlFlowDefinitionType`.
+ */
+class IterationCheckpointing {
+
+    private static final Trace LOGGER = TraceManager.getTrace(IterationCheckpointing.class);
+
+    @NotNull private final CurrentActivityState<?> activityState;
+    private final int bucketSequentialNumber;
+    private final long intervalMillis;
+
+    /**
+     * OIDs of the submitted items that were not processed yet (or after which the processing is to be stopped),
+     * keyed by the item sequential number. The first of them blocks the checkpoint. Guarded by: this.
+     */
+    private final NavigableMap<Integer, String> blocking = new TreeMap<>();
+
+    /** Processed items that are not included in the checkpoint yet, keyed by the item sequential number. Guarded by: this. */
+    private final NavigableMap<Integer, ProcessedItem> processed = new TreeMap<>();
+
+    /** The OID of the last object of the processed prefix of the submitted items. Guarded by: this. */
+    private String checkpointOid;
+
+    /** The OID that was written into the task as the checkpoint most recently. Guarded by: this. */
+    private String writtenCheckpointOid;
+
+    /** Guarded by: this. */
+    private long lastWrittenTimestamp = System.currentTimeMillis();
+
+    IterationCheckpointing(@NotNull CurrentActivityState<?> activityState, int bucketSequentialNumber, long intervalMillis) {
+        this.activityState = activityState;
+        this.bucketSequentialNumber = bucketSequentialNumber;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /** Narrows the query to skip the objects that were processed before the last checkpoint (if there's one). */
+    synchronized <T extends ObjectType> ObjectQuery narrowQuery(@NotNull Class<T> type, ObjectQuery query) {
+        ActivityIterationCheckpointType checkpoint = activityState.getIterationCheckpoint();
+        if (checkpoint == null || checkpoint.getLastProcessedOid() == null) {
+            return query;
+        }
+        if (checkpoint.getBucketSequentialNumber() == null
+                || checkpoint.getBucketSequentialNumber() != bucketSequentialNumber) {
+            LOGGER.debug("Ignoring iteration checkpoint for a different bucket: {}", checkpoint);
+            return query;
+        }
+        String lastProcessedOid = checkpoint.getLastProcessedOid();
+        LOGGER.info("Resuming the processing of bucket #{} after the object with OID {} (checkpoint recorded at {})",
+                bucketSequentialNumber, lastProcessedOid, checkpoint.getTimestamp());
+        writtenCheckpointOid = checkpointOid = lastProcessedOid;
+        return ObjectQueryUtil.addConjunctions(
+                query,
+                PrismContext.get().queryFor(type)
+                        .item(PrismConstants.T_ID).gt(lastProcessedOid)
+                        .buildFilter());
+    }
+
+    /** Must be called before the request is submitted, in the order of the iteration. */
+    synchronized void onSubmitting(@NotNull ItemProcessingRequest<?> request, @NotNull String oid) {
+        blocking.put(request.getSequentialNumber(), oid);
+    }
+
+    /**
+     * Items after which the processing is to be stopped remain blocking. Failed items after which the processing
+     * continues do not, otherwise a single failure would stop the checkpoint for the rest of the bucket.
+     */
+    synchronized void onProcessed(
+            @NotNull ItemProcessingRequest<?> request, @NotNull QualifiedItemProcessingOutcomeType outcome, boolean canContinue) {
+        int sequentialNumber = request.getSequentialNumber();
+        String oid = blocking.get(sequentialNumber);
+        if (oid != null && canContinue) {
+            blocking.remove(sequentialNumber);
+            processed.put(sequentialNumber, new ProcessedItem(oid, outcome));
+        }
+    }
+
+    /**
+     * Writes the checkpoint (if the interval has elapsed, and the processing moved forward) into the task, along with
+     * the progress of the items included in it. Does not flush the modifications: this is called just before
+     * the statistics are stored in the repository.
+     */
+    synchronized void updateIfDue() throws ActivityRunException {
+        if (System.currentTimeMillis() - lastWrittenTimestamp >= intervalMillis) {
+            update();
+        }
+    }
+
+    /**
+     * Writes the checkpoint (if the processing moved forward) into the task along with the progress, and flushes
+     * the modifications. Called from the coordinator thread when the processing of the bucket is over.
+     */
+    synchronized void store(OperationResult result) throws ActivityRunException {
+        if (update()) {
+            activityState.updateProgressNoCommit();
+            activityState.flushPendingTaskModificationsChecked(result);
+        }
+    }
+
+    private boolean update() throws ActivityRunException {
+        lastWrittenTimestamp = System.currentTimeMillis();
+        moveCheckpoint();
+        if (checkpointOid == null || checkpointOid.equals(writtenCheckpointOid)) {
+            return false;
+        }
+        LOGGER.debug("Writing iteration checkpoint for bucket #{}: {}", bucketSequentialNumber, checkpointOid);
+        activityState.setIterationCheckpoint(
+                new ActivityIterationCheckpointType()
+                        .bucketSequentialNumber(bucketSequentialNumber)
+                        .lastProcessedOid(checkpointOid)
+                        .timestamp(XmlTypeConverter.createXMLGregorianCalendar(lastWrittenTimestamp)));
+        writtenCheckpointOid = checkpointOid;
+        return true;
+    }
+
+    /** Moves the checkpoint after the processed prefix of the submitted items, committing their progress. */
+    private void moveCheckpoint() {
+        NavigableMap<Integer, ProcessedItem> processedPrefix =
+                blocking.isEmpty() ? processed : processed.headMap(blocking.firstKey(), false);
+        if (processedPrefix.isEmpty()) {
+            return;
+        }
+        var progress = activityState.getLiveProgress();
+        for (ProcessedItem item : processedPrefix.values()) {
+            progress.commitItem(item.outcome);
+        }
+        checkpointOid = processedPrefix.lastEntry().getValue().oid;
+        processedPrefix.clear();
+    }
+
+    /** The bucket is complete, so the checkpoint is no longer relevant. */
+    synchronized void clear(OperationResult result) throws ActivityRunException {
+        if (writtenCheckpointOid != null) {
+            activityState.setIterationCheckpoint(null);
+            activityState.flushPendingTaskModificationsChecked(result);
+            writtenCheckpointOid = null;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "IterationCheckpointing{bucket=" + bucketSequentialNumber + ", checkpointOid=" + checkpointOid + "}";
+    }
+
+    private record ProcessedItem(@NotNull String oid, @NotNull QualifiedItemProcessingOutcomeType outcome) {
+    }
+}
@@ -11,10 +11,12 @@ import static com.evolveum.midpoint.schema.result.OperationResultStatus.FATAL_ER
 import static com.evolveum.midpoint.schema.result.OperationResultStatus.PARTIAL_ERROR;
 import static com.evolveum.midpoint.schema.util.task.ActivityItemProcessingStatisticsUtil.*;
 
+import java.util.List;
 import java.util.Objects;
 
 import com.evolveum.midpoint.prism.xml.XmlTypeConverter;
 
+import com.evolveum.midpoint.repo.common.activity.run.processing.BatchedItem;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ProcessingCoordinator;
 import com.evolveum.midpoint.repo.common.expression.ExpressionUtil;
@@ -462,6 +464,8 @@ public abstract class IterativeActivityRun<
 
         boolean complete = canRun() && !errorState.wasImmediateStopRequested();
 
+        onItemsInBucketProcessed(complete, result);
+
         new StatisticsLogger(this)
                 .logBucketCompletion(complete);
 
@@ -617,6 +621,34 @@ public abstract class IterativeActivityRun<
      */
     protected abstract void iterateOverItemsInBucket(OperationResult result) throws CommonException;
 
+    /**
+     * Called when an item was processed, just before the respective request is acknowledged. Not called if the processing
+     * was interrupted or failed unexpectedly. May be called from worker threads.
+     *
+     * @param outcome The outcome of the processing; the progress was already incremented by it.
+     * @param canContinue False if the processing of the bucket is going to be stopped after this item.
+     */
+    public void onItemProcessed(
+            @NotNull ItemProcessingRequest<I> request, @NotNull QualifiedItemProcessingOutcomeType outcome, boolean canContinue) {
+    }
+
+    /**
+     * Called just before the progress and statistics are written into the task in order to be stored in the repository,
+     * see {@link #updateStatistics(boolean, OperationResult)}. Anything written into the activity state here is stored
+     * along with them. May be called from worker threads, but not concurrently.
+     */
+    protected void beforeStatisticsUpdate() throws ActivityRunException {
+    }
+
+    /**
+     * Called after the items in the current bucket were processed (or their processing was stopped), and all the worker
+     * threads were finished; but before the bucket is marked as complete.
+     *
+     * @param complete True if the bucket is going to be marked as complete.
+     */
+    protected void onItemsInBucketProcessed(boolean complete, OperationResult result) throws ActivityRunException {
+    }
+
     /**
      * Creates the processing coordinator and worker threads.
      */
@@ -730,6 +762,7 @@ public abstract class IterativeActivityRun<
     private Runnable getActivityStatUpdater() {
         return () -> {
             try {
+                beforeStatisticsUpdate();
                 activityState.updateProgressAndStatisticsNoCommit();
             } catch (ActivityRunException e) {
                 LoggingUtils.logUnexpectedException(LOGGER, "Couldn't update activity statistics in the task {}", e,
@@ -746,6 +779,69 @@ public abstract class IterativeActivityRun<
     public abstract boolean processItem(@NotNull ItemProcessingRequest<I> request, @NotNull RunningTask workerTask,
             OperationResult result) throws ActivityRunException, CommonException;
 
+    /**
+     * Maximal number of items that are to be processed together by
+     * {@link #processItemBatch(List, RunningTask, OperationResult)}. The default value of 1 means that the items
+     * are processed one by one using {@link #processItem(ItemProcessingRequest, RunningTask, OperationResult)}.
+     *
+     * Activities that can process the items more efficiently together (e.g. by doing bulk repository operations)
+     * should override this method as well as the batch processing method.
+     */
+    protected int getItemBatchSize() {
+        return 1;
+    }
+
+    /**
+     * The batch size that is actually used. Item-level tracing and profiling, item-related ConnId and internal
+     * operations reports, and synchronization statistics need the items to be processed individually,
+     * so the batching is not used if any of these is needed.
+     */
+    public final int getEffectiveItemBatchSize() {
+        int configured = getItemBatchSize();
+        if (configured <= 1) {
+            return 1;
+        }
+        var reportingDefinition = getReportingDefinition();
+        if (getReportingCharacteristics().areSynchronizationStatisticsSupported()
+                || shouldReportConnIdOperations()
+                || shouldReportInternalOperations()
+                || reportingDefinition.getProfilingConfiguration() != null
+                || !reportingDefinition.getTracingConfigurationsSorted().isEmpty()
+                || getRunningTask().isTracingRequestedFor(TracingRootType.ACTIVITY_ITEM_PROCESSING)) {
+            LOGGER.debug("{}: Not processing items in batches because item-level reporting, tracing, "
+                    + "or synchronization statistics are needed", shortName);
+            return 1;
+        }
+        return configured;
+    }
+
+    /**
+     * Processes a batch of items. Called only if {@link #getEffectiveItemBatchSize()} is greater than 1.
+     *
+     * The outcome of each item should be recorded in its own operation result (see {@link BatchedItem#result()}).
+     * The results must not be closed here. If an exception is thrown, it is considered to be the outcome of all
+     * the items whose results were not set.
+     *
+     * The item-level duties (statistics, error handling, reports, acknowledgements) are carried out by the caller,
+     * just like for individually processed items.
+     *
+     * The default implementation simply processes the items one after another.
+     *
+     * @return false if the processing should stop
+     */
+    public boolean processItemBatch(@NotNull List<BatchedItem<I>> items, @NotNull RunningTask workerTask,
+            OperationResult result) throws ActivityRunException, CommonException {
+        boolean canContinue = true;
+        for (BatchedItem<I> item : items) {
+            try {
+                canContinue = processItem(item.request(), workerTask, item.result()) && canContinue;
+            } catch (Throwable t) {
+                item.result().recordFatalError(t);
+            }
+        }
+        return canContinue;
+    }
+
     @Override
     protected final @NotNull ActivityState determineActivityStateForThresholds(@NotNull OperationResult result)
             throws SchemaException, ObjectNotFoundException {
@@ -9,19 +9,24 @@ package com.evolveum.midpoint.repo.common.activity.run;
 import com.evolveum.midpoint.prism.Containerable;
 import com.evolveum.midpoint.prism.query.ObjectFilter;
 import com.evolveum.midpoint.prism.query.ObjectQuery;
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
+import com.evolveum.midpoint.repo.common.activity.Activity;
 import com.evolveum.midpoint.repo.common.activity.definition.ObjectSetSpecification;
 import com.evolveum.midpoint.repo.common.activity.definition.RepositoryObjectSetSpecificationImpl;
 import com.evolveum.midpoint.repo.common.activity.definition.ResourceObjectSetSpecificationImpl;
 import com.evolveum.midpoint.repo.common.activity.definition.WorkDefinition;
+import com.evolveum.midpoint.repo.common.activity.run.processing.BatchedItem;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ContainerableProcessingRequest;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemPreprocessor;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
 import com.evolveum.midpoint.repo.common.activity.run.sources.SearchableItemSource;
+import com.evolveum.midpoint.repo.common.activity.run.sources.SharedSearchHub;
 import com.evolveum.midpoint.repo.common.activity.handlers.ActivityHandler;
 import com.evolveum.midpoint.repo.common.expression.ExpressionUtil;
 import com.evolveum.midpoint.schema.*;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.schema.util.ObjectQueryUtil;
+import com.evolveum.midpoint.schema.util.task.BucketingUtil;
 import com.evolveum.midpoint.task.api.RunningTask;
 import com.evolveum.midpoint.task.api.TaskManager;
 import com.evolveum.midpoint.util.DebugUtil;
@@ -33,7 +38,10 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -69,6 +77,10 @@ import static java.util.Objects.requireNonNull;
  *   a. checking for already-processed objects (OIDs seen),
  *   b. applying additional filter (currently used for retrying failed objects),
  *   c. applying additional pre-processing to objects (currently used for retrying failed objects),
+ *
+ * 5. Recording iteration checkpoints (if configured), and resuming the search from them - see {@link IterationCheckpointing}.
+ *
+ * 6. Sharing the search with sibling activities (if configured) - see {@link SharedSearchHub}.
  */
 public abstract class SearchBasedActivityRun<
         C extends Containerable,
@@ -115,11 +127,20 @@ public abstract class SearchBasedActivityRun<
      */
     private final Set<String> oidsSeen = ConcurrentHashMap.newKeySet();
 
+    /**
+     * Records the iteration checkpoints for the current bucket, if applicable.
+     * See {@link #createIterationCheckpointingIfApplicable(OperationResult)}.
+     */
+    private IterationCheckpointing iterationCheckpointing;
+
     /**
      * Provides numbers for {@link ItemProcessingRequest} objects.
      */
     @NotNull private final AtomicInteger sequentialNumberCounter = new AtomicInteger(0);
 
+    /** Did we tell the other members of the shared search (if configured) that we search separately? */
+    private boolean sharedSearchDeclined;
+
     public SearchBasedActivityRun(@NotNull ActivityRunInstantiationContext<WD, AH> context,
             @NotNull String shortNameCapitalized) {
         super(context, shortNameCapitalized);
@@ -138,6 +159,7 @@ public abstract class SearchBasedActivityRun<
         narrowQueryForBucketingAndErrorHandling();
         resolveExpressionsInQuery(result);
         applyDefinitionsToQuery(result);
+        narrowQueryToResumeFromCheckpoint(result);
 
         LOGGER.trace("{}: will do the following search (in bucket: {}):\n{}",
                 shortName, bucket, DebugUtil.debugDumpLazily(searchSpecification));
@@ -338,6 +360,46 @@ public abstract class SearchBasedActivityRun<
         }
     }
 
+    private void narrowQueryToResumeFromCheckpoint(OperationResult result) throws CommonException, ActivityRunException {
+        if (bucket == null) {
+            return; // we are determining the overall size
+        }
+        iterationCheckpointing = createIterationCheckpointingIfApplicable(result);
+        if (iterationCheckpointing != null) {
+            //noinspection unchecked,rawtypes
+            searchSpecification.setQuery(
+                    iterationCheckpointing.narrowQuery((Class) getItemType(), searchSpecification.getQuery()));
+            LOGGER.trace("{}: using a query (after applying iteration checkpoint):\n{}",
+                    shortName, DebugUtil.debugDumpLazily(searchSpecification.getQuery()));
+        }
+    }
+
+    /**
+     * Iteration checkpoints are used only if configured, and only if the objects are guaranteed to come in the ascending
+     * OID order, and the whole bucket is processed in this task. The simulation results are committed only for complete
+     * buckets, so we do not use checkpoints in simulations.
+     */
+    private @Nullable IterationCheckpointing createIterationCheckpointingIfApplicable(OperationResult result)
+            throws CommonException, ActivityRunException {
+        var interval = getActivityDefinition().getControlFlowDefinition().getIterationCheckpointInterval();
+        if (interval == null) {
+            return null;
+        }
+        ObjectQuery query = searchSpecification.getQuery();
+        if (!ObjectType.class.isAssignableFrom(getItemType())
+                || !isInRepository(result)
+                || query != null && query.getPaging() != null
+                || GetOperationOptions.getIterationMethod(SelectorOptions.findRootOptions(getSearchOptions())) != null
+                || BucketingUtil.hasLimitations(bucket)
+                || isWorker()
+                || !getTaskExecutionMode().isFullyPersistent()) {
+            LOGGER.debug("Iteration checkpoints are not applicable to {}, not using them", this);
+            return null;
+        }
+        return new IterationCheckpointing(
+                getActivityState(), bucket.getSequentialNumber(), interval.getTimeInMillis(new Date()));
+    }
+
     private boolean searchesResourceObjects() {
         return searchSpecification.concernsShadows() &&
                 !searchSpecification.isUseRepository() &&
@@ -380,13 +442,30 @@ public abstract class SearchBasedActivityRun<
             throws CommonException, ActivityRunException {
         assert bucket == null;
         prepareSearchSpecificationAndSearchableItemSource(result);
-        return countObjects(result);
+        try (var ignored = enterReadReplicaScope()) {
+            return countObjects(result);
+        }
     }
 
     @Override
     public final @Nullable Integer determineCurrentBucketSize(OperationResult result) throws CommonException {
         assert bucket != null;
-        return countObjects(result);
+        try (var ignored = enterReadReplicaScope()) {
+            return countObjects(result);
+        }
+    }
+
+    /**
+     * Returns the caller (see {@link ReadReplicaRouting}) under which the search and count operations of this activity
+     * may be routed to repository read replicas; `null` (the default) means they always go to the primary database.
+     */
+    protected @Nullable String getReadReplicaCaller() {
+        return null;
+    }
+
+    private @Nullable ReadReplicaRouting.Scope enterReadReplicaScope() {
+        String caller = getReadReplicaCaller();
+        return caller != null ? ReadReplicaRouting.allowReplicaReads(caller) : null;
     }
 
     /**
@@ -418,13 +497,51 @@ public abstract class SearchBasedActivityRun<
     public final boolean processItem(@NotNull ItemProcessingRequest<C> request, @NotNull RunningTask workerTask,
             OperationResult result) throws CommonException, ActivityRunException {
 
+        C preprocessedItem = checkAndPreprocessItem(request, workerTask, result);
+        if (preprocessedItem == null) {
+            return true; // continue working
+        }
+        return processItem(preprocessedItem, request, workerTask, result);
+    }
+
+    /** The same as {@link #processItem(ItemProcessingRequest, RunningTask, OperationResult)} but for a batch of items. */
+    @Override
+    public final boolean processItemBatch(@NotNull List<BatchedItem<C>> items, @NotNull RunningTask workerTask,
+            OperationResult result) throws CommonException, ActivityRunException {
+
+        List<BatchedItem<C>> preprocessedItems = new ArrayList<>(items.size());
+        for (BatchedItem<C> item : items) {
+            try {
+                C preprocessedItem = checkAndPreprocessItem(item.request(), workerTask, item.result());
+                if (preprocessedItem != null) {
+                    preprocessedItems.add(item.withItem(preprocessedItem));
+                }
+            } catch (Throwable t) {
+                item.result().recordFatalError(t);
+            }
+        }
+        if (preprocessedItems.isEmpty()) {
+            return true; // continue working
+        }
+        return processItems(preprocessedItems, workerTask, result);
+    }
+
+    /**
+     * Checks whether the item should be processed, and preprocesses it, if needed.
+     *
+     * @return The item to be processed, or null if it should not be processed. In the latter case, the outcome
+     * is already recorded in the result.
+     */
+    private @Nullable C checkAndPreprocessItem(@NotNull ItemProcessingRequest<C> request, @NotNull RunningTask workerTask,
+            OperationResult result) throws CommonException {
+
         C item = request.getItem();
         String oid = request.getItemOid();
         if (oid != null) {
             if (!checkAndRegisterOid(oid)) {
                 LOGGER.trace("Skipping OID that has been already seen: {}", oid);
                 result.recordStatus(NOT_APPLICABLE, "Object has been already seen");
-                return true; // continue working
+                return null;
             }
         } else {
             LOGGER.trace("No OID for the item");
@@ -433,7 +550,7 @@ public abstract class SearchBasedActivityRun<
         if (filteredOutByAdditionalFilter(request)) {
             LOGGER.trace("Request {} filtered out by additional filter", request);
             result.recordStatus(NOT_APPLICABLE, "Filtered out by additional filter");
-            return true; // continue working
+            return null;
         }
 
         OperationResultType originalFetchResult = getFetchResult(item);
@@ -441,12 +558,12 @@ public abstract class SearchBasedActivityRun<
             // We assume that if there's a fetch result, then the corresponding item (most probably shadow)
             // was not retrieved successfully. So instead of regular processing we process it as an error.
             // (Maybe we could check if the result is really an error. Will do that some day.)
-            return processError(originalFetchResult, result);
+            processError(originalFetchResult, result);
+            return null;
         }
 
         // The item was retrieved OK. Let's process it.
-        C preprocessedItem = preprocessItem(request, workerTask, result);
-        return processItem(preprocessedItem, request, workerTask, result);
+        return preprocessItem(request, workerTask, result);
     }
 
     private OperationResultType getFetchResult(C item) {
@@ -473,12 +590,11 @@ public abstract class SearchBasedActivityRun<
         }
     }
 
-    private boolean processError(@NotNull OperationResultType errorFetchResult, OperationResult result) {
+    private void processError(@NotNull OperationResultType errorFetchResult, OperationResult result) {
         result.recordFatalError("Error in preprocessing: " + errorFetchResult.getMessage());
-        // We can return true here, as the "can continue" flag is updated by item processing gatekeeper
+        // We can continue here, as the "can continue" flag is updated by item processing gatekeeper
         // based on the error severity. Unfortunately, the exception as such is lost when the operation
         // result was converted from native form to a bean to be stored in the object.
-        return true;
     }
 
     /**
@@ -488,19 +604,104 @@ public abstract class SearchBasedActivityRun<
         ContainerableResultHandler<C> handler = (object, parentResult) -> {
             ItemProcessingRequest<C> request =
                     ContainerableProcessingRequest.create(sequentialNumberCounter.getAndIncrement(), object, this);
+            if (iterationCheckpointing != null) {
+                iterationCheckpointing.onSubmitting(request, requireNonNull(request.getItemOid()));
+            }
             return coordinator.submit(request, parentResult);
         };
 
         var task = getRunningTask();
         boolean tracingRequested = false;
-        try {
+        try (var ignored = enterReadReplicaScope()) {
             tracingRequested = requestSearchTracingIfNeeded(task);
-            searchableItemSource.searchIterative(searchSpecification, handler, task, result);
+            var sharedSearchGroupKey = determineSharedSearchGroupKey();
+            if (sharedSearchGroupKey != null) {
+                beans.sharedSearchHub.searchIterative(
+                        sharedSearchGroupKey, activity.getPath(), countSharedSearchMembers(), searchableItemSource,
+                        searchSpecification, handler, task, result);
+            } else {
+                searchableItemSource.searchIterative(searchSpecification, handler, task, result);
+            }
         } finally {
             removeSearchTracingRequest(tracingRequested, task);
         }
     }
 
+    /**
+     * The search is shared only if configured, and only if the sibling activities run in parallel (in their own subtasks),
+     * and the objects are guaranteed to come in the ascending OID order (see {@link SharedSearchHub}).
+     *
+     * If the search cannot be shared, the other members are told so, in order not to wait for this activity.
+     */
+    private @Nullable SharedSearchHub.GroupKey determineSharedSearchGroupKey() {
+        String sharedSource = getActivityDefinition().getControlFlowDefinition().getSharedSource();
+        if (sharedSource == null) {
+            return null;
+        }
+        Activity<?, ?> parent = activity.getParent();
+        if (parent == null) {
+            LOGGER.debug("Shared source '{}' is not applicable to {} (no parent), searching for objects separately",
+                    sharedSource, this);
+            return null;
+        }
+        var groupKey = new SharedSearchHub.GroupKey(getRunningTask().getRootTaskOid(), parent.getPath(), sharedSource);
+        ObjectQuery query = searchSpecification.getQuery();
+        if (!parent.getControlFlowDefinition().isParallelExecution()
+                || !activity.isLocalRoot()
+                || !ObjectType.class.isAssignableFrom(getItemType())
+                || searchesResourceObjects()
+                || query != null && query.getPaging() != null
+                || GetOperationOptions.getIterationMethod(SelectorOptions.findRootOptions(getSearchOptions())) != null
+                || BucketingUtil.hasLimitations(bucket)
+                || isWorker()) {
+            LOGGER.debug("Shared source '{}' is not applicable to {}, searching for objects separately", sharedSource, this);
+            if (!sharedSearchDeclined) {
+                beans.sharedSearchHub.decline(groupKey, activity.getPath(), countSharedSearchMembers());
+                sharedSearchDeclined = true;
+            }
+            return null;
+        }
+        return groupKey;
+    }
+
+    /**
+     * Returns the number of siblings (including this activity) configured with the same shared source; all of them
+     * are expected to arrive at the rendezvous, either to share the search, or to decline it.
+     */
+    private int countSharedSearchMembers() {
+        String sharedSource = getActivityDefinition().getControlFlowDefinition().getSharedSource();
+        return (int) requireNonNull(activity.getParent())
+                .getChildrenCopyExceptSkipped().stream()
+                .filter(sibling -> sharedSource.equals(sibling.getControlFlowDefinition().getSharedSource()))
+                .count();
+    }
+
+    @Override
+    public final void onItemProcessed(
+            @NotNull ItemProcessingRequest<C> request, @NotNull QualifiedItemProcessingOutcomeType outcome, boolean canContinue) {
+        if (iterationCheckpointing != null) {
+            iterationCheckpointing.onProcessed(request, outcome, canContinue);
+        }
+    }
+
+    @Override
+    protected final void beforeStatisticsUpdate() throws ActivityRunException {
+        if (iterationCheckpointing != null) {
+            iterationCheckpointing.updateIfDue();
+        }
+    }
+
+    @Override
+    protected final void onItemsInBucketProcessed(boolean complete, OperationResult result) throws ActivityRunException {
+        if (iterationCheckpointing != null) {
+            if (complete) {
+                iterationCheckpointing.clear(result);
+            } else {
+                iterationCheckpointing.store(result);
+            }
+        }
+    }
+
     private boolean requestSearchTracingIfNeeded(RunningTask task) {
         for (var definition : getReportingDefinition().getTracingConfigurationsSorted()) {
             if (definition.getTracingPoint().contains(TracingRootType.RETRIEVED_RESOURCE_OBJECT_PROCESSING)) {
@@ -6,8 +6,10 @@
 
 package com.evolveum.midpoint.repo.common.activity.run;
 
+import java.util.List;
 import javax.xml.namespace.QName;
 
+import com.evolveum.midpoint.repo.common.activity.run.processing.BatchedItem;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
 
 import org.jetbrains.annotations.NotNull;
@@ -97,5 +99,28 @@ public interface SearchBasedActivityRunSpecifics<C extends Containerable>
      */
     boolean processItem(@NotNull C item, @NotNull ItemProcessingRequest<C> request,
             RunningTask workerTask, OperationResult result) throws CommonException, ActivityRunException;
+
+    /**
+     * Processes given items together. Used only if the activity run declares a batch size greater than 1,
+     * see {@link IterativeActivityRun#getItemBatchSize()}.
+     *
+     * The outcome of each item should be recorded in its own result, see {@link BatchedItem#result()}.
+     * Items may have been preprocessed, like in {@link #processItem(Containerable, ItemProcessingRequest, RunningTask,
+     * OperationResult)}.
+     *
+     * The default implementation processes the items one after another.
+     */
+    default boolean processItems(@NotNull List<BatchedItem<C>> items,
+            RunningTask workerTask, OperationResult result) throws CommonException, ActivityRunException {
+        boolean canContinue = true;
+        for (BatchedItem<C> item : items) {
+            try {
+                canContinue = processItem(item.item(), item.request(), workerTask, item.result()) && canContinue;
+            } catch (Throwable t) {
+                item.result().recordFatalError(t);
+            }
+        }
+        return canContinue;
+    }
     //endregion
 }
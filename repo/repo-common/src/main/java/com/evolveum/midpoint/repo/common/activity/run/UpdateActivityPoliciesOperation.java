@@ -14,6 +14,7 @@ import com.evolveum.midpoint.prism.PrismContainer;
 import com.evolveum.midpoint.prism.delta.ItemDelta;
 import com.evolveum.midpoint.prism.path.ItemPath;
 import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.task.ActivityStateUtil;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.util.exception.ObjectAlreadyExistsException;
 import com.evolveum.midpoint.util.exception.ObjectNotFoundException;
@@ -62,7 +63,8 @@ public class UpdateActivityPoliciesOperation {
             throws SchemaException, ObjectNotFoundException, ObjectAlreadyExistsException {
 
         beans.plainRepositoryService.modifyObjectDynamically(
-                TaskType.class, task.getOid(), null, this::prepareModifications, null, result);
+                TaskType.class, task.getOid(), ActivityStateUtil.createActivityStateOnlyOptions(),
+                this::prepareModifications, null, result);
     }
 
     private @NotNull Collection<? extends ItemDelta<?, ?>> prepareModifications(TaskType task) throws SchemaException {
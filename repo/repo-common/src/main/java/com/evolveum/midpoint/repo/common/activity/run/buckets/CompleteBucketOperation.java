@@ -56,8 +56,8 @@ public class CompleteBucketOperation extends BucketOperation {
 
         LOGGER.trace("Completing work bucket #{} in {} (worker {})", sequentialNumber, coordinatorTaskOid, workerTaskOid);
         ModifyObjectResult<TaskType> modifyObjectResult =
-                plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
-                        this::computeCompletionModifications, null, result);
+                plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid,
+                        ActivityStateUtil.createActivityStateOnlyOptions(), this::computeCompletionModifications, null, result);
         bucketProgressHolder.passValue();
         statisticsKeeper.addToConflictCounts(modifyObjectResult);
         statisticsKeeper.register(BucketingConstants.COMPLETE_WORK_BUCKET);
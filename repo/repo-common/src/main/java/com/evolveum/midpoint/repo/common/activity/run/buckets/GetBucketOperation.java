@@ -140,7 +140,7 @@ public class GetBucketOperation extends BucketOperation {
 
             Holder<GetBucketOperationAttempt> lastAttemptHolder = new Holder<>();
             ModifyObjectResult<TaskType> modifyResult = plainRepositoryService.modifyObjectDynamically(TaskType.class,
-                    coordinatorTaskOid, null,
+                    coordinatorTaskOid, ActivityStateUtil.createActivityStateOnlyOptions(),
                     existingCoordinatorTask -> {
                         var coordinatorTask = existingCoordinatorTask.clone(); // todo check if the code below can change the data
                         GetBucketOperationAttempt attempt =
@@ -324,7 +324,8 @@ public class GetBucketOperation extends BucketOperation {
         Set<String> liveWorkers = getLiveWorkers(result);
         Holder<Integer> reclaimingHolder = new Holder<>(0);
 
-        plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
+        plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid,
+                ActivityStateUtil.createActivityStateOnlyOptions(),
                 task -> {
                     Collection<ItemDelta<?, ?>> modifications = new ArrayList<>();
                     ItemPath statePath = ActivityStateUtil.getStateItemPath(task.getActivityState(), activityPath);
@@ -371,7 +372,8 @@ public class GetBucketOperation extends BucketOperation {
 
     private void markScavengingIfNotYet(OperationResult result)
             throws ObjectAlreadyExistsException, ObjectNotFoundException, SchemaException {
-        plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
+        plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid,
+                ActivityStateUtil.createActivityStateOnlyOptions(),
                 task -> {
                     if (BucketingUtil.isInScavengingPhase(task.getActivityState(), activityPath)) {
                         return List.of();
@@ -387,7 +389,8 @@ public class GetBucketOperation extends BucketOperation {
     private void markWorkComplete(OperationResult result)
             throws ObjectAlreadyExistsException, ObjectNotFoundException, SchemaException {
         // We use dynamic modify only because we do not know the state item path without loading coordinator task first
-        plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
+        plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid,
+                ActivityStateUtil.createActivityStateOnlyOptions(),
                 task -> {
                     ItemPath stateItemPath = ActivityStateUtil.getStateItemPath(task.getActivityState(), activityPath);
                     return prismContext.deltaFor(TaskType.class)
@@ -52,8 +52,8 @@ public class ReleaseBucketsOperation extends BucketOperation {
 
         ModifyObjectResult<TaskType> modifyObjectResult;
         try {
-            modifyObjectResult = plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
-                    this::computeReleaseModifications, null, result);
+            modifyObjectResult = plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid,
+                    ActivityStateUtil.createActivityStateOnlyOptions(), this::computeReleaseModifications, null, result);
         } catch (ObjectAlreadyExistsException e) {
             throw new SystemException("Unexpected ObjectAlreadyExistsException: " + e.getMessage(), e);
         }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run.processing;
+
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.repo.common.activity.run.IterativeActivityRun;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.task.api.RunningTask;
+import com.evolveum.midpoint.util.annotation.Experimental;
+
+/**
+ * An item that is processed as part of a batch,
+ * see {@link IterativeActivityRun#processItemBatch(List, RunningTask, OperationResult)}.
+ *
+ * @param item The item to be processed. It may be different from the item in the request, e.g. if it was preprocessed.
+ * @param request The request that brought the item.
+ * @param result Operation result specific to this item. Its status determines the outcome of the item processing:
+ * it drives the error handling, statistics, operation execution records, and items report - just like when the item
+ * is processed individually. Must not be closed by the processor.
+ */
+@Experimental
+public record BatchedItem<I>(
+        @NotNull I item,
+        @NotNull ItemProcessingRequest<I> request,
+        @NotNull OperationResult result) {
+
+    /** The same as this one, but with a different (e.g. preprocessed) item. */
+    public @NotNull BatchedItem<I> withItem(@NotNull I item) {
+        return new BatchedItem<>(item, request, result);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchedItem{" + request + "}";
+    }
+}
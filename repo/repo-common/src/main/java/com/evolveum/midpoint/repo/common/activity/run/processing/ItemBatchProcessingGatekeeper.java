@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.repo.cache.RepositoryCache;
+import com.evolveum.midpoint.repo.common.activity.run.IterativeActivityRun;
+import com.evolveum.midpoint.repo.common.activity.run.state.ActivityStatistics;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.task.api.RunningTask;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * Processes a batch of {@link ItemProcessingRequest}s by calling
+ * {@link IterativeActivityRun#processItemBatch(List, RunningTask, OperationResult)}.
+ *
+ * The item-level duties (progress and statistics, operation execution records, items report, error handling,
+ * acknowledgements) are delegated to {@link ItemProcessingGatekeeper} instances, one for each request; so, from
+ * the point of view of the activity state and reports, the items look like they were processed individually.
+ * Only the processing itself is done for the whole batch.
+ *
+ * The things that cannot be done per item here (tracing, dynamic profiling, item-related ConnId operations and internal
+ * operations reports, synchronization statistics) are the reason why batching is switched off when they are needed,
+ * see {@link IterativeActivityRun#getEffectiveItemBatchSize()}. Actions executed are collected for the batch as a whole.
+ */
+class ItemBatchProcessingGatekeeper<I> {
+
+    private static final Trace LOGGER = TraceManager.getTrace(ItemBatchProcessingGatekeeper.class);
+
+    private static final String OP_PROCESS_BATCH = ItemBatchProcessingGatekeeper.class.getName() + ".processBatch";
+
+    /** Requests to be processed. */
+    @NotNull private final List<ItemProcessingRequest<I>> requests;
+
+    /** Activity run that requested processing of the items. */
+    @NotNull private final IterativeActivityRun<I, ?, ?, ?> activityRun;
+
+    /** Assigned worker task that executes the processing. May be the same as the coordinator task. */
+    @NotNull private final RunningTask workerTask;
+
+    ItemBatchProcessingGatekeeper(
+            @NotNull List<ItemProcessingRequest<I>> requests,
+            @NotNull IterativeActivityRun<I, ?, ?, ?> activityRun,
+            @NotNull RunningTask workerTask) {
+        this.requests = requests;
+        this.activityRun = activityRun;
+        this.workerTask = workerTask;
+    }
+
+    /**
+     * Processes the requests. All of them are acknowledged when this method returns.
+     *
+     * @return false if the processing should stop (for any of the items)
+     */
+    boolean process(OperationResult parentResult) {
+
+        OperationResult result = parentResult.subresult(OP_PROCESS_BATCH)
+                .addParam("size", requests.size())
+                .build();
+
+        try {
+            workerTask.setExecutionSupport(activityRun);
+
+            List<ItemProcessingGatekeeper<I>> gatekeepers = new ArrayList<>(requests.size());
+            List<BatchedItem<I>> itemsToProcess = new ArrayList<>(requests.size());
+
+            Throwable batchException = null;
+            boolean canContinue = true;
+
+            RepositoryCache.enterLocalCaches(activityRun.getBeans().cacheConfigurationManager);
+            var oldSimulationTransaction = workerTask.setSimulationTransaction(activityRun.getSimulationTransaction());
+            boolean collectingActionsExecuted = activityRun.getReportingCharacteristics().areActionsExecutedStatisticsSupported();
+            ActivityStatistics liveStats = activityRun.getActivityState().getLiveStatistics();
+            if (collectingActionsExecuted) {
+                liveStats.startCollectingActionsExecuted(workerTask);
+            }
+            try {
+                for (ItemProcessingRequest<I> request : requests) {
+                    var gatekeeper = new ItemProcessingGatekeeper<>(request, activityRun, workerTask, true);
+                    gatekeepers.add(gatekeeper);
+                    var batchedItem = gatekeeper.startBatched(result);
+                    if (batchedItem != null) {
+                        itemsToProcess.add(batchedItem);
+                    }
+                }
+
+                if (!itemsToProcess.isEmpty()) {
+                    LOGGER.trace("Processing a batch of {} items (out of {} requests)", itemsToProcess.size(), requests.size());
+                    canContinue = activityRun.processItemBatch(itemsToProcess, workerTask, result);
+                }
+            } catch (Throwable t) {
+                // Intentionally not rethrowing; the exception becomes the outcome of items that have no outcome yet.
+                LOGGER.debug("Exception while processing a batch of {} items: {}", itemsToProcess.size(), t.getMessage(), t);
+                batchException = t;
+            } finally {
+                if (collectingActionsExecuted) {
+                    liveStats.stopCollectingActionsExecuted(workerTask);
+                }
+                workerTask.setSimulationTransaction(oldSimulationTransaction);
+                RepositoryCache.exitLocalCaches();
+            }
+
+            // All the gatekeepers have to be finished, in order to acknowledge all the requests.
+            for (ItemProcessingGatekeeper<I> gatekeeper : gatekeepers) {
+                canContinue = gatekeeper.finishBatched(batchException, result) && canContinue;
+            }
+            for (int i = gatekeepers.size(); i < requests.size(); i++) {
+                // Should not occur, as startBatched() does not throw exceptions. But just to be sure.
+                requests.get(i).acknowledge(false, result);
+                canContinue = false;
+            }
+            return canContinue;
+
+        } finally {
+            result.close(); // the item results in it are already summarized by the item gatekeepers
+
+            workerTask.setExecutionSupport(null);
+        }
+    }
+}
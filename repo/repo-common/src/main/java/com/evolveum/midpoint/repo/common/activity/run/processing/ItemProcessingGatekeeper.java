@@ -57,6 +57,10 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
  *
  * The activity-specific processing is invoked by calling {@link ItemProcessor#processItem(ItemProcessingRequest, RunningTask, OperationResult)}
  * method.
+ *
+ * When items are processed in batches, the processing is split into two parts: {@link #startBatched(OperationResult)}
+ * and {@link #finishBatched(Throwable, OperationResult)}, with the activity-specific processing of the whole batch
+ * in between. See {@link ItemBatchProcessingGatekeeper}.
  */
 class ItemProcessingGatekeeper<I> {
 
@@ -121,11 +125,39 @@ class ItemProcessingGatekeeper<I> {
      */
     @Nullable private ConnIdOperationsListener connIdOperationsListener;
 
+    /**
+     * True if the item is processed as a part of a batch, see {@link ItemBatchProcessingGatekeeper}.
+     * The processing is then split into {@link #startBatched(OperationResult)} and
+     * {@link #finishBatched(Throwable, OperationResult)} instead of {@link #process(OperationResult)}.
+     */
+    private final boolean batched;
+
+    /** Result of the whole item processing (in batched mode). Parent of {@link #batchedItemResult}. */
+    private OperationResult batchedResult;
+
+    /** Result of the item processing itself (in batched mode); passed to the processor via {@link BatchedItem}. */
+    private OperationResult batchedItemResult;
+
+    /** Exception related to the item processed in batched mode, if known. */
+    private Throwable batchedItemException;
+
+    /** True if the processing in batched mode failed unexpectedly when starting, and the item was already acknowledged. */
+    private boolean emergencyFinished;
+
     ItemProcessingGatekeeper(
             @NotNull ItemProcessingRequest<I> request,
             @NotNull IterativeActivityRun<I, ?, ?, ?> activityRun,
             @NotNull RunningTask workerTask) {
+        this(request, activityRun, workerTask, false);
+    }
+
+    ItemProcessingGatekeeper(
+            @NotNull ItemProcessingRequest<I> request,
+            @NotNull IterativeActivityRun<I, ?, ?, ?> activityRun,
+            @NotNull RunningTask workerTask,
+            boolean batched) {
         this.request = request;
+        this.batched = batched;
         this.activityRun = activityRun;
         this.coordinatorTask = activityRun.getRunningTask();
         this.workerTask = workerTask;
@@ -160,58 +192,147 @@ class ItemProcessingGatekeeper<I> {
                 stopLocalConnIdOperationListening();
             }
 
-            updateStatisticsOnEnd(result);
+            return completeProcessing(result);
 
-            storeTraceIfRequested(result);
-            updateReports(result);
+        } catch (RuntimeException | CommonException e) {
+            return processUnexpectedException(e, result);
+        } finally {
 
-            itemProcessingMonitor.stopProfilingAndTracing();
-            writeOperationExecutionRecord(result);
+            result.close();
+            cleanupAndSummarizeResults(parentResult);
 
-            try {
-                new ActivityPolicyRulesProcessor(activityRun)
-                        .evaluateAndExecuteRules(processingResult, result);
-            } catch (ActivityRunPolicyException e) {
-                processingResult = ItemProcessingResult.fromException(result, e);
-                var activityRunResult = ActivityRunResult.handleException(e, result, activityRun);
-                activityRun.getErrorState().requestImmediateStop(activityRunResult);
+            workerTask.setExecutionSupport(null);
+        }
+    }
+
+    /**
+     * The first part of processing of an item that is a part of a batch, see {@link ItemBatchProcessingGatekeeper}.
+     * Records the start of the operation and creates the item operation result.
+     *
+     * No tracing, profiling, nor item-related ConnId operations listening takes place here; batching is not used
+     * when these are needed (see {@link IterativeActivityRun#getEffectiveItemBatchSize()}).
+     *
+     * @return The item to be processed, or null if it is not to be processed (e.g. because of the item processing
+     * condition, or because of an error). In that case, the outcome is already recorded in the item operation result.
+     */
+    @Nullable BatchedItem<I> startBatched(OperationResult parentResult) {
+        assert batched;
+        batchedResult = parentResult.subresult(OP_PROCESS)
+                .build();
+        try {
+            logOperationStart();
+            operation = updateStatisticsOnStart();
+
+            batchedItemResult = batchedResult.subresult(OP_HANDLE)
+                    .addParam("object", iterationItemInformation.toString())
+                    .build();
+        } catch (RuntimeException e) {
+            processUnexpectedException(e, batchedResult);
+            batchedResult.close();
+            emergencyFinished = true;
+            return null;
+        }
+
+        try {
+            if (activityRun.isNoExecution()) {
+                batchedItemResult.recordNotApplicable("'No processing' execution mode is selected");
+                return null;
+            } else if (!conditionEvaluator.evaluateConditionDefaultTrue(getItemProcessingCondition(), null, batchedItemResult)) {
+                batchedItemResult.recordNotApplicable("Processing skipped because the item processing condition is false");
+                return null;
+            } else {
+                return new BatchedItem<>(request.getItem(), request, batchedItemResult);
             }
+        } catch (Throwable t) {
+            batchedItemResult.recordFatalError(t);
+            batchedItemException = t;
+            return null;
+        }
+    }
 
-            if (isError()) {
-                canContinue = handleError(result) && canContinue;
+    /**
+     * The second part of processing of an item that is a part of a batch: determines the outcome from the item operation
+     * result (or from the exception thrown when processing the whole batch) and does everything that is done after
+     * an individual item is processed, i.e. statistics, reports, operation execution record, error handling,
+     * and acknowledgement.
+     *
+     * @param batchException Exception thrown by the batch processing, if any. It is considered to be the outcome
+     * of the item only if the item result was not set by the processor.
+     */
+    boolean finishBatched(@Nullable Throwable batchException, OperationResult parentResult) {
+        assert batched;
+        if (emergencyFinished) {
+            return false;
+        }
+        try {
+            if (batchedItemException == null && batchException != null
+                    && (batchedItemResult.isUnknown() || batchedItemResult.isInProgress())) {
+                batchedItemResult.recordFatalError(batchException);
+                batchedItemException = batchException;
             }
+            computeStatusIfNeeded(batchedItemResult);
+            batchedItemResult.close();
+            processingResult = batchedItemException != null ?
+                    ItemProcessingResult.fromException(batchedItemResult, batchedItemException) :
+                    ItemProcessingResult.fromOperationResult(batchedItemResult);
 
-            acknowledgeItemProcessed(result);
+            return completeProcessing(batchedResult);
 
-            logOperationEnd();
+        } catch (RuntimeException | CommonException e) {
+            return processUnexpectedException(e, batchedResult);
+        } finally {
+            batchedResult.close();
+            cleanupAndSummarizeResults(parentResult);
+        }
+    }
 
-            return canContinue;
+    /** Everything that is done after the item is processed: statistics, reports, error handling, and so on. */
+    private boolean completeProcessing(OperationResult result) throws CommonException {
+        updateStatisticsOnEnd(result);
 
-        } catch (RuntimeException | CommonException e) {
+        storeTraceIfRequested(result);
+        updateReports(result);
+
+        itemProcessingMonitor.stopProfilingAndTracing();
+        writeOperationExecutionRecord(result);
+
+        try {
+            new ActivityPolicyRulesProcessor(activityRun)
+                    .evaluateAndExecuteRules(processingResult, result);
+        } catch (ActivityRunPolicyException e) {
+            processingResult = ItemProcessingResult.fromException(result, e);
+            var activityRunResult = ActivityRunResult.handleException(e, result, activityRun);
+            activityRun.getErrorState().requestImmediateStop(activityRunResult);
+        }
 
-            result.recordFatalError(e);
+        if (isError()) {
+            canContinue = handleError(result) && canContinue;
+        }
 
-            // This is unexpected exception. We should perhaps stop the whole processing.
-            // Just throwing the exception would simply kill one worker thread. This is something
-            // that would easily be lost in the logs.
+        acknowledgeItemProcessed(result);
 
-            activityRun.getErrorState().requestImmediateStop(e);
+        logOperationEnd();
 
-            LoggingUtils.logUnexpectedException(LOGGER, "Fatal error while doing administration over "
-                            + "processing item {} in {}:{}. Stopping the whole processing.",
-                    e, request.getItem(), coordinatorTask, workerTask);
+        return canContinue;
+    }
 
-            acknowledgeItemProcessedAsEmergency();
+    private boolean processUnexpectedException(Exception e, OperationResult result) {
 
-            return false;
+        result.recordFatalError(e);
 
-        } finally {
+        // This is unexpected exception. We should perhaps stop the whole processing.
+        // Just throwing the exception would simply kill one worker thread. This is something
+        // that would easily be lost in the logs.
 
-            result.close();
-            cleanupAndSummarizeResults(parentResult);
+        activityRun.getErrorState().requestImmediateStop(e);
 
-            workerTask.setExecutionSupport(null);
-        }
+        LoggingUtils.logUnexpectedException(LOGGER, "Fatal error while doing administration over "
+                        + "processing item {} in {}:{}. Stopping the whole processing.",
+                e, request.getItem(), coordinatorTask, workerTask);
+
+        acknowledgeItemProcessedAsEmergency();
+
+        return false;
     }
 
     private void startLocalConnIdListeningIfNeeded(OperationResult result) {
@@ -335,7 +456,9 @@ class ItemProcessingGatekeeper<I> {
     }
 
     private void acknowledgeItemProcessed(OperationResult result) {
-        request.acknowledge(shouldReleaseItem(), result);
+        boolean release = shouldReleaseItem();
+        activityRun.onItemProcessed(request, processingResult.outcome(), release);
+        request.acknowledge(release, result);
     }
 
     private boolean shouldReleaseItem() {
@@ -430,6 +553,8 @@ class ItemProcessingGatekeeper<I> {
                 beforeConditionForInternalOpReportPasses(parentResult)) {
             internalOperationReportRequested = true;
             builder.preserve();
+        } else if (activityRun.getActivity().getReportingDefinition().isLightweightOperationResults()) {
+            builder.lightweight();
         }
         return builder.build();
     }
@@ -492,6 +617,11 @@ class ItemProcessingGatekeeper<I> {
     }
 
     private @NotNull Operation updateStatisticsOnStart() {
+        if (batched) {
+            // Actions executed are collected for the whole batch, see ItemBatchProcessingGatekeeper.
+            // Synchronization statistics are item-specific, so the batching is not used for them.
+            return recordIterativeOperationStart();
+        }
         ActivityStatistics liveStats = activityRun.getActivityState().getLiveStatistics();
         if (getReportingCharacteristics().areSynchronizationStatisticsSupported()) {
             liveStats.startCollectingSynchronizationStatistics(workerTask,
@@ -506,12 +636,14 @@ class ItemProcessingGatekeeper<I> {
     private void updateStatisticsOnEnd(OperationResult result)
             throws SchemaException, ObjectNotFoundException {
         recordIterativeOperationEnd(operation);
-        ActivityStatistics liveStats = activityRun.getActivityState().getLiveStatistics();
-        if (getReportingCharacteristics().areSynchronizationStatisticsSupported()) {
-            liveStats.stopCollectingSynchronizationStatistics(workerTask, processingResult.outcome());
-        }
-        if (getReportingCharacteristics().areActionsExecutedStatisticsSupported()) {
-            liveStats.stopCollectingActionsExecuted(workerTask);
+        if (!batched) {
+            ActivityStatistics liveStats = activityRun.getActivityState().getLiveStatistics();
+            if (getReportingCharacteristics().areSynchronizationStatisticsSupported()) {
+                liveStats.stopCollectingSynchronizationStatistics(workerTask, processingResult.outcome());
+            }
+            if (getReportingCharacteristics().areActionsExecutedStatisticsSupported()) {
+                liveStats.stopCollectingActionsExecuted(workerTask);
+            }
         }
 
         activityRun.getTransientRunStatistics().update(
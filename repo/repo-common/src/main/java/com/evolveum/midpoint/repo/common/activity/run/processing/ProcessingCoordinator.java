@@ -30,6 +30,11 @@ import com.evolveum.midpoint.util.logging.Trace;
 
 /**
  * Responsible for distributing instances of {@link ItemProcessingRequest} to individual worker threads.
+ *
+ * If the activity processes items in batches (see {@link IterativeActivityRun#getEffectiveItemBatchSize()}),
+ * the requests are grouped here: in the single-threaded case, they are collected until the batch is full
+ * (and the rest is processed in {@link #finishProcessing(OperationResult)}); in the multi-threaded case, each worker
+ * takes as many requests as are available, up to the batch size.
  */
 public class ProcessingCoordinator<I> {
 
@@ -50,6 +55,12 @@ public class ProcessingCoordinator<I> {
 
     @NotNull private final IterativeActivityRun<I, ?, ?, ?> activityRun;
 
+    /** Maximal number of requests processed together. The value of 1 means no batching. */
+    private final int batchSize;
+
+    /** Requests waiting to be processed as a batch. Used only in the single-threaded case, i.e. by the coordinator thread. */
+    @NotNull private final List<ItemProcessingRequest<I>> pendingRequests = new ArrayList<>();
+
     /**
      * True if any worker requested the processing to be stopped.
      * Currently this is possible only by returning false from the {@link ItemProcessingRequest#process(RunningTask, OperationResult)} method.
@@ -66,6 +77,7 @@ public class ProcessingCoordinator<I> {
     public ProcessingCoordinator(int threadsCount, @NotNull IterativeActivityRun<I, ?, ?, ?> activityRun) {
         this.coordinatorTask = activityRun.getRunningTask();
         this.activityRun = activityRun;
+        this.batchSize = activityRun.getEffectiveItemBatchSize();
 
         this.threadsCount = threadsCount;
         if (threadsCount > 0) {
@@ -80,6 +92,17 @@ public class ProcessingCoordinator<I> {
     }
 
     public boolean submit(ItemProcessingRequest<I> request, OperationResult parentResult) {
+        boolean batchedLocally = !multithreaded && batchSize > 1;
+        if (batchedLocally) {
+            // In this case the coordinator task is the worker. It processes the requests when the batch is full.
+            // Nothing is recorded for the request until then: its outcome is known only after the batch is processed,
+            // and it is recorded in the result of the submission that completes the batch.
+            pendingRequests.add(request);
+            if (pendingRequests.size() < batchSize && canRun()) {
+                return true;
+            }
+        }
+
         // For single-threaded case, this is is only a thin wrapper around request.process(..) method.
         // But for the multi-threaded case, the coordinator thread can spend some time here, waiting for
         // the request buffer to accept the request. Hence, it makes sense to provide an operation result here.
@@ -88,8 +111,12 @@ public class ProcessingCoordinator<I> {
                 .build();
         try {
             if (!canRun()) {
-                recordInterrupted(request, result);
-                request.acknowledge(false, result);
+                if (batchedLocally) {
+                    nackPendingRequests(result); // including this one
+                } else {
+                    recordInterrupted(request, result);
+                    request.acknowledge(false, result);
+                }
                 return false;
             }
 
@@ -116,6 +143,9 @@ public class ProcessingCoordinator<I> {
                 // The processing will continue in a separate thread.
                 result.recordStatus(OperationResultStatus.SUCCESS, "Request submitted for processing");
                 return true;
+            } else if (batchedLocally) {
+                // The batch is full now (this request is already in it).
+                return processPendingRequests(result);
             } else {
                 // In this case the coordinator task is the worker.
                 return request.process(coordinatorTask, result);
@@ -128,6 +158,23 @@ public class ProcessingCoordinator<I> {
         }
     }
 
+    private boolean processPendingRequests(OperationResult result) {
+        List<ItemProcessingRequest<I>> requests = new ArrayList<>(pendingRequests);
+        pendingRequests.clear();
+        return processRequests(requests, coordinatorTask, result);
+    }
+
+    /** Processes the requests, either individually (if there's only one) or as a batch. */
+    private boolean processRequests(
+            @NotNull List<ItemProcessingRequest<I>> requests, @NotNull RunningTask workerTask, OperationResult result) {
+        if (requests.size() == 1) {
+            return requests.get(0).process(workerTask, result);
+        } else {
+            return new ItemBatchProcessingGatekeeper<>(requests, activityRun, workerTask)
+                    .process(result);
+        }
+    }
+
     /**
      * This method updates coordinator task statistics. It's here to ensure regular update
      * even in cases when item processing takes too long, so the update in {@link ItemProcessingGatekeeper}
@@ -198,15 +245,41 @@ public class ProcessingCoordinator<I> {
      * Tells the workers that they should not expect any more work and waits for their completion
      * (which can occur either because of queue is empty or because canRun is false).
      * Acknowledges any pending requests.
+     *
+     * In the single-threaded batched case, the last (incomplete) batch is processed here, if the processing can continue.
      */
     public void finishProcessing(OperationResult result) {
         LOGGER.trace("ProcessingCoordinator: finishing processing. Coordinator task canRun = {}", coordinatorTask.canRun());
 
+        processOrNackPendingRequests(result);
         allItemsSubmitted.set(true);
         waitForWorkersFinish(result);
         nackQueuedRequests(result);
     }
 
+    private void processOrNackPendingRequests(OperationResult result) {
+        if (pendingRequests.isEmpty()) {
+            return;
+        }
+        if (canRun()) {
+            LOGGER.trace("Processing {} pending request(s)", pendingRequests.size());
+            if (!processPendingRequests(result)) {
+                stopRequestedByAnyWorker.set(true);
+            }
+        } else {
+            nackPendingRequests(result);
+        }
+    }
+
+    private void nackPendingRequests(OperationResult result) {
+        LOGGER.trace("Acknowledging (release=false) {} pending request(s)", pendingRequests.size());
+        for (ItemProcessingRequest<I> request : pendingRequests) {
+            recordInterrupted(request, result);
+            request.acknowledge(false, result);
+        }
+        pendingRequests.clear();
+    }
+
     private void waitForWorkersFinish(OperationResult result) {
         LOGGER.debug("Waiting for workers to finish");
         activityRun.getBeans().taskManager
@@ -245,15 +318,17 @@ public class ProcessingCoordinator<I> {
             while (canRun(workerTask)) {
 
                 workerTask.refreshThreadLocalStatistics();
-                ItemProcessingRequest<I> request = requestsBuffer.poll(taskIdentifier);
+                List<ItemProcessingRequest<I>> requests = pollRequests(taskIdentifier);
 
-                if (request != null) {
+                if (!requests.isEmpty()) {
                     try {
-                        if (!request.process(workerTask, workerSpecificResult)) {
+                        if (!processRequests(requests, workerTask, workerSpecificResult)) {
                             stopRequestedByAnyWorker.set(true);
                         }
                     } finally {
-                        requestsBuffer.markProcessed(request, taskIdentifier);
+                        for (ItemProcessingRequest<I> request : requests) {
+                            requestsBuffer.markProcessed(request, taskIdentifier);
+                        }
                         treatOperationResultAfterOperation();
                     }
                 } else {
@@ -281,6 +356,20 @@ public class ProcessingCoordinator<I> {
             workerTask.refreshThreadLocalStatistics();
         }
 
+        /** Obtains up to {@link #batchSize} requests that are available right now. Does NOT wait for them. */
+        private @NotNull List<ItemProcessingRequest<I>> pollRequests(String taskIdentifier) {
+            assert requestsBuffer != null;
+            List<ItemProcessingRequest<I>> requests = new ArrayList<>(batchSize);
+            while (requests.size() < batchSize) {
+                ItemProcessingRequest<I> request = requestsBuffer.poll(taskIdentifier);
+                if (request == null) {
+                    break;
+                }
+                requests.add(request);
+            }
+            return requests;
+        }
+
         private void treatOperationResultAfterOperation() {
             workerSpecificResult.computeStatus(true);
             // We do NOT try to summarize/cleanup the whole results hierarchy.
@@ -0,0 +1,458 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run.sources;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.evolveum.midpoint.prism.Containerable;
+import com.evolveum.midpoint.prism.PrismConstants;
+import com.evolveum.midpoint.prism.PrismContext;
+import com.evolveum.midpoint.repo.common.activity.run.SearchSpecification;
+import com.evolveum.midpoint.schema.ContainerableResultHandler;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.ObjectQueryUtil;
+import com.evolveum.midpoint.schema.util.task.ActivityPath;
+import com.evolveum.midpoint.task.api.RunningTask;
+import com.evolveum.midpoint.util.exception.CommonException;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+
+/**
+ * Allows sibling search-based activities (running in parallel on this node) to share a single iteration over the same
+ * set of objects.
+ *
+ * The activities (members) with the same {@link GroupKey} meet here. Those with the same search form a group; a member
+ * whose search differs from the others forms a group of its own. When all the expected members arrive (or the rendezvous
+ * timeout elapses), the groups are formed. In each group, the first member (leader) executes the search and passes a copy
+ * of each object found to the other ones (followers), in addition to processing it itself. Each follower takes
+ * the objects from its own bounded queue and processes them in its own thread, i.e. submits them to its own worker threads.
+ * Hence, the shared iteration is as fast as its slowest member.
+ *
+ * The members whose search cannot be shared (see the caller) {@link #decline(GroupKey, ActivityPath, int)} the rendezvous,
+ * and the members that stop while waiting (e.g. because their task is being suspended) withdraw from it. Both count as
+ * arrived, so that the others do not wait for them.
+ *
+ * If the leader stops before the search is complete (e.g. because its task is being suspended), each follower continues
+ * by its own search for the objects after the last one received. This relies on the fact that the repository
+ * returns the objects in the ascending OID order, if there is no explicit ordering requested.
+ */
+@Component
+public class SharedSearchHub {
+
+    private static final Trace LOGGER = TraceManager.getTrace(SharedSearchHub.class);
+
+    /** How long the members wait for each other before the shared search starts (in milliseconds). */
+    private static final long RENDEZVOUS_TIMEOUT = 60_000;
+
+    /** Maximal number of objects waiting to be processed by a follower. */
+    private static final int QUEUE_CAPACITY = 1000;
+
+    /** How often the waiting threads check whether they can continue (in milliseconds). */
+    private static final long CHECK_INTERVAL = 1000;
+
+    /** Rendezvous waiting for their members to arrive. Guarded by `this`. */
+    private final Map<GroupKey, Rendezvous> openRendezvous = new HashMap<>();
+
+    /**
+     * Closing times of the recently closed rendezvous. The members arriving after the rendezvous was closed
+     * search separately, because the others are already searching. Guarded by `this`.
+     */
+    private final Map<GroupKey, Long> closedRendezvous = new HashMap<>();
+
+    /**
+     * Searches for the objects according to given specification, sharing the iteration with other members of the group,
+     * if possible. Returns when all the objects were passed to the handler, or the handler asked to stop.
+     *
+     * @param memberPath Path of the activity that searches.
+     * @param expectedMembers Number of the activities that are expected to arrive at the rendezvous
+     * (i.e. to take part in the shared search or to decline it).
+     */
+    public <C extends Containerable> void searchIterative(
+            @NotNull GroupKey groupKey,
+            @NotNull ActivityPath memberPath,
+            int expectedMembers,
+            @NotNull SearchableItemSource itemSource,
+            @NotNull SearchSpecification<C> searchSpecification,
+            @NotNull ContainerableResultHandler<C> handler,
+            @NotNull RunningTask task,
+            @NotNull OperationResult result) throws CommonException {
+
+        Member member = join(groupKey, memberPath, expectedMembers, itemSource, searchSpecification, task);
+        if (member == null) {
+            LOGGER.debug("Shared search '{}' has already started, searching separately", groupKey);
+            itemSource.searchIterative(searchSpecification, handler, task, result);
+            return;
+        }
+        Group group = member.group;
+        if (!awaitFormed(member, task)) {
+            LOGGER.debug("Task {} is stopping, not waiting for the shared search '{}' any more", task, groupKey);
+            itemSource.searchIterative(searchSpecification, handler, task, result);
+        } else if (group.members.size() == 1) {
+            LOGGER.debug("No other members of shared search '{}' with the same search arrived, searching separately",
+                    groupKey);
+            itemSource.searchIterative(searchSpecification, handler, task, result);
+        } else if (group.members.get(0) == member) {
+            lead(group, itemSource, searchSpecification, handler, task, result);
+        } else {
+            follow(member, itemSource, searchSpecification, handler, task, result);
+        }
+    }
+
+    /**
+     * Records that the activity arrived at the rendezvous, but will search separately (because its search cannot be
+     * shared), so the other members do not wait for it.
+     */
+    public synchronized void decline(@NotNull GroupKey groupKey, @NotNull ActivityPath memberPath, int expectedMembers) {
+        Rendezvous rendezvous = getOpenRendezvous(groupKey, expectedMembers);
+        if (rendezvous != null) {
+            LOGGER.debug("Activity {} declined shared search '{}'", memberPath, groupKey);
+            rendezvous.arrive(memberPath);
+        }
+    }
+
+    /** Returns `null` if the rendezvous was already closed. */
+    private synchronized @Nullable Member join(
+            @NotNull GroupKey groupKey,
+            @NotNull ActivityPath memberPath,
+            int expectedMembers,
+            @NotNull SearchableItemSource itemSource,
+            @NotNull SearchSpecification<?> searchSpecification,
+            @NotNull RunningTask task) {
+        Rendezvous rendezvous = getOpenRendezvous(groupKey, expectedMembers);
+        if (rendezvous == null) {
+            return null;
+        }
+        Group group = rendezvous.groups.stream()
+                .filter(g -> g.matches(itemSource, searchSpecification, task))
+                .findFirst()
+                .orElse(null);
+        if (group == null) {
+            if (!rendezvous.groups.isEmpty()) {
+                LOGGER.info("The search of {} differs from the search(es) of other member(s) of shared search '{}', "
+                        + "so it will not be shared with them", memberPath, groupKey);
+            }
+            group = new Group(rendezvous, itemSource, searchSpecification, task);
+            rendezvous.groups.add(group);
+        }
+        Member member = new Member(group);
+        group.members.add(member);
+        rendezvous.arrive(memberPath);
+        LOGGER.debug("Task {} joined shared search '{}' ({} of {} expected members arrived)",
+                task, groupKey, rendezvous.arrived.size(), expectedMembers);
+        return member;
+    }
+
+    /**
+     * Returns the open rendezvous for given key, creating it if needed; or `null` if it was closed recently.
+     * The caller must hold the lock on `this`.
+     */
+    private @Nullable Rendezvous getOpenRendezvous(@NotNull GroupKey groupKey, int expectedMembers) {
+        long now = System.currentTimeMillis();
+        for (Rendezvous rendezvous : List.copyOf(openRendezvous.values())) {
+            if (rendezvous.deadline <= now) {
+                close(rendezvous);
+            }
+        }
+        closedRendezvous.values().removeIf(closedAt -> closedAt + RENDEZVOUS_TIMEOUT <= now);
+        if (closedRendezvous.containsKey(groupKey)) {
+            return null;
+        }
+        return openRendezvous.computeIfAbsent(groupKey, k -> new Rendezvous(k, expectedMembers));
+    }
+
+    /** Returns `false` if the task cannot wait any longer; the member is then removed from the (still forming) group. */
+    private synchronized boolean awaitFormed(@NotNull Member member, @NotNull RunningTask task) {
+        Group group = member.group;
+        while (!group.formed) {
+            long remaining = group.rendezvous.deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                close(group.rendezvous);
+            } else if (!task.canRun()) {
+                withdraw(member);
+                return false;
+            } else {
+                try {
+                    wait(Math.min(remaining, CHECK_INTERVAL));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    withdraw(member);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The member stays counted as arrived, so the others do not wait for it.
+     * The caller must hold the lock on `this`.
+     */
+    private void withdraw(@NotNull Member member) {
+        Group group = member.group;
+        group.members.remove(member);
+        if (group.members.isEmpty()) {
+            group.rendezvous.groups.remove(group);
+        }
+    }
+
+    /** Forms all the groups of the rendezvous. The caller must hold the lock on `this`. */
+    private void close(@NotNull Rendezvous rendezvous) {
+        LOGGER.debug("Closing rendezvous of shared search '{}' with {} of {} expected members arrived, forming {} group(s)",
+                rendezvous.key, rendezvous.arrived.size(), rendezvous.expectedMembers, rendezvous.groups.size());
+        for (Group group : rendezvous.groups) {
+            group.formed = true;
+        }
+        openRendezvous.remove(rendezvous.key, rendezvous);
+        closedRendezvous.put(rendezvous.key, System.currentTimeMillis());
+        notifyAll();
+    }
+
+    private <C extends Containerable> void lead(
+            @NotNull Group group,
+            @NotNull SearchableItemSource itemSource,
+            @NotNull SearchSpecification<C> searchSpecification,
+            @NotNull ContainerableResultHandler<C> handler,
+            @NotNull RunningTask task,
+            @NotNull OperationResult result) throws CommonException {
+        List<Member> followers = group.members.subList(1, group.members.size());
+        LOGGER.debug("Task {} is leading shared search '{}' for {} followers", task, group.rendezvous.key, followers.size());
+        boolean complete = false;
+        try {
+            AtomicBoolean stopped = new AtomicBoolean();
+            itemSource.searchIterative(
+                    searchSpecification,
+                    (item, localResult) -> {
+                        for (Member follower : followers) {
+                            if (!follower.offer((ObjectType) item, task)) {
+                                stopped.set(true);
+                                return false; // we are stopping, the followers will continue separately
+                            }
+                        }
+                        boolean canContinue = handler.handle(item, localResult);
+                        stopped.set(!canContinue);
+                        return canContinue;
+                    },
+                    task, result);
+            complete = !stopped.get();
+        } finally {
+            for (Member follower : followers) {
+                follower.finish(complete);
+            }
+        }
+    }
+
+    private <C extends Containerable> void follow(
+            @NotNull Member member,
+            @NotNull SearchableItemSource itemSource,
+            @NotNull SearchSpecification<C> searchSpecification,
+            @NotNull ContainerableResultHandler<C> handler,
+            @NotNull RunningTask task,
+            @NotNull OperationResult result) throws CommonException {
+        LOGGER.debug("Task {} is following a shared search", task);
+        String lastOid = null;
+        try {
+            for (;;) {
+                if (!task.canRun()) {
+                    return;
+                }
+                ObjectType object = member.queue.poll(CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                if (object == null) {
+                    if (member.leaderComplete != null && member.queue.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                lastOid = object.getOid();
+                //noinspection unchecked
+                if (!handler.handle((C) object, result)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            member.leave();
+        }
+
+        if (!member.leaderComplete) {
+            LOGGER.debug("Shared search was not completed by the leader, continuing separately after OID {} in {}",
+                    lastOid, task);
+            itemSource.searchIterative(continueAfter(searchSpecification, lastOid), handler, task, result);
+        }
+    }
+
+    private <C extends Containerable> @NotNull SearchSpecification<C> continueAfter(
+            @NotNull SearchSpecification<C> searchSpecification, @Nullable String lastOid) {
+        if (lastOid == null) {
+            return searchSpecification;
+        }
+        SearchSpecification<C> narrowed = searchSpecification.clone();
+        narrowed.setQuery(
+                ObjectQueryUtil.addConjunctions(
+                        searchSpecification.getQuery(),
+                        PrismContext.get().queryFor(searchSpecification.getType())
+                                .item(PrismConstants.T_ID).gt(lastOid)
+                                .buildFilter()));
+        return narrowed;
+    }
+
+    /**
+     * Identifies the group of sibling activities that may share their searches.
+     *
+     * @param rootTaskOid OID of the root task of the activity tree.
+     * @param parentPath Path of the (composite) parent activity.
+     * @param sharedSource Shared source name, as configured in the control flow definition of the activities.
+     */
+    public record GroupKey(
+            @NotNull String rootTaskOid,
+            @NotNull ActivityPath parentPath,
+            @NotNull String sharedSource) {
+
+        @Override
+        public String toString() {
+            return sharedSource + " in " + parentPath.toDebugName() + " (root task OID " + rootTaskOid + ")";
+        }
+    }
+
+    /** Members with the same key that meet before starting their searches. */
+    private class Rendezvous {
+
+        @NotNull private final GroupKey key;
+        private final int expectedMembers;
+        private final long deadline;
+
+        /**
+         * Paths of the activities that arrived (joined, declined, or withdrew). Paths are used, so that the workers
+         * of the same (distributed) activity count only once. Guarded by the hub.
+         */
+        @NotNull private final Set<ActivityPath> arrived = new HashSet<>();
+
+        /** Groups of the members with the same search. Guarded by the hub. */
+        @NotNull private final List<Group> groups = new ArrayList<>();
+
+        private Rendezvous(@NotNull GroupKey key, int expectedMembers) {
+            this.key = key;
+            this.expectedMembers = expectedMembers;
+            this.deadline = System.currentTimeMillis() + RENDEZVOUS_TIMEOUT;
+        }
+
+        /** The caller must hold the lock on the hub. */
+        private void arrive(@NotNull ActivityPath memberPath) {
+            arrived.add(memberPath);
+            if (arrived.size() >= expectedMembers) {
+                close(this);
+            }
+        }
+    }
+
+    /** Members with the same key and the same search. */
+    private static class Group {
+
+        @NotNull private final Rendezvous rendezvous;
+        @NotNull private final SearchableItemSource itemSource;
+        @NotNull private final SearchSpecification<?> searchSpecification;
+        @Nullable private final String ownerOid;
+
+        /** The first one is the leader. Must not be changed after the group is formed. Guarded by the hub. */
+        @NotNull private final List<Member> members = new ArrayList<>();
+
+        /** Was the rendezvous closed, i.e. are all the members here (or the rendezvous timeout elapsed)? Guarded by the hub. */
+        private boolean formed;
+
+        private Group(
+                @NotNull Rendezvous rendezvous,
+                @NotNull SearchableItemSource itemSource,
+                @NotNull SearchSpecification<?> searchSpecification,
+                @NotNull RunningTask task) {
+            this.rendezvous = rendezvous;
+            this.itemSource = itemSource;
+            this.searchSpecification = searchSpecification.clone();
+            this.ownerOid = getOwnerOid(task);
+        }
+
+        /** The objects found must be the same, and the authorizations (if applied by the source) as well. */
+        private boolean matches(
+                @NotNull SearchableItemSource itemSource,
+                @NotNull SearchSpecification<?> searchSpecification,
+                @NotNull RunningTask task) {
+            return this.itemSource == itemSource
+                    && this.searchSpecification.getType().equals(searchSpecification.getType())
+                    && this.searchSpecification.isUseRepository() == searchSpecification.isUseRepository()
+                    && Objects.equals(this.searchSpecification.getQuery(), searchSpecification.getQuery())
+                    && Objects.equals(this.searchSpecification.getSearchOptions(), searchSpecification.getSearchOptions())
+                    && Objects.equals(ownerOid, getOwnerOid(task));
+        }
+
+        private static @Nullable String getOwnerOid(@NotNull RunningTask task) {
+            var ownerRef = task.getOwnerRef();
+            return ownerRef != null ? ownerRef.getOid() : null;
+        }
+    }
+
+    /** A member of a group, i.e. a search-based activity run. Relevant mainly for followers. */
+    private static class Member {
+
+        @NotNull private final Group group;
+
+        /** Objects found by the leader, waiting to be processed by this member. */
+        @NotNull private final BlockingQueue<ObjectType> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        /** Set when the leader finishes: `true` if all the objects were passed to the queue. */
+        private volatile Boolean leaderComplete;
+
+        /** Cleared when this member stops taking the objects from the queue. */
+        private volatile boolean active = true;
+
+        private Member(@NotNull Group group) {
+            this.group = group;
+        }
+
+        /**
+         * Passes a copy of the object to this member, waiting for a free place in its queue.
+         * Returns `false` if the leader should stop, i.e. its task is stopping, or the current thread was interrupted.
+         */
+        private boolean offer(@NotNull ObjectType object, @NotNull RunningTask leaderTask) {
+            if (!active) {
+                return true;
+            }
+            ObjectType copy = object.asPrismObject().clone().asObjectable();
+            try {
+                while (active) {
+                    if (!leaderTask.canRun()) {
+                        return false;
+                    }
+                    if (queue.offer(copy, CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void finish(boolean complete) {
+            leaderComplete = complete;
+        }
+
+        private void leave() {
+            active = false;
+            queue.clear();
+        }
+    }
+}
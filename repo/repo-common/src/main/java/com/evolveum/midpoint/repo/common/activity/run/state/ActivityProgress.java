@@ -80,6 +80,17 @@ public class ActivityProgress extends Initializable {
         LOGGER.trace("Updated progress on commit point in activity run: {}", getActivityRun());
     }
 
+    /**
+     * Moves a single item with given outcome from "uncommitted" to "committed" state. Used when only some of the items
+     * processed since the last commit point can be committed; see iteration checkpoints in search-based activities.
+     */
+    public synchronized void commitItem(QualifiedItemProcessingOutcomeType outcome) {
+        assertInitialized();
+        if (OutcomeKeyedCounterTypeUtil.decrementCounter(value.getUncommitted(), outcome)) {
+            OutcomeKeyedCounterTypeUtil.incrementCounter(value.getCommitted(), outcome);
+        } // otherwise, the progress was not counted as uncommitted (no commit points), or it was discarded
+    }
+
     public synchronized void clearUncommitted() {
         assertInitialized();
         value.getUncommitted().clear();
@@ -70,6 +70,8 @@ public abstract class ActivityState implements DebugDumpable {
             ItemPath.create(ActivityStateType.F_BUCKETING, ActivityBucketingStateType.F_BUCKETS_PROCESSING_ROLE);
     private static final ItemPath SCAVENGER_PATH =
             ItemPath.create(ActivityStateType.F_BUCKETING, ActivityBucketingStateType.F_SCAVENGER);
+    private static final ItemPath ITERATION_CHECKPOINT_PATH =
+            ItemPath.create(ActivityStateType.F_BUCKETING, ActivityBucketingStateType.F_ITERATION_CHECKPOINT);
     private static final ItemPath SIMULATION_RESULT_REF_PATH =
             ItemPath.create(ActivityStateType.F_SIMULATION, ActivitySimulationStateType.F_RESULT_REF);
     private static final ItemPath SIMULATION_RESULT_CREATED_PATH =
@@ -188,6 +190,15 @@ public abstract class ActivityState implements DebugDumpable {
         return getAbortingWorkerRef() != null;
     }
 
+    public @Nullable ActivityIterationCheckpointType getIterationCheckpoint() {
+        return getItemRealValueClone(ITERATION_CHECKPOINT_PATH, ActivityIterationCheckpointType.class);
+    }
+
+    /** Sets (or, if the value is `null`, removes) the iteration checkpoint. Does not flush the modifications. */
+    public void setIterationCheckpoint(@Nullable ActivityIterationCheckpointType checkpoint) throws ActivityRunException {
+        setItemRealValues(ITERATION_CHECKPOINT_PATH, checkpoint);
+    }
+
     //endregion
 
     //region Generic access
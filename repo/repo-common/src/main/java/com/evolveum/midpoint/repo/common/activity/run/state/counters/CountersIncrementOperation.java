@@ -17,6 +17,7 @@ import com.evolveum.midpoint.prism.delta.ItemDelta;
 import com.evolveum.midpoint.prism.path.ItemPath;
 import com.evolveum.midpoint.repo.common.activity.run.CommonTaskBeans;
 import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.task.ActivityStateUtil;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.util.DebugUtil;
 import com.evolveum.midpoint.util.exception.ObjectAlreadyExistsException;
@@ -68,7 +69,8 @@ public class CountersIncrementOperation {
     private void incrementCountersInRepository(OperationResult result)
             throws ObjectNotFoundException, SchemaException, ObjectAlreadyExistsException {
         beans.plainRepositoryService.modifyObjectDynamically(
-                TaskType.class, task.getOid(), null, this::prepareModifications, null, result);
+                TaskType.class, task.getOid(), ActivityStateUtil.createActivityStateOnlyOptions(),
+                this::prepareModifications, null, result);
     }
 
     private @NotNull Collection<? extends ItemDelta<?, ?>> prepareModifications(TaskType task) throws SchemaException {
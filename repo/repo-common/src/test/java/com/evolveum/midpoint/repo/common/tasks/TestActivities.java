@@ -69,7 +69,8 @@ import com.evolveum.midpoint.util.DebugUtil;
  * 5. running mock search-based activity, including bucketing ({@link #test160RunMockSearchBasedTask()}, {@link #test170RunBucketedTask()}),
  * 6. running tree of bucketed activities ({@link #test180RunBucketedTree()}),
  * 7. delegation of processing to separate task(s) - for simple activity ({@link #test200Subtask()}) or children
- * of a semi-composite one ({@link #test220MockCompositeWithSubtasks()}),
+ * of a semi-composite one ({@link #test220MockCompositeWithSubtasks()}), including children executed in parallel
+ * that share their search ({@link #test230SharedSearch()}),
  * 8. distribution of a processing to worker tasks ({@link #test300WorkersSimple()}, {@link #test310WorkersScavengerFrozen()}).
  *
  * Specifically, the following is checked as well:
@@ -97,6 +98,11 @@ public class TestActivities extends AbstractRepoCommonTest {
     private static final TestObject<TaskType> TASK_150_MOCK_ITERATIVE = TestObject.file(TEST_DIR, "task-150-mock-iterative.xml", "c21785e9-1c67-492f-bc79-0c51f74561a1");
     private static final TestObject<TaskType> TASK_155_MOCK_ITERATIVE_BUCKETED = TestObject.file(TEST_DIR, "task-155-mock-iterative-bucketed.xml", "02a94071-2eff-4ca0-aa63-3fdf9d540064");
     private static final TestObject<TaskType> TASK_160_MOCK_SEARCH_ITERATIVE = TestObject.file(TEST_DIR, "task-160-mock-search-iterative.xml", "9d8384b3-a007-44e2-a9f7-084a64bdc285");
+    private static final TestObject<TaskType> TASK_165_MOCK_SEARCH_ITERATIVE_BATCHED = TestObject.file(TEST_DIR, "task-165-mock-search-iterative-batched.xml", "a5a0c816-ac72-45ce-8aa7-5da0483f567c");
+    private static final TestObject<TaskType> TASK_166_MOCK_SEARCH_ITERATIVE_BATCHED_MULTITHREADED = TestObject.file(TEST_DIR, "task-166-mock-search-iterative-batched-multithreaded.xml", "1a3e31cb-ef62-4580-a608-2bad69178b64");
+    private static final TestObject<TaskType> TASK_167_MOCK_SEARCH_ITERATIVE_CHECKPOINTS = TestObject.file(TEST_DIR, "task-167-mock-search-iterative-checkpoints.xml", "5c0ef7de-3f7b-4a9e-9a39-3f0a4dd6b1e2");
+    private static final TestObject<TaskType> TASK_168_MOCK_SEARCH_ITERATIVE_CHECKPOINTS_MULTITHREADED = TestObject.file(TEST_DIR, "task-168-mock-search-iterative-checkpoints-multithreaded.xml", "b7e6b4a2-8d2a-4c0f-a4d5-1e9c3f6a7d58");
+    private static final TestObject<TaskType> TASK_169_MOCK_SEARCH_ITERATIVE_CHECKPOINTS_EARLY_FAILURE = TestObject.file(TEST_DIR, "task-169-mock-search-iterative-checkpoints-early-failure.xml", "2f4c9a61-7e3b-4d85-9c0a-6b1d8e5f3a47");
     private static final TestObject<TaskType> TASK_170_MOCK_BUCKETED = TestObject.file(TEST_DIR, "task-170-mock-bucketed.xml", "04e257d1-bb25-4675-8e00-f248f164fbc3");
     private static final TestObject<TaskType> TASK_180_BUCKETED_TREE = TestObject.file(TEST_DIR, "task-180-bucketed-tree.xml", "ac3220c5-6ded-4b94-894e-9ed39c05db66");
     private static final TestObject<TaskType> TASK_185_BUCKETED_TREE_ANALYSIS = TestObject.file(TEST_DIR, "task-185-bucketed-tree-analysis.xml", "12f07ab1-41c3-4dba-bf47-3d2a032fa555");
@@ -104,6 +110,7 @@ public class TestActivities extends AbstractRepoCommonTest {
     private static final TestObject<TaskType> TASK_200_SUBTASK = TestObject.file(TEST_DIR, "task-200-subtask.xml", "ee60863e-ff77-4edc-9e4e-2e1ea7853478");
     private static final TestObject<TaskType> TASK_210_SUSPENDING_COMPOSITE_WITH_SUBTASKS = TestObject.file(TEST_DIR, "task-210-suspending-composite-with-subtasks.xml", "cd36ca66-cd49-44cf-9eb2-36928acbe1fd");
     private static final TestObject<TaskType> TASK_220_MOCK_COMPOSITE_WITH_SUBTASKS = TestObject.file(TEST_DIR, "task-220-mock-composite-with-subtasks.xml", "");
+    private static final TestObject<TaskType> TASK_230_SHARED_SEARCH = TestObject.file(TEST_DIR, "task-230-shared-search.xml", "0e6cbd4e-6f3a-4b8f-9b0c-2f5a7d3c1e30");
     private static final TestObject<TaskType> TASK_300_WORKERS_SIMPLE = TestObject.file(TEST_DIR, "task-300-workers-simple.xml", "5cfa521a-a174-4254-a5cb-199189fe42d5");
     private static final TestObject<TaskType> TASK_310_WORKERS_SCAVENGING = TestObject.file(TEST_DIR, "task-310-workers-scavenging.xml", "1e956013-5997-47bd-8885-4da2340dddfc");
     private static final TestObject<TaskType> TASK_400_LONG_RUNNING = TestObject.file(TEST_DIR, "task-400-long-running.xml", "f179b67d-a4b2-4bd0-af8a-7f814d9f069c");
@@ -728,6 +735,341 @@ public class TestActivities extends AbstractRepoCommonTest {
                 .assertHasWallClockTime();
     }
 
+    /**
+     * Runs mock search-based activity that processes the items in batches, in a single thread.
+     * The item-level outcomes (including a failure of one item) must be the same as if the items were processed individually.
+     */
+    @Test
+    public void test165RunMockSearchBasedTaskInBatches() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_165_MOCK_SEARCH_ITERATIVE_BATCHED, result);
+
+        when();
+
+        waitForTaskClose(task1.getOid(), result, 10000);
+
+        then();
+
+        task1.refresh(result);
+        // @formatter:off
+        assertTask(task1, "after")
+                .display()
+                .assertClosed()
+                .activityState()
+                    .assertTreeRealizationComplete()
+                    .rootActivity()
+                        .assertComplete()
+                        .progress()
+                            .assertCommitted(99, 1, 0)
+                            .assertNoUncommitted()
+                        .end()
+                        .itemProcessingStatistics()
+                            .assertTotalCounts(99, 1, 0)
+                            .assertLastFailureObjectName("r42")
+                        .end()
+                        .actionsExecuted()
+                            .part(ActionsExecutedInformationUtil.Part.ALL)
+                                .display()
+                                .assertCount(ChangeTypeType.MODIFY, RoleType.COMPLEX_TYPE, 198, 0)
+                            .end()
+                        .end();
+        // @formatter:on
+
+        displayDumpable("recorder", recorder);
+        Set<String> messages = IntStream.range(0, 100)
+                .mapToObj(i -> String.format("Role: " + ROLE_NAME_PATTERN, i))
+                .collect(Collectors.toSet());
+        assertThat(recorder.getExecutions()).as("recorder")
+                .containsExactlyInAnyOrderElementsOf(messages);
+        assertThat(recorder.getBatchSizes())
+                .as("batch sizes (the last batch is processed when the search is over)")
+                .containsExactly(30, 30, 30, 10);
+    }
+
+    /**
+     * As {@link #test165RunMockSearchBasedTaskInBatches()} but with worker threads. They take the requests
+     * that are available, so the batches may be smaller than the maximum; a single request is processed individually.
+     */
+    @Test
+    public void test166RunMockSearchBasedTaskInBatchesMultithreaded() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_166_MOCK_SEARCH_ITERATIVE_BATCHED_MULTITHREADED, result);
+
+        when();
+
+        waitForTaskClose(task1.getOid(), result, 10000);
+
+        then();
+
+        task1.refresh(result);
+        // @formatter:off
+        assertTask(task1, "after")
+                .display()
+                .assertClosed()
+                .activityState()
+                    .assertTreeRealizationComplete()
+                    .rootActivity()
+                        .assertComplete()
+                        .itemProcessingStatistics()
+                            .assertTotalCounts(99, 1, 0)
+                            .assertLastFailureObjectName("r42")
+                        .end();
+        // @formatter:on
+
+        displayDumpable("recorder", recorder);
+        assertThat(recorder.getExecutions()).as("recorder").hasSize(100);
+        assertThat(recorder.getBatchSizes()).as("batch sizes")
+                .allSatisfy(size -> assertThat(size).isBetween(2, 10));
+        assertThat(recorder.getBatchSizes().stream().mapToInt(Integer::intValue).sum())
+                .as("items processed in batches")
+                .isLessThanOrEqualTo(100);
+    }
+
+    /**
+     * Runs mock search-based activity with iteration checkpoints that stops on a failure of the 43rd object (in the iteration
+     * order). The checkpoint must stop just before the failed object, and only the progress of the objects before it
+     * may be committed. After the failure is fixed and the task is resumed, the processing continues with the failed object,
+     * and the progress is counted exactly.
+     */
+    @Test
+    public void test167ResumeMockSearchBasedTaskFromCheckpoint() throws Exception {
+        executeIterationCheckpointsTest(TASK_167_MOCK_SEARCH_ITERATIVE_CHECKPOINTS, false);
+    }
+
+    /**
+     * As {@link #test167ResumeMockSearchBasedTaskFromCheckpoint()} but with worker threads. The objects can be completed
+     * out of order, so the checkpoint may be before the failed object; and some objects after it may be processed again
+     * after resuming. The progress must not count them twice.
+     */
+    @Test
+    public void test168ResumeMockSearchBasedTaskFromCheckpointMultithreaded() throws Exception {
+        executeIterationCheckpointsTest(TASK_168_MOCK_SEARCH_ITERATIVE_CHECKPOINTS_MULTITHREADED, true);
+    }
+
+    /**
+     * Runs mock search-based activity with iteration checkpoints and worker threads, where the 3rd object fails
+     * (and the processing continues), and the 43rd one fails and stops the processing. The early failure must not
+     * block the checkpoint: it must move past it, committing the failure along with the progress of other objects.
+     * After resuming, the failed object is not processed again.
+     */
+    @Test
+    public void test169ResumeMockSearchBasedTaskFromCheckpointAfterEarlyFailure() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        List<PrismObject<RoleType>> roles = getRolesInIterationOrder(result);
+        int earlyFailingIndex = 2;
+        int stoppingIndex = 42;
+        String earlyFailingRoleOid = roles.get(earlyFailingIndex).getOid();
+        String stoppingRoleOid = roles.get(stoppingIndex).getOid();
+        setRoleDescription(earlyFailingRoleOid, "fail", result);
+        setRoleDescription(stoppingRoleOid, "fail", result);
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_169_MOCK_SEARCH_ITERATIVE_CHECKPOINTS_EARLY_FAILURE, result);
+
+        // ------------------------------------------------------------------------------------ run 1
+
+        when("run 1");
+
+        waitForTaskCloseOrSuspend(task1.getOid(), 10000, 200);
+
+        then("run 1");
+
+        task1.refresh(result);
+        displayDumpable("recorder after run 1", recorder);
+
+        ActivityIterationCheckpointType checkpoint = getIterationCheckpoint(task1);
+        assertThat(checkpoint).as("checkpoint").isNotNull();
+        int checkpointIndex = getIndex(roles, checkpoint.getLastProcessedOid());
+        assertThat(checkpointIndex).as("checkpoint index")
+                .isGreaterThan(earlyFailingIndex)
+                .isLessThan(stoppingIndex);
+
+        // @formatter:off
+        assertTask(task1, "after run 1")
+                .display()
+                .assertExecutionState(TaskExecutionStateType.SUSPENDED)
+                .activityState()
+                    .rootActivity()
+                        .assertInProgressLocal()
+                        .progress()
+                            .assertCommitted(checkpointIndex, 1, 0);
+        // @formatter:on
+
+        // ------------------------------------------------------------------------------------ run 2
+
+        when("run 2");
+
+        setRoleDescription(earlyFailingRoleOid, null, result);
+        setRoleDescription(stoppingRoleOid, null, result);
+        recorder.reset();
+
+        restartTask(task1.getOid(), result);
+        waitForTaskClose(task1.getOid(), result, 10000);
+
+        then("run 2");
+
+        task1.refresh(result);
+        displayDumpable("recorder after run 2", recorder);
+
+        // @formatter:off
+        assertTask(task1, "after run 2")
+                .display()
+                .assertClosed()
+                .activityState()
+                    .assertTreeRealizationComplete()
+                    .rootActivity()
+                        .assertComplete()
+                        .progress()
+                            .assertCommitted(ROLES - 1, 1, 0)
+                            .assertNoUncommitted();
+        // @formatter:on
+
+        assertThat(recorder.getExecutions()).as("recorder after run 2")
+                .containsExactlyInAnyOrderElementsOf(getMessages(roles.subList(checkpointIndex + 1, ROLES)));
+        assertThat(getIterationCheckpoint(task1)).as("checkpoint after completion").isNull();
+    }
+
+    private void executeIterationCheckpointsTest(TestObject<TaskType> taskObject, boolean multithreaded) throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        List<PrismObject<RoleType>> roles = getRolesInIterationOrder(result);
+        int failingIndex = 42;
+        String failingRoleOid = roles.get(failingIndex).getOid();
+        setRoleDescription(failingRoleOid, "fail", result);
+
+        recorder.reset();
+
+        Task task1 = taskAdd(taskObject, result);
+
+        // ------------------------------------------------------------------------------------ run 1
+
+        when("run 1");
+
+        waitForTaskCloseOrSuspend(task1.getOid(), 10000, 200);
+
+        then("run 1");
+
+        task1.refresh(result);
+        displayDumpable("recorder after run 1", recorder);
+
+        ActivityIterationCheckpointType checkpoint = getIterationCheckpoint(task1);
+        int checkpointIndex;
+        if (multithreaded) {
+            checkpointIndex = checkpoint != null ? getIndex(roles, checkpoint.getLastProcessedOid()) : -1;
+            assertThat(checkpointIndex).as("checkpoint index").isLessThan(failingIndex);
+        } else {
+            checkpointIndex = failingIndex - 1;
+            assertThat(checkpoint).as("checkpoint").isNotNull();
+            assertThat(checkpoint.getLastProcessedOid()).as("checkpoint OID")
+                    .isEqualTo(roles.get(checkpointIndex).getOid());
+            assertThat(recorder.getExecutions()).as("recorder after run 1")
+                    .containsExactlyElementsOf(getMessages(roles.subList(0, failingIndex + 1)));
+        }
+
+        // @formatter:off
+        assertTask(task1, "after run 1")
+                .display()
+                .assertExecutionState(TaskExecutionStateType.SUSPENDED)
+                .activityState()
+                    .rootActivity()
+                        .assertInProgressLocal()
+                        .progress()
+                            .assertCommitted(checkpointIndex + 1, 0, 0);
+        // @formatter:on
+
+        // ------------------------------------------------------------------------------------ run 2
+
+        when("run 2");
+
+        setRoleDescription(failingRoleOid, null, result);
+        recorder.reset();
+
+        restartTask(task1.getOid(), result);
+        waitForTaskClose(task1.getOid(), result, 10000);
+
+        then("run 2");
+
+        task1.refresh(result);
+        displayDumpable("recorder after run 2", recorder);
+
+        // @formatter:off
+        assertTask(task1, "after run 2")
+                .display()
+                .assertClosed()
+                .activityState()
+                    .assertTreeRealizationComplete()
+                    .rootActivity()
+                        .assertComplete()
+                        .progress()
+                            .assertCommitted(ROLES, 0, 0)
+                            .assertNoUncommitted();
+        // @formatter:on
+
+        assertThat(recorder.getExecutions()).as("recorder after run 2")
+                .containsExactlyInAnyOrderElementsOf(getMessages(roles.subList(checkpointIndex + 1, ROLES)));
+        assertThat(getIterationCheckpoint(task1)).as("checkpoint after completion").isNull();
+    }
+
+    /** Returns the test roles in the order in which they are iterated over by the repository, i.e. by OID. */
+    private List<PrismObject<RoleType>> getRolesInIterationOrder(OperationResult result) throws SchemaException {
+        List<PrismObject<RoleType>> roles = repositoryService.searchObjects(RoleType.class, null, null, result).stream()
+                .filter(role -> role.getName().getOrig().matches("r\\d\\d"))
+                .sorted(Comparator.comparing(PrismObject::getOid))
+                .toList();
+        assertThat(roles).as("roles").hasSize(ROLES);
+        return roles;
+    }
+
+    private void setRoleDescription(String oid, String description, OperationResult result) throws CommonException {
+        var values = description != null ? new Object[] { description } : new Object[0];
+        repositoryService.modifyObject(RoleType.class, oid,
+                prismContext.deltaFor(RoleType.class)
+                        .item(RoleType.F_DESCRIPTION).replace(values)
+                        .asItemDeltas(),
+                result);
+    }
+
+    private ActivityIterationCheckpointType getIterationCheckpoint(Task task) {
+        ActivityBucketingStateType bucketing =
+                task.getRawTaskObjectClone().asObjectable().getActivityState().getActivity().getBucketing();
+        return bucketing != null ? bucketing.getIterationCheckpoint() : null;
+    }
+
+    private int getIndex(List<PrismObject<RoleType>> roles, String oid) {
+        for (int i = 0; i < roles.size(); i++) {
+            if (roles.get(i).getOid().equals(oid)) {
+                return i;
+            }
+        }
+        throw new AssertionError("No role with OID " + oid);
+    }
+
+    private List<String> getMessages(List<PrismObject<RoleType>> roles) {
+        return roles.stream()
+                .map(role -> "Role: " + role.getName().getOrig())
+                .toList();
+    }
+
     /**
      * Runs mock search-based activity with buckets.
      */
@@ -2421,6 +2763,93 @@ public class TestActivities extends AbstractRepoCommonTest {
         // @formatter:on
     }
 
+    /**
+     * Children delegated to subtasks are started in parallel, and share their search, if it is the same.
+     *
+     * Activity "c" searches for different roles than "a" and "b" (although with the same shared source), so it searches
+     * separately. Neither of them may wait for the rendezvous timeout (60 seconds): "c" arrives first, and the rendezvous
+     * is closed as soon as "a" and "b" arrive. If the children were not started in parallel, "c" would wait for them
+     * in vain, until the timeout.
+     */
+    @Test
+    public void test230SharedSearch() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task root = taskAdd(TASK_230_SHARED_SEARCH, result);
+
+        when();
+
+        waitForTaskClose(root.getOid(), result, 30000);
+
+        then();
+
+        displayDumpable("recorder", recorder);
+
+        // @formatter:off
+        assertTaskTree(root.getOid(), "after")
+                .display("root")
+                .assertSuccess()
+                .assertClosed()
+                .activityState()
+                    .rootActivity()
+                        .assertComplete()
+                        .assertSuccess()
+                        .assertChildren(3)
+                    .end()
+                .end()
+                .subtaskForPath(ActivityPath.fromId("a"))
+                    .assertClosed()
+                    .assertSuccess()
+                    .activityState()
+                        .rootActivity()
+                            .itemProcessingStatistics()
+                                .assertTotalCounts(100, 0, 0)
+                            .end()
+                        .end()
+                    .end()
+                .end()
+                .subtaskForPath(ActivityPath.fromId("b"))
+                    .assertClosed()
+                    .assertSuccess()
+                    .activityState()
+                        .rootActivity()
+                            .itemProcessingStatistics()
+                                .assertTotalCounts(100, 0, 0)
+                            .end()
+                        .end()
+                    .end()
+                .end()
+                .subtaskForPath(ActivityPath.fromId("c"))
+                    .assertClosed()
+                    .assertSuccess()
+                    .activityState()
+                        .rootActivity()
+                            .itemProcessingStatistics()
+                                .assertTotalCounts(10, 0, 0)
+                            .end()
+                        .end()
+                    .end()
+                .end();
+        // @formatter:on
+
+        Set<String> messages = new HashSet<>();
+        for (int i = 0; i < ROLES; i++) {
+            String roleName = String.format(ROLE_NAME_PATTERN, i);
+            messages.add("A: " + roleName);
+            messages.add("B: " + roleName);
+            if (i < 10) {
+                messages.add("C: " + roleName);
+            }
+        }
+        assertThat(recorder.getExecutions()).as("recorder")
+                .containsExactlyInAnyOrderElementsOf(messages);
+    }
+
     @Test
     public void test300WorkersSimple() throws Exception {
         given();
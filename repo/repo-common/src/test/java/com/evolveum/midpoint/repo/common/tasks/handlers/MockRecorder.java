@@ -23,6 +23,10 @@ public class MockRecorder implements DebugDumpable {
     @SuppressWarnings("unchecked")
     private final List<String> executions = synchronizedList(new ArrayList<>());
 
+    /** Sizes of the item batches processed, if the activity processes items in batches. */
+    @SuppressWarnings("unchecked")
+    private final List<Integer> batchSizes = synchronizedList(new ArrayList<>());
+
     /** This is to verify that realization start timestamps in workers are the same. */
     @NotNull private final Set<XMLGregorianCalendar> realizationStartTimestamps = new HashSet<>();
 
@@ -34,6 +38,14 @@ public class MockRecorder implements DebugDumpable {
         return executions;
     }
 
+    public void recordBatch(int size) {
+        batchSizes.add(size);
+    }
+
+    public List<Integer> getBatchSizes() {
+        return batchSizes;
+    }
+
     public void recordRealizationStartTimestamp(XMLGregorianCalendar value) {
         realizationStartTimestamps.add(value);
     }
@@ -44,6 +56,7 @@ public class MockRecorder implements DebugDumpable {
 
     public void reset() {
         executions.clear();
+        batchSizes.clear();
         realizationStartTimestamps.clear();
     }
 
@@ -52,6 +65,7 @@ public class MockRecorder implements DebugDumpable {
         StringBuilder sb = new StringBuilder();
         DebugUtil.debugDumpLabelLn(sb, "MockRecorder", indent);
         DebugUtil.debugDumpWithLabelLn(sb, "executions", executions, indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "batch sizes", batchSizes, indent + 1);
         DebugUtil.debugDumpWithLabel(sb, "realization start timestamps", realizationStartTimestamps, indent + 1);
         return sb.toString();
     }
@@ -9,13 +9,18 @@ package com.evolveum.midpoint.repo.common.tasks.handlers.search;
 import com.evolveum.axiom.concepts.Lazy;
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.prism.query.ObjectFilter;
+import java.util.List;
+
 import com.evolveum.midpoint.repo.common.activity.run.ActivityReportingCharacteristics;
+import com.evolveum.midpoint.repo.common.activity.run.ActivityRunException;
 import com.evolveum.midpoint.repo.common.activity.run.ActivityRunInstantiationContext;
+import com.evolveum.midpoint.repo.common.activity.run.processing.BatchedItem;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
 import com.evolveum.midpoint.repo.common.activity.run.SearchBasedActivityRun;
 
 import com.evolveum.midpoint.schema.SchemaService;
 import com.evolveum.midpoint.util.MiscUtil;
+import com.evolveum.midpoint.util.exception.CommonException;
 import com.evolveum.midpoint.util.exception.SchemaException;
 import com.evolveum.midpoint.util.exception.SystemException;
 import com.evolveum.midpoint.util.exception.ThresholdPolicyViolationException;
@@ -55,10 +60,19 @@ final class SearchBasedMockActivityRun
     @Override
     public @NotNull ActivityReportingCharacteristics createReportingCharacteristics() {
         return super.createReportingCharacteristics()
-                .synchronizationStatisticsSupported(true)
+                .synchronizationStatisticsSupported(!isBatched()) // these would switch the batching off
                 .actionsExecutedStatisticsSupported(true);
     }
 
+    @Override
+    protected int getItemBatchSize() {
+        return isBatched() ? getWorkDefinition().getBatchSize() : 1;
+    }
+
+    private boolean isBatched() {
+        return getWorkDefinition().getBatchSize() > 1;
+    }
+
     @Override
     public void beforeRun(OperationResult result) {
         getRecorder().recordRealizationStartTimestamp(
@@ -87,6 +101,13 @@ final class SearchBasedMockActivityRun
         return true;
     }
 
+    @Override
+    public boolean processItems(@NotNull List<BatchedItem<ObjectType>> items, RunningTask workerTask,
+            OperationResult result) throws CommonException, ActivityRunException {
+        getRecorder().recordBatch(items.size());
+        return super.processItems(items, workerTask, result);
+    }
+
     private void checkFreezeIfScavenger() {
         if (!getWorkDefinition().isFreezeIfScavenger()) {
             return;
@@ -128,6 +149,11 @@ final class SearchBasedMockActivityRun
 
     private void provideSomeMockStatistics(ItemProcessingRequest<ObjectType> request, RunningTask workerTask) {
         ObjectType object = request.getItem();
+        if (isBatched()) {
+            workerTask.recordObjectActionExecuted(object.asPrismObject(), ChangeType.MODIFY, null);
+            workerTask.recordObjectActionExecuted(object.asPrismObject(), ChangeType.MODIFY, null);
+            return;
+        }
         workerTask.onSynchronizationStart(request.getIdentifier(), object.getOid(), SynchronizationSituationType.UNLINKED);
         workerTask.onSynchronizationSituationChange(request.getIdentifier(), object.getOid(), SynchronizationSituationType.LINKED);
         workerTask.recordObjectActionExecuted(object.asPrismObject(), ChangeType.MODIFY, null);
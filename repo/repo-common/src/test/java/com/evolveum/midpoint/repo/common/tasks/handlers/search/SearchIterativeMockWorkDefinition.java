@@ -32,6 +32,7 @@ public class SearchIterativeMockWorkDefinition extends AbstractWorkDefinition im
     private static final ItemName FAIL_ON_NAME = new ItemName(NS_EXT, "failOn");
     private static final ItemName FREEZE_IF_SCAVENGER = new ItemName(NS_EXT, "freezeIfScavenger");
     private static final ItemName DELAY = new ItemName(NS_EXT, "delay");
+    private static final ItemName BATCH_SIZE = new ItemName(NS_EXT, "batchSize");
 
     static final QName WORK_DEFINITION_TYPE_QNAME = new QName(NS_EXT, "SearchIterativeMockDefinitionType");
     static final QName WORK_DEFINITION_ITEM_QNAME = new QName(NS_EXT, "searchIterativeMock");
@@ -41,6 +42,7 @@ public class SearchIterativeMockWorkDefinition extends AbstractWorkDefinition im
     @Nullable private final SearchFilterType failOn;
     private final boolean freezeIfScavenger;
     private final long delay;
+    private final int batchSize;
 
     SearchIterativeMockWorkDefinition(@NotNull WorkDefinitionFactory.WorkDefinitionInfo info) {
         super(info);
@@ -51,6 +53,7 @@ public class SearchIterativeMockWorkDefinition extends AbstractWorkDefinition im
         this.freezeIfScavenger = Boolean.TRUE.equals(
                 pcv.getPropertyRealValue(FREEZE_IF_SCAVENGER, Boolean.class));
         this.delay = or0(pcv.getPropertyRealValue(DELAY, Long.class));
+        this.batchSize = or0(pcv.getPropertyRealValue(BATCH_SIZE, Integer.class));
     }
 
     private @NotNull ObjectSetType getObjectSet(PrismContainerValue<?> pcv) {
@@ -80,13 +83,19 @@ public class SearchIterativeMockWorkDefinition extends AbstractWorkDefinition im
         return delay;
     }
 
+    /** Zero means no batching. */
+    int getBatchSize() {
+        return batchSize;
+    }
+
     @Override
     protected void debugDumpContent(StringBuilder sb, int indent) {
         DebugUtil.debugDumpWithLabelLn(sb, "objectSet", objectSet, indent+1);
         DebugUtil.debugDumpWithLabelLn(sb, "message", message, indent+1);
         DebugUtil.debugDumpWithLabelLn(sb, "failOn", failOn, indent+1);
         DebugUtil.debugDumpWithLabelLn(sb, "freezeIfScavenger", freezeIfScavenger, indent+1);
-        DebugUtil.debugDumpWithLabel(sb, "delay", delay, indent+1);
+        DebugUtil.debugDumpWithLabelLn(sb, "delay", delay, indent+1);
+        DebugUtil.debugDumpWithLabel(sb, "batchSize", batchSize, indent+1);
     }
 
     @Override
@@ -6,16 +6,15 @@
 
 package com.evolveum.midpoint.repo.sqale;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Supplier;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.Striped;
+import com.querydsl.core.QueryFlag.Position;
+import com.querydsl.sql.dml.SQLInsertClause;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -27,6 +26,15 @@ import com.evolveum.midpoint.util.logging.TraceManager;
 
 /**
  * Cache for {@link MExtItem} catalog.
+ *
+ * Reads of cached items are lock-free, as all the maps are concurrent.
+ * Only resolution of a missing key takes a lock, and only the one for the key stripe,
+ * so threads resolving different keys don't block each other.
+ * The same key can be inserted by another node at the same time - unique constraint on the table
+ * takes care of this, and the loser simply reads the row inserted by the winner.
+ *
+ * To avoid the inserts during normal operation completely, extension items known from the schema
+ * can be registered in bulk upfront, see {@link #preregister(Collection)}.
  */
 public class ExtItemCache {
 
@@ -35,7 +43,13 @@ public class ExtItemCache {
     private final Map<Integer, MExtItem> idToExtItem = new ConcurrentHashMap<>();
     private final Map<MExtItem.Key, MExtItem> keyToExtItem = new ConcurrentHashMap<>();
 
-    private final Multimap<String, MExtItem> nameToExtItem = HashMultimap.create();
+    private final Map<String, Set<MExtItem>> nameToExtItem = new ConcurrentHashMap<>();
+
+    /** Locks used for insertion of missing items, striped by the item key. */
+    private final Striped<Lock> insertLocks = Striped.lock(64);
+
+    /** Incremented on each change of the cached data, see {@link #getModificationCount()}. */
+    private final AtomicLong modificationCount = new AtomicLong();
 
     // WARNING: Each .get() creates new connection, always use in try-with-resource block!
     private Supplier<JdbcSession> jdbcSessionSupplier;
@@ -50,6 +64,8 @@ public class ExtItemCache {
         // this can be called repeatedly in tests, so the clear may be necessary
         idToExtItem.clear();
         keyToExtItem.clear();
+        nameToExtItem.clear();
+        modificationCount.incrementAndGet();
 
         QExtItem uri = QExtItem.DEFAULT;
         List<MExtItem> result;
@@ -67,14 +83,22 @@ public class ExtItemCache {
         LOGGER.info("Ext item cache initialized with {} items.", result.size());
     }
 
+    /**
+     * Returns a number that changes whenever the cached data change.
+     * Used to invalidate information derived from the cache content, like translated queries.
+     */
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
     private void updateMaps(MExtItem row) {
+        modificationCount.incrementAndGet();
         idToExtItem.put(row.id, row);
         keyToExtItem.put(row.key(), row);
-        nameToExtItem.put(row.itemName, row);
-
+        nameToExtItem.computeIfAbsent(row.itemName, k -> ConcurrentHashMap.newKeySet()).add(row);
     }
 
-    public synchronized @NotNull MExtItem resolveExtensionItem(@NotNull MExtItem.Key extItemKey) {
+    public @NotNull MExtItem resolveExtensionItem(@NotNull MExtItem.Key extItemKey) {
         if (jdbcSessionSupplier == null) {
             throw new IllegalStateException("Ext item cache was not initialized yet!");
         }
@@ -84,6 +108,22 @@ public class ExtItemCache {
             return extItem;
         }
 
+        Lock lock = insertLocks.get(extItemKey);
+        lock.lock();
+        try {
+            // another thread may have inserted it while we were waiting for the lock
+            extItem = keyToExtItem.get(extItemKey);
+            if (extItem != null) {
+                return extItem;
+            }
+            return insertExtItem(extItemKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MExtItem insertExtItem(@NotNull MExtItem.Key extItemKey) {
+        MExtItem extItem;
         QExtItem ei = QExtItem.DEFAULT;
         try (JdbcSession jdbcSession = jdbcSessionSupplier.get().startTransaction()) {
             Integer id = jdbcSession.newInsert(ei)
@@ -108,6 +148,56 @@ public class ExtItemCache {
         return extItem;
     }
 
+    /**
+     * Makes sure that all the provided keys are in the catalog and in the cache.
+     * Missing items are inserted in a single transaction; items inserted concurrently
+     * (e.g. by another node starting at the same time) are silently skipped and loaded afterwards.
+     *
+     * Returns the number of items that were not cached before.
+     */
+    public int preregister(@NotNull Collection<MExtItem.Key> extItemKeys) {
+        if (jdbcSessionSupplier == null) {
+            throw new IllegalStateException("Ext item cache was not initialized yet!");
+        }
+
+        List<MExtItem.Key> missingKeys = extItemKeys.stream()
+                .filter(k -> !keyToExtItem.containsKey(k))
+                .distinct()
+                .toList();
+        if (missingKeys.isEmpty()) {
+            return 0;
+        }
+
+        QExtItem ei = QExtItem.DEFAULT;
+        List<MExtItem> rows;
+        try (JdbcSession jdbcSession = jdbcSessionSupplier.get().startTransaction()) {
+            SQLInsertClause insert = jdbcSession.newInsert(ei);
+            for (MExtItem.Key key : missingKeys) {
+                insert.set(ei.itemName, key.itemName)
+                        .set(ei.valueType, key.valueType)
+                        .set(ei.holderType, key.holderType)
+                        .set(ei.cardinality, key.cardinality)
+                        .addBatch();
+            }
+            // QueryDSL does not support PostgreSQL upsert syntax, it needs to be added as positional flag
+            insert.addFlag(Position.END, " ON CONFLICT DO NOTHING")
+                    .execute();
+
+            // Rows inserted by others are not returned by the insert, so we simply read the whole catalog.
+            rows = jdbcSession.newQuery()
+                    .select(ei)
+                    .from(ei)
+                    .fetch();
+            jdbcSession.commit();
+        }
+
+        for (MExtItem row : rows) {
+            updateMaps(row);
+        }
+        LOGGER.debug("Ext item cache pre-registered {} items.", missingKeys.size());
+        return missingKeys.size();
+    }
+
     private MExtItem retrieveFromDb(@NotNull MExtItem.Key key) {
         QExtItem ei = QExtItem.DEFAULT;
         MExtItem row;
@@ -127,7 +217,7 @@ public class ExtItemCache {
         return row;
     }
 
-    public synchronized @Nullable MExtItem getExtensionItem(Integer id) {
+    public @Nullable MExtItem getExtensionItem(Integer id) {
         if (jdbcSessionSupplier == null) {
             throw new IllegalStateException("Ext item cache was not initialized yet!");
         }
@@ -164,7 +254,7 @@ public class ExtItemCache {
     }
 
     public Collection<MExtItem> findConflictingExtensions(MExtItem extItemInfo) {
-        var conflicting = new ArrayList<>(nameToExtItem.get(extItemInfo.itemName));
+        var conflicting = new ArrayList<>(nameToExtItem.getOrDefault(extItemInfo.itemName, Set.of()));
         // Remove self from conflicting, all other items are conflicting
         conflicting.remove(extItemInfo);
         return conflicting;
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.sqale;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * Determines the page size for a single iterative search (objects, containers or references).
+ *
+ * In the fixed mode (default), the configured `iterativeSearchByPagingBatchSize` (or `iterationPageSize`
+ * option) is used for all pages.
+ *
+ * In the adaptive mode (`iterativeSearchAdaptivePageSize`), the first page uses the configured size and each next page
+ * size is computed from the per-row values observed so far:
+ *
+ * . fetching a page (query and parsing) should take about {@link #TARGET_FETCH_NANOS}, so that small rows
+ * (e.g. references or simple roles) are not fetched in many round-trips;
+ * . handling a page should take at most {@link #MAX_HANDLING_NANOS}, so that the objects are not kept in memory
+ * (and do not get stale) for too long when the handler is slow;
+ * . stored size of the objects in a page should not exceed `iterativeSearchMaxPageBytes`, so that the pages
+ * of big objects (e.g. users with many assignments) do not cause memory spikes.
+ *
+ * The result is kept between `iterativeSearchMinPageSize` and `iterativeSearchMaxPageSize`.
+ * The size grows at most {@link #MAX_GROWTH_FACTOR} times per page, but it can drop immediately.
+ *
+ * The stored object sizes are collected via {@link #recordFetchedBytes(long)} from the thread fetching the page,
+ * which is bracketed by {@link #startFetch()} and {@link #finishFetch(int)}.
+ * Nested searches done by the handler are not counted, as they run outside of this bracket.
+ *
+ * Not thread-safe, each search uses its own instance.
+ */
+public class IterationPageSizer {
+
+    private static final Trace LOGGER = TraceManager.getTrace(IterationPageSizer.class);
+
+    private static final long TARGET_FETCH_NANOS = 250_000_000L;
+    private static final long MAX_HANDLING_NANOS = 30_000_000_000L;
+    private static final int MAX_GROWTH_FACTOR = 2;
+
+    /** Weight of the last page in the moving averages. */
+    private static final double LAST_PAGE_WEIGHT = 0.5;
+
+    private static final ThreadLocal<IterationPageSizer> CURRENT_FETCH_TL = new ThreadLocal<>();
+
+    private final boolean adaptive;
+    private final int minPageSize;
+    private final int maxPageSize;
+    private final long maxPageBytes;
+
+    private int pageSize;
+
+    // Moving averages per row, negative if not known yet.
+    private double rowBytes = -1;
+    private double rowFetchNanos = -1;
+    private double rowHandlingNanos = -1;
+
+    private long fetchStart;
+    private long fetchedBytes;
+    private IterationPageSizer previousFetch;
+    private long handlingStart;
+
+    private IterationPageSizer(boolean adaptive, int initialPageSize, int minPageSize, int maxPageSize, long maxPageBytes) {
+        this.adaptive = adaptive;
+        this.minPageSize = minPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxPageBytes = maxPageBytes;
+        this.pageSize = adaptive ? clamp(initialPageSize) : initialPageSize;
+    }
+
+    /** Sizer always returning the same page size. */
+    public static IterationPageSizer fixed(int pageSize) {
+        return new IterationPageSizer(false, pageSize, pageSize, pageSize, 0);
+    }
+
+    public static IterationPageSizer adaptive(@NotNull SqaleRepositoryConfiguration configuration) {
+        return new IterationPageSizer(true,
+                configuration.getIterativeSearchByPagingBatchSize(),
+                configuration.getIterativeSearchMinPageSize(),
+                configuration.getIterativeSearchMaxPageSize(),
+                configuration.getIterativeSearchMaxPageBytes());
+    }
+
+    /** Size for the next page. */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /** Called before the page is fetched, in the thread fetching it. */
+    public void startFetch() {
+        if (adaptive) {
+            fetchedBytes = 0;
+            previousFetch = CURRENT_FETCH_TL.get();
+            CURRENT_FETCH_TL.set(this);
+            fetchStart = System.nanoTime();
+        }
+    }
+
+    /** Called after the page is fetched (also if the fetch failed), with the number of rows fetched. */
+    public void finishFetch(int rows) {
+        if (adaptive) {
+            long fetchNanos = System.nanoTime() - fetchStart;
+            if (previousFetch != null) {
+                CURRENT_FETCH_TL.set(previousFetch);
+                previousFetch = null;
+            } else {
+                CURRENT_FETCH_TL.remove();
+            }
+            if (rows > 0) {
+                rowFetchNanos = average(rowFetchNanos, (double) fetchNanos / rows);
+                if (fetchedBytes > 0) {
+                    rowBytes = average(rowBytes, (double) fetchedBytes / rows);
+                }
+            }
+            handlingStart = System.nanoTime();
+        }
+    }
+
+    /**
+     * Called after the rows of a full page were handled, with the number of rows handled.
+     * Computes the size of the next page.
+     */
+    public void finishHandling(int rows) {
+        if (!adaptive || rows <= 0) {
+            return;
+        }
+        rowHandlingNanos = average(rowHandlingNanos, (double) (System.nanoTime() - handlingStart) / rows);
+
+        double newSize = rowFetchNanos > 0 ? TARGET_FETCH_NANOS / rowFetchNanos : maxPageSize;
+        if (rowHandlingNanos > 0) {
+            newSize = Math.min(newSize, MAX_HANDLING_NANOS / rowHandlingNanos);
+        }
+        if (rowBytes > 0 && maxPageBytes > 0) {
+            newSize = Math.min(newSize, maxPageBytes / rowBytes);
+        }
+        newSize = Math.min(newSize, (double) pageSize * MAX_GROWTH_FACTOR);
+        int oldSize = pageSize;
+        pageSize = clamp((int) newSize);
+        LOGGER.trace("Next iteration page size: {} (was {}), per row: {} bytes, fetch {} ns, handling {} ns",
+                pageSize, oldSize, (long) rowBytes, (long) rowFetchNanos, (long) rowHandlingNanos);
+    }
+
+    /** Records the stored size of the object parsed by the current thread, if a page fetch is in progress. */
+    public static void recordFetchedBytes(long bytes) {
+        IterationPageSizer sizer = CURRENT_FETCH_TL.get();
+        if (sizer != null) {
+            sizer.fetchedBytes += bytes;
+        }
+    }
+
+    private int clamp(int size) {
+        return Math.max(minPageSize, Math.min(maxPageSize, size));
+    }
+
+    private static double average(double current, double value) {
+        return current < 0 ? value : current * (1 - LAST_PAGE_WEIGHT) + value * LAST_PAGE_WEIGHT;
+    }
+
+    @Override
+    public String toString() {
+        return "IterationPageSizer{" +
+                (adaptive ? "adaptive" : "fixed") +
+                ", pageSize=" + pageSize +
+                ", rowBytes=" + (long) rowBytes +
+                ", rowFetchNanos=" + (long) rowFetchNanos +
+                ", rowHandlingNanos=" + (long) rowHandlingNanos +
+                '}';
+    }
+}
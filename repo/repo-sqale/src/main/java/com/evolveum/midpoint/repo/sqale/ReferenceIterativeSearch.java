@@ -90,16 +90,15 @@ public class ReferenceIterativeSearch {
                             ? OrderDirection.DESCENDING : OrderDirection.ASCENDING);
             pagedQuery.setPaging(paging);
 
-            int pageSize = Math.min(
-                    repoService.getIterationPageSize(options),
-                    defaultIfNull(maxSize, Integer.MAX_VALUE));
-            pagedQuery.getPaging().setMaxSize(pageSize);
+            IterationPageSizer pageSizer = repoService.createIterationPageSizer(options);
             pagedQuery.getPaging().setOffset(offset);
 
             ObjectReferenceType lastProcessedRef = null;
             int handledObjectsTotal = 0;
 
             while (true) {
+                int pageSize = Math.min(pageSizer.getPageSize(), defaultIfNull(maxSize, Integer.MAX_VALUE));
+                pagedQuery.getPaging().setMaxSize(pageSize);
                 if (maxSize != null && maxSize - handledObjectsTotal < pageSize) {
                     // relevant only for the last page
                     pagedQuery.getPaging().setMaxSize(maxSize - handledObjectsTotal);
@@ -111,8 +110,14 @@ public class ReferenceIterativeSearch {
 
                 // we don't call public searchReferences to avoid subresults and query simplification
                 repoService.logSearchInputParameters(ObjectReferenceType.class, pagedQuery, "Search object iterative page");
-                List<ObjectReferenceType> objects = repoService.executeSearchReferences(
-                        pagedQuery, options, OP_SEARCH_REFERENCES_ITERATIVE_PAGE);
+                List<ObjectReferenceType> objects = null;
+                pageSizer.startFetch();
+                try {
+                    objects = repoService.executeSearchReferences(
+                            pagedQuery, options, OP_SEARCH_REFERENCES_ITERATIVE_PAGE);
+                } finally {
+                    pageSizer.finishFetch(objects != null ? objects.size() : 0);
+                }
 
                 // process page results
                 for (ObjectReferenceType object : objects) {
@@ -138,6 +143,7 @@ public class ReferenceIterativeSearch {
                             .pagingCookie(lastProcessedRef != null
                                     ? pagingCookie(lastProcessedRef) : null);
                 }
+                pageSizer.finishHandling(objects.size());
                 pagedQuery.getPaging().setOffset(null);
             }
         } finally {
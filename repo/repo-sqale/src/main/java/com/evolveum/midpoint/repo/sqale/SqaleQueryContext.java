@@ -171,6 +171,19 @@ public class SqaleQueryContext<S, Q extends FlexibleRelationalPathBase<R>, R>
         }
     }
 
+    /** The org filter requires the org closure refresh also when the cached translation of the filter is used. */
+    @Override
+    protected @Nullable Object getTranslationState() {
+        return containsOrgFilter ? Boolean.TRUE : null;
+    }
+
+    @Override
+    protected void applyTranslationState(@Nullable Object state) {
+        if (Boolean.TRUE.equals(state)) {
+            markContainsOrgFilter();
+        }
+    }
+
     /** Returns derived {@link SqaleQueryContext} for JOIN. */
     @Override
     public <TS, TQ extends FlexibleRelationalPathBase<TR>, TR> SqlQueryContext<TS, TQ, TR>
@@ -9,8 +9,10 @@ package com.evolveum.midpoint.repo.sqale;
 import java.lang.reflect.Array;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.sql.DataSource;
 import javax.xml.namespace.QName;
 
@@ -25,6 +27,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import com.evolveum.midpoint.common.configuration.api.MidpointConfiguration;
+import com.evolveum.midpoint.prism.ItemDefinition;
+import com.evolveum.midpoint.prism.PrismContainerDefinition;
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.SerializationOptions;
 import com.evolveum.midpoint.prism.delta.ChangeType;
@@ -42,10 +46,13 @@ import com.evolveum.midpoint.repo.sqale.qmodel.object.MObjectType;
 import com.evolveum.midpoint.repo.sqale.qmodel.ref.MReferenceType;
 import com.evolveum.midpoint.repo.sqlbase.JdbcRepositoryConfiguration;
 import com.evolveum.midpoint.repo.sqlbase.JdbcSession;
+import com.evolveum.midpoint.repo.sqlbase.QueryTranslationCache;
 import com.evolveum.midpoint.repo.sqlbase.SqlRepoContext;
 import com.evolveum.midpoint.repo.sqlbase.mapping.QueryModelMappingRegistry;
 import com.evolveum.midpoint.schema.SchemaConstantsGenerated;
+import com.evolveum.midpoint.prism.schema.SchemaRegistry;
 import com.evolveum.midpoint.schema.SchemaService;
+import com.evolveum.midpoint.schema.constants.ObjectTypes;
 import com.evolveum.midpoint.schema.util.FullTextSearchUtil;
 import com.evolveum.midpoint.util.QNameUtil;
 import com.evolveum.midpoint.util.exception.SchemaException;
@@ -73,6 +80,11 @@ public class SqaleRepoContext extends SqlRepoContext {
 
     private FullTextSearchConfigurationType fullTextSearchConfig;
 
+    /** Changed when the configuration affecting the translation of queries changes. */
+    private final AtomicLong queryTranslationConfigurationVersion = new AtomicLong();
+
+    private final QueryTranslationCache queryTranslationCache;
+
     public SqaleRepoContext(
             JdbcRepositoryConfiguration jdbcRepositoryConfiguration,
             DataSource dataSource,
@@ -126,6 +138,10 @@ public class SqaleRepoContext extends SqlRepoContext {
 
         uriCache = new UriCache();
         extItemCache = new ExtItemCache();
+        queryTranslationCache = new QueryTranslationCache(
+                () -> uriCache.getModificationCount()
+                        + extItemCache.getModificationCount()
+                        + queryTranslationConfigurationVersion.get());
     }
 
     @PostConstruct
@@ -165,6 +181,18 @@ public class SqaleRepoContext extends SqlRepoContext {
     public void clearCaches() {
         uriCache.initialize(this::newJdbcSession);
         extItemCache.initialize(this::newJdbcSession);
+        queryTranslationCache.clear();
+    }
+
+    @Override
+    public @NotNull QueryTranslationCache getQueryTranslationCache() {
+        return queryTranslationCache;
+    }
+
+    /** To be called when any configuration that may affect the translation of queries to SQL changes. */
+    public void invalidateQueryTranslations() {
+        queryTranslationConfigurationVersion.incrementAndGet();
+        queryTranslationCache.clear();
     }
 
     /**
@@ -218,6 +246,41 @@ public class SqaleRepoContext extends SqlRepoContext {
         return extItemCache.resolveExtensionItem(extItemKey);
     }
 
+    /**
+     * Registers all the indexed extension items known from the schema in the ext item catalog,
+     * so that the common writes find them in the cache and don't need to insert them.
+     * Items inserted by other nodes at the same time are just loaded, so this is safe in a cluster.
+     */
+    public void preregisterExtensionItems() {
+        SchemaRegistry schemaRegistry = prismContext().getSchemaRegistry();
+        Set<MExtItem.Key> keys = new HashSet<>();
+        for (ObjectTypes objectType : ObjectTypes.values()) {
+            var objectDef = schemaRegistry.findObjectDefinitionByCompileTimeClass(objectType.getClassDefinition());
+            if (objectDef != null) {
+                addExtensionItemKeys(objectDef.findContainerDefinition(ObjectType.F_EXTENSION), keys);
+            }
+        }
+        var assignmentDef = schemaRegistry.findContainerDefinitionByCompileTimeClass(AssignmentType.class);
+        if (assignmentDef != null) {
+            addExtensionItemKeys(assignmentDef.findContainerDefinition(AssignmentType.F_EXTENSION), keys);
+        }
+
+        int registered = extItemCache.preregister(keys);
+        LOGGER.info("Extension items from schema pre-registered: {} of {} were not cached yet.", registered, keys.size());
+    }
+
+    private void addExtensionItemKeys(PrismContainerDefinition<?> extensionDef, Set<MExtItem.Key> keys) {
+        if (extensionDef == null) {
+            return;
+        }
+        for (ItemDefinition<?> itemDef : extensionDef.getDefinitions()) {
+            MExtItem.Key key = ExtensionProcessor.extensionItemKey(itemDef, MExtItemHolderType.EXTENSION);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+    }
+
     public @Nullable MExtItem getExtensionItem(Integer id) {
         return extItemCache.getExtensionItem(id);
     }
@@ -228,6 +291,7 @@ public class SqaleRepoContext extends SqlRepoContext {
 
     public void setFullTextSearchConfiguration(FullTextSearchConfigurationType fullTextSearchConfig) {
         this.fullTextSearchConfig = fullTextSearchConfig;
+        invalidateQueryTranslations();
     }
 
     /**
@@ -6,6 +6,8 @@
 
 package com.evolveum.midpoint.repo.sqale;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.sql.DataSource;
 
 import com.evolveum.midpoint.repo.sqale.qmodel.mining.cluster.QClusterDetectedPatternMapping;
@@ -66,6 +68,7 @@ import com.evolveum.midpoint.repo.sqale.qmodel.task.QAffectedObjectsMapping;
 import com.evolveum.midpoint.repo.sqale.qmodel.task.QTaskMapping;
 import com.evolveum.midpoint.repo.sqale.schema.QSchemaMapping;
 import com.evolveum.midpoint.repo.sqlbase.DataSourceFactory;
+import com.evolveum.midpoint.repo.sqlbase.ReadReplicaRouter;
 import com.evolveum.midpoint.repo.sqlbase.SystemConfigurationChangeDispatcherImpl;
 import com.evolveum.midpoint.repo.sqlbase.mapping.QueryModelMappingRegistry;
 import com.evolveum.midpoint.repo.sqlbase.perfmon.SqlPerformanceMonitorsCollectionImpl;
@@ -112,15 +115,38 @@ public class SqaleRepositoryBeanConfig {
         return dataSourceFactory.createDataSource("mp-repo");
     }
 
+    /**
+     * Router to optional read replicas. Data sources of the replicas are created lazily by the router,
+     * so an unavailable replica does not prevent the start of midPoint.
+     * The replica pools are closed by {@link ReadReplicaRouter#destroy()}.
+     */
+    @Bean
+    public ReadReplicaRouter readReplicaRouter(SqaleRepositoryConfiguration repositoryConfiguration)
+            throws RepositoryServiceFactoryException {
+        List<ReadReplicaRouter.Replica> replicas = new ArrayList<>();
+        for (var replicaConfig : repositoryConfiguration.getReplicaConfigurations()) {
+            replicas.add(new ReadReplicaRouter.Replica(
+                    replicaConfig.getName(),
+                    new DataSourceFactory(replicaConfig),
+                    replicaConfig.getOperations(),
+                    replicaConfig.getCallers(),
+                    replicaConfig.getMaxLagMs(),
+                    replicaConfig.getLagCheckIntervalMs()));
+        }
+        return new ReadReplicaRouter(replicas);
+    }
+
     @Bean
     public SqaleRepoContext sqlRepoContext(
             SqaleRepositoryConfiguration repositoryConfiguration,
             SchemaService schemaService,
-            DataSource dataSource) {
+            DataSource dataSource,
+            ReadReplicaRouter readReplicaRouter) {
         QueryModelMappingRegistry mappingRegistry = new QueryModelMappingRegistry();
         SqaleRepoContext repositoryContext = new SqaleRepoContext(
                 repositoryConfiguration, dataSource, schemaService, mappingRegistry,
                 SqaleUtils.SCHEMA_CHANGE_NUMBER, SqaleUtils.CURRENT_SCHEMA_CHANGE_NUMBER);
+        repositoryContext.setReadReplicaRouter(readReplicaRouter);
 
         // logger on com.evolveum.midpoint.repo.sqlbase.querydsl.SqlLogger
         // DEBUG = show query, TRACE = add parameter values too (bindings)
@@ -9,9 +9,17 @@ package com.evolveum.midpoint.repo.sqale;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import jakarta.annotation.PostConstruct;
 
+import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.HierarchicalConfiguration;
+import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -31,6 +39,45 @@ public class SqaleRepositoryConfiguration implements JdbcRepositoryConfiguration
 
     private static final String PROPERTY_SQL_DURATION_WARNING_MS = "sqlDurationWarningMs";
 
+    /**
+     * If true, page size of iterative searches is adapted after each page, see {@link IterationPageSizer}.
+     * The configured iterative search batch size is then used for the first page only.
+     */
+    private static final String PROPERTY_ITERATIVE_SEARCH_ADAPTIVE_PAGE_SIZE = "iterativeSearchAdaptivePageSize";
+
+    /** Lower bound for the adaptive page size. */
+    private static final String PROPERTY_ITERATIVE_SEARCH_MIN_PAGE_SIZE = "iterativeSearchMinPageSize";
+
+    /** Upper bound for the adaptive page size. */
+    private static final String PROPERTY_ITERATIVE_SEARCH_MAX_PAGE_SIZE = "iterativeSearchMaxPageSize";
+
+    /** Maximal size of stored (serialized) objects fetched in a single adaptive page, in bytes. */
+    private static final String PROPERTY_ITERATIVE_SEARCH_MAX_PAGE_BYTES = "iterativeSearchMaxPageBytes";
+
+    /**
+     * Sub-elements configuring read replicas, each with its own JDBC URL (or data source) and connection pool
+     * settings, plus the routing properties below.
+     */
+    private static final String CONF_REPLICA = "replica";
+
+    /** Name of the replica, used in logs and as JDBC application name. */
+    public static final String PROPERTY_REPLICA_NAME = "name";
+
+    /** Comma-separated operation kinds routed to the replica (`get`, `search`, `count`); all by default. */
+    public static final String PROPERTY_REPLICA_OPERATIONS = "operations";
+
+    /** Comma-separated callers routed to the replica (`report`, `dashboard`, `gui`, `roleMining`); all by default. */
+    public static final String PROPERTY_REPLICA_CALLERS = "callers";
+
+    /** Maximal tolerated replication lag; if exceeded, the primary is used. 0 or less means no check. */
+    public static final String PROPERTY_REPLICA_MAX_LAG_MS = "maxLagMs";
+
+    /** How often the replication lag is checked. */
+    public static final String PROPERTY_REPLICA_LAG_CHECK_INTERVAL_MS = "lagCheckIntervalMs";
+
+    private static final long DEFAULT_REPLICA_MAX_LAG_MS = 5000;
+    private static final long DEFAULT_REPLICA_LAG_CHECK_INTERVAL_MS = 1000;
+
     private static final String DEFAULT_DRIVER = "org.postgresql.Driver";
     private static final SupportedDatabase DEFAULT_DATABASE = SupportedDatabase.POSTGRESQL;
     private static final String DEFAULT_JDBC_URL = "jdbc:postgresql://localhost:5432/midpoint";
@@ -58,6 +105,9 @@ public class SqaleRepositoryConfiguration implements JdbcRepositoryConfiguration
     private static final int DEFAULT_MAX_POOL_SIZE = 40;
 
     private static final int DEFAULT_ITERATIVE_SEARCH_PAGE_SIZE = 100;
+    private static final int DEFAULT_ITERATIVE_SEARCH_MIN_PAGE_SIZE = 10;
+    private static final int DEFAULT_ITERATIVE_SEARCH_MAX_PAGE_SIZE = 2000;
+    private static final long DEFAULT_ITERATIVE_SEARCH_MAX_PAGE_BYTES = 64L * 1024 * 1024;
 
     private static final int DEFAULT_SQL_DURATION_WARNING_MS = 0; // 0 or less means no warning
 
@@ -85,6 +135,10 @@ public class SqaleRepositoryConfiguration implements JdbcRepositoryConfiguration
     private int performanceStatisticsLevel;
 
     private int iterativeSearchByPagingBatchSize;
+    private boolean iterativeSearchAdaptivePageSize;
+    private int iterativeSearchMinPageSize;
+    private int iterativeSearchMaxPageSize;
+    private long iterativeSearchMaxPageBytes;
     private boolean createMissingCustomColumns;
 
     private long sqlDurationWarningMs; // 0 or less means no warning
@@ -137,6 +191,14 @@ public class SqaleRepositoryConfiguration implements JdbcRepositoryConfiguration
 
         iterativeSearchByPagingBatchSize = configuration.getInt(
                 PROPERTY_ITERATIVE_SEARCH_BY_PAGING_BATCH_SIZE, DEFAULT_ITERATIVE_SEARCH_PAGE_SIZE);
+        iterativeSearchAdaptivePageSize =
+                configuration.getBoolean(PROPERTY_ITERATIVE_SEARCH_ADAPTIVE_PAGE_SIZE, false);
+        iterativeSearchMinPageSize = Math.max(1, configuration.getInt(
+                PROPERTY_ITERATIVE_SEARCH_MIN_PAGE_SIZE, DEFAULT_ITERATIVE_SEARCH_MIN_PAGE_SIZE));
+        iterativeSearchMaxPageSize = Math.max(iterativeSearchMinPageSize, configuration.getInt(
+                PROPERTY_ITERATIVE_SEARCH_MAX_PAGE_SIZE, DEFAULT_ITERATIVE_SEARCH_MAX_PAGE_SIZE));
+        iterativeSearchMaxPageBytes = configuration.getLong(
+                PROPERTY_ITERATIVE_SEARCH_MAX_PAGE_BYTES, DEFAULT_ITERATIVE_SEARCH_MAX_PAGE_BYTES);
         createMissingCustomColumns =
                 configuration.getBoolean(PROPERTY_CREATE_MISSING_CUSTOM_COLUMNS, false);
 
@@ -287,6 +349,27 @@ public class SqaleRepositoryConfiguration implements JdbcRepositoryConfiguration
         this.iterativeSearchByPagingBatchSize = iterativeSearchByPagingBatchSize;
     }
 
+    public boolean isIterativeSearchAdaptivePageSize() {
+        return iterativeSearchAdaptivePageSize;
+    }
+
+    // exists because of testing
+    public void setIterativeSearchAdaptivePageSize(boolean iterativeSearchAdaptivePageSize) {
+        this.iterativeSearchAdaptivePageSize = iterativeSearchAdaptivePageSize;
+    }
+
+    public int getIterativeSearchMinPageSize() {
+        return iterativeSearchMinPageSize;
+    }
+
+    public int getIterativeSearchMaxPageSize() {
+        return iterativeSearchMaxPageSize;
+    }
+
+    public long getIterativeSearchMaxPageBytes() {
+        return iterativeSearchMaxPageBytes;
+    }
+
     @Override
     public boolean isCreateMissingCustomColumns() {
         return createMissingCustomColumns;
@@ -300,6 +383,85 @@ public class SqaleRepositoryConfiguration implements JdbcRepositoryConfiguration
         return sqlDurationWarningMs;
     }
 
+    /**
+     * Returns configurations of read replicas (`replica` sub-elements), already initialized.
+     * See {@link #CONF_REPLICA} and `PROPERTY_REPLICA_*` constants for the supported properties.
+     */
+    public @NotNull List<ReplicaConfiguration> getReplicaConfigurations() throws RepositoryServiceFactoryException {
+        if (!(configuration instanceof BaseHierarchicalConfiguration hierarchicalConfiguration)) {
+            return List.of();
+        }
+        List<ReplicaConfiguration> replicas = new ArrayList<>();
+        for (HierarchicalConfiguration<ImmutableNode> replicaConfig
+                : hierarchicalConfiguration.configurationsAt(CONF_REPLICA)) {
+            // one of these properties must be present, we don't want to fall back to the default JDBC URL
+            if (replicaConfig.getString(PROPERTY_JDBC_URL) == null
+                    && replicaConfig.getString(PROPERTY_DATASOURCE) == null) {
+                throw new RepositoryServiceFactoryException(
+                        "Read replica configuration must contain either JDBC URL or data source.");
+            }
+            ReplicaConfiguration replica = new ReplicaConfiguration(replicaConfig, replicas.size());
+            replica.init();
+            replicas.add(replica);
+        }
+        return replicas;
+    }
+
+    /**
+     * Configuration of a single read replica.
+     * JDBC and connection pool settings are the same as for the main repository, routing properties are added.
+     */
+    public static class ReplicaConfiguration extends SqaleRepositoryConfiguration {
+
+        private final String name;
+        private final Set<String> operations;
+        private final Set<String> callers;
+        private final long maxLagMs;
+        private final long lagCheckIntervalMs;
+
+        private ReplicaConfiguration(@NotNull Configuration configuration, int index) {
+            super(configuration);
+            name = configuration.getString(PROPERTY_REPLICA_NAME, "replica-" + index);
+            operations = parseSet(configuration.getString(PROPERTY_REPLICA_OPERATIONS));
+            callers = parseSet(configuration.getString(PROPERTY_REPLICA_CALLERS));
+            maxLagMs = configuration.getLong(PROPERTY_REPLICA_MAX_LAG_MS, DEFAULT_REPLICA_MAX_LAG_MS);
+            lagCheckIntervalMs = configuration.getLong(
+                    PROPERTY_REPLICA_LAG_CHECK_INTERVAL_MS, DEFAULT_REPLICA_LAG_CHECK_INTERVAL_MS);
+        }
+
+        private static Set<String> parseSet(String value) {
+            if (StringUtils.isBlank(value)) {
+                return null;
+            }
+            return Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .collect(Collectors.toSet());
+        }
+
+        public @NotNull String getName() {
+            return name;
+        }
+
+        /** Operation kinds routed to this replica, `null` means all. */
+        public Set<String> getOperations() {
+            return operations;
+        }
+
+        /** Callers routed to this replica, `null` means all. */
+        public Set<String> getCallers() {
+            return callers;
+        }
+
+        public long getMaxLagMs() {
+            return maxLagMs;
+        }
+
+        public long getLagCheckIntervalMs() {
+            return lagCheckIntervalMs;
+        }
+    }
+
     /**
      * Creates a copy of provided configuration for audit and applies override from config.xml.
      * This is used when the same data source is used by audit and repository.
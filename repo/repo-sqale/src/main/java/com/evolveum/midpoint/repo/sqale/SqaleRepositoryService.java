@@ -29,6 +29,7 @@ import com.evolveum.midpoint.util.logging.TraceManager;
 import com.google.common.base.Strings;
 import com.google.common.collect.ObjectArrays;
 import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.sql.SQLQuery;
 import org.apache.commons.lang3.Validate;
@@ -99,6 +100,8 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
 
     private static final int MAX_CONFLICT_WATCHERS = 10;
 
+    private static final String OP_ADD_OBJECTS_IN_BATCH = "addObjectsInBatch";
+
     private static final Collection<SelectorOptions<GetOperationOptions>> GET_FOR_UPDATE_OPTIONS =
             SchemaService.get().getOperationOptionsBuilder().build();
 
@@ -123,7 +126,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
             SqaleRepoContext repositoryContext,
             SqlPerformanceMonitorsCollection sqlPerformanceMonitorsCollection) {
         super(repositoryContext, sqlPerformanceMonitorsCollection);
-        this.sqlQueryExecutor = new SqlQueryExecutor(repositoryContext);
+        this.sqlQueryExecutor = new SqlQueryExecutor(repositoryContext, performanceMonitor);
         this.configurationChangeListener = new SqaleSystemConfigurationListener(repositoryContext);
     }
 
@@ -178,8 +181,8 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
             Class<T> type, UUID oidUuid, Collection<SelectorOptions<GetOperationOptions>> options)
             throws SchemaException, ObjectNotFoundException {
         T object;
-        try (JdbcSession jdbcSession =
-                sqlRepoContext.newJdbcSession().startReadOnlyTransaction()) {
+        try (JdbcSession jdbcSession = sqlRepoContext.newJdbcSessionForRead(
+                ReadReplicaRouter.OPERATION_GET, type).startReadOnlyTransaction()) {
             object = readByOid(jdbcSession, type, oidUuid, options);
             jdbcSession.commit();
         }
@@ -324,6 +327,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
         if (options == null) {
             options = new RepoAddOptions();
         }
+        ReadReplicaRouting.recordWrite(object.asObjectable().getClass());
 
         OperationResult operationResult = parentResult.subresult(opNamePrefix + OP_ADD_OBJECT)
                 .addQualifier(object.asObjectable().getClass().getSimpleName())
@@ -332,26 +336,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
                 .build();
 
         try {
-            PolyString name = object.getName();
-            if (name == null || Strings.isNullOrEmpty(name.getOrig())) {
-                throw new SchemaException("Attempt to add object without name.");
-            }
-
-            //noinspection ConstantConditions
-            logger.debug(
-                    "Adding object type '{}', overwrite={}, allowUnencryptedValues={}, name={} - {}",
-                    object.getCompileTimeClass().getSimpleName(), options.isOverwrite(),
-                    options.isAllowUnencryptedValues(), name.getOrig(), name.getNorm());
-
-            if (InternalsConfig.encryptionChecks && !RepoAddOptions.isAllowUnencryptedValues(options)) {
-                CryptoUtil.checkEncrypted(object);
-            }
-
-            if (InternalsConfig.consistencyChecks) {
-                object.checkConsistence(ConsistencyCheckScope.THOROUGH);
-            } else {
-                object.checkConsistence(ConsistencyCheckScope.MANDATORY_CHECKS_ONLY);
-            }
+            checkObjectBeforeAdd(object, options);
 
             return object.getOid() == null || !options.isOverwrite()
                     ? executeAddObject(object)
@@ -386,6 +371,100 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
         }
     }
 
+    private void checkObjectBeforeAdd(
+            @NotNull PrismObject<? extends ObjectType> object, @NotNull RepoAddOptions options)
+            throws SchemaException {
+        PolyString name = object.getName();
+        if (name == null || Strings.isNullOrEmpty(name.getOrig())) {
+            throw new SchemaException("Attempt to add object without name.");
+        }
+
+        //noinspection ConstantConditions
+        logger.debug(
+                "Adding object type '{}', overwrite={}, allowUnencryptedValues={}, name={} - {}",
+                object.getCompileTimeClass().getSimpleName(), options.isOverwrite(),
+                options.isAllowUnencryptedValues(), name.getOrig(), name.getNorm());
+
+        if (InternalsConfig.encryptionChecks && !RepoAddOptions.isAllowUnencryptedValues(options)) {
+            CryptoUtil.checkEncrypted(object);
+        }
+
+        if (InternalsConfig.consistencyChecks) {
+            object.checkConsistence(ConsistencyCheckScope.THOROUGH);
+        } else {
+            object.checkConsistence(ConsistencyCheckScope.MANDATORY_CHECKS_ONLY);
+        }
+    }
+
+    /**
+     * Adds the provided objects in a single transaction, which is considerably faster than adding them
+     * one by one, e.g. for a bulk import.
+     * Only plain add is supported, options with overwrite are not allowed.
+     *
+     * If any object can't be added, the whole batch is rolled back and the exception is thrown.
+     * Caller can then add the objects one by one using {@link #addObject} to find the problematic one.
+     *
+     * This is not part of {@link RepositoryService} contract, it is used by Ninja for bulk import.
+     */
+    public @NotNull List<String> addObjectsInBatch(
+            @NotNull List<? extends PrismObject<? extends ObjectType>> objects,
+            @Nullable RepoAddOptions options,
+            @NotNull OperationResult parentResult)
+            throws ObjectAlreadyExistsException, SchemaException {
+
+        Objects.requireNonNull(objects, "Objects must not be null.");
+        Objects.requireNonNull(parentResult, "Operation result must not be null.");
+
+        if (options == null) {
+            options = new RepoAddOptions();
+        }
+        Validate.isTrue(!options.isOverwrite(), "Overwrite is not supported for batch add");
+        objects.forEach(o -> ReadReplicaRouting.recordWrite(o.asObjectable().getClass()));
+
+        OperationResult operationResult = parentResult.subresult(opNamePrefix + OP_ADD_OBJECTS_IN_BATCH)
+                .addParam("objects", objects.size())
+                .addParam(OperationResult.PARAM_OPTIONS, options.toString())
+                .build();
+
+        try {
+            for (PrismObject<? extends ObjectType> object : objects) {
+                checkObjectBeforeAdd(object, options);
+            }
+
+            return executeAddObjectsInBatch(objects);
+        } catch (RepositoryException | RuntimeException e) {
+            throw handledGeneralException(e, operationResult);
+        } catch (Throwable t) {
+            recordFatalError(operationResult, t);
+            throw t;
+        } finally {
+            operationResult.close();
+        }
+    }
+
+    private @NotNull List<String> executeAddObjectsInBatch(
+            @NotNull List<? extends PrismObject<? extends ObjectType>> objects)
+            throws SchemaException, ObjectAlreadyExistsException {
+        long opHandle = registerOperationStart(OP_ADD_OBJECTS_IN_BATCH, ObjectType.class);
+
+        try {
+            List<String> oids = executeRetriable(OP_ADD_OBJECTS_IN_BATCH, null, opHandle,
+                    () -> AddObjectContext.executeBatch(sqlRepoContext, objects));
+
+            for (int i = 0; i < objects.size(); i++) {
+                String oid = oids.get(i);
+                PrismObject<? extends ObjectType> object = objects.get(i);
+                invokeConflictWatchers((w) -> w.afterAddObject(oid, object));
+            }
+            return oids;
+        } catch (ObjectNotFoundException | RepositoryException e) {
+            // Should not happen
+            throw new SystemException(e);
+        } finally {
+            registerOperationFinish(opHandle);
+        }
+    }
+
     /** Overwrite is more like update than add. */
     private <T extends ObjectType> String executeOverwriteObject(
             @NotNull PrismObject<T> newObject)
@@ -482,6 +561,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
         Objects.requireNonNull(type, "Object class in delta must not be null.");
         UUID oidUuid = SqaleUtils.oidToUuidMandatory(oid);
         Objects.requireNonNull(parentResult, "Operation result must not be null.");
+        ReadReplicaRouting.recordWrite(type);
 
         OperationResult operationResult = parentResult.subresult(opNamePrefix + OP_MODIFY_OBJECT)
                 .addQualifier(type.getSimpleName())
@@ -553,6 +633,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
         Objects.requireNonNull(type, "Object class in delta must not be null.");
         UUID oidUuid = SqaleUtils.oidToUuidMandatory(oid);
         Objects.requireNonNull(parentResult, "Operation result must not be null.");
+        ReadReplicaRouting.recordWrite(type);
 
         OperationResult operationResult = parentResult.subresult(opNamePrefix + OP_MODIFY_OBJECT_DYNAMICALLY)
                 .addQualifier(type.getSimpleName())
@@ -603,6 +684,11 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
         try (JdbcSession jdbcSession = sqlRepoContext.newJdbcSession().startTransaction()) {
             RootUpdateContext<T, QObject<MObject>, MObject> updateContext =
                     prepareUpdateContext(jdbcSession, type, oidUuid, getOptions, modifyOptions);
+            if (updateContext.reindexNeeded()
+                    && SqaleUtils.isWithoutFullObject(updateContext.getPrismObject().asObjectable())) {
+                // Partially loaded object can't be used for reindex, we need to read it whole.
+                updateContext = prepareUpdateContext(jdbcSession, type, oidUuid, GET_FOR_REINDEX_OPTIONS, modifyOptions);
+            }
 
             PrismObject<T> object = updateContext.getPrismObject(); // NOT cloning; but the modification supplier must be careful!
             Collection<? extends ItemDelta<?, ?>> modifications =
@@ -829,6 +915,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
             }
         }
 
+        ReadReplicaRouting.recordWrite(SimulationResultType.class);
         var operationResult = parentResult.createSubresult("deleteSimulatedProcessedObjects");
         try (JdbcSession jdbcSession = sqlRepoContext.newJdbcSession().startTransaction()) {
             RootUpdateContext<SimulationResultType, QObject<MObject>, MObject> update = prepareUpdateContext(jdbcSession, SimulationResultType.class, SqaleUtils.oidToUuidMandatory(oid));
@@ -861,6 +948,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
         Validate.notNull(type, "Object type must not be null.");
         UUID oidUuid = SqaleUtils.oidToUuidMandatory(oid);
         Validate.notNull(parentResult, "Operation result must not be null.");
+        ReadReplicaRouting.recordWrite(type);
 
         logger.debug("Deleting object type '{}' with oid '{}'", type.getSimpleName(), oid);
 
@@ -980,6 +1068,87 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
         }
     }
 
+    @Override
+    public <T extends ObjectType> @NotNull List<Integer> countObjectsBatch(
+            @NotNull Class<T> type,
+            @NotNull List<ObjectQuery> queries,
+            @Nullable Collection<SelectorOptions<GetOperationOptions>> options,
+            @NotNull OperationResult parentResult)
+            throws SchemaException {
+        Objects.requireNonNull(type, "Object type must not be null.");
+        Objects.requireNonNull(parentResult, "Operation result must not be null.");
+
+        OperationResult operationResult = parentResult.subresult(opNamePrefix + OP_COUNT_OBJECTS_BATCH)
+                .addQualifier(type.getSimpleName())
+                .addParam(OperationResult.PARAM_TYPE, type.getName())
+                .addParam("queries", queries.size())
+                .build();
+
+        try {
+            return executeCountObjectsBatch(type, queries, options);
+        } catch (RepositoryException | RuntimeException e) {
+            throw handledGeneralException(e, operationResult);
+        } catch (Throwable t) {
+            recordFatalError(operationResult, t);
+            throw t;
+        } finally {
+            operationResult.close();
+        }
+    }
+
+    /**
+     * Counts all the queries that can be translated without a JOIN in the main query by a single SQL statement.
+     * The others are counted one by one. (A JOIN could multiply the rows, so the counts would be wrong.)
+     */
+    private <T extends ObjectType> @NotNull List<Integer> executeCountObjectsBatch(
+            @NotNull Class<T> type,
+            @NotNull List<ObjectQuery> queries,
+            Collection<SelectorOptions<GetOperationOptions>> options)
+            throws RepositoryException {
+
+        Integer[] counts = new Integer[queries.size()];
+        List<Predicate> batchPredicates = new ArrayList<>();
+        List<Integer> batchPositions = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            ObjectQuery query = ObjectQueryUtil.simplifyQuery(queries.get(i));
+            if (ObjectQueryUtil.isNoneQuery(query)) {
+                counts[i] = 0;
+                continue;
+            }
+            ObjectFilter filter = query != null ? query.getFilter() : null;
+            Predicate predicate = null;
+            if (filter != null) {
+                var filterContext = SqaleQueryContext.from(type, sqlRepoContext);
+                predicate = filterContext.process(filter);
+                if (filterContext.sqlQuery().getMetadata().getJoins().size() > 1) {
+                    logger.trace("Query #{} needs a JOIN, counting it separately", i);
+                    counts[i] = executeCountObjects(type, query, options);
+                    continue;
+                }
+                filterContext.beforeQuery(); // e.g. refreshes the org closure, if needed
+            }
+            batchPredicates.add(predicate);
+            batchPositions.add(i);
+        }
+
+        if (!batchPredicates.isEmpty()) {
+            long opHandle = registerOperationStart(OP_COUNT_OBJECTS_BATCH, type);
+            try {
+                List<Integer> batchCounts = executeRetriable(OP_COUNT_OBJECTS_BATCH, null, opHandle,
+                        () -> sqlQueryExecutor.countBatch(
+                                SqaleQueryContext.from(type, sqlRepoContext), batchPredicates));
+                for (int j = 0; j < batchPositions.size(); j++) {
+                    counts[batchPositions.get(j)] = batchCounts.get(j);
+                }
+            } catch (SchemaException | ObjectNotFoundException | ObjectAlreadyExistsException e) {
+                throw shouldNotHappen(e);
+            } finally {
+                registerOperationFinish(opHandle);
+            }
+        }
+        return Arrays.asList(counts);
+    }
+
     @Override
     public @NotNull <T extends ObjectType> SearchResultList<PrismObject<T>> searchObjects(
             @NotNull Class<T> type, ObjectQuery query,
@@ -1022,6 +1191,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
             String operationKind)
             throws RepositoryException, SchemaException {
         long opHandle = registerOperationStart(operationKind, type);
+        registerOperationPageSize(opHandle, query);
         try {
             SearchResultList<T> result = executeRetriable(operationKind, null, opHandle, () -> sqlQueryExecutor.list(
                     SqaleQueryContext.from(type, sqlRepoContext),
@@ -1122,16 +1292,15 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
                             ? OrderDirection.DESCENDING : OrderDirection.ASCENDING);
             pagedQuery.setPaging(paging);
 
-            int pageSize = Math.min(
-                    getIterationPageSize(options),
-                    defaultIfNull(maxSize, Integer.MAX_VALUE));
-            pagedQuery.getPaging().setMaxSize(pageSize);
+            IterationPageSizer pageSizer = createIterationPageSizer(options);
             pagedQuery.getPaging().setOffset(offset);
 
             PrismObject<T> lastProcessedObject = null;
             int handledObjectsTotal = 0;
 
             while (true) {
+                int pageSize = Math.min(pageSizer.getPageSize(), defaultIfNull(maxSize, Integer.MAX_VALUE));
+                pagedQuery.getPaging().setMaxSize(pageSize);
                 if (maxSize != null && maxSize - handledObjectsTotal < pageSize) {
                     // relevant only for the last page
                     pagedQuery.getPaging().setMaxSize(maxSize - handledObjectsTotal);
@@ -1146,8 +1315,13 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
                 logSearchInputParameters(type, pagedQuery, "Search object iterative page");
 
                 // Should we do retries here?
-                List<PrismObject<T>> objects = executeSearchObjects(
-                        type, pagedQuery, options, OP_SEARCH_OBJECTS_ITERATIVE_PAGE);
+                List<PrismObject<T>> objects = null;
+                pageSizer.startFetch();
+                try {
+                    objects = executeSearchObjects(type, pagedQuery, options, OP_SEARCH_OBJECTS_ITERATIVE_PAGE);
+                } finally {
+                    pageSizer.finishFetch(objects != null ? objects.size() : 0);
+                }
 
                 // process page results
                 for (PrismObject<T> object : objects) {
@@ -1175,6 +1349,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
                             .pagingCookie(lastProcessedObject != null
                                     ? lastProcessedObject.getOid() : null);
                 }
+                pageSizer.finishHandling(objects.size());
                 pagedQuery.getPaging().setOffset(null);
             }
         } finally {
@@ -1398,6 +1573,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
             Class<T> type, ObjectQuery query, Collection<SelectorOptions<GetOperationOptions>> options, String opName)
             throws RepositoryException, SchemaException {
         long opHandle = registerOperationStart(opName, type);
+        registerOperationPageSize(opHandle, query);
         try {
             return executeRetriable(opName, null, opHandle, () -> {
                 SqaleQueryContext<T, FlexibleRelationalPathBase<Object>, Object> queryContext =
@@ -1494,6 +1670,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
             String operationKind)
             throws SchemaException, RepositoryException {
         long opHandle = registerOperationStart(operationKind, ObjectReferenceType.class);
+        registerOperationPageSize(opHandle, query);
         QReferenceMapping<?, ?, ?, ?> refMapping = determineMapping(query.getFilter());
 
         try {
@@ -1671,14 +1848,15 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
 
             pagedQuery.setPaging(paging);
 
-            int pageSize = Math.min(getIterationPageSize(options), defaultIfNull(maxSize, Integer.MAX_VALUE));
-            pagedQuery.getPaging().setMaxSize(pageSize);
+            IterationPageSizer pageSizer = createIterationPageSizer(options);
             pagedQuery.getPaging().setOffset(offset);
 
             T lastProcessedObject = null;
             int handledObjectsTotal = 0;
 
             while (true) {
+                int pageSize = Math.min(pageSizer.getPageSize(), defaultIfNull(maxSize, Integer.MAX_VALUE));
+                pagedQuery.getPaging().setMaxSize(pageSize);
                 if (maxSize != null && maxSize - handledObjectsTotal < pageSize) {
                     // relevant only for the last page
                     pagedQuery.getPaging().setMaxSize(maxSize - handledObjectsTotal);
@@ -1691,8 +1869,13 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
 
                 // we don't call public searchObject to avoid subresults and query simplification
                 logSearchInputParameters(type, pagedQuery, "Search object iterative page");
-                List<T> objects = executeSearchContainers(
-                        type, pagedQuery, options, OP_SEARCH_CONTAINERS_ITERATIVE_PAGE);
+                List<T> objects = null;
+                pageSizer.startFetch();
+                try {
+                    objects = executeSearchContainers(type, pagedQuery, options, OP_SEARCH_CONTAINERS_ITERATIVE_PAGE);
+                } finally {
+                    pageSizer.finishFetch(objects != null ? objects.size() : 0);
+                }
 
                 // process page results
                 for (T object : objects) {
@@ -1718,6 +1901,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
                             .pagingCookie(lastProcessedObject != null
                                     ? pagingCookie(lastProcessedObject) : null);
                 }
+                pageSizer.finishHandling(objects.size());
                 pagedQuery.getPaging().setOffset(null);
             }
         } finally {
@@ -1729,6 +1913,13 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
     }
 
     public Integer getIterationPageSize(Collection<SelectorOptions<GetOperationOptions>> options) {
+        Integer requestedPageSize = getRequestedIterationPageSize(options);
+        return requestedPageSize != null
+                ? requestedPageSize
+                : repositoryConfiguration().getIterativeSearchByPagingBatchSize();
+    }
+
+    private Integer getRequestedIterationPageSize(Collection<SelectorOptions<GetOperationOptions>> options) {
         if (options != null) {
             for (var option : options) {
                 if (option.isRoot() && option.getOptions() != null) {
@@ -1738,7 +1929,20 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
                 }
             }
         }
-        return repositoryConfiguration().getIterativeSearchByPagingBatchSize();
+        return null;
+    }
+
+    /**
+     * Returns page sizer for a new iterative search.
+     * Page size explicitly requested by the options is always respected, adaptive sizing is used only without it.
+     */
+    public IterationPageSizer createIterationPageSizer(Collection<SelectorOptions<GetOperationOptions>> options) {
+        SqaleRepositoryConfiguration configuration = repositoryConfiguration();
+        if (configuration.isIterativeSearchAdaptivePageSize() && getRequestedIterationPageSize(options) == null) {
+            return IterationPageSizer.adaptive(configuration);
+        } else {
+            return IterationPageSizer.fixed(getIterationPageSize(options));
+        }
     }
 
     /**
@@ -2046,6 +2250,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
         UUID oidUuid = SqaleUtils.oidToUuidMandatory(oid);
         Validate.notNull(parentResult, "Operation result must not be null.");
 
+        ReadReplicaRouting.recordWrite(SequenceType.class);
         logger.debug("Advancing sequence {}", oid);
 
         OperationResult operationResult = parentResult.subresult(opNamePrefix + OP_ADVANCE_SEQUENCE)
@@ -2094,6 +2299,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
         UUID oidUuid = SqaleUtils.oidToUuidMandatory(oid);
         Validate.notNull(parentResult, "Operation result must not be null.");
 
+        ReadReplicaRouting.recordWrite(SequenceType.class);
         logger.debug("Returning unused values of {} to sequence {}", unusedValues, oid);
 
         OperationResult operationResult =
@@ -2161,6 +2367,7 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
             throws ObjectNotFoundException {
         UUID oidUuid = SqaleUtils.oidToUuidMandatory(oid);
 
+        ReadReplicaRouting.recordWrite(type);
         logger.debug("Allocating container identifiers {}", oid);
 
         OperationResult operationResult = parentResult.subresult(opNamePrefix + OP_ALLOCATE_CONTAINER_IDENTIFIERS)
@@ -2409,6 +2616,15 @@ public class SqaleRepositoryService extends SqaleServiceBase implements Reposito
     public void postInit(OperationResult parentResult) throws SchemaException {
         logger.debug("Executing repository postInit method");
         systemConfigurationChangeDispatcher.dispatch(true, true, parentResult);
+        // Schema with all the extensions is loaded by now, steady-state writes should not need to insert ext items.
+        // This is only an optimization: the items are registered on the first use anyway, so a failure must not stop
+        // the start of the node.
+        try {
+            sqlRepoContext.preregisterExtensionItems();
+        } catch (RuntimeException e) {
+            logger.warn("Couldn't pre-register extension items from the schema, they will be registered"
+                    + " on their first use: {}", e.getMessage(), e);
+        }
     }
 
     private void invokeConflictWatchers(Consumer<ConflictWatcherImpl> consumer) {
@@ -19,6 +19,7 @@ import com.evolveum.midpoint.repo.sqlbase.SupportedDatabase;
 
 import jakarta.annotation.PreDestroy;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.postgresql.util.PSQLException;
 
 import com.evolveum.midpoint.prism.Containerable;
@@ -155,6 +156,14 @@ public class SqaleServiceBase {
                 : -1;
     }
 
+    /** Records the page size (max size) of the operation, if the query has any. */
+    protected void registerOperationPageSize(long opHandle, @Nullable ObjectQuery query) {
+        Integer maxSize = query != null && query.getPaging() != null ? query.getPaging().getMaxSize() : null;
+        if (performanceMonitor != null && maxSize != null) {
+            performanceMonitor.registerOperationPageSize(opHandle, maxSize);
+        }
+    }
+
     protected void registerOperationFinish(long opHandle) {
         if (performanceMonitor != null) {
             performanceMonitor.registerOperationFinish(opHandle, 1);
@@ -26,6 +26,7 @@ public class SqaleSystemConfigurationListener {
         } else {
             applyDefaults();
         }
+        repositoryContext.invalidateQueryTranslations();
     }
 
     /** Applies configuration from RepositoryConfigurationType **/
@@ -10,9 +10,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Supplier;
 import javax.xml.namespace.QName;
 
+import com.google.common.util.concurrent.Striped;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -47,6 +50,9 @@ import com.evolveum.midpoint.util.logging.TraceManager;
  * This could be avoided if the runtime maps were updated *only* after the row was successfully
  * read from the DB in other operations - which beats the purposes of those fast operations.
  * Instead, we risk adding the row that is not used, it is no harm; it will likely be used later.
+ *
+ * Lookups of cached URIs are lock-free; only the insertion of a missing URI takes a lock
+ * striped by the URI, so that unrelated URIs can be added concurrently.
  */
 public class UriCache {
 
@@ -64,6 +70,12 @@ public class UriCache {
     private final Map<Integer, String> idToUri = new ConcurrentHashMap<>();
     private final Map<String, Integer> uriToId = new ConcurrentHashMap<>();
 
+    /** Locks used for insertion of missing URIs, striped by the URI string. */
+    private final Striped<Lock> insertLocks = Striped.lock(64);
+
+    /** Incremented on each change of the cached data, see {@link #getModificationCount()}. */
+    private final AtomicLong modificationCount = new AtomicLong();
+
     // WARNING: Each .get() creates new connection, always use in try-with-resource block!
     private Supplier<JdbcSession> jdbcSessionSupplier;
 
@@ -77,6 +89,7 @@ public class UriCache {
         // this can be called repeatedly in tests, so the clear may be necessary
         idToUri.clear();
         uriToId.clear();
+        modificationCount.incrementAndGet();
 
         QUri uri = QUri.DEFAULT;
         List<MUri> result;
@@ -94,7 +107,16 @@ public class UriCache {
         LOGGER.info("URI cache initialized with {} items.", result.size());
     }
 
+    /**
+     * Returns a number that changes whenever the cached data change.
+     * Used to invalidate information derived from the cache content, like translated queries.
+     */
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
     private void updateMaps(MUri row) {
+        modificationCount.incrementAndGet();
         if (row.id == UNKNOWN_ID) {
             throw new AssertionError("URI with ID=" + UNKNOWN_ID + " MUST NOT be in the database!");
         }
@@ -180,7 +202,7 @@ public class UriCache {
      * Returns ID for URI creating new cache row in DB as needed.
      * Returns null for null URI parameter.
      */
-    public synchronized @Nullable Integer processCacheableUri(@Nullable Object uri) {
+    public @Nullable Integer processCacheableUri(@Nullable Object uri) {
         if (uri == null) {
             return null;
         }
@@ -192,11 +214,28 @@ public class UriCache {
                 ? QNameUtil.qNameToUri((QName) uri)
                 : uri.toString();
 
-        Integer id = getId(uriString);
+        // fast path without any locking for URIs already in the cache
+        Integer id = uriToId.get(uriString);
         if (id != null) {
             return id;
         }
 
+        Lock lock = insertLocks.get(uriString);
+        lock.lock();
+        try {
+            // also checks the DB, the URI may have been added by another node
+            id = getId(uriString);
+            if (id != null) {
+                return id;
+            }
+            return insertUri(uriString);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private @NotNull Integer insertUri(String uriString) {
+        Integer id;
         QUri qu = QUri.DEFAULT;
         try (JdbcSession jdbcSession = jdbcSessionSupplier.get().startTransaction()) {
             id = jdbcSession.newInsert(qu)
@@ -217,7 +256,7 @@ public class UriCache {
             }
             throw e;
         }
-        LOGGER.debug("URI cache inserted URI={} under ID={}", uri, id);
+        LOGGER.debug("URI cache inserted URI={} under ID={}", uriString, id);
         return id;
     }
 
@@ -76,7 +76,7 @@ public class SqaleAuditService extends SqaleServiceBase implements AuditService
             SqaleRepoContext sqlRepoContext,
             SqlPerformanceMonitorsCollection sqlPerformanceMonitorsCollection) {
         super(sqlRepoContext, sqlPerformanceMonitorsCollection);
-        this.sqlQueryExecutor = new SqlQueryExecutor(sqlRepoContext);
+        this.sqlQueryExecutor = new SqlQueryExecutor(sqlRepoContext, performanceMonitor);
     }
 
     @Override
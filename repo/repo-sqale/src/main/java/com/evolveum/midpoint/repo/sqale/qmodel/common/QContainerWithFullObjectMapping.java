@@ -10,6 +10,7 @@ import com.evolveum.axiom.concepts.CheckedFunction;
 import com.evolveum.midpoint.prism.*;
 import com.evolveum.midpoint.prism.path.ItemPath;
 import com.evolveum.midpoint.prism.schema.SchemaRegistryState;
+import com.evolveum.midpoint.repo.sqale.IterationPageSizer;
 import com.evolveum.midpoint.repo.sqale.SqaleRepoContext;
 
 import com.evolveum.midpoint.repo.sqale.qmodel.object.QSeparatelySerializedItem;
@@ -108,6 +109,7 @@ public abstract class QContainerWithFullObjectMapping<S extends Containerable, Q
                 fullObject,
                 getItemPath() + " for " + tuple.get(alias.ownerOid),
                 schemaType()).asPrismContainerValue();
+        IterationPageSizer.recordFetchedBytes(fullObject.length);
         attachContainerIdPath((S) obj.asContainerable(), tuple, alias);
         return obj;
     }
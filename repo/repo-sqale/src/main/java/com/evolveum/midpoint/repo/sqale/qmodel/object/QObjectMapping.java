@@ -46,6 +46,7 @@ import org.jetbrains.annotations.NotNull;
 
 import com.evolveum.midpoint.repo.api.RepositoryObjectDiagnosticData;
 import com.evolveum.midpoint.repo.api.RepositoryService;
+import com.evolveum.midpoint.repo.sqale.IterationPageSizer;
 import com.evolveum.midpoint.repo.sqale.SqaleRepoContext;
 import com.evolveum.midpoint.repo.sqale.SqaleUtils;
 import com.evolveum.midpoint.repo.sqale.mapping.SqaleTableMapping;
@@ -53,6 +54,7 @@ import com.evolveum.midpoint.repo.sqale.qmodel.ext.MExtItemHolderType;
 import com.evolveum.midpoint.repo.sqale.qmodel.focus.QUserMapping;
 import com.evolveum.midpoint.repo.sqale.qmodel.org.QOrgMapping;
 import com.evolveum.midpoint.repo.sqale.qmodel.ref.QObjectReferenceMapping;
+import com.evolveum.midpoint.repo.sqale.update.RootUpdateContext;
 import com.evolveum.midpoint.repo.sqlbase.JdbcSession;
 import com.evolveum.midpoint.repo.sqlbase.mapping.RepositoryMappingException;
 import com.evolveum.midpoint.schema.GetOperationOptions;
@@ -252,6 +254,7 @@ public class QObjectMapping<S extends ObjectType, Q extends QObject<R>, R extend
             // We load full object
 
             ret = parseSchemaObject(fullObject, oid.toString());
+            IterationPageSizer.recordFetchedBytes(fullObject.length);
             if (GetOperationOptions.isAttachDiagData(SelectorOptions.findRootOptions(options))) {
                 RepositoryObjectDiagnosticData diagData = new RepositoryObjectDiagnosticData(fullObject.length);
                 ret.asPrismContainer().setUserData(RepositoryService.KEY_DIAG_DATA, diagData);
@@ -296,7 +299,7 @@ public class QObjectMapping<S extends ObjectType, Q extends QObject<R>, R extend
                     rootExcluded = true;
                 }
                 if (option.getOptions().getRetrieve() == RetrieveOption.INCLUDE) {
-                    if (!separatellySerializedItems.containsKey(option.getItemPath().firstName())) {
+                    if (!isStoredOutsideFullObject(option.getItemPath().firstName())) {
                         return false;
                     }
                 }
@@ -305,6 +308,14 @@ public class QObjectMapping<S extends ObjectType, Q extends QObject<R>, R extend
         return rootExcluded;
     }
 
+    /**
+     * Returns true if the item is stored outside the full object and loaded along with it by default.
+     * Modifications touching only such items are executed without reading and writing the full object.
+     */
+    protected boolean isStoredOutsideFullObject(@Nullable ItemName itemName) {
+        return itemName != null && separatellySerializedItems.containsKey(itemName);
+    }
+
     protected boolean upgradeLegacyMetadataToValueMetadata(Containerable ret, MetadataType legacyMeta) {
         if (legacyMeta == null || !ret.asPrismContainerValue().getValueMetadata().isEmpty()) {
             return false;
@@ -540,8 +551,7 @@ public class QObjectMapping<S extends ObjectType, Q extends QObject<R>, R extend
         boolean onlySeparatellySerialized = true;
         for (var modification : modifications) {
             var path = modification.getPath().firstName();
-            var separate = separatellySerializedItems.get(path);
-            if (separate == null) {
+            if (!isStoredOutsideFullObject(path)) {
                 onlySeparatellySerialized = false;
             } else {
                 ret.add(SelectorOptions.create(UniformItemPath.from(path), GetOperationOptions.createRetrieve()));
@@ -704,6 +714,14 @@ public class QObjectMapping<S extends ObjectType, Q extends QObject<R>, R extend
         // NOOP for overrides
     }
 
+    /**
+     * Called before the row of the modified object is updated, when all the modifications were already applied
+     * to the object. Allows updating the columns storing items outside the full object.
+     */
+    public void beforeRootRowUpdate(@NotNull RootUpdateContext<S, Q, R> updateContext) throws SchemaException {
+        // NOOP for overrides
+    }
+
     @Override
     public ResultListRowTransformer<S, Q, R> createRowTransformer(SqlQueryContext<S, Q, R> sqlQueryContext, JdbcSession jdbcSession, Collection<SelectorOptions<GetOperationOptions>> options) {
 
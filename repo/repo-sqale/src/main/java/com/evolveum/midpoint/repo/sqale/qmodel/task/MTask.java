@@ -26,6 +26,9 @@ public class MTask extends MObject {
     // Logically fullResult and resultStatus are related, managed by Task manager.
     public byte[] fullResult;
     public OperationResultStatusType resultStatus;
+    // Activity state and statistics stored outside fullObject, see QTaskMapping.
+    public byte[] fullActivityState;
+    public byte[] fullStatistics;
     public Integer handlerUriId;
     public Instant lastRunStartTimestamp;
     public Instant lastRunFinishTimestamp;
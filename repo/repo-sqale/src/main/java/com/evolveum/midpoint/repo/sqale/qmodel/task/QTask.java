@@ -41,6 +41,10 @@ public class QTask extends QAssignmentHolder<MTask> {
             ColumnMetadata.named("fullResult").ofType(Types.BINARY);
     public static final ColumnMetadata RESULT_STATUS =
             ColumnMetadata.named("resultStatus").ofType(Types.OTHER);
+    public static final ColumnMetadata FULL_ACTIVITY_STATE =
+            ColumnMetadata.named("fullActivityState").ofType(Types.BINARY);
+    public static final ColumnMetadata FULL_STATISTICS =
+            ColumnMetadata.named("fullStatistics").ofType(Types.BINARY);
     public static final ColumnMetadata HANDLER_URI_ID =
             ColumnMetadata.named("handlerUriId").ofType(Types.INTEGER);
     public static final ColumnMetadata LAST_RUN_START_TIMESTAMP =
@@ -88,6 +92,10 @@ public class QTask extends QAssignmentHolder<MTask> {
     public final ArrayPath<byte[], Byte> fullResult = createByteArray("fullResult", FULL_RESULT);
     public final EnumPath<OperationResultStatusType> resultStatus =
             createEnum("resultStatus", OperationResultStatusType.class, RESULT_STATUS);
+    public final ArrayPath<byte[], Byte> fullActivityState =
+            createByteArray("fullActivityState", FULL_ACTIVITY_STATE);
+    public final ArrayPath<byte[], Byte> fullStatistics =
+            createByteArray("fullStatistics", FULL_STATISTICS);
     public final NumberPath<Integer> handlerUriId = createInteger("handlerUriId", HANDLER_URI_ID);
     public final DateTimePath<Instant> lastRunStartTimestamp =
             createInstant("lastRunStartTimestamp", LAST_RUN_START_TIMESTAMP);
@@ -8,7 +8,9 @@ package com.evolveum.midpoint.repo.sqale.qmodel.task;
 
 import static com.evolveum.midpoint.xml.ns._public.common.common_3.TaskType.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -20,33 +22,73 @@ import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Path;
 import com.querydsl.core.types.dsl.ArrayPath;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import com.evolveum.midpoint.prism.Item;
+import com.evolveum.midpoint.prism.PrismContainerValue;
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.PrismProperty;
+import com.evolveum.midpoint.prism.SerializationOptions;
+import com.evolveum.midpoint.prism.path.ItemName;
+import com.evolveum.midpoint.prism.path.ItemPathCollectionsUtil;
 import com.evolveum.midpoint.prism.util.PrismUtil;
 import com.evolveum.midpoint.repo.sqale.SqaleRepoContext;
+import com.evolveum.midpoint.repo.sqale.SqaleUtils;
 import com.evolveum.midpoint.repo.sqale.delta.item.SinglePathItemDeltaProcessor;
 import com.evolveum.midpoint.repo.sqale.mapping.SqaleItemSqlMapper;
 import com.evolveum.midpoint.repo.sqale.qmodel.focus.QUserMapping;
 import com.evolveum.midpoint.repo.sqale.qmodel.object.QAssignmentHolderMapping;
 import com.evolveum.midpoint.repo.sqale.qmodel.object.QObjectMapping;
+import com.evolveum.midpoint.repo.sqale.update.RootUpdateContext;
 import com.evolveum.midpoint.repo.sqale.update.SqaleUpdateContext;
 import com.evolveum.midpoint.repo.sqlbase.JdbcSession;
 import com.evolveum.midpoint.repo.sqlbase.querydsl.FlexibleRelationalPathBase;
 import com.evolveum.midpoint.schema.GetOperationOptions;
+import com.evolveum.midpoint.schema.RetrieveOption;
 import com.evolveum.midpoint.schema.SelectorOptions;
 import com.evolveum.midpoint.schema.util.task.TaskTypeUtil;
 import com.evolveum.midpoint.util.MiscUtil;
 import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.util.exception.SystemException;
 
 /**
  * Mapping between {@link QTask} and {@link TaskType}.
+ *
+ * The activity state and statistics are stored in their own columns instead of the full object:
+ *
+ * * {@link #ACTIVITY_STATE_ITEMS} in {@link QTask#fullActivityState}, updated by bucket, counter and policy operations,
+ * * {@link #STATISTICS_ITEMS} in {@link QTask#fullStatistics}, updated by the regular statistics flushes.
+ *
+ * They are updated often during the task execution, and the modifications touching only these items
+ * are executed without reading and writing the full object, which can be quite large.
+ * Each such modification reads and writes only the column(s) it touches, so the statistics flushes
+ * do not re-serialize the buckets, and vice versa.
+ *
+ * Buckets are not split from the rest of the activity state. They are nested deep in the activity tree
+ * (per activity, possibly in a different task than the coordinator), and the bucketing operations
+ * (getting, completing, releasing buckets) are dynamic modifications that need to see the whole bucketing
+ * state of the activity anyway - e.g. to find a free bucket or to check that all buckets are complete.
+ * The number of buckets kept in the state is limited, because completed buckets are compressed.
+ *
+ * Tasks stored before the columns were introduced have these items in the full object (and the columns are null).
+ * Such a task is migrated when its full object is updated; if it is modified without the full object,
+ * it is reindexed.
  */
 public class QTaskMapping
         extends QAssignmentHolderMapping<TaskType, QTask, MTask> {
 
     public static final String DEFAULT_ALIAS_NAME = "t";
 
+    /** Items stored in {@link QTask#fullActivityState}. */
+    public static final List<ItemName> ACTIVITY_STATE_ITEMS = List.of(F_ACTIVITY_STATE);
+
+    /** Items stored in {@link QTask#fullStatistics}. */
+    public static final List<ItemName> STATISTICS_ITEMS = List.of(F_OPERATION_STATS, F_PROGRESS, F_EXPECTED_TOTAL);
+
+    private static final List<StateColumn> STATE_COLUMNS = List.of(
+            new StateColumn("activity state", ACTIVITY_STATE_ITEMS, q -> q.fullActivityState),
+            new StateColumn("statistics", STATISTICS_ITEMS, q -> q.fullStatistics));
+
     private static QTaskMapping instance;
 
     // Explanation in class Javadoc for SqaleTableMapping
@@ -110,12 +152,24 @@ public class QTaskMapping
     public @NotNull Path<?>[] selectExpressions(
             QTask entity, Collection<SelectorOptions<GetOperationOptions>> options) {
         var ret = super.selectExpressions(entity, options);
+        boolean fullObject = !isExcludeFullObject(options);
+        for (StateColumn column : STATE_COLUMNS) {
+            if (fullObject || column.isExplicitlyIncluded(options)) {
+                ret = appendPaths(ret, column.path(entity));
+            }
+        }
         if (SelectorOptions.hasToFetchPathNotRetrievedByDefault(F_RESULT, options)) {
-            return appendPaths(ret, entity.fullResult);
+            ret = appendPaths(ret, entity.fullResult);
         }
         return ret;
     }
 
+    @Override
+    protected boolean isStoredOutsideFullObject(@Nullable ItemName itemName) {
+        return super.isStoredOutsideFullObject(itemName)
+                || STATE_COLUMNS.stream().anyMatch(c -> c.contains(itemName));
+    }
+
     @Override
     protected QTask newAliasInstance(String alias) {
         return new QTask(alias);
@@ -130,6 +184,8 @@ public class QTaskMapping
     @Override
     protected void customizeFullObjectItemsToSkip(PathSet mutableSet) {
         mutableSet.add(F_RESULT);
+        mutableSet.addAll(ACTIVITY_STATE_ITEMS);
+        mutableSet.addAll(STATISTICS_ITEMS);
     }
 
     @Override
@@ -149,6 +205,8 @@ public class QTaskMapping
             row.fullResult = repositoryContext().createFullResult(operationResult);
         }
         row.resultStatus = task.getResultStatus();
+        row.fullActivityState = createStateColumnValue(task, ACTIVITY_STATE_ITEMS);
+        row.fullStatistics = createStateColumnValue(task, STATISTICS_ITEMS);
 
         row.handlerUriId = processCacheableUri(task.getHandlerUri());
         row.lastRunStartTimestamp = MiscUtil.asInstant(task.getLastRunStartTimestamp());
@@ -197,9 +255,109 @@ public class QTaskMapping
         } else if (SelectorOptions.hasToFetchPathNotRetrievedByDefault(F_RESULT, options)) {
             PrismUtil.setPropertyNullAndComplete(task.asPrismObject(), TaskType.F_RESULT);
         }
+
+        for (StateColumn column : STATE_COLUMNS) {
+            byte[] serialized = row.get(column.path(entityPath));
+            if (serialized != null) {
+                applyStateColumnValue(task, column.items(),
+                        parseSchemaObject(serialized, column.description() + " for " + task.getOid(), TaskType.class));
+            } else if (SqaleUtils.isWithoutFullObject(task) && column.isExplicitlyIncluded(options)) {
+                // Task in the legacy form, with these items in the full object that was not loaded.
+                // It must be migrated (reindexed) before it is updated without the full object.
+                task.asPrismObject().setUserData(SqaleUtils.REINDEX_NEEDED, true);
+            }
+        }
         return task;
     }
 
+    /** Moves the items from the parsed column value to the task, replacing anything that was there. */
+    private void applyStateColumnValue(TaskType task, List<ItemName> items, TaskType columnValue)
+            throws SchemaException {
+        PrismContainerValue<?> taskValue = task.asPrismContainerValue();
+        PrismContainerValue<?> stateValue = columnValue.asPrismContainerValue();
+        for (ItemName itemName : items) {
+            Item<?, ?> item = stateValue.findItem(itemName);
+            if (item != null) {
+                stateValue.remove(item);
+                taskValue.addReplaceExisting(item);
+            } else {
+                taskValue.removeItem(itemName, Item.class);
+            }
+        }
+    }
+
+    /**
+     * Creates the serialized form of given items, to be stored in their column.
+     * The column is filled even if there are no such items, so it's clear the task is not in the legacy form.
+     */
+    private byte[] createStateColumnValue(TaskType task, List<ItemName> items) {
+        TaskType columnValue = new TaskType();
+        PrismContainerValue<?> stateValue = columnValue.asPrismContainerValue();
+        try {
+            for (ItemName itemName : items) {
+                Item<?, ?> item = task.asPrismContainerValue().findItem(itemName);
+                if (item != null && !item.isEmpty()) {
+                    stateValue.add(item.clone());
+                }
+            }
+            repositoryContext().normalizeAllRelations(stateValue);
+            return repositoryContext().createStringSerializer()
+                    .definition(getDefinition())
+                    .options(SerializationOptions
+                            .createSerializeReferenceNamesForNullOids()
+                            .skipIndexOnly(true)
+                            .skipTransient(true)
+                            .skipWhitespaces(true))
+                    .serialize(stateValue)
+                    .getBytes(StandardCharsets.UTF_8);
+        } catch (SchemaException e) {
+            throw new SystemException("Unexpected schema exception", e);
+        }
+    }
+
+    @Override
+    public void beforeRootRowUpdate(@NotNull RootUpdateContext<TaskType, QTask, MTask> updateContext) {
+        // If the full object is updated, the columns are updated as well; this also migrates tasks in the legacy form.
+        // Otherwise, only the columns with modified items are updated, as the other ones may not have been loaded.
+        for (StateColumn column : STATE_COLUMNS) {
+            if (updateContext.isFullObjectUpdated()
+                    || updateContext.getModifications().stream()
+                            .anyMatch(m -> column.contains(m.getPath().firstName()))) {
+                updateContext.set(column.path(updateContext.entityPath()),
+                        createStateColumnValue(updateContext.getPrismObject().asObjectable(), column.items()));
+            }
+        }
+    }
+
+    /** Column storing given top-level items of the task outside the full object. */
+    private record StateColumn(
+            @NotNull String description,
+            @NotNull List<ItemName> items,
+            @NotNull Function<QTask, ArrayPath<byte[], Byte>> pathFunction) {
+
+        ArrayPath<byte[], Byte> path(QTask entityPath) {
+            return pathFunction.apply(entityPath);
+        }
+
+        boolean contains(@Nullable ItemName itemName) {
+            return itemName != null && ItemPathCollectionsUtil.containsEquivalent(items, itemName);
+        }
+
+        boolean isExplicitlyIncluded(Collection<SelectorOptions<GetOperationOptions>> options) {
+            if (options == null) {
+                return false;
+            }
+            for (var option : options) {
+                if (option.getOptions() != null
+                        && option.getOptions().getRetrieve() == RetrieveOption.INCLUDE
+                        && contains(option.getItemPath().firstName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     // Specific to Task, so we leave it as nested class right here.
     public static class FullResultDeltaProcessor
             extends SinglePathItemDeltaProcessor<byte[], ArrayPath<byte[], Byte>> {
@@ -9,6 +9,7 @@ package com.evolveum.midpoint.repo.sqale.update;
 import static com.evolveum.midpoint.repo.sqale.SqaleUtils.objectVersionAsInt;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import com.querydsl.core.types.Expression;
@@ -51,6 +52,9 @@ public class RootUpdateContext<S extends ObjectType, Q extends QObject<R>, R ext
     private final int objectVersion;
     private final boolean skipFullObject;
 
+    /** Narrowed modifications being executed; empty if the update is executed without them. */
+    private Collection<? extends ItemDelta<?, ?>> modifications = List.of();
+
     private ContainerValueIdGenerator cidGenerator;
 
     public RootUpdateContext(SqaleRepoContext repositoryContext,
@@ -98,6 +102,7 @@ public class RootUpdateContext<S extends ObjectType, Q extends QObject<R>, R ext
                 modifications, EquivalenceStrategy.DATA,
                 EquivalenceStrategy.REAL_VALUE_CONSIDER_DIFFERENT_IDS, true);
         logger.trace("Narrowed modifications:\n{}", DebugUtil.debugDumpLazily(modifications));
+        this.modifications = modifications;
 
         if (modifications.isEmpty()) {
             return modifications; // no need to execute any update
@@ -185,6 +190,7 @@ public class RootUpdateContext<S extends ObjectType, Q extends QObject<R>, R ext
         if (!skipFullObject) {
             update.set(rootPath.fullObject, mapping.createFullObject(object));
         }
+        mapping.beforeRootRowUpdate(this);
         executeUpdateRow();
     }
 
@@ -216,6 +222,15 @@ public class RootUpdateContext<S extends ObjectType, Q extends QObject<R>, R ext
         return update;
     }
 
+    public @NotNull Collection<? extends ItemDelta<?, ?>> getModifications() {
+        return modifications;
+    }
+
+    /** False if the object was loaded without the full object, which is not going to be updated then. */
+    public boolean isFullObjectUpdated() {
+        return !skipFullObject;
+    }
+
     @Override
     public <P extends Path<T>, T> void set(P path, T value) {
         update.set(path, value);
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.sqale.func;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.repo.sqale.ExtItemCache;
+import com.evolveum.midpoint.repo.sqale.SqaleRepoBaseTest;
+import com.evolveum.midpoint.repo.sqale.qmodel.ext.MExtItem;
+import com.evolveum.midpoint.repo.sqale.qmodel.ext.MExtItemCardinality;
+import com.evolveum.midpoint.repo.sqale.qmodel.ext.MExtItemHolderType;
+import com.evolveum.midpoint.util.DOMUtil;
+import com.evolveum.midpoint.util.QNameUtil;
+
+/**
+ * This tests {@link ExtItemCache} including multi-node simulation using two separate cache instances,
+ * similar to {@link UriCacheTest}.
+ */
+public class ExtItemCacheTest extends SqaleRepoBaseTest {
+
+    private ExtItemCache extItemCache1;
+    private ExtItemCache extItemCache2;
+
+    @BeforeClass
+    public void init() {
+        extItemCache1 = new ExtItemCache();
+        extItemCache1.initialize(sqlRepoContext::newJdbcSession);
+        extItemCache2 = new ExtItemCache();
+        extItemCache2.initialize(sqlRepoContext::newJdbcSession);
+    }
+
+    @Test
+    public void test100ResolveExtensionItem() {
+        when("ext item is resolved in cache 1");
+        MExtItem.Key key = key("item-" + getTestNameShort());
+        MExtItem extItem = extItemCache1.resolveExtensionItem(key);
+
+        then("it is cached and can be obtained by key or ID");
+        assertThat(extItem.id).isNotNull();
+        assertThat(extItem.key()).isEqualTo(key);
+        assertThat(extItemCache1.getExtensionItem(key)).isEqualTo(extItem);
+        assertThat(extItemCache1.getExtensionItem(extItem.id)).isEqualTo(extItem);
+
+        and("it is resolved to the same row by cache 2");
+        assertThat(extItemCache2.resolveExtensionItem(key)).isEqualTo(extItem);
+    }
+
+    @Test
+    public void test200PreregisterExtensionItems() {
+        given("keys unknown to both caches");
+        List<MExtItem.Key> keys = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            keys.add(key("item-" + getTestNameShort() + "-" + i));
+        }
+
+        when("keys are pre-registered in cache 1");
+        int registered1 = extItemCache1.preregister(keys);
+
+        then("all keys are registered and cached");
+        assertThat(registered1).isEqualTo(keys.size());
+        for (MExtItem.Key key : keys) {
+            assertThat(extItemCache1.getExtensionItem(key)).isNotNull();
+        }
+
+        when("the same keys are pre-registered in cache 2 (as if on another node)");
+        int registered2 = extItemCache2.preregister(keys);
+
+        then("no duplicate rows are created and both caches agree on IDs");
+        assertThat(registered2).isEqualTo(keys.size());
+        for (MExtItem.Key key : keys) {
+            MExtItem extItem = extItemCache2.getExtensionItem(key);
+            assertThat(extItem).isEqualTo(extItemCache1.getExtensionItem(key));
+        }
+
+        and("repeated pre-registration does nothing");
+        assertThat(extItemCache1.preregister(keys)).isZero();
+    }
+
+    @Test
+    public void test300ConcurrentResolutionOfNewItem() throws Exception {
+        given("new key");
+        MExtItem.Key key = key("item-" + getTestNameShort());
+
+        when("the key is resolved by many threads at once");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<MExtItem>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 32; i++) {
+                ExtItemCache cache = i % 2 == 0 ? extItemCache1 : extItemCache2;
+                futures.add(executor.submit(() -> cache.resolveExtensionItem(key)));
+            }
+
+            then("all the threads get the same item");
+            MExtItem extItem = futures.get(0).get();
+            assertThat(extItem).isNotNull();
+            for (Future<MExtItem> future : futures) {
+                assertThat(future.get()).isEqualTo(extItem);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MExtItem.Key key(String itemName) {
+        MExtItem.Key key = new MExtItem.Key();
+        key.itemName = itemName;
+        key.valueType = QNameUtil.qNameToUri(DOMUtil.XSD_STRING);
+        key.holderType = MExtItemHolderType.EXTENSION;
+        key.cardinality = MExtItemCardinality.SCALAR;
+        return key;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.sqale.func;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.prism.query.ObjectQuery;
+import com.evolveum.midpoint.repo.sqale.SqaleRepoBaseTest;
+import com.evolveum.midpoint.repo.sqale.qmodel.ext.MExtItem;
+import com.evolveum.midpoint.repo.sqale.qmodel.ext.MExtItemCardinality;
+import com.evolveum.midpoint.repo.sqale.qmodel.ext.MExtItemHolderType;
+import com.evolveum.midpoint.repo.sqlbase.QueryTranslationCache;
+import com.evolveum.midpoint.repo.sqlbase.querydsl.SqlRecorder;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.util.DOMUtil;
+import com.evolveum.midpoint.util.QNameUtil;
+import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+import com.evolveum.prism.xml.ns._public.types_3.ItemPathType;
+
+/**
+ * Tests {@link QueryTranslationCache}: the queries using the cached translations must be the same as without it,
+ * and the translations must not be used after the data they depend on change.
+ */
+public class QueryTranslationCacheTest extends SqaleRepoBaseTest {
+
+    private String orgOid;
+    private String user1Oid; // cost center qtc-1, in the org
+    private String user2Oid; // cost center qtc-2, in the org
+    private String user3Oid; // cost center qtc-1, not in the org
+
+    @BeforeClass
+    public void initObjects() throws Exception {
+        OperationResult result = createOperationResult();
+        orgOid = repositoryService.addObject(
+                new OrgType().name("qtc-org").asPrismObject(), null, result);
+        user1Oid = repositoryService.addObject(
+                new UserType().name("qtc-user1").costCenter("qtc-1")
+                        .parentOrgRef(orgOid, OrgType.COMPLEX_TYPE)
+                        .asPrismObject(), null, result);
+        user2Oid = repositoryService.addObject(
+                new UserType().name("qtc-user2").costCenter("qtc-2")
+                        .parentOrgRef(orgOid, OrgType.COMPLEX_TYPE)
+                        .asPrismObject(), null, result);
+        user3Oid = repositoryService.addObject(
+                new UserType().name("qtc-user3").costCenter("qtc-1")
+                        .asPrismObject(), null, result);
+        assertThatOperationResult(result).isSuccess();
+    }
+
+    @BeforeMethod
+    public void clearCache() {
+        sqlRepoContext.getQueryTranslationCache().clear();
+    }
+
+    @Test
+    public void test100CachedTranslationProducesSameSql() throws SchemaException {
+        given("query with a subquery (for the org reference)");
+        ObjectQuery query = costCenterInOrgQuery("qtc-1");
+        long hitsBefore = getPerformanceMonitor().getQueryTranslationCacheHits();
+
+        when("it is executed for the first time");
+        List<SqlRecorder.QueryEntry> first = searchRecorded(query, user1Oid);
+
+        and("for the second time");
+        List<SqlRecorder.QueryEntry> second = searchRecorded(query, user1Oid);
+
+        then("the cached translation is used for the second time");
+        assertThat(getPerformanceMonitor().getQueryTranslationCacheHits()).isEqualTo(hitsBefore + 1);
+
+        and("the same SQL with the same parameters is executed");
+        assertSameQueries(first, second);
+        assertThat(second.get(0).params.toString()).contains("qtc-1");
+    }
+
+    @Test
+    public void test110TranslationIsReusedForOtherValues() throws SchemaException {
+        given("query executed with one value");
+        List<SqlRecorder.QueryEntry> first = searchRecorded(costCenterInOrgQuery("qtc-1"), user1Oid);
+        long hitsBefore = getPerformanceMonitor().getQueryTranslationCacheHits();
+
+        when("query of the same shape is executed with another value");
+        List<SqlRecorder.QueryEntry> second = searchRecorded(costCenterInOrgQuery("qtc-2"), user2Oid);
+
+        then("the cached translation is used, with the new value bound");
+        assertThat(getPerformanceMonitor().getQueryTranslationCacheHits()).isEqualTo(hitsBefore + 1);
+        assertThat(second.get(0).sql).isEqualTo(first.get(0).sql);
+        assertThat(second.get(0).params.toString()).contains("qtc-2").doesNotContain("qtc-1");
+    }
+
+    @Test
+    public void test120ValuesTransformedByProcessorsArePartOfKey() throws SchemaException {
+        given("query by poly-string name executed with one value");
+        searchRecorded(nameQuery("qtc-user1"), user1Oid);
+        long hitsBefore = getPerformanceMonitor().getQueryTranslationCacheHits();
+
+        when("query by name is executed with another value");
+        searchRecorded(nameQuery("qtc-user3"), user3Oid);
+
+        then("the cached translation is not used");
+        assertThat(getPerformanceMonitor().getQueryTranslationCacheHits()).isEqualTo(hitsBefore);
+
+        when("query by name is executed with the same value again");
+        searchRecorded(nameQuery("qtc-user3"), user3Oid);
+
+        then("the cached translation is used");
+        assertThat(getPerformanceMonitor().getQueryTranslationCacheHits()).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    public void test200CacheIsInvalidatedByNewUri() throws SchemaException {
+        given("cached translation");
+        ObjectQuery query = costCenterInOrgQuery("qtc-1");
+        searchRecorded(query, user1Oid);
+
+        when("new URI is added to the URI catalog");
+        sqlRepoContext.processCacheableUri("http://midpoint.evolveum.com/test/qtc-" + UUID.randomUUID());
+
+        then("the cached translation is not used");
+        assertTranslatedAgain(query, user1Oid);
+    }
+
+    @Test
+    public void test210CacheIsInvalidatedByNewExtensionItem() throws SchemaException {
+        given("cached translation");
+        ObjectQuery query = costCenterInOrgQuery("qtc-1");
+        searchRecorded(query, user1Oid);
+
+        when("new item is added to the extension item catalog");
+        MExtItem.Key key = new MExtItem.Key();
+        key.itemName = "qtc-item-" + UUID.randomUUID();
+        key.valueType = QNameUtil.qNameToUri(DOMUtil.XSD_STRING);
+        key.holderType = MExtItemHolderType.EXTENSION;
+        key.cardinality = MExtItemCardinality.SCALAR;
+        sqlRepoContext.resolveExtensionItem(key);
+
+        then("the cached translation is not used");
+        assertTranslatedAgain(query, user1Oid);
+    }
+
+    @Test
+    public void test220CacheIsInvalidatedByFullTextConfigurationChange() throws SchemaException {
+        given("cached translation");
+        ObjectQuery query = costCenterInOrgQuery("qtc-1");
+        searchRecorded(query, user1Oid);
+
+        when("full-text search configuration is changed");
+        FullTextSearchConfigurationType originalConfiguration = repositoryService.getFullTextSearchConfiguration();
+        try {
+            repositoryService.applyFullTextSearchConfiguration(
+                    new FullTextSearchConfigurationType()
+                            .indexed(new FullTextSearchIndexedItemsConfigurationType()
+                                    .item(new ItemPathType(ObjectType.F_DOCUMENTATION))));
+
+            then("the cached translation is not used");
+            assertTranslatedAgain(query, user1Oid);
+        } finally {
+            repositoryService.applyFullTextSearchConfiguration(originalConfiguration);
+        }
+    }
+
+    @Test
+    public void test300CachedPredicateWithSubqueryIsUsedConcurrently() throws Exception {
+        given("cached translation with a subquery");
+        searchRecorded(costCenterInOrgQuery("qtc-1"), user1Oid);
+
+        when("queries of the same shape are executed by many threads at once");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                String costCenter = i % 2 == 0 ? "qtc-1" : "qtc-2";
+                futures.add(executor.submit(() -> repositorySearchObjects(UserType.class,
+                        costCenterInOrgQuery(costCenter), new OperationResult("concurrent-search"))
+                        .stream()
+                        .map(u -> u.getOid())
+                        .toList()));
+            }
+
+            then("each of them returns the correct result");
+            for (int i = 0; i < futures.size(); i++) {
+                assertThat(futures.get(i).get()).containsExactly(i % 2 == 0 ? user1Oid : user2Oid);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ObjectQuery costCenterInOrgQuery(String costCenter) {
+        return prismContext.queryFor(UserType.class)
+                .item(UserType.F_COST_CENTER).eq(costCenter)
+                .and().item(UserType.F_PARENT_ORG_REF).ref(orgOid)
+                .build();
+    }
+
+    private ObjectQuery nameQuery(String name) {
+        return prismContext.queryFor(UserType.class)
+                .item(UserType.F_NAME).eqPoly(name)
+                .build();
+    }
+
+    /** Executes the search, checks the result and returns the executed SQL queries. */
+    private List<SqlRecorder.QueryEntry> searchRecorded(ObjectQuery query, String... expectedOids)
+            throws SchemaException {
+        OperationResult result = createOperationResult();
+        queryRecorder.clearBufferAndStartRecording();
+        try {
+            assertThat(searchObjects(UserType.class, query, result))
+                    .extracting(u -> u.getOid())
+                    .containsExactlyInAnyOrder(expectedOids);
+            assertThatOperationResult(result).isSuccess();
+            return new ArrayList<>(queryRecorder.getQueryBuffer());
+        } finally {
+            queryRecorder.stopRecording();
+        }
+    }
+
+    private void assertTranslatedAgain(ObjectQuery query, String... expectedOids) throws SchemaException {
+        long hitsBefore = getPerformanceMonitor().getQueryTranslationCacheHits();
+        long missesBefore = getPerformanceMonitor().getQueryTranslationCacheMisses();
+        searchRecorded(query, expectedOids);
+        assertThat(getPerformanceMonitor().getQueryTranslationCacheHits()).isEqualTo(hitsBefore);
+        assertThat(getPerformanceMonitor().getQueryTranslationCacheMisses()).isEqualTo(missesBefore + 1);
+    }
+
+    private void assertSameQueries(List<SqlRecorder.QueryEntry> first, List<SqlRecorder.QueryEntry> second) {
+        assertThat(second).hasSameSizeAs(first);
+        for (int i = 0; i < first.size(); i++) {
+            assertThat(second.get(i).sql).isEqualTo(first.get(i).sql);
+            assertThat(second.get(i).params).isEqualTo(first.get(i).params);
+        }
+    }
+}
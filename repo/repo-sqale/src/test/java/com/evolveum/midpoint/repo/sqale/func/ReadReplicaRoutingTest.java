@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.sqale.func;
+
+import static com.evolveum.midpoint.repo.api.ReadReplicaRouting.CALLER_GUI;
+import static com.evolveum.midpoint.repo.api.ReadReplicaRouting.CALLER_REPORT;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
+import com.evolveum.midpoint.tools.testng.AbstractUnitTest;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.FocusType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.RoleType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.UserType;
+
+/**
+ * Tests the thread-bound routing rules of {@link ReadReplicaRouting}; no database (nor replica) is needed.
+ */
+public class ReadReplicaRoutingTest extends AbstractUnitTest {
+
+    @BeforeMethod
+    public void resetRouting() {
+        ReadReplicaRouting.setEnabled(false); // clears the recorded writes
+        ReadReplicaRouting.setEnabled(true);
+    }
+
+    @AfterClass
+    public void disableRouting() {
+        ReadReplicaRouting.setEnabled(false);
+    }
+
+    @Test
+    public void test100NoScopeMeansPrimary() {
+        expect("no replica reads outside a scope");
+        Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isNull();
+        Assertions.assertThat(ReadReplicaRouting.mayReadFromReplica(UserType.class)).isFalse();
+    }
+
+    @Test
+    public void test110ScopeAllowsReplicaReads() {
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(CALLER_REPORT)) {
+            expect("the caller of the scope is returned");
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isEqualTo(CALLER_REPORT);
+            Assertions.assertThat(ReadReplicaRouting.mayReadFromReplica(UserType.class)).isTrue();
+        }
+
+        expect("nothing is allowed after the scope is closed");
+        Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isNull();
+    }
+
+    @Test
+    public void test120InnermostScopeApplies() {
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(CALLER_REPORT)) {
+            try (var ignored2 = ReadReplicaRouting.primaryOnly()) {
+                expect("primary-only scope overrides the outer one");
+                Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isNull();
+
+                try (var ignored3 = ReadReplicaRouting.allowReplicaReads(CALLER_GUI)) {
+                    expect("the innermost caller is returned");
+                    Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isEqualTo(CALLER_GUI);
+                }
+            }
+
+            expect("the outer scope applies again");
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isEqualTo(CALLER_REPORT);
+        }
+    }
+
+    @Test
+    public void test130WritePinsRelatedTypesInScope() {
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(CALLER_REPORT)) {
+            when("user is written in the scope");
+            ReadReplicaRouting.recordWrite(UserType.class);
+
+            then("reads of the type, its supertypes and subtypes go to the primary");
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isNull();
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(FocusType.class)).isNull();
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(ObjectType.class)).isNull();
+
+            and("reads of unrelated types may still go to the replica");
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(RoleType.class)).isEqualTo(CALLER_REPORT);
+        }
+
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(CALLER_REPORT)) {
+            expect("a new scope starts without the written types");
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isEqualTo(CALLER_REPORT);
+        }
+    }
+
+    @Test
+    public void test140WriteInNestedScopePinsOuterScope() {
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(CALLER_REPORT)) {
+            try (var ignored2 = ReadReplicaRouting.primaryOnly()) {
+                when("user is written in a nested scope");
+                ReadReplicaRouting.recordWrite(UserType.class);
+            }
+
+            then("the outer scope does not read users from the replica");
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isNull();
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(RoleType.class)).isEqualTo(CALLER_REPORT);
+        }
+    }
+
+    @Test
+    public void test150WriteOutsideScopeIsRecordedWithTime() {
+        long before = System.currentTimeMillis();
+
+        when("user is written outside any scope");
+        ReadReplicaRouting.recordWrite(UserType.class);
+
+        then("the time of the write is known for the type and related types");
+        Assertions.assertThat(ReadReplicaRouting.getLastWriteTime(UserType.class)).isGreaterThanOrEqualTo(before);
+        Assertions.assertThat(ReadReplicaRouting.getLastWriteTime(FocusType.class)).isGreaterThanOrEqualTo(before);
+        Assertions.assertThat(ReadReplicaRouting.getLastWriteTime(RoleType.class)).isZero();
+    }
+
+    @Test
+    public void test160DisabledRoutingMeansPrimary() {
+        given("routing is disabled (no replicas)");
+        ReadReplicaRouting.setEnabled(false);
+
+        try (var ignored = ReadReplicaRouting.allowReplicaReads(CALLER_REPORT)) {
+            expect("no replica reads are allowed");
+            Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isNull();
+            Assertions.assertThat(ReadReplicaRouting.mayReadFromReplica(UserType.class)).isFalse();
+
+            and("no writes are recorded");
+            ReadReplicaRouting.recordWrite(UserType.class);
+            Assertions.assertThat(ReadReplicaRouting.getLastWriteTime(UserType.class)).isZero();
+        }
+    }
+
+    @Test
+    public void test170ScopesClosedInWrongOrder() {
+        var outer = ReadReplicaRouting.allowReplicaReads(CALLER_REPORT);
+        var inner = ReadReplicaRouting.primaryOnly();
+        try {
+            expect("closing the outer scope first fails");
+            Assertions.assertThatThrownBy(outer::close)
+                    .isInstanceOf(IllegalStateException.class);
+        } finally {
+            inner.close();
+            outer.close();
+        }
+        Assertions.assertThat(ReadReplicaRouting.getReplicaCaller(UserType.class)).isNull();
+    }
+}
@@ -2799,6 +2799,76 @@ public class SqaleRepoAddDeleteObjectTest extends SqaleRepoBaseTest {
     }
     // endregion
 
+    // region batch add tests
+    @Test
+    public void test870AddObjectsInBatch() throws Exception {
+        OperationResult result = createOperationResult();
+
+        given("users and org without OIDs");
+        long baseCount = count(QObject.CLASS);
+        UserType user1 = new UserType().name("user" + getTestNumber() + "-1");
+        UserType user2 = new UserType().name("user" + getTestNumber() + "-2")
+                .assignment(new AssignmentType()
+                        .targetRef(UUID.randomUUID().toString(), RoleType.COMPLEX_TYPE));
+        OrgType org = new OrgType().name("org" + getTestNumber());
+
+        when("adding them to the repository in a batch");
+        List<String> oids = repositoryService.addObjectsInBatch(
+                List.of(user1.asPrismObject(), user2.asPrismObject(), org.asPrismObject()), null, result);
+
+        then("operation is successful and all objects are stored");
+        assertThatOperationResult(result).isSuccess();
+        assertThat(oids).containsExactly(user1.getOid(), user2.getOid(), org.getOid());
+        assertThat(count(QObject.CLASS)).isEqualTo(baseCount + 3);
+
+        and("related entities are stored as well");
+        QAssignment<?> a = QAssignmentMapping.getAssignmentMapping().defaultAlias();
+        assertThat(select(a, a.ownerOid.eq(UUID.fromString(user2.getOid())))).hasSize(1);
+    }
+
+    @Test
+    public void test871AddObjectsInBatchWithConflictAddsNothing() throws Exception {
+        OperationResult result = createOperationResult();
+
+        given("user already in the repository");
+        UserType existingUser = new UserType().name("user" + getTestNumber());
+        repositoryService.addObject(existingUser.asPrismObject(), null, result);
+        long baseCount = count(QObject.CLASS);
+
+        when("adding a batch containing new object and object with the same OID");
+        UserType newUser = new UserType().name("user" + getTestNumber() + "-new")
+                .assignment(new AssignmentType()
+                        .targetRef(UUID.randomUUID().toString(), RoleType.COMPLEX_TYPE));
+        UserType conflictingUser = new UserType().name("user" + getTestNumber() + "-conflict")
+                .oid(existingUser.getOid());
+        assertThatThrownBy(() -> repositoryService.addObjectsInBatch(
+                List.of(newUser.asPrismObject(), conflictingUser.asPrismObject()), null, result))
+                .isInstanceOf(ObjectAlreadyExistsException.class);
+
+        then("operation is fatal error");
+        assertThatOperationResult(result).isFatalError();
+
+        and("the whole batch is rolled back");
+        assertThat(count(QObject.CLASS)).isEqualTo(baseCount);
+
+        and("identifiers assigned to the objects of the batch are removed");
+        assertThat(newUser.getOid()).isNull();
+        assertThat(newUser.getVersion()).isNull();
+        assertThat(newUser.getAssignment().get(0).getId()).isNull();
+        assertThat(conflictingUser.getOid()).isEqualTo(existingUser.getOid());
+
+        when("the new object from the batch is added alone");
+        OperationResult addResult = createOperationResult();
+        repositoryService.addObject(newUser.asPrismObject(), null, addResult);
+
+        then("it is stored with newly assigned identifiers");
+        assertThatOperationResult(addResult).isSuccess();
+        assertThat(newUser.getOid()).isNotNull();
+        assertThat(newUser.getAssignment().get(0).getId()).isEqualTo(1L);
+        assertThat(count(QObject.CLASS)).isEqualTo(baseCount + 1);
+    }
+    // endregion
+
     // region delete tests
     // when we get here we have a couple of users and some other types stored in the repository
     @Test
@@ -24,6 +24,7 @@ import org.testng.annotations.Test;
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.query.ObjectQuery;
 import com.evolveum.midpoint.repo.api.RepositoryService;
+import com.evolveum.midpoint.repo.api.perf.OperationPerformanceInformation;
 import com.evolveum.midpoint.repo.sqale.SqaleRepoBaseTest;
 import com.evolveum.midpoint.repo.sqale.SqaleRepositoryService;
 import com.evolveum.midpoint.repo.sqale.qmodel.focus.QUser;
@@ -77,6 +78,7 @@ public class SqaleRepoSearchIterativeTest extends SqaleRepoBaseTest {
     public void resetTestHandler() {
         testHandler.reset();
         repositoryConfiguration.setIterativeSearchByPagingBatchSize(ITERATION_PAGE_SIZE);
+        repositoryConfiguration.setIterativeSearchAdaptivePageSize(false);
     }
 
     @AfterMethod
@@ -438,6 +440,40 @@ public class SqaleRepoSearchIterativeTest extends SqaleRepoBaseTest {
         assertThat(testHandler.getCounter()).isEqualTo(COUNT_OF_CREATED_USERS - 100);
     }
 
+    @Test
+    public void test140SearchIterativeWithAdaptivePageSize() throws Exception {
+        OperationResult operationResult = createOperationResult();
+        SqlPerformanceMonitorImpl pm = getPerformanceMonitor();
+        pm.clearGlobalPerformanceInformation();
+
+        given("adaptive page size starting with small pages");
+        int initialPageSize = repositoryConfiguration.getIterativeSearchMinPageSize();
+        repositoryConfiguration.setIterativeSearchByPagingBatchSize(initialPageSize);
+        repositoryConfiguration.setIterativeSearchAdaptivePageSize(true);
+
+        when("calling search iterative with null query");
+        SearchResultMetadata metadata = searchObjectsIterative(null, operationResult);
+
+        then("result metadata is not null and not partial result");
+        assertThatOperationResult(operationResult).isSuccess();
+        assertThat(metadata).isNotNull();
+        assertThat(metadata.getApproxNumberOfAllResults()).isEqualTo(testHandler.getCounter());
+        assertThat(metadata.isPartialResults()).isFalse();
+
+        and("all objects of the specified type were processed");
+        assertThat(testHandler.getCounter()).isEqualTo(count(QUser.class));
+
+        and("page sizes are reported and grow for the small and quickly fetched objects");
+        OperationPerformanceInformation pageInfo = pm.getGlobalPerformanceInformation().getAllData()
+                .get(REPO_OP_PREFIX + RepositoryService.OP_SEARCH_OBJECTS_ITERATIVE_PAGE);
+        assertThat(pageInfo).isNotNull();
+        assertThat(pageInfo.getPageCount()).isEqualTo(pageInfo.getInvocationCount());
+        assertThat(pageInfo.getMinPageSize()).isEqualTo(initialPageSize);
+        assertThat(pageInfo.getMaxPageSize()).isGreaterThan(initialPageSize)
+                .isLessThanOrEqualTo(repositoryConfiguration.getIterativeSearchMaxPageSize());
+        assertThat(pageInfo.getInvocationCount()).isLessThan(testHandler.getCounter() / initialPageSize);
+    }
+
     @SafeVarargs
     private SearchResultMetadata searchObjectsIterative(
             ObjectQuery query,
@@ -30,6 +30,7 @@ import com.evolveum.midpoint.audit.api.AuditEventStage;
 import com.evolveum.midpoint.audit.api.AuditEventType;
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.PrismObjectValue;
+import com.evolveum.midpoint.prism.query.ObjectQuery;
 import com.evolveum.midpoint.prism.xml.XmlTypeConverter;
 import com.evolveum.midpoint.repo.api.DeleteObjectResult;
 import com.evolveum.midpoint.repo.api.RepoModifyOptions;
@@ -495,6 +496,51 @@ public class SqaleRepoSmokeTest extends SqaleRepoBaseTest {
         assertThat(entry.sql).startsWith("select u.oid, u.objectType, u.version, u.fullObject");
     }
 
+    @Test
+    public void test410CountObjectsBatch() throws Exception {
+        OperationResult result = createOperationResult();
+
+        given("users with various cost centers");
+        String costCenter = "cc" + getTestNumber();
+        for (int i = 0; i < 3; i++) {
+            repositoryService.addObject(
+                    new UserType().name("user" + getTestNumber() + "-" + i).costCenter(costCenter).asPrismObject(),
+                    null, result);
+        }
+        repositoryService.addObject(
+                new UserType().name("user" + getTestNumber() + "-other").costCenter(costCenter + "-other").asPrismObject(),
+                null, result);
+        List<ObjectQuery> queries = Arrays.asList(
+                null,
+                prismContext.queryFor(UserType.class).item(UserType.F_COST_CENTER).eq(costCenter).build(),
+                prismContext.queryFor(UserType.class).item(UserType.F_COST_CENTER).startsWith(costCenter).build(),
+                prismContext.queryFor(UserType.class).none().build(),
+                prismContext.queryFor(UserType.class).isChildOf(UUID.randomUUID().toString()).build());
+
+        when("the counts are obtained in a batch");
+        queryRecorder.clearBufferAndStartRecording();
+        List<Integer> counts = repositoryService.countObjectsBatch(UserType.class, queries, null, result);
+
+        then("the counts are the same as the individual ones");
+        assertThatOperationResult(result).isSuccess();
+        assertThat(counts).hasSize(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            assertThat(counts.get(i))
+                    .as("count for query #" + i)
+                    .isEqualTo(repositoryService.countObjects(UserType.class, queries.get(i), null, result));
+        }
+        assertThat(counts.get(1)).isEqualTo(3);
+        assertThat(counts.get(2)).isEqualTo(4);
+        assertThat(counts.get(3)).isZero();
+
+        if (SqlRecorder.LOGGER.isDebugEnabled()) {
+            and("the queries without JOIN are counted by a single statement");
+            assertThat(queryRecorder.getQueryBuffer())
+                    .filteredOn(e -> e.sql.contains("count(*) filter"))
+                    .hasSize(1);
+        }
+    }
+
     @Test
     public void test500ExecuteQueryDiagnostics() throws Exception {
         // also known as "Query Playground"
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.sqale.func;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.repo.sqale.SqaleRepoBaseTest;
+import com.evolveum.midpoint.repo.sqale.qmodel.task.MTask;
+import com.evolveum.midpoint.repo.sqale.qmodel.task.QTask;
+import com.evolveum.midpoint.repo.sqale.qmodel.task.QTaskMapping;
+import com.evolveum.midpoint.repo.sqlbase.JdbcSession;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.task.ActivityStateUtil;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+
+/**
+ * Tests the storage of task activity state and statistics outside the full object (see {@link QTaskMapping}),
+ * including the migration of tasks stored in the legacy form (with these items in the full object).
+ */
+public class SqaleRepoTaskActivityStateTest extends SqaleRepoBaseTest {
+
+    @Test
+    public void test100AddedTaskHasStateInColumns() throws Exception {
+        OperationResult result = createOperationResult();
+
+        when("task with activity state and statistics is added");
+        String oid = repositoryService.addObject(createTask().asPrismObject(), null, result);
+
+        then("the items are stored in their columns, not in the full object");
+        assertThatOperationResult(result).isSuccess();
+        MTask row = selectObjectByOid(QTask.class, oid);
+        assertThat(row.fullActivityState).isNotNull();
+        assertThat(row.fullStatistics).isNotNull();
+        assertNoStateInFullObject(row);
+
+        and("the task is read complete");
+        TaskType task = repositoryService.getObject(TaskType.class, oid, null, result).asObjectable();
+        assertOriginalActivityState(task);
+        assertThat(task.getProgress()).isEqualTo(10L);
+        assertThat(task.getExpectedTotal()).isEqualTo(100L);
+    }
+
+    @Test
+    public void test110StatisticsUpdateDoesNotRewriteActivityState() throws Exception {
+        OperationResult result = createOperationResult();
+        given("task stored in the current form");
+        String oid = repositoryService.addObject(createTask().asPrismObject(), null, result);
+        MTask originalRow = selectObjectByOid(QTask.class, oid);
+
+        when("only statistics are modified");
+        repositoryService.modifyObject(TaskType.class, oid,
+                prismContext.deltaFor(TaskType.class)
+                        .item(TaskType.F_PROGRESS).replace(20L)
+                        .asItemDeltas(),
+                result);
+
+        then("only the statistics column is rewritten");
+        assertThatOperationResult(result).isSuccess();
+        MTask row = selectObjectByOid(QTask.class, oid);
+        assertThat(row.version).isEqualTo(originalRow.version + 1);
+        assertThat(row.fullStatistics).isNotEqualTo(originalRow.fullStatistics);
+        assertThat(row.fullActivityState).isEqualTo(originalRow.fullActivityState);
+        assertThat(row.fullObject).isEqualTo(originalRow.fullObject);
+
+        and("the task is read with the new statistics and the original activity state");
+        TaskType task = repositoryService.getObject(TaskType.class, oid, null, result).asObjectable();
+        assertThat(task.getProgress()).isEqualTo(20L);
+        assertThat(task.getExpectedTotal()).isEqualTo(100L);
+        assertOriginalActivityState(task);
+    }
+
+    @Test
+    public void test200LegacyTaskIsReadComplete() throws Exception {
+        OperationResult result = createOperationResult();
+        given("task stored in the legacy form");
+        String oid = addLegacyTask(result);
+
+        when("task is read");
+        TaskType task = repositoryService.getObject(TaskType.class, oid, null, result).asObjectable();
+
+        then("activity state and statistics are taken from the full object");
+        assertOriginalActivityState(task);
+        assertThat(task.getProgress()).isEqualTo(10L);
+        assertThat(task.getExpectedTotal()).isEqualTo(100L);
+
+        and("the task is not migrated by the read");
+        MTask row = selectObjectByOid(QTask.class, oid);
+        assertThat(row.fullActivityState).isNull();
+        assertThat(row.fullStatistics).isNull();
+    }
+
+    @Test
+    public void test210LegacyTaskModifiedWithFullObject() throws Exception {
+        OperationResult result = createOperationResult();
+        given("task stored in the legacy form");
+        String oid = addLegacyTask(result);
+
+        when("an item stored in the full object is modified");
+        repositoryService.modifyObject(TaskType.class, oid,
+                prismContext.deltaFor(TaskType.class)
+                        .item(TaskType.F_DESCRIPTION).replace("modified")
+                        .asItemDeltas(),
+                result);
+
+        then("the task is migrated");
+        assertThatOperationResult(result).isSuccess();
+        assertMigrated(oid);
+
+        and("nothing is lost");
+        TaskType task = repositoryService.getObject(TaskType.class, oid, null, result).asObjectable();
+        assertThat(task.getDescription()).isEqualTo("modified");
+        assertOriginalActivityState(task);
+        assertThat(task.getProgress()).isEqualTo(10L);
+        assertThat(task.getExpectedTotal()).isEqualTo(100L);
+    }
+
+    @Test
+    public void test220LegacyTaskModifiedWithoutFullObject() throws Exception {
+        OperationResult result = createOperationResult();
+        given("task stored in the legacy form");
+        String oid = addLegacyTask(result);
+
+        when("only statistics are modified (which is normally done without the full object)");
+        repositoryService.modifyObject(TaskType.class, oid,
+                prismContext.deltaFor(TaskType.class)
+                        .item(TaskType.F_PROGRESS).replace(20L)
+                        .asItemDeltas(),
+                result);
+
+        then("the task is reindexed, i.e. migrated");
+        assertThatOperationResult(result).isSuccess();
+        assertMigrated(oid);
+
+        and("the activity state from the full object is kept");
+        TaskType task = repositoryService.getObject(TaskType.class, oid, null, result).asObjectable();
+        assertThat(task.getProgress()).isEqualTo(20L);
+        assertThat(task.getExpectedTotal()).isEqualTo(100L);
+        assertOriginalActivityState(task);
+    }
+
+    @Test
+    public void test230LegacyTaskModifiedDynamically() throws Exception {
+        OperationResult result = createOperationResult();
+        given("task stored in the legacy form");
+        String oid = addLegacyTask(result);
+
+        when("activity state is modified dynamically, retrieving only the activity state");
+        AtomicReference<TaskActivityStateType> stateSeen = new AtomicReference<>();
+        repositoryService.modifyObjectDynamically(TaskType.class, oid,
+                ActivityStateUtil.createActivityStateOnlyOptions(),
+                task -> {
+                    stateSeen.set(task.getActivityState() != null ? task.getActivityState().clone() : null);
+                    return prismContext.deltaFor(TaskType.class)
+                            .item(TaskType.F_ACTIVITY_STATE).replace(new TaskActivityStateType()
+                                    .activity(new ActivityStateType()
+                                            .identifier("root")
+                                            .realizationState(ActivityRealizationStateType.COMPLETE)))
+                            .asItemDeltas();
+                },
+                null, result);
+
+        then("the modification supplier got the activity state stored in the full object");
+        assertThatOperationResult(result).isSuccess();
+        assertThat(stateSeen.get()).isNotNull();
+        assertThat(stateSeen.get().getActivity().getRealizationState())
+                .isEqualTo(ActivityRealizationStateType.IN_PROGRESS_LOCAL);
+
+        and("the task is migrated, with the new activity state and the original statistics");
+        assertMigrated(oid);
+        TaskType task = repositoryService.getObject(TaskType.class, oid, null, result).asObjectable();
+        assertThat(task.getActivityState().getActivity().getRealizationState())
+                .isEqualTo(ActivityRealizationStateType.COMPLETE);
+        assertThat(task.getProgress()).isEqualTo(10L);
+        assertThat(task.getExpectedTotal()).isEqualTo(100L);
+    }
+
+    private TaskType createTask() {
+        return new TaskType()
+                .name("task-" + getTestNumber() + "-" + UUID.randomUUID())
+                .taskIdentifier(UUID.randomUUID().toString())
+                .activityState(new TaskActivityStateType()
+                        .activity(new ActivityStateType()
+                                .identifier("root")
+                                .realizationState(ActivityRealizationStateType.IN_PROGRESS_LOCAL)))
+                .progress(10L)
+                .expectedTotal(100L);
+    }
+
+    /**
+     * Adds the task and moves its activity state and statistics to the full object, clearing their columns;
+     * this is how the tasks were stored before the columns were introduced.
+     */
+    private String addLegacyTask(OperationResult result) throws Exception {
+        TaskType original = createTask();
+        String oid = repositoryService.addObject(original.asPrismObject(), null, result);
+
+        MTask row = selectObjectByOid(QTask.class, oid);
+        TaskType legacy = parseFullObject(row.fullObject);
+        legacy.setActivityState(original.getActivityState().clone());
+        legacy.setProgress(original.getProgress());
+        legacy.setExpectedTotal(original.getExpectedTotal());
+        byte[] legacyFullObject = prismContext.jsonSerializer()
+                .serialize(legacy.asPrismObject())
+                .getBytes(StandardCharsets.UTF_8);
+
+        QTask t = aliasFor(QTask.class);
+        try (JdbcSession jdbcSession = startTransaction()) {
+            jdbcSession.newUpdate(t)
+                    .set(t.fullObject, legacyFullObject)
+                    .setNull(t.fullActivityState)
+                    .setNull(t.fullStatistics)
+                    .where(t.oid.eq(UUID.fromString(oid)))
+                    .execute();
+            jdbcSession.commit();
+        }
+        return oid;
+    }
+
+    private void assertMigrated(String oid) {
+        MTask row = selectObjectByOid(QTask.class, oid);
+        assertThat(row.fullActivityState).isNotNull();
+        assertThat(row.fullStatistics).isNotNull();
+        assertNoStateInFullObject(row);
+    }
+
+    private void assertNoStateInFullObject(MTask row) {
+        TaskType fullObject = parseFullObject(row.fullObject);
+        assertThat(fullObject.getActivityState()).isNull();
+        assertThat(fullObject.getProgress()).isNull();
+        assertThat(fullObject.getExpectedTotal()).isNull();
+    }
+
+    private void assertOriginalActivityState(TaskType task) {
+        assertThat(task.getActivityState()).isNotNull();
+        assertThat(task.getActivityState().getActivity().getRealizationState())
+                .isEqualTo(ActivityRealizationStateType.IN_PROGRESS_LOCAL);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.sqlbase;
+
+import static com.evolveum.midpoint.util.caching.CacheConfiguration.StatisticsLevel.PER_CACHE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Param;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.evolveum.midpoint.prism.PrismPropertyValue;
+import com.evolveum.midpoint.prism.query.*;
+import com.evolveum.midpoint.repo.sqlbase.mapping.QueryTableMapping;
+import com.evolveum.midpoint.util.caching.CachePerformanceCollector;
+
+/**
+ * Cache of the root filters of queries translated to Querydsl predicates, see {@link SqlQueryContext#processFilter(ObjectFilter,
+ * QueryTranslationCache)}. GUI lists, search expressions, task queries and similar clients issue the same queries repeatedly,
+ * mostly differing only in the values (name of the searched user, OID of the owner, and so on), so we can skip the walk
+ * through the filter processors for them.
+ *
+ * The translations are keyed by the filter {@link Shape}: its structure, paths, matching rules and types of the values,
+ * but not the values themselves. The values of simple (string, number, boolean) comparisons are translated to query
+ * parameters that are bound for each query, see {@link SqlQueryContext#createFilterParameter}.
+ * Values that are transformed by the filter processors while building the predicate (poly-strings, URIs, enums, timestamps,
+ * extension items, ignore-case and substring comparisons, references, and so on) are part of the key; if the filter
+ * contains any such value, the translation is keyed by the whole filter.
+ *
+ * Only the predicates that do not require any JOIN in the main query are cached. Such predicate (including the subqueries
+ * it contains) is not changed after it's created, so it can be shared by concurrent queries.
+ *
+ * The translation can depend on the content of the URI and extension item catalogs (e.g. unknown URI is translated
+ * to a condition that is never true) and on the repository configuration. Hence, each entry remembers the version
+ * of this data provided by the repository context, and it is not used when the version changes.
+ */
+public class QueryTranslationCache {
+
+    /** Least recently used entries are evicted above this size. Keeps one-off queries from filling up the memory. */
+    private static final int MAX_ENTRIES = 5000;
+
+    /** Types of values that are bound as query parameters as they are. */
+    private static final Set<Class<?>> PARAMETER_TYPES =
+            Set.of(String.class, Integer.class, Long.class, Short.class, Boolean.class);
+
+    @NotNull private final LongSupplier versionSupplier;
+
+    private final Cache<Key, Translation> cache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .build();
+
+    /**
+     * @param versionSupplier Provides the version of everything the translation depends on (besides the filter itself).
+     * Must change whenever any such data changes.
+     */
+    public QueryTranslationCache(@NotNull LongSupplier versionSupplier) {
+        this.versionSupplier = versionSupplier;
+    }
+
+    /** Returns the version to be stored in the {@link Translation} (obtained before the translation starts). */
+    long getCurrentVersion() {
+        return versionSupplier.getAsLong();
+    }
+
+    /**
+     * Returns the translation stored under the shape key or (if there is none) under the exact key.
+     * The exact key may be null if the filter has no parameterized values, and so the shape key is exact as well.
+     */
+    @Nullable Translation get(@NotNull Key shapeKey, @Nullable Key exactKey) {
+        Translation translation = getValid(shapeKey);
+        if (translation == null && exactKey != null) {
+            translation = getValid(exactKey);
+        }
+        Class<?> type = shapeKey.mapping().schemaType();
+        if (translation != null) {
+            CachePerformanceCollector.INSTANCE.registerHit(QueryTranslationCache.class, type, PER_CACHE);
+        } else {
+            CachePerformanceCollector.INSTANCE.registerMiss(QueryTranslationCache.class, type, PER_CACHE);
+        }
+        return translation;
+    }
+
+    private @Nullable Translation getValid(@NotNull Key key) {
+        Translation translation = cache.getIfPresent(key);
+        if (translation == null) {
+            return null;
+        }
+        if (translation.version() != getCurrentVersion()) {
+            cache.asMap().remove(key, translation);
+            return null;
+        }
+        return translation;
+    }
+
+    /**
+     * Stores the translation, unless the data it depends on have changed since it was started.
+     *
+     * @param key Key with the filter that is not going to be changed anymore (e.g. a frozen clone).
+     */
+    void put(@NotNull Key key, @NotNull Translation translation) {
+        if (translation.version() != getCurrentVersion()) {
+            return;
+        }
+        cache.put(key, translation);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryTranslationCache{size=" + cache.size() + "}";
+    }
+
+    /**
+     * The root filter is translated in the context of the root table mapping and its alias.
+     * The filter is represented either by its {@link Shape#signature()}, or by itself (see {@link #exact}).
+     */
+    record Key(
+            @NotNull QueryTableMapping<?, ?, ?> mapping,
+            @NotNull String alias,
+            @NotNull List<Object> signature) {
+
+        /** Key of the translation of the filter with all its values. */
+        static Key exact(@NotNull QueryTableMapping<?, ?, ?> mapping, @NotNull String alias, @NotNull ObjectFilter filter) {
+            return new Key(mapping, alias, List.of(filter));
+        }
+    }
+
+    /**
+     * The translated filter.
+     *
+     * @param notFilterUsed Whether the filter processing marked the context with {@link SqlQueryContext#markNotFilterUsage()}.
+     * @param contextState Information that the query context collected during the filter processing and that is needed
+     * to execute the query; see {@link SqlQueryContext#getTranslationState()}.
+     * @param parameters Parameters for the values of {@link Shape#parameterFilters()}, in the same order;
+     * null for the values that are not parameterized (possible only for the translations stored under the exact key).
+     */
+    record Translation(
+            @NotNull Predicate predicate,
+            boolean notFilterUsed,
+            @Nullable Object contextState,
+            @NotNull List<Param<?>> parameters,
+            long version) {
+    }
+
+    /**
+     * Shape of the filter: the signature that is equal for the filters translated to the same predicate
+     * (provided that all the values of {@link #parameterFilters} are bound as parameters), and the value filters
+     * with values that can be parameterized, in the order of the appearance in the filter.
+     */
+    record Shape(
+            @NotNull List<Object> signature,
+            @NotNull List<PropertyValueFilter<?>> parameterFilters) {
+
+        static @NotNull Shape of(@NotNull ObjectFilter filter) {
+            var shape = new Shape(new ArrayList<>(), new ArrayList<>());
+            shape.add(filter);
+            return shape;
+        }
+
+        private void add(ObjectFilter filter) {
+            if (filter instanceof NaryLogicalFilter logical) {
+                signature.add(filter.getClass());
+                signature.add(logical.getConditions().size());
+                for (ObjectFilter condition : logical.getConditions()) {
+                    add(condition);
+                }
+            } else if (filter instanceof NotFilter not) {
+                signature.add(NotFilter.class);
+                add(not.getFilter());
+            } else if (filter instanceof PropertyValueFilter<?> valueFilter && isParameterizable(valueFilter)) {
+                signature.add(filter.getClass());
+                signature.add(valueFilter.getFullPath());
+                signature.add(valueFilter.getMatchingRule());
+                signature.add(valueFilter.getDefinition() != null ? valueFilter.getDefinition().getTypeName() : null);
+                signature.add(valueFilter.getSingleValue().getRealValue().getClass());
+                if (filter instanceof SubstringFilter<?> substring) {
+                    signature.add(substring.isAnchorStart());
+                    signature.add(substring.isAnchorEnd());
+                } else if (filter instanceof GreaterFilter<?> greater) {
+                    signature.add(greater.isEquals());
+                } else if (filter instanceof LessFilter<?> less) {
+                    signature.add(less.isEquals());
+                }
+                parameterFilters.add(valueFilter);
+            } else {
+                signature.add(filter);
+            }
+        }
+
+        private static boolean isParameterizable(PropertyValueFilter<?> filter) {
+            if (filter instanceof FuzzyStringMatchFilter<?>
+                    || filter.getExpression() != null
+                    || filter.getRightHandSidePath() != null
+                    || filter.getValues() == null
+                    || filter.getValues().size() != 1) {
+                return false;
+            }
+            PrismPropertyValue<?> value = filter.getSingleValue();
+            return value != null && value.getRealValue() != null
+                    && PARAMETER_TYPES.contains(value.getRealValue().getClass());
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package com.evolveum.midpoint.repo.sqlbase;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.evolveum.midpoint.repo.api.ReadReplicaRouting;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+
+/**
+ * Selects a read replica for read-only operations, if allowed by the current {@link ReadReplicaRouting} scope
+ * and by the replica configuration.
+ * Replicas are tried in round-robin fashion; if none is usable, `null` is returned and the primary is used.
+ *
+ * Only the reads of objects are routed; containers and references stay on the primary, because their owners
+ * are not known here, so the read-your-writes check could not be done.
+ *
+ * The state of the replicas is checked asynchronously (see {@link Replica}), so the readers never wait for
+ * an unreachable or slow replica; they just use the primary until the replica is known to be usable.
+ */
+public class ReadReplicaRouter {
+
+    private static final Trace LOGGER = TraceManager.getTrace(ReadReplicaRouter.class);
+
+    /** Operation kind for reading a single object by OID. */
+    public static final String OPERATION_GET = "get";
+
+    /** Operation kind for searching objects, containers or references. */
+    public static final String OPERATION_SEARCH = "search";
+
+    /** Operation kind for counting objects, containers or references. */
+    public static final String OPERATION_COUNT = "count";
+
+    /**
+     * Returns replication lag in seconds; 0 if the replica has replayed everything it received,
+     * `null` if the database is not a standby server (e.g. logical replica).
+     */
+    private static final String LAG_QUERY = "SELECT CASE"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private static final int LAG_QUERY_TIMEOUT_SECONDS = 5;
+
+    /**
+     * How long the reads of a type written on this node are kept on the primary, if the replica
+     * has no lag limit configured.
+     */
+    private static final long DEFAULT_WRITE_PINNING_MS = 10_000;
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /** Runs the state checks of the replicas (including the creation of their connection pools). */
+    @Nullable private final ExecutorService checkExecutor;
+
+    public ReadReplicaRouter(@NotNull List<Replica> replicas) {
+        this.replicas = List.copyOf(replicas);
+        if (replicas.isEmpty()) {
+            checkExecutor = null;
+        } else {
+            checkExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "mp-repo-replica-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (Replica replica : this.replicas) {
+                replica.scheduleCheckIfDue(checkExecutor);
+            }
+        }
+        ReadReplicaRouting.setEnabled(!replicas.isEmpty());
+    }
+
+    /** Stops the checks and closes the connection pools of the replicas. */
+    @PreDestroy
+    public void destroy() {
+        ReadReplicaRouting.setEnabled(false);
+        if (checkExecutor != null) {
+            checkExecutor.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            try {
+                replica.dataSourceFactory.destroy();
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't close data source of replica {}: {}", replica.name, e.getMessage());
+            }
+        }
+    }
+
+    /** Returns the replica to be used, or `null` if the primary is to be used. */
+    public @Nullable Replica select(@NotNull String operationKind, @NotNull Class<?> type) {
+        if (checkExecutor == null || !ObjectType.class.isAssignableFrom(type)) {
+            return null;
+        }
+        String caller = ReadReplicaRouting.getReplicaCaller(type);
+        if (caller == null) {
+            return null;
+        }
+        long lastWrite = ReadReplicaRouting.getLastWriteTime(type);
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.accepts(operationKind, caller)
+                    && replica.isUsable(checkExecutor)
+                    && replica.isCaughtUpWith(lastWrite)) {
+                LOGGER.trace("Routing {} operation for {} to replica {}", operationKind, caller, replica.name);
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Single replica with its routing rules.
+     *
+     * The replica is checked at most once per `lagCheckIntervalMs` in the background: its connection pool is created
+     * (on the first check), a connection is obtained, and the replication lag is determined (if `maxLagMs` is set).
+     * Until the first check succeeds, the replica is not used. If the check or getting a connection for a read fails,
+     * the replica is not used until the next successful check.
+     */
+    public static class Replica {
+
+        @NotNull private final String name;
+        @NotNull private final DataSourceFactory dataSourceFactory;
+        @Nullable private final Set<String> operationKinds;
+        @Nullable private final Set<String> callers;
+        private final long maxLagMs;
+        private final long lagCheckIntervalMs;
+
+        @Nullable private volatile DataSource dataSource;
+        private volatile boolean usable;
+        private volatile long lastCheckStart;
+        private final AtomicBoolean checkInProgress = new AtomicBoolean();
+
+        /**
+         * @param dataSourceFactory Factory for the replica data source; the data source is created on the first check.
+         * @param operationKinds Operation kinds routed to this replica, `null` means all.
+         * @param callers Callers (see {@link ReadReplicaRouting}) routed to this replica, `null` means all.
+         * @param maxLagMs Maximal tolerated replication lag, 0 or less means no check.
+         */
+        public Replica(
+                @NotNull String name,
+                @NotNull DataSourceFactory dataSourceFactory,
+                @Nullable Set<String> operationKinds,
+                @Nullable Set<String> callers,
+                long maxLagMs,
+                long lagCheckIntervalMs) {
+            this.name = name;
+            this.dataSourceFactory = dataSourceFactory;
+            this.operationKinds = operationKinds;
+            this.callers = callers;
+            this.maxLagMs = maxLagMs;
+            this.lagCheckIntervalMs = lagCheckIntervalMs;
+        }
+
+        public @NotNull String getName() {
+            return name;
+        }
+
+        boolean accepts(@NotNull String operationKind, @NotNull String caller) {
+            return (operationKinds == null || operationKinds.contains(operationKind))
+                    && (callers == null || callers.contains(caller));
+        }
+
+        /** Returns the state determined by the last check; never waits for the check. */
+        boolean isUsable(@NotNull ExecutorService checkExecutor) {
+            scheduleCheckIfDue(checkExecutor);
+            return usable && dataSource != null;
+        }
+
+        /**
+         * Returns `true` if a write done at given time (on this node) should be already visible on the replica.
+         * We do not know the exact lag at this moment, so we use the tolerated one.
+         */
+        boolean isCaughtUpWith(long lastWriteTime) {
+            long pinning = maxLagMs > 0 ? maxLagMs : DEFAULT_WRITE_PINNING_MS;
+            return lastWriteTime == 0 || System.currentTimeMillis() - lastWriteTime > pinning;
+        }
+
+        private void scheduleCheckIfDue(@NotNull ExecutorService checkExecutor) {
+            if (System.currentTimeMillis() - lastCheckStart < lagCheckIntervalMs
+                    || !checkInProgress.compareAndSet(false, true)) {
+                return;
+            }
+            lastCheckStart = System.currentTimeMillis();
+            try {
+                checkExecutor.execute(() -> {
+                    try {
+                        usable = check();
+                    } finally {
+                        checkInProgress.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                checkInProgress.set(false); // shutting down
+            }
+        }
+
+        private boolean check() {
+            try {
+                DataSource currentDataSource = dataSource;
+                if (currentDataSource == null) {
+                    currentDataSource = dataSourceFactory.createDataSource("mp-repo-" + name);
+                    dataSource = currentDataSource;
+                }
+                try (Connection connection = currentDataSource.getConnection()) {
+                    return maxLagMs <= 0 || isLagAcceptable(connection);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Couldn't check replica {}, not using it: {}", name, e.getMessage());
+                return false;
+            }
+        }
+
+        private boolean isLagAcceptable(Connection connection) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+                try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    double lagSeconds = rs.next() ? rs.getDouble(1) : 0; // NULL is returned as 0
+                    boolean acceptable = lagSeconds * 1000 <= maxLagMs;
+                    if (!acceptable) {
+                        LOGGER.debug("Replica {} lags {} s behind the primary, not using it", name, lagSeconds);
+                    }
+                    return acceptable;
+                }
+            } finally {
+                connection.rollback(); // the pool does not auto-commit
+            }
+        }
+
+        /** Returns a connection to the replica; if that fails, the replica is not used until the next check. */
+        public @NotNull Connection getConnection() throws SQLException {
+            DataSource currentDataSource = dataSource;
+            if (currentDataSource == null) {
+                throw new SQLException("Data source of replica " + name + " is not available");
+            }
+            try {
+                return currentDataSource.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                usable = false;
+                lastCheckStart = System.currentTimeMillis();
+                throw e;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Replica{" + name + ", operationKinds=" + operationKinds + ", callers=" + callers
+                    + ", maxLagMs=" + maxLagMs + "}";
+        }
+    }
+}
@@ -18,9 +18,11 @@ import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Path;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.Param;
 import com.querydsl.sql.SQLQuery;
 import org.apache.commons.lang3.tuple.Pair;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.evolveum.midpoint.prism.ItemDefinition;
 import com.evolveum.midpoint.prism.PrismConstants;
@@ -113,6 +115,12 @@ public abstract class SqlQueryContext<S, Q extends FlexibleRelationalPathBase<R>
 
     private final Set<String> usedAliases;
 
+    /**
+     * Value filters of the root filter whose values can be bound as parameters, with the created parameters.
+     * Used only during {@link #processFilter(ObjectFilter, QueryTranslationCache)}, see {@link #createFilterParameter}.
+     */
+    private Map<ValueFilter<?, ?>, Param<?>> filterParameters;
+
     /** Constructor for root query context. */
     protected SqlQueryContext(
             Q entityPath,
@@ -165,14 +173,118 @@ public abstract class SqlQueryContext<S, Q extends FlexibleRelationalPathBase<R>
      */
     public void processFilter(ObjectFilter filter) throws RepositoryException {
         if (filter != null) {
-            Predicate predicate = process(filter);
-            try {
-                sqlQuery.where(predicate);
-            } catch (IllegalArgumentException e) {
-                throw new RepositoryException("Query construction problem, current query: "
-                        + sqlQuery + "\n  Predicate: " + predicate, e);
+            addWhere(process(filter));
+        }
+    }
+
+    private void addWhere(Predicate predicate) throws RepositoryException {
+        try {
+            sqlQuery.where(predicate);
+        } catch (IllegalArgumentException e) {
+            throw new RepositoryException("Query construction problem, current query: "
+                    + sqlQuery + "\n  Predicate: " + predicate, e);
+        }
+    }
+
+    /**
+     * Processes the root filter of the query like {@link #processFilter(ObjectFilter)}, but reuses the predicate translated
+     * earlier for a filter of the same shape, if there is one in the cache, binding the values of this filter to its
+     * parameters. Newly translated predicate is put into the cache if it did not need any JOIN in the main query,
+     * see {@link QueryTranslationCache}.
+     *
+     * To be used only on the root context, before anything else is added to the query.
+     *
+     * @return true if the cached translation was used
+     */
+    public boolean processFilter(@NotNull ObjectFilter filter, @NotNull QueryTranslationCache cache)
+            throws RepositoryException {
+        assert parent == null;
+        String alias = entityPath.getMetadata().getName();
+        var shape = QueryTranslationCache.Shape.of(filter);
+        var exactKey = shape.parameterFilters().isEmpty()
+                ? null
+                : QueryTranslationCache.Key.exact(entityPathMapping, alias, filter);
+        var cached = cache.get(new QueryTranslationCache.Key(entityPathMapping, alias, shape.signature()), exactKey);
+        if (cached != null) {
+            addWhere(cached.predicate());
+            bindFilterParameters(cached.parameters(), shape.parameterFilters());
+            if (cached.notFilterUsed()) {
+                markNotFilterUsage();
             }
+            applyTranslationState(cached.contextState());
+            return true;
+        }
+
+        long version = cache.getCurrentVersion();
+        int joinsBefore = sqlQuery.getMetadata().getJoins().size();
+        filterParameters = new IdentityHashMap<>();
+        shape.parameterFilters().forEach(f -> filterParameters.put(f, null));
+        Predicate predicate;
+        List<Param<?>> parameters = new ArrayList<>();
+        try {
+            predicate = process(filter);
+        } finally {
+            shape.parameterFilters().forEach(f -> parameters.add(filterParameters.get(f)));
+            filterParameters = null;
+        }
+        addWhere(predicate);
+        bindFilterParameters(parameters, shape.parameterFilters());
+
+        if (sqlQuery.getMetadata().getJoins().size() == joinsBefore) {
+            ObjectFilter immutableFilter = filter.clone();
+            immutableFilter.freeze();
+            // If any value was not parameterized by the filter processors, the predicate is usable only for equal filters.
+            var key = parameters.contains(null)
+                    ? QueryTranslationCache.Key.exact(entityPathMapping, alias, immutableFilter)
+                    : new QueryTranslationCache.Key(
+                            entityPathMapping, alias, QueryTranslationCache.Shape.of(immutableFilter).signature());
+            cache.put(key, new QueryTranslationCache.Translation(
+                    predicate, notFilterUsed, getTranslationState(), parameters, version));
         }
+        return false;
+    }
+
+    /**
+     * Returns the parameter for the value of the filter from the root filter processed by
+     * {@link #processFilter(ObjectFilter, QueryTranslationCache)}, or null if the value should be used as a constant.
+     * The value must be used as is, without any transformation; the filter processors are responsible for that.
+     */
+    public <T> @Nullable Param<T> createFilterParameter(@NotNull ValueFilter<?, ?> filter, @NotNull Class<T> type) {
+        if (parent != null) {
+            return parent.createFilterParameter(filter, type);
+        }
+        if (filterParameters == null || !filterParameters.containsKey(filter)) {
+            return null;
+        }
+        //noinspection unchecked
+        Param<T> param = (Param<T>) filterParameters.get(filter);
+        if (param == null) {
+            param = new Param<>(type, "filterValue" + filterParameters.values().stream().filter(Objects::nonNull).count());
+            filterParameters.put(filter, param);
+        }
+        return param;
+    }
+
+    private void bindFilterParameters(List<Param<?>> parameters, List<PropertyValueFilter<?>> parameterFilters) {
+        for (int i = 0; i < parameters.size(); i++) {
+            //noinspection unchecked
+            Param<Object> param = (Param<Object>) parameters.get(i);
+            if (param != null) {
+                sqlQuery.set(param, parameterFilters.get(i).getSingleValue().getRealValue());
+            }
+        }
+    }
+
+    /**
+     * Returns information collected during the filter processing that is needed to execute the query,
+     * so it can be stored along with the cached predicate. See {@link #processFilter(ObjectFilter, QueryTranslationCache)}.
+     */
+    protected @Nullable Object getTranslationState() {
+        return null;
+    }
+
+    /** Applies the information obtained from {@link #getTranslationState()} when the cached predicate is used. */
+    protected void applyTranslationState(@Nullable Object state) {
     }
 
     /**
@@ -6,12 +6,21 @@
 
 package com.evolveum.midpoint.repo.sqlbase;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Wildcard;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import com.evolveum.midpoint.prism.query.ObjectFilter;
 import com.evolveum.midpoint.prism.query.ObjectQuery;
+import com.evolveum.midpoint.repo.sqlbase.perfmon.SqlPerformanceMonitorImpl;
 import com.evolveum.midpoint.repo.sqlbase.querydsl.FlexibleRelationalPathBase;
 import com.evolveum.midpoint.schema.GetOperationOptions;
 import com.evolveum.midpoint.schema.SearchResultList;
@@ -28,8 +37,16 @@ public class SqlQueryExecutor {
 
     private final SqlRepoContext sqlRepoContext;
 
+    /** Used to record query translation cache hits and misses, if present. */
+    private final SqlPerformanceMonitorImpl performanceMonitor;
+
     public SqlQueryExecutor(SqlRepoContext sqlRepoContext) {
+        this(sqlRepoContext, null);
+    }
+
+    public SqlQueryExecutor(SqlRepoContext sqlRepoContext, @Nullable SqlPerformanceMonitorImpl performanceMonitor) {
         this.sqlRepoContext = sqlRepoContext;
+        this.performanceMonitor = performanceMonitor;
     }
 
     public <S, Q extends FlexibleRelationalPathBase<R>, R> int count(
@@ -39,17 +56,51 @@ public class SqlQueryExecutor {
             throws RepositoryException {
 
         if (query != null) {
-            context.processFilter(query.getFilter());
+            processFilter(context, query.getFilter());
         }
         // TODO MID-6319: all options can be applied, just like for list?
         context.processOptions(options);
 
         context.beforeQuery();
-        try (JdbcSession jdbcSession = sqlRepoContext.newJdbcSession().startReadOnlyTransaction()) {
+        try (JdbcSession jdbcSession = sqlRepoContext.newJdbcSessionForRead(
+                ReadReplicaRouter.OPERATION_COUNT, context.mapping().schemaType()).startReadOnlyTransaction()) {
             return context.executeCount(jdbcSession);
         }
     }
 
+    /**
+     * Counts the rows matching each of the predicates using a single statement with `count(*) FILTER (WHERE ...)`
+     * aggregates, so the table is read only once. Null predicate counts all the rows.
+     *
+     * The predicates must be created for the root alias of the provided context and must not require any JOIN
+     * in the main query (subqueries are OK). The context is used only for its FROM clause, i.e. its filter
+     * is not to be processed.
+     */
+    public <S, Q extends FlexibleRelationalPathBase<R>, R> @NotNull List<Integer> countBatch(
+            @NotNull SqlQueryContext<S, Q, R> context,
+            @NotNull List<Predicate> predicates) {
+
+        Expression<?>[] counts = predicates.stream()
+                .map(p -> p != null
+                        ? Expressions.numberTemplate(Long.class, "count(*) filter (where {0})", p)
+                        : Wildcard.count)
+                .toArray(Expression<?>[]::new);
+
+        context.beforeQuery();
+        try (JdbcSession jdbcSession = sqlRepoContext.newJdbcSessionForRead(
+                ReadReplicaRouter.OPERATION_COUNT, context.mapping().schemaType()).startReadOnlyTransaction()) {
+            Tuple row = context.sqlQuery().clone(jdbcSession.connection())
+                    .select(counts)
+                    .fetchOne();
+            List<Integer> result = new ArrayList<>(counts.length);
+            for (int i = 0; i < counts.length; i++) {
+                Long count = row != null ? row.get(i, Long.class) : null;
+                result.add(count != null ? count.intValue() : 0);
+            }
+            return result;
+        }
+    }
+
     public @NotNull <S, Q extends FlexibleRelationalPathBase<R>, R> SearchResultList<S> list(
             @NotNull SqlQueryContext<S, Q, R> context,
             ObjectQuery query,
@@ -57,14 +108,15 @@ public class SqlQueryExecutor {
             throws RepositoryException, SchemaException {
 
         if (query != null) {
-            context.processFilter(query.getFilter());
+            processFilter(context, query.getFilter());
             context.processObjectPaging(query.getPaging());
         }
         context.processOptions(options);
 
         context.beforeQuery();
         PageOf<Tuple> result;
-        try (JdbcSession jdbcSession = sqlRepoContext.newJdbcSession().startReadOnlyTransaction()) {
+        try (JdbcSession jdbcSession = sqlRepoContext.newJdbcSessionForRead(
+                ReadReplicaRouter.OPERATION_SEARCH, context.mapping().schemaType()).startReadOnlyTransaction()) {
             var opResult = SqlBaseOperationTracker.fetchMultiplePrimaries();
             try (var ignored = SqlBaseOperationTracker.fetchMultiplePrimaries()){
                 result = context.executeQuery(jdbcSession);
@@ -74,6 +126,19 @@ public class SqlQueryExecutor {
         }
     }
 
+    /** Processes the root filter, using the query translation cache, if available. */
+    private void processFilter(SqlQueryContext<?, ?, ?> context, ObjectFilter filter) throws RepositoryException {
+        QueryTranslationCache cache = sqlRepoContext.getQueryTranslationCache();
+        if (filter == null || cache == null) {
+            context.processFilter(filter);
+            return;
+        }
+        boolean hit = context.processFilter(filter, cache);
+        if (performanceMonitor != null) {
+            performanceMonitor.registerQueryTranslationCacheAccess(hit);
+        }
+    }
+
     @NotNull
     private <T> SearchResultList<T> createSearchResultList(PageOf<T> result) {
         SearchResultMetadata metadata = new SearchResultMetadata();
@@ -18,6 +18,7 @@ import com.querydsl.sql.dml.SQLDeleteClause;
 import com.querydsl.sql.dml.SQLInsertClause;
 import com.querydsl.sql.dml.SQLUpdateClause;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.evolveum.midpoint.prism.*;
 import com.evolveum.midpoint.prism.match.MatchingRuleRegistry;
@@ -30,6 +31,8 @@ import com.evolveum.midpoint.schema.SchemaService;
 import com.evolveum.midpoint.schema.util.ObjectTypeUtil;
 import com.evolveum.midpoint.util.exception.SchemaException;
 import com.evolveum.midpoint.util.exception.SystemException;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
 
 /**
  * Encapsulates Querydsl {@link Configuration}, our {@link QueryModelMappingRegistry}
@@ -38,6 +41,8 @@ import com.evolveum.midpoint.util.exception.SystemException;
  */
 public class SqlRepoContext {
 
+    private static final Trace LOGGER = TraceManager.getTrace(SqlRepoContext.class);
+
     private final JdbcRepositoryConfiguration jdbcRepositoryConfiguration;
     protected final Configuration querydslConfig;
     protected final SchemaService schemaService;
@@ -46,6 +51,9 @@ public class SqlRepoContext {
 
     private SQLBaseListener querydslSqlListener;
 
+    /** Router to read replicas, `null` if there are none. */
+    @Nullable private ReadReplicaRouter readReplicaRouter;
+
     public SqlRepoContext(
             JdbcRepositoryConfiguration jdbcRepositoryConfiguration,
             DataSource dataSource,
@@ -71,6 +79,11 @@ public class SqlRepoContext {
         querydslSqlListener = listener;
     }
 
+    /** Sets the router to read replicas, used by {@link #newJdbcSessionForRead(String, Class)}. */
+    public void setReadReplicaRouter(@Nullable ReadReplicaRouter readReplicaRouter) {
+        this.readReplicaRouter = readReplicaRouter;
+    }
+
     public SQLQuery<?> newQuery() {
         return new SQLQuery<>(querydslConfig);
     }
@@ -114,6 +127,11 @@ public class SqlRepoContext {
         return new SQLDeleteClause(connection, querydslConfig, entity);
     }
 
+    /** Returns the cache of translated query filters, or `null` if the translations are not to be cached. */
+    public @Nullable QueryTranslationCache getQueryTranslationCache() {
+        return null;
+    }
+
     public JdbcRepositoryConfiguration getJdbcRepositoryConfiguration() {
         return jdbcRepositoryConfiguration;
     }
@@ -134,6 +152,27 @@ public class SqlRepoContext {
         }
     }
 
+    /**
+     * Creates {@link JdbcSession} for read-only work (see {@link ReadReplicaRouter} for operation kinds).
+     * The session uses a read replica, if there is any usable for the operation; otherwise (or if the connection
+     * to the replica cannot be obtained) it is the same as {@link #newJdbcSession()}.
+     * The caller is responsible for starting read-only transaction.
+     */
+    public JdbcSession newJdbcSessionForRead(@NotNull String operationKind, @NotNull Class<?> type) {
+        ReadReplicaRouter.Replica replica = readReplicaRouter != null
+                ? readReplicaRouter.select(operationKind, type)
+                : null;
+        if (replica != null) {
+            try {
+                return new JdbcSession(replica.getConnection(), jdbcRepositoryConfiguration, this);
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.warn("Cannot create JDBC connection to read replica {}, using the primary database: {}",
+                        replica.getName(), e.getMessage());
+            }
+        }
+        return newJdbcSession();
+    }
+
     public <T> Class<? extends T> qNameToSchemaClass(QName qName) {
         return schemaService.typeQNameToSchemaClass(qName);
     }
@@ -97,6 +97,11 @@ public abstract class ValueFilterValues<T, V> {
         return false;
     }
 
+    /** Returns true if the values are the real values of the filter, without any conversion. */
+    public boolean isUnconverted() {
+        return false;
+    }
+
     @NotNull
     public PolyString singleValuePolyString() throws QueryException {
         Object value = singleValueRaw();
@@ -180,6 +185,11 @@ public abstract class ValueFilterValues<T, V> {
         public boolean isMultiValue() {
             return filter.getValues() != null && filter.getValues().size() > 1;
         }
+
+        @Override
+        public boolean isUnconverted() {
+            return conversionFunction == null;
+        }
     }
 
     private static class Expr<T, V> extends ValueFilterValues<T, V> {
@@ -11,6 +11,7 @@ import static com.evolveum.midpoint.prism.PrismConstants.STRING_IGNORE_CASE_MATC
 import com.evolveum.midpoint.util.SingleLocalizableMessage;
 
 import com.querydsl.core.types.*;
+import com.querydsl.core.types.dsl.Param;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -26,6 +27,7 @@ import com.evolveum.midpoint.repo.sqlbase.filtering.ValueFilterValues;
 import com.evolveum.midpoint.repo.sqlbase.mapping.QueryTableMapping;
 
 import java.util.ArrayList;
+import java.util.Set;
 
 /**
  * Type of {@link FilterProcessor} for a single Prism item (not necessarily one SQL column).
@@ -82,6 +84,9 @@ public abstract class ItemValueFilterProcessor<O extends ValueFilter<?, ?>>
 
     private static final String STRING_IGNORE_CASE = STRING_IGNORE_CASE_MATCHING_RULE_NAME.getLocalPart();
 
+    /** Operators that use the value as is; e.g. STARTS_WITH escapes it in its template. */
+    private static final Set<Ops> PARAMETERIZABLE_OPERATORS = Set.of(Ops.EQ, Ops.GT, Ops.GOE, Ops.LT, Ops.LOE);
+
     /**
      * Returns true, if the filter implies ignore-case behavior.
      * Used when filter is transformed to SQL operation, or to determine whether operands
@@ -119,7 +124,22 @@ public abstract class ItemValueFilterProcessor<O extends ValueFilter<?, ?>>
             }
         }
 
-        return singleValuePredicateWithNotTreated(path, operation, values.singleValue());
+        Object value = values.singleValue();
+        if (values.isUnconverted() && isParameterizable(operation)) {
+            Param<?> param = context.createFilterParameter(filter, value.getClass());
+            if (param != null) {
+                return predicateWithNotTreated(path, ExpressionUtils.predicate(operation.operator, path, param));
+            }
+        }
+        return singleValuePredicateWithNotTreated(path, operation, value);
+    }
+
+    /**
+     * Returns true if the operation uses the value as is, so it can be bound as a query parameter.
+     * See {@link SqlQueryContext#createFilterParameter}.
+     */
+    private boolean isParameterizable(FilterOperation operation) {
+        return !operation.handleIgnoreCase && PARAMETERIZABLE_OPERATORS.contains(operation.operator);
     }
 
     protected Predicate fuzzyStringPredicate(
@@ -9,6 +9,7 @@ package com.evolveum.midpoint.repo.sqlbase.perfmon;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.evolveum.midpoint.repo.api.perf.OperationRecord;
 import com.evolveum.midpoint.repo.api.perf.PerformanceMonitor;
@@ -60,6 +61,13 @@ public class SqlPerformanceMonitorImpl implements PerformanceMonitor {
      */
     private final PerformanceInformationImpl globalPerformanceInformation = new PerformanceInformationImpl();
 
+    /**
+     * Hits and misses of the query translation cache (if used by the repository).
+     * It is used at levels > NONE (0).
+     */
+    private final LongAdder queryTranslationCacheHits = new LongAdder();
+    private final LongAdder queryTranslationCacheMisses = new LongAdder();
+
     public SqlPerformanceMonitorImpl(int initialLevel, String statisticsFile) {
         this.initialLevel = initialLevel;
         this.statisticsFile = statisticsFile;
@@ -79,6 +87,8 @@ public class SqlPerformanceMonitorImpl implements PerformanceMonitor {
     public void clearGlobalPerformanceInformation() {
         globalPerformanceInformation.clear();
         finishedOperations.clear();
+        queryTranslationCacheHits.reset();
+        queryTranslationCacheMisses.reset();
     }
 
     @Override
@@ -114,6 +124,11 @@ public class SqlPerformanceMonitorImpl implements PerformanceMonitor {
         if (level >= LEVEL_GLOBAL_STATISTICS) {
             LOGGER.info("Global performance information:\n{}", globalPerformanceInformation.debugDump());
         }
+        long hits = queryTranslationCacheHits.sum();
+        long misses = queryTranslationCacheMisses.sum();
+        if (hits + misses > 0) {
+            LOGGER.info("Query translation cache: {} hit(s), {} miss(es)", hits, misses);
+        }
         OperationsPerformanceMonitorImpl.INSTANCE.shutdown();
     }
 
@@ -184,6 +199,30 @@ public class SqlPerformanceMonitorImpl implements PerformanceMonitor {
         }
     }
 
+    /** Records requested page size (max rows) of an outstanding operation, e.g. a page of iterative search. */
+    public void registerOperationPageSize(long opHandle, int pageSize) {
+        if (level > LEVEL_NONE) {
+            OperationRecord operation = outstandingOperations.get(opHandle);
+            if (isOperationHandleOk(operation, opHandle)) {
+                operation.setPageSize(pageSize);
+            }
+        }
+    }
+
+    public void registerQueryTranslationCacheAccess(boolean hit) {
+        if (level > LEVEL_NONE) {
+            (hit ? queryTranslationCacheHits : queryTranslationCacheMisses).increment();
+        }
+    }
+
+    public long getQueryTranslationCacheHits() {
+        return queryTranslationCacheHits.sum();
+    }
+
+    public long getQueryTranslationCacheMisses() {
+        return queryTranslationCacheMisses.sum();
+    }
+
     // to be used in tests
     @SuppressWarnings("unused")     // maybe in future
     public List<OperationRecord> getFinishedOperations(String kind) {
@@ -119,14 +119,14 @@ public class TracerImpl implements Tracer, SystemConfigurationChangeListener {
                 try {
                     long start = System.currentTimeMillis();
                     TracingOutputType tracingOutput = tracingOutputCreator.createTracingOutput(task, result, tracingProfile);
-                    String xml = new TraceWriter(prismContext)
-                            .writeTrace(tracingOutput, file, zip);
+                    long chars = new TraceWriter(prismContext)
+                            .writeTraceIncrementally(tracingOutput, file, zip);
 
                     if (zip) {
-                        LOGGER.info("Trace was written to {} ({} chars uncompressed) in {} milliseconds", file, xml.length(),
+                        LOGGER.info("Trace was written to {} ({} chars uncompressed) in {} milliseconds", file, chars,
                                 System.currentTimeMillis() - start);
                     } else {
-                        LOGGER.info("Trace was written to {} ({} chars) in {} milliseconds", file, xml.length(),
+                        LOGGER.info("Trace was written to {} ({} chars) in {} milliseconds", file, chars,
                                 System.currentTimeMillis() - start);
                     }
 
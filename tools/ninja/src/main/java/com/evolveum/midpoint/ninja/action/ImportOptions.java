@@ -28,6 +28,10 @@ public class ImportOptions extends BaseImportExportOptions implements BasicImpor
 
     public static final String P_CONTINUE_ON_INPUT_ERROR_LONG = "--continue-on-input-error";
 
+    public static final String P_BULK_LONG = "--bulk";
+
+    public static final String P_BULK_BATCH_SIZE_LONG = "--bulk-batch-size";
+
     @Parameter(names = { P_INPUT, P_INPUT_LONG }, descriptionKey = "import.input")
     private File input;
 
@@ -41,6 +45,12 @@ public class ImportOptions extends BaseImportExportOptions implements BasicImpor
     @Parameter(names = { P_CONTINUE_ON_INPUT_ERROR_LONG }, descriptionKey = "import.continueOnInputError")
     private boolean continueOnInputError;
 
+    @Parameter(names = { P_BULK_LONG }, descriptionKey = "import.bulk")
+    private boolean bulk;
+
+    @Parameter(names = { P_BULK_BATCH_SIZE_LONG }, descriptionKey = "import.bulkBatchSize")
+    private int bulkBatchSize = 100;
+
     @Override
     public File getInput() {
         return input;
@@ -59,4 +69,12 @@ public class ImportOptions extends BaseImportExportOptions implements BasicImpor
         return continueOnInputError;
     }
 
+    public boolean isBulk() {
+        return bulk;
+    }
+
+    public int getBulkBatchSize() {
+        return bulkBatchSize;
+    }
+
 }
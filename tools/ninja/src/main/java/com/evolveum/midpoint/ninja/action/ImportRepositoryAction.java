@@ -18,6 +18,8 @@ import com.evolveum.midpoint.ninja.util.NinjaUtils;
 import com.evolveum.midpoint.ninja.util.OperationStatus;
 import com.evolveum.midpoint.prism.query.InOidFilter;
 import com.evolveum.midpoint.prism.query.ObjectFilter;
+import com.evolveum.midpoint.repo.api.RepositoryService;
+import com.evolveum.midpoint.repo.sqale.SqaleRepositoryService;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
 
@@ -74,6 +76,10 @@ public class ImportRepositoryAction extends RepositoryAction<ImportOptions, Void
 
         handleResultOnFinish(null, progress, "Import finished");
 
+        if (progress.hasTypeStatistics()) {
+            log.info("Imported objects per type:{}", progress.printTypeStatistics());
+        }
+
         return null;
     }
 
@@ -95,10 +101,39 @@ public class ImportRepositoryAction extends RepositoryAction<ImportOptions, Void
             BlockingQueue<ObjectType> queue, OperationStatus operation) {
         List<ImportRepositoryConsumerWorker> consumers = new ArrayList<>();
 
+        SqaleRepositoryService bulkRepository = getBulkRepository();
         for (int i = 0; i < options.getMultiThread(); i++) {
-            consumers.add(new ImportRepositoryConsumerWorker(context, options, queue, operation, consumers));
+            consumers.add(new ImportRepositoryConsumerWorker(context, options, queue, operation, consumers, bulkRepository));
         }
 
         return consumers;
     }
+
+    /**
+     * Returns repository for bulk import, if requested and possible.
+     * Org closure doesn't need any special handling, it is refreshed lazily by the repository anyway.
+     */
+    private SqaleRepositoryService getBulkRepository() {
+        if (!options.isBulk()) {
+            return null;
+        }
+
+        if (options.isOverwrite()) {
+            log.warn("Bulk import can't be used with overwrite option, objects will be imported one by one");
+            return null;
+        }
+
+        RepositoryService repository = context.getRepository();
+        if (!(repository instanceof SqaleRepositoryService sqaleRepository)) {
+            log.warn("Bulk import is supported only for the native repository, objects will be imported one by one");
+            return null;
+        }
+
+        if (options.getBulkBatchSize() < 1) {
+            log.warn("Invalid bulk batch size {}, objects will be imported one by one", options.getBulkBatchSize());
+            return null;
+        }
+
+        return sqaleRepository;
+    }
 }
@@ -8,8 +8,9 @@ package com.evolveum.midpoint.ninja.action.trace;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Deque;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -19,8 +20,8 @@ import org.jetbrains.annotations.NotNull;
 
 import com.evolveum.midpoint.ninja.action.RepositoryAction;
 import com.evolveum.midpoint.ninja.impl.NinjaApplicationContextLevel;
-import com.evolveum.midpoint.schema.traces.TraceParser;
-import com.evolveum.midpoint.schema.traces.TraceWriter;
+import com.evolveum.midpoint.schema.traces.StreamingTraceParser;
+import com.evolveum.midpoint.schema.traces.StreamingTraceWriter;
 import com.evolveum.midpoint.util.exception.SchemaException;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.OperationResultType;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.TracingOutputType;
@@ -32,8 +33,6 @@ public class EditTraceAction extends RepositoryAction<EditTraceOptions, Void> {
 
     private static final String DEFAULT_OUTPUT = "output.zip";
 
-    private int killed;
-
     @Override
     public String getOperationName() {
         return "edit trace";
@@ -45,78 +44,136 @@ public class EditTraceAction extends RepositoryAction<EditTraceOptions, Void> {
         return NinjaApplicationContextLevel.NO_REPOSITORY;
     }
 
+    /**
+     * The input is processed by {@link StreamingTraceParser}, so even traces that don't fit into memory can be
+     * analyzed and trimmed down. When both statistics and editing are requested, the input is read twice.
+     */
     @Override
     public Void execute() throws Exception {
-        TracingOutputType trace = parseInput();
         if (options.isPrintStat() || options.isPrintStatExtra()) {
-            printStatistics(trace);
+            printStatistics();
         }
 
         if (CollectionUtils.isNotEmpty(options.getKeep()) || CollectionUtils.isNotEmpty(options.getKill())) {
-            applyKeep(trace);
-            applyKill(trace);
-            writeTrace(trace);
+            editTrace();
         }
 
         return null;
     }
 
-    private TracingOutputType parseInput() throws IOException, SchemaException {
+    private void parseInput(StreamingTraceParser.Visitor visitor) throws IOException, SchemaException {
         String inputFile = options.getInput();
         log.info("Starting parsing input file: {}", inputFile);
 
         long start = System.currentTimeMillis();
-        TraceParser parser = new TraceParser(context.getPrismContext());
-        TracingOutputType trace = parser.parse(new File(inputFile), true);
+        new StreamingTraceParser(context.getPrismContext())
+                .parse(new File(inputFile), visitor);
 
         log.info("Parsing finished; in {} seconds", (System.currentTimeMillis() - start) / 1000);
-        return trace;
     }
 
-    private void printStatistics(TracingOutputType trace) {
-        TraceStatistics statistics = options.isPrintStatExtra() ? TraceStatistics.extra(trace) : TraceStatistics.simple(trace);
+    private void printStatistics() throws IOException, SchemaException {
+        TraceStatistics statistics = options.isPrintStatExtra() ? TraceStatistics.extra() : TraceStatistics.simple();
+        parseInput(statistics);
         log.info("Trace statistics:\n{}", statistics.dump(TraceStatistics.SortBy.SIZE));
     }
 
-    private void applyKeep(TracingOutputType trace) {
-        List<Pattern> patterns = getPatterns(options.getKeep());
-        if (!patterns.isEmpty()) {
-            List<OperationResultType> matchingChildren = new ArrayList<>();
-            applyKeep(trace.getResult(), matchingChildren, patterns);
+    private void editTrace() throws IOException, SchemaException {
+        String output = ObjectUtils.defaultIfNull(options.getOutput(), DEFAULT_OUTPUT);
+        log.info("Starting writing trace to {}", output);
 
-            log.info("Keeping {} matching nodes", matchingChildren.size());
-            trace.getResult().getPartialResults().clear();
-            trace.getResult().getPartialResults().addAll(matchingChildren);
+        EditingVisitor editingVisitor;
+        try (StreamingTraceWriter writer = new StreamingTraceWriter(context.getPrismContext(), new File(output), true)) {
+            editingVisitor = new EditingVisitor(writer, getPatterns(options.getKeep()), getPatterns(options.getKill()));
+            parseInput(editingVisitor);
         }
-    }
 
-    private void applyKeep(OperationResultType result, List<OperationResultType> matchingChildren, List<Pattern> patterns) {
-        for (OperationResultType child : result.getPartialResults()) {
-            if (matches(child, patterns)) {
-                matchingChildren.add(child);
-            } else {
-                applyKeep(child, matchingChildren, patterns);
-            }
+        if (!editingVisitor.keepPatterns.isEmpty()) {
+            log.info("Keeping {} matching nodes", editingVisitor.kept);
         }
+        if (!editingVisitor.killPatterns.isEmpty()) {
+            log.info("Killed {} nodes", editingVisitor.killed);
+        }
+        log.info("Trace written.");
     }
 
-    private void applyKill(TracingOutputType trace) {
-        List<Pattern> patterns = getPatterns(options.getKill());
-        if (!patterns.isEmpty()) {
-            applyKill(trace.getResult(), patterns);
-            log.info("Killed {} nodes", killed);
+    /**
+     * Writes the trace being parsed, applying "keep" and "kill" patterns on the fly.
+     *
+     * Keep: the nodes matching the patterns (with their subtrees) become the only children of the root.
+     * Kill: the nodes matching the patterns are removed, along with their subtrees; this is applied after "keep".
+     * The root is always kept.
+     */
+    private class EditingVisitor implements StreamingTraceParser.Visitor {
+
+        @NotNull private final StreamingTraceWriter writer;
+        @NotNull private final List<Pattern> keepPatterns;
+        @NotNull private final List<Pattern> killPatterns;
+
+        /** For each node entered (i.e. not skipped): was it written to the output? */
+        @NotNull private final Deque<Boolean> written = new ArrayDeque<>();
+
+        /** Depth of the kept node we are in; -1 if none. */
+        private int keptDepth = -1;
+
+        private int kept;
+        private int killed;
+
+        private EditingVisitor(
+                @NotNull StreamingTraceWriter writer, @NotNull List<Pattern> keepPatterns, @NotNull List<Pattern> killPatterns) {
+            this.writer = writer;
+            this.keepPatterns = keepPatterns;
+            this.killPatterns = killPatterns;
         }
-    }
 
-    private void applyKill(OperationResultType result, List<Pattern> patterns) {
-        Iterator<OperationResultType> iterator = result.getPartialResults().iterator();
-        while (iterator.hasNext()) {
-            OperationResultType child = iterator.next();
-            if (matches(child, patterns)) {
-                iterator.remove();
-                killed++;
+        @Override
+        public void visitHeader(@NotNull TracingOutputType header) throws SchemaException, IOException {
+            if (header.getMetadata() != null) {
+                writer.writeItem(TracingOutputType.F_METADATA, header.getMetadata());
+            }
+            if (header.getEnvironment() != null) {
+                writer.writeItem(TracingOutputType.F_ENVIRONMENT, header.getEnvironment());
+            }
+            if (header.getDictionary() != null) {
+                writer.writeItem(TracingOutputType.F_DICTIONARY, header.getDictionary());
+            }
+        }
+
+        @Override
+        public boolean startResult(@NotNull OperationResultType result, int depth) throws SchemaException, IOException {
+            boolean write;
+            if (depth == 0 || keepPatterns.isEmpty() || keptDepth >= 0) {
+                write = true;
+            } else if (matches(result, keepPatterns)) {
+                keptDepth = depth;
+                kept++;
+                write = true;
             } else {
-                applyKill(child, patterns);
+                write = false; // looking for matching nodes deeper in the tree
+            }
+
+            if (write && depth > 0 && matches(result, killPatterns)) {
+                if (keptDepth == depth) {
+                    keptDepth = -1;
+                }
+                killed++;
+                return false;
+            }
+
+            if (write) {
+                writer.startResult(result);
+            }
+            written.push(write);
+            return true;
+        }
+
+        @Override
+        public void endResult(@NotNull OperationResultType result, int depth) throws IOException {
+            if (written.pop()) {
+                writer.endResult();
+            }
+            if (keptDepth == depth) {
+                keptDepth = -1;
             }
         }
     }
@@ -143,11 +200,4 @@ public class EditTraceAction extends RepositoryAction<EditTraceOptions, Void> {
         return template.replace(".", "\\.").replace("*", ".*");
     }
 
-    private void writeTrace(TracingOutputType trace) throws SchemaException, IOException {
-        String output = ObjectUtils.defaultIfNull(options.getOutput(), DEFAULT_OUTPUT);
-        log.info("Starting writing trace to {}", output);
-        new TraceWriter(context.getPrismContext()).writeTrace(trace, new File(output), true);
-        log.info("Trace written.");
-    }
-
 }
@@ -10,17 +10,19 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.jetbrains.annotations.NotNull;
+
 import com.evolveum.midpoint.prism.PrismContext;
+import com.evolveum.midpoint.schema.traces.StreamingTraceParser;
 import com.evolveum.midpoint.schema.util.OperationResultUtil;
 import com.evolveum.midpoint.util.exception.SchemaException;
 import com.evolveum.midpoint.util.exception.SystemException;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.OperationResultType;
-import com.evolveum.midpoint.xml.ns._public.common.common_3.TracingOutputType;
 
 /**
  *
  */
-public class TraceStatistics {
+public class TraceStatistics implements StreamingTraceParser.Visitor {
 
     private final Map<String, Info> operationsMap = new HashMap<>();
 
@@ -30,23 +32,20 @@ public class TraceStatistics {
         this.extra = extra;
     }
 
-    static TraceStatistics extra(TracingOutputType tracingOutput) {
-        TraceStatistics traceStatistics = new TraceStatistics(true);
-        traceStatistics.update(tracingOutput.getResult());
-        return traceStatistics;
+    static TraceStatistics extra() {
+        return new TraceStatistics(true);
     }
 
-    static TraceStatistics simple(TracingOutputType tracingOutput) {
-        TraceStatistics traceStatistics = new TraceStatistics(false);
-        traceStatistics.update(tracingOutput.getResult());
-        return traceStatistics;
+    static TraceStatistics simple() {
+        return new TraceStatistics(false);
     }
 
-    private void update(OperationResultType result) {
+    /** Nodes come one by one from the streaming parser, without their children. */
+    @Override
+    public boolean startResult(@NotNull OperationResultType result, int depth) {
         operationsMap.compute(result.getOperation(),
                 (op, info) -> Info.update(result, info, extra));
-
-        result.getPartialResults().forEach(this::update);
+        return true;
     }
 
     @SuppressWarnings("SameParameterValue")
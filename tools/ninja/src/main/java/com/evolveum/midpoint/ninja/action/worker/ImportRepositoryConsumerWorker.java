@@ -6,12 +6,14 @@
 
 package com.evolveum.midpoint.ninja.action.worker;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
-import com.evolveum.midpoint.ninja.util.NinjaUtils;
-
+import org.jetbrains.annotations.Nullable;
 import org.springframework.context.ApplicationContext;
 
 import com.evolveum.midpoint.common.crypto.CryptoUtil;
@@ -22,6 +24,7 @@ import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.crypto.Protector;
 import com.evolveum.midpoint.repo.api.RepoAddOptions;
 import com.evolveum.midpoint.repo.api.RepositoryService;
+import com.evolveum.midpoint.repo.sqale.SqaleRepositoryService;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
 
@@ -30,10 +33,21 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
  */
 public class ImportRepositoryConsumerWorker extends BaseWorker<ImportOptions, ObjectType> {
 
+    /**
+     * Repository used for bulk import, null if objects are added one by one.
+     * Objects are then grouped per type in {@link #batches} and added in a single transaction per batch.
+     */
+    @Nullable private final SqaleRepositoryService bulkRepository;
+
+    private final Map<Class<? extends ObjectType>, List<PrismObject<? extends ObjectType>>> batches = new HashMap<>();
+
     public ImportRepositoryConsumerWorker(
             NinjaContext context, ImportOptions options, BlockingQueue<ObjectType> queue,
-            OperationStatus operation, List<ImportRepositoryConsumerWorker> consumers) {
+            OperationStatus operation, List<ImportRepositoryConsumerWorker> consumers,
+            @Nullable SqaleRepositoryService bulkRepository) {
         super(context, options, queue, operation, consumers);
+
+        this.bulkRepository = bulkRepository;
     }
 
     @Override
@@ -47,6 +61,8 @@ public class ImportRepositoryConsumerWorker extends BaseWorker<ImportOptions, Ob
                 try {
                     object = queue.poll(CONSUMER_POLL_TIMEOUT, TimeUnit.SECONDS);
                     if (object == null) {
+                        // nothing new for a while, let's not keep the objects waiting
+                        addAllBatches();
                         continue;
                     }
                     PrismObject<? extends ObjectType> prismObject = object.asPrismObject();
@@ -67,6 +83,16 @@ public class ImportRepositoryConsumerWorker extends BaseWorker<ImportOptions, Ob
                         continue;
                     }
 
+                    if (bulkRepository != null) {
+                        List<PrismObject<? extends ObjectType>> batch =
+                                batches.computeIfAbsent(type, k -> new ArrayList<>());
+                        batch.add(prismObject);
+                        if (batch.size() >= options.getBulkBatchSize()) {
+                            addBatch(type, batches.remove(type));
+                        }
+                        continue;
+                    }
+
                     repository.addObject(prismObject, opts, new OperationResult("Import object"));
 
                     operation.incrementTotal();
@@ -75,6 +101,8 @@ public class ImportRepositoryConsumerWorker extends BaseWorker<ImportOptions, Ob
                     operation.incrementError();
                 }
             }
+
+            addAllBatches();
         } catch (Exception ex) {
             operation.finish();
 
@@ -88,6 +116,46 @@ public class ImportRepositoryConsumerWorker extends BaseWorker<ImportOptions, Ob
         }
     }
 
+    private void addAllBatches() {
+        if (bulkRepository == null) {
+            return;
+        }
+
+        new ArrayList<>(batches.keySet()).forEach(type -> addBatch(type, batches.remove(type)));
+    }
+
+    /**
+     * Adds the batch in a single transaction. If that fails, the objects are added one by one,
+     * so that only the problematic objects are reported as errors.
+     */
+    private void addBatch(Class<? extends ObjectType> type, List<PrismObject<? extends ObjectType>> batch) {
+        //noinspection ConstantConditions
+        SqaleRepositoryService repository = bulkRepository;
+        RepoAddOptions opts = createRepoAddOptions(options);
+
+        long start = System.currentTimeMillis();
+        try {
+            repository.addObjectsInBatch(batch, opts, new OperationResult("Import objects"));
+
+            batch.forEach(o -> operation.incrementTotal());
+        } catch (Exception ex) {
+            context.getLog().debug("Couldn't add batch of {} objects of type {}, adding them one by one, reason: {}",
+                    batch.size(), type.getSimpleName(), ex.getMessage());
+
+            for (PrismObject<? extends ObjectType> object : batch) {
+                try {
+                    repository.addObject(object, opts, new OperationResult("Import object"));
+
+                    operation.incrementTotal();
+                } catch (Exception e) {
+                    context.getLog().error("Couldn't add object {}, reason: {}", e, object, e.getMessage());
+                    operation.incrementError();
+                }
+            }
+        }
+        operation.recordTypeProcessed(type.getSimpleName(), batch.size(), System.currentTimeMillis() - start);
+    }
+
     private RepoAddOptions createRepoAddOptions(ImportOptions options) {
         RepoAddOptions opts = new RepoAddOptions();
         opts.setOverwrite(options.isOverwrite());
@@ -6,7 +6,11 @@
 
 package com.evolveum.midpoint.ninja.util;
 
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.evolveum.midpoint.ninja.impl.Log;
 import com.evolveum.midpoint.ninja.impl.LogLevel;
@@ -36,6 +40,9 @@ public class OperationStatus {
 
     private int lastPrintoutCount;
 
+    /** Count and processing time of objects per type, filled only by actions that track it (e.g. bulk import). */
+    private final Map<String, TypeStatistics> typeStatistics = new ConcurrentHashMap<>();
+
     private final OperationResult result;
 
     public OperationStatus(NinjaContext context, OperationResult result) {
@@ -121,6 +128,36 @@ public class OperationStatus {
         skippedCount.incrementAndGet();
     }
 
+    /**
+     * Records objects of specified type processed in given time.
+     * Time from multiple threads is summed, so the rate is per thread.
+     */
+    public void recordTypeProcessed(String type, int count, long durationMillis) {
+        TypeStatistics statistics = typeStatistics.computeIfAbsent(type, k -> new TypeStatistics());
+        statistics.count.addAndGet(count);
+        statistics.time.addAndGet(durationMillis);
+    }
+
+    public boolean hasTypeStatistics() {
+        return !typeStatistics.isEmpty();
+    }
+
+    public String printTypeStatistics() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(typeStatistics).forEach((type, statistics) -> {
+            long count = statistics.count.get();
+            long time = statistics.time.get();
+            sb.append("\n  ")
+                    .append(type)
+                    .append(": ")
+                    .append(count)
+                    .append(", avg.: ")
+                    .append(NinjaUtils.DECIMAL_FORMAT.format(time > 0 ? count * 1000d / time : 0d))
+                    .append(" obj/s per thread");
+        });
+        return sb.toString();
+    }
+
     public double getTotalTime() {
         return (finishTime - startTime) / 1000d;
     }
@@ -165,4 +202,10 @@ public class OperationStatus {
         Log log = context.getLog();
         log.debug(message);
     }
+
+    private static class TypeStatistics {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong time = new AtomicLong();
+    }
 }